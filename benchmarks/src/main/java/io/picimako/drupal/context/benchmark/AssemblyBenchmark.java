@@ -0,0 +1,59 @@
+package io.picimako.drupal.context.benchmark;
+
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.table.TableBasedContentAssembler;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the end-to-end assembly of layouts, from parsing to invoking the steps, against a {@link SimulatedEditor}
+ * without latency, so that only the overhead of the assembly itself is measured.
+ * <p>
+ * The editor and the assemblers are reused by all invocations of a thread, just like an assembler is reused by the
+ * assemblies of a scenario, since assemblers keep no state across assemblies. The operations recorded by the editor are
+ * cleared before each invocation, so that the recording doesn't grow across invocations.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AssemblyBenchmark {
+
+    private SimulatedEditor editor;
+    private ComponentTreeBasedContentAssembler treeViewAssembler;
+    private TableBasedContentAssembler tableAssembler;
+
+    @Setup
+    public void createAssemblers() {
+        editor = SimulatedEditor.withoutLatency();
+        treeViewAssembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        tableAssembler = new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+    }
+
+    @Benchmark
+    public int treeViewAssembly(LayoutState layout) {
+        editor.getRecording().clear();
+        treeViewAssembler.assembleContent(layout.treeView);
+        return editor.getRecording().size();
+    }
+
+    @Benchmark
+    public int tableAssembly(LayoutState layout) {
+        editor.getRecording().clear();
+        tableAssembler.assembleContent(layout.tableRows);
+        return editor.getRecording().size();
+    }
+}
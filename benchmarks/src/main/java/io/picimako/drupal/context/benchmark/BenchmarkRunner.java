@@ -0,0 +1,28 @@
+package io.picimako.drupal.context.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so that besides the throughput, the allocation rate and the garbage
+ * collection counts and times are reported as well.
+ * <p>
+ * It accepts the same arguments as the JMH command line, e.g. {@code ParsingBenchmark -p shape=DEEP -p componentCount=1000}
+ * to run only the parsing benchmarks against the deep layout of 1000 components.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,92 @@
+package io.picimako.drupal.context.benchmark;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentTree;
+import io.picimako.drupal.context.ComponentTreeBranchToCssContextSelectorConverter;
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.treeview.TreeViewBasedNodeCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building the component tree from already parsed nodes, and the resolution of CSS context selectors from
+ * an already built tree, the same way the assemblers resolve them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ComponentTreeBenchmark {
+
+    private final ComponentTree reusableTree = new ComponentTree();
+    private final ComponentTreeBranchToCssContextSelectorConverter converter = new ComponentTreeBranchToCssContextSelectorConverter();
+
+    /**
+     * Adds each component node of a layout to a cleared tree, the same way the assemblers reuse their trees, which includes
+     * calculating the occurrence counts and building the context selectors of the nodes.
+     */
+    @Benchmark
+    public ComponentTree treeBuilding(ParsedLayoutState layout) {
+        reusableTree.clear();
+        ComponentNode previousNode = ComponentNode.ABSENT;
+        for (ComponentNode node : layout.componentNodes) {
+            reusableTree.addNode(node, previousNode);
+            previousNode = node;
+        }
+        return reusableTree;
+    }
+
+    /**
+     * Resolves the context selector of each component node of a layout, and of its parent, from the already built tree,
+     * the same way {@link io.picimako.drupal.context.ComponentContextSetter#resolveContext} does when a plan is compiled.
+     */
+    @Benchmark
+    public void contextSelectorGeneration(ParsedLayoutState layout, Blackhole blackhole) {
+        for (ComponentNode node : layout.componentNodes) {
+            blackhole.consume(converter.convert(layout.tree, node, false));
+            blackhole.consume(converter.convert(layout.tree, node, true));
+        }
+    }
+
+    /**
+     * The component nodes of a layout, parsed once per trial, and the component tree built from them.
+     */
+    @State(Scope.Benchmark)
+    public static class ParsedLayoutState {
+        List<ComponentNode> componentNodes;
+        ComponentTree tree;
+
+        @Setup
+        public void parseLayout(LayoutState layout) {
+            TreeViewBasedNodeCreator nodeCreator = new TreeViewBasedNodeCreator();
+            componentNodes = new ArrayList<>();
+            for (String line : layout.treeViewLines) {
+                Node node = nodeCreator.createNode(line);
+                if (node instanceof ComponentNode) {
+                    componentNodes.add((ComponentNode) node);
+                }
+            }
+            tree = new ComponentTree();
+            ComponentNode previousNode = ComponentNode.ABSENT;
+            for (ComponentNode node : componentNodes) {
+                tree.addNode(node, previousNode);
+                previousNode = node;
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.picimako.drupal.context.benchmark;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentTree;
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.treeview.TreeViewBasedNodeCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the memory footprint of a component tree of 100000 nodes.
+ * <p>
+ * Each invocation builds a new tree from already parsed nodes, so the {@code gc.alloc.rate.norm} reported by the GC
+ * profiler of {@link BenchmarkRunner} is the number of bytes allocated by the tree per build: its backing arrays with all
+ * their growth steps, and the context selectors of the nodes. The nodes themselves are allocated during setup, so they
+ * are not included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComponentTreeFootprintBenchmark {
+
+    @Param("100000")
+    public int componentCount;
+
+    @Param
+    public LayoutShape shape;
+
+    private List<ComponentNode> componentNodes;
+
+    @Setup
+    public void parseLayout() {
+        TreeViewBasedNodeCreator nodeCreator = new TreeViewBasedNodeCreator();
+        componentNodes = new ArrayList<>();
+        shape.generator(componentCount).generateTreeView(line -> {
+            Node node = nodeCreator.createNode(line);
+            if (node instanceof ComponentNode) {
+                componentNodes.add((ComponentNode) node);
+            }
+        });
+    }
+
+    /**
+     * Builds a new tree from the component nodes of the layout.
+     */
+    @Benchmark
+    public ComponentTree treeFootprint() {
+        ComponentTree tree = new ComponentTree();
+        ComponentNode previousNode = ComponentNode.ABSENT;
+        for (ComponentNode node : componentNodes) {
+            tree.addNode(node, previousNode);
+            previousNode = node;
+        }
+        return tree;
+    }
+}
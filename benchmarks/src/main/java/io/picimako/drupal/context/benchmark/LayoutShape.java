@@ -0,0 +1,50 @@
+package io.picimako.drupal.context.benchmark;
+
+import io.picimako.drupal.context.generator.LayoutGenerator;
+import io.picimako.drupal.context.generator.LayoutGeneratorBuilder;
+
+/**
+ * The shapes of the layouts the benchmarks are run against.
+ */
+public enum LayoutShape {
+
+    /**
+     * Layouts nested 50 levels deep, so that branches are long and context selectors are built from many nodes.
+     */
+    DEEP {
+        @Override
+        LayoutGeneratorBuilder configure(LayoutGeneratorBuilder generator) {
+            return generator.depth(50).fanOut(1, 2).carouselRatio(0);
+        }
+    },
+    /**
+     * Layouts holding a thousand images and videos each, so that occurrence counts are high.
+     */
+    WIDE {
+        @Override
+        LayoutGeneratorBuilder configure(LayoutGeneratorBuilder generator) {
+            return generator.depth(3).fanOut(1000, 1000);
+        }
+    },
+    /**
+     * Carousels holding carousel items with images and videos, half of them modified.
+     */
+    CAROUSEL_HEAVY {
+        @Override
+        LayoutGeneratorBuilder configure(LayoutGeneratorBuilder generator) {
+            return generator.depth(4).fanOut(2, 10).carouselRatio(1).modifierRatio(0.5);
+        }
+    };
+
+    /**
+     * Returns a generator of layouts of this shape, having the argument number of components.
+     *
+     * @param componentCount the number of components (paragraphs and modifiers)
+     * @return the layout generator
+     */
+    LayoutGenerator generator(int componentCount) {
+        return configure(LayoutGenerator.builder().componentCount(componentCount)).build();
+    }
+
+    abstract LayoutGeneratorBuilder configure(LayoutGeneratorBuilder generator);
+}
@@ -0,0 +1,38 @@
+package io.picimako.drupal.context.benchmark;
+
+import io.picimako.drupal.context.generator.LayoutGenerator;
+import io.picimako.drupal.context.table.ComponentAndConfiguration;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The layout a benchmark is run against, generated once per trial for each combination of size and shape.
+ */
+@State(Scope.Benchmark)
+public class LayoutState {
+
+    @Param({"10", "1000", "100000"})
+    public int componentCount;
+
+    @Param
+    public LayoutShape shape;
+
+    String treeView;
+    String[] treeViewLines;
+    List<ComponentAndConfiguration> tableRows;
+
+    @Setup
+    public void generateLayout() {
+        LayoutGenerator generator = shape.generator(componentCount);
+        List<String> lines = new ArrayList<>();
+        generator.generateTreeView(lines::add);
+        treeView = String.join("\n", lines);
+        treeViewLines = lines.toArray(new String[0]);
+        tableRows = generator.generateTable();
+    }
+}
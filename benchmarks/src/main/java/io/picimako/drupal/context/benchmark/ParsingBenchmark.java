@@ -0,0 +1,71 @@
+package io.picimako.drupal.context.benchmark;
+
+import io.picimako.drupal.context.ConfigurationNodeConfigParser;
+import io.picimako.drupal.context.table.ComponentAndConfiguration;
+import io.picimako.drupal.context.table.TableBasedNodeCreator;
+import io.picimako.drupal.context.treeview.TreeViewBasedNodeCreator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the parsing of whole layouts into nodes, without building the component tree.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParsingBenchmark {
+
+    private final TreeViewBasedNodeCreator treeViewNodeCreator = new TreeViewBasedNodeCreator();
+    private final TableBasedNodeCreator tableNodeCreator = new TableBasedNodeCreator();
+    private final ConfigurationNodeConfigParser configParser = new ConfigurationNodeConfigParser();
+
+    /**
+     * Parses each line of a tree view layout into a component or a configuration node.
+     */
+    @Benchmark
+    public void treeViewNodeCreation(LayoutState layout, Blackhole blackhole) {
+        for (String line : layout.treeViewLines) {
+            blackhole.consume(treeViewNodeCreator.createNode(line));
+        }
+    }
+
+    /**
+     * Parses the component and configuration cells of each row of a table layout into nodes.
+     */
+    @Benchmark
+    public void tableNodeCreation(LayoutState layout, Blackhole blackhole) {
+        for (ComponentAndConfiguration row : layout.tableRows) {
+            if (row.hasComponentDefinition()) {
+                blackhole.consume(tableNodeCreator.createComponentNode(row.getComponent()));
+            }
+            if (row.hasConfiguration()) {
+                blackhole.consume(tableNodeCreator.createConfigurationNode(row.getConfiguration()));
+            }
+        }
+    }
+
+    /**
+     * Parses the configuration cells of a table layout into key-value pairs.
+     */
+    @Benchmark
+    public void configurationParsing(LayoutState layout, Blackhole blackhole) {
+        for (ComponentAndConfiguration row : layout.tableRows) {
+            if (row.hasConfiguration()) {
+                blackhole.consume(configParser.parseConfigurationValues(row.getConfiguration()));
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.picimako.drupal.context;
+
+/**
+ * Registers the built-in {@link ParagraphNodeType}s and {@link ModifierNodeType}s, mapping them to their mirrored
+ * {@link ComponentContextSelector}s, and to the step definition methods adding and configuring them.
+ * <p>
+ * Carousels and carousel items are added via {@code i_add_X_component}, the same way as images and videos.
+ * <p>
+ * The built-in node types are always registered first, so their ids are the same regardless of what other providers are
+ * on the classpath.
+ */
+final class BuiltInNodeTypeProvider implements NodeTypeProvider {
+
+    @Override
+    public void registerNodeTypes(NodeTypeRegistryBuilder registry) {
+        registry.paragraphTypes(ParagraphNodeType.class).modifierTypes(ModifierNodeType.class);
+        for (ParagraphNodeType type : ParagraphNodeType.values()) {
+            if (type != ParagraphNodeType.ABSENT) {
+                registry.selector(type, type.toContextSelector());
+            }
+        }
+        for (ModifierNodeType type : ModifierNodeType.values()) {
+            registry.selector(type, type.toContextSelector())
+                .adder(type, (parent, node, steps) -> steps.i_add_X_modifier(type));
+        }
+
+        registry.adder(ParagraphNodeType.CONTAINER, (parent, node, steps) -> steps.i_add_a_container())
+            .adder(ParagraphNodeType.LAYOUT, (parent, node, steps) -> steps.i_add_a_layout())
+            .adder(ParagraphNodeType.IMAGE, (parent, node, steps) -> steps.i_add_X_component(ParagraphNodeType.IMAGE))
+            .adder(ParagraphNodeType.CAROUSEL, (parent, node, steps) -> steps.i_add_X_component(ParagraphNodeType.CAROUSEL))
+            .adder(ParagraphNodeType.CAROUSEL_ITEM, (parent, node, steps) -> steps.i_add_X_component(ParagraphNodeType.CAROUSEL_ITEM))
+            .adder(ParagraphNodeType.YOUTUBE_VIDEO, (parent, node, steps) -> steps.i_add_X_component(ParagraphNodeType.YOUTUBE_VIDEO));
+
+        registry.configurers(ParagraphNodeType.IMAGE, ImageComponentConfigurer.IMAGE_COMPONENT_CONFIGURER);
+    }
+}
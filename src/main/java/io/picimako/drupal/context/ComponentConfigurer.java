@@ -1,17 +1,19 @@
 package io.picimako.drupal.context;
 
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
 import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
 
-import java.util.HashMap;
 import java.util.Map;
-import java.util.function.BiConsumer;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
 
 /**
- * Invokes configuration methods that are predefined based on {@link NodeType}s.
+ * Invokes configuration methods that are predefined based on {@link NodeType}s, as registered in the {@link NodeTypeRegistry}.
  */
 public class ComponentConfigurer {
 
-    private static final Map<NodeType, BiConsumer<ConfigurationNode, DrupalConfigurationSteps>> NODE_TYPE_TO_CONFIGURER;
+    private final NodeTypeRegistry nodeTypes = NodeTypeRegistry.registered();
 
     /**
      * Please note that in the current implementation this is not injected anywhere into the current class.
@@ -20,26 +22,43 @@ public class ComponentConfigurer {
      * projects, so it is up to the users how they implement the injection logic.
      */
     private DrupalConfigurationSteps configSteps;
-
-    static {
-        Map<NodeType, BiConsumer<ConfigurationNode, DrupalConfigurationSteps>> configurer = new HashMap<>();
-        configurer.put(ParagraphNodeType.IMAGE, ImageComponentConfigurer::configureImage);
-        NODE_TYPE_TO_CONFIGURER = Map.copyOf(configurer);
-    }
+    private AssemblyProbe probe = AssemblyProbe.DISABLED;
 
     public ComponentConfigurer(DrupalConfigurationSteps configSteps) {
         this.configSteps = configSteps;
     }
 
+    /**
+     * Sets the listener to report the timing of each applied configuration property to.
+     *
+     * @param listener the listener, or {@link AssemblyListener#NONE} to not report anything
+     */
+    public void setListener(AssemblyListener listener) {
+        this.probe = AssemblyProbe.of(listener);
+    }
+
     /**
      * Retrieves the configuration logic for the argument node type and executes the configuration based on the
      * properties in the provided configuration node.
+     * <p>
+     * The properties are applied one by one, in the iteration order of the configurers registered for the node type
+     * in the {@link NodeTypeRegistry}, so that each of them can be timed separately.
      *
      * @param type the node type that is being configured
      * @param node the configuration node that provides configuration properties
+     * @throws IllegalArgumentException when there is no configurer registered for the node type, e.g. for configuration
+     *                                  preceding all components
      */
     public void configure(NodeType type, ConfigurationNode node) {
-        NODE_TYPE_TO_CONFIGURER.get(type).accept(node, configSteps);
+        Map<String, Configurer> propertyConfigurers = nodeTypes.configurersOf(type);
+        check(!propertyConfigurers.isEmpty(), "There is no configurer registered for the node type [" + type + "].");
+        long start = probe.now();
+        for (Map.Entry<String, Configurer> propertyConfigurer : propertyConfigurers.entrySet()) {
+            if (node.hasProperty(propertyConfigurer.getKey())) {
+                propertyConfigurer.getValue().configure(node, configSteps);
+                start = probe.configurationApplied(type, propertyConfigurer.getKey(), start);
+            }
+        }
     }
 
     //Individual component configuration methods, potentially delegating to other step definition or support classes
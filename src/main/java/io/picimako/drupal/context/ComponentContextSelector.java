@@ -1,5 +1,6 @@
 package io.picimako.drupal.context;
 
+import java.util.Arrays;
 import java.util.function.Function;
 
 /**
@@ -33,6 +34,10 @@ import java.util.function.Function;
  * the last IMAGE component is still the second occurrence of IMAGE under its parent, despite that fact that it is the
  * third component under it.
  * <p>
+ * Since the same selectors are requested over and over again for the same occurrence counts, each context selector keeps
+ * a table of its CSS selectors indexed by the occurrence count (see {@link ContextSelectorSegments}), so that
+ * {@link #getCssSelector(long)} is a lookup instead of a string concatenation.
+ * <p>
  * NOTE: the CSS selectors in this class are dummy ones, just to give you a sense what would it look like, and also
  * to be able to properly unit test the thing.
  *
@@ -54,13 +59,54 @@ public enum ComponentContextSelector {
     ABSOLUTE_HEIGHT_MODIFIER(i -> ".height-modifier:nth-child(" + i + ")"),
     COLORS_MODIFIER(i -> ".colors-modifier:nth-child(" + i + ")");
 
-    private final Function<Long, String> selector;
+    private final ContextSelectorSegments segments;
 
     ComponentContextSelector(Function<Long, String> selector) {
-        this.selector = selector;
+        this.segments = new ContextSelectorSegments(selector);
     }
 
     public Function<Long, String> getCssSelector() {
-        return selector;
+        return segments.getSelector();
+    }
+
+    /**
+     * Returns the CSS selector for the argument occurrence count. For occurrence counts up to a limit, the CSS selectors are
+     * built only once, and the same string instances are returned for subsequent requests.
+     *
+     * @param occurrenceCount the occurrence count of the component under its parent
+     * @return the CSS selector
+     * @throws IllegalArgumentException when the occurrence count is not positive
+     */
+    public String getCssSelector(long occurrenceCount) {
+        return segments.getCssSelector(occurrenceCount);
+    }
+
+    ContextSelectorSegments getSegments() {
+        return segments;
+    }
+
+    /**
+     * Returns the context selectors mirroring the argument node types by their names, indexed by the ordinals of the node types.
+     * The element is null for node types that don't have a mirrored context selector.
+     */
+    static ComponentContextSelector[] mirrorsOf(Enum<?>[] nodeTypes) {
+        ComponentContextSelector[] mirrors = new ComponentContextSelector[nodeTypes.length];
+        for (Enum<?> nodeType : nodeTypes) {
+            mirrors[nodeType.ordinal()] = Arrays.stream(values()).filter(s -> s.name().equals(nodeType.name())).findFirst().orElse(null);
+        }
+        return mirrors;
+    }
+
+    /**
+     * Returns the context selector mirroring the argument node type from the argument table created by {@link #mirrorsOf(Enum[])}.
+     *
+     * @throws IllegalArgumentException when the node type doesn't have a mirrored context selector
+     */
+    static ComponentContextSelector mirrorOf(Enum<?> nodeType, ComponentContextSelector[] mirrors) {
+        ComponentContextSelector mirror = mirrors[nodeType.ordinal()];
+        if (mirror == null) {
+            throw new IllegalArgumentException("No enum constant " + ComponentContextSelector.class.getCanonicalName() + "." + nodeType.name());
+        }
+        return mirror;
     }
 }
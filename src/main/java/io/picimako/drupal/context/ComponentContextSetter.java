@@ -26,6 +26,28 @@ public class ComponentContextSetter {
      * @param fromParent  whether to build the context starting from the parent of the current node
      */
     public void setContext(ComponentTree tree, ComponentNode currentNode, boolean fromParent) {
-        steps.i_work_with_X(converter.convert(tree, currentNode, fromParent));
+        setContext(resolveContext(tree, currentNode, fromParent));
+    }
+
+    /**
+     * Builds the context selector for the argument node without setting it, so that it can be set later,
+     * e.g. when an {@link io.picimako.drupal.context.plan.AssemblyPlan} is executed.
+     *
+     * @param tree        the tree to build the context from
+     * @param currentNode the current component node
+     * @param fromParent  whether to build the context starting from the parent of the current node
+     * @return the context selector
+     */
+    public String resolveContext(ComponentTree tree, ComponentNode currentNode, boolean fromParent) {
+        return converter.convert(tree, currentNode, fromParent);
+    }
+
+    /**
+     * Sets the argument, already built, context selector as the component context.
+     *
+     * @param contextSelector the context selector to set
+     */
+    public void setContext(String contextSelector) {
+        steps.i_work_with_X(contextSelector);
     }
 }
@@ -22,7 +22,6 @@ import static java.util.Objects.requireNonNull;
 @ToString
 public class ComponentNode implements Node {
     public static final ComponentNode ABSENT = new ComponentNode();
-
     private final int level;
     private final NodeType type;
     private long occurrenceCountUnderParent = 1;
@@ -0,0 +1,19 @@
+package io.picimako.drupal.context;
+
+/**
+ * Validates component nodes one by one, while they are being parsed for the content assembly.
+ *
+ * @see ComponentTreeBuilder
+ */
+@FunctionalInterface
+public interface ComponentNodeValidator {
+
+    /**
+     * Validates a single, already parsed component node against the component node that was parsed before it.
+     *
+     * @param currentNode  the component node to validate
+     * @param previousNode the previous component node, or {@link ComponentNode#ABSENT} if there is none
+     * @throws IllegalArgumentException when the current node is invalid
+     */
+    void validateNode(ComponentNode currentNode, ComponentNode previousNode);
+}
@@ -1,38 +1,64 @@
 package io.picimako.drupal.context;
 
-import com.google.common.graph.GraphBuilder;
-import com.google.common.graph.MutableGraph;
+import com.google.common.graph.Graph;
 
-import java.util.Iterator;
-import java.util.Optional;
+import java.util.Arrays;
 
 import static io.picimako.drupal.context.ComponentNode.ABSENT;
+import static io.picimako.drupal.context.util.Preconditions.check;
 
 /**
  * An abstract representation of a component tree defined in Gherkin steps from which, after traversal,
  * component context selector can be built.
  * <p>
- * Under the hood it uses a directed {@link MutableGraph} (not allowing self-loops) to store the component nodes
- * and edges between them.
+ * For this particular problem, in the tree each node has only one parent node, and nodes are added in document order,
+ * thus under the hood the tree is stored in parallel primitive arrays indexed by the insertion order of the nodes: the
+ * index of the parent, the level and the {@link NodeTypeRegistry} id of the type of each node, and the index of the
+ * last child and previous sibling of each node, so that children are iterated without scanning the whole tree.
+ * Nodes are looked up without an index: the last added node and the nodes on the {@link OpenBranch}, which are the ones
+ * the assemblers look up, are found in constant time, and other nodes by scanning the tree backwards.
  * <p>
- * For this particular problem, in the tree each node has only one parent node.
+ * Only the nodes on the {@link OpenBranch} can get new children, so both finding the parent of a new node, and
+ * calculating its occurrence count take constant time. Since the occurrence count of a node is then final, the CSS
+ * context selector of each node is also built when it is added, by appending the selector of the node itself to the
+ * already built context selector of its parent.
+ * <p>
+ * A read-only {@link Graph} view of the tree is available via {@link #getGraph()}, for traversal with Guava's graph utilities.
  * <p>
  * {@link ConfigurationNode}s are not stored here, only {@link ComponentNode}s.
  */
 public class ComponentTree {
 
-    private final MutableGraph<ComponentNode> graph;
-    private final ComponentTreeBranchTraverser branchTraverser;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private ComponentNode[] nodes = new ComponentNode[INITIAL_CAPACITY];
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] levels = new int[INITIAL_CAPACITY];
+    private int[] types = new int[INITIAL_CAPACITY];
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+    private int[] previousSiblings = new int[INITIAL_CAPACITY];
+    private String[] contextSelectors = new String[INITIAL_CAPACITY];
+    private int size;
+    private final NodeTypeRegistry nodeTypes = NodeTypeRegistry.registered();
+    private final CssContextSelectorAssembler selectorAssembler = new CssContextSelectorAssembler();
+    private final OpenBranch openBranch = new OpenBranch();
+    private final Graph<ComponentNode> graph;
 
     /**
-     * Creates an empty, directed mutable graph that doesn't allow self-loops.
+     * Creates an empty component tree.
      */
     public ComponentTree() {
-        graph = GraphBuilder.directed().allowsSelfLoops(false).build();
-        branchTraverser = new ComponentTreeBranchTraverser(graph);
+        graph = new ComponentTreeGraphView(this);
     }
 
-    public MutableGraph<ComponentNode> getGraph() {
+    /**
+     * Returns a read-only, live {@link Graph} view of this tree, in which there is a directed edge from each parent node
+     * to each of its children.
+     *
+     * @return the graph view
+     */
+    public Graph<ComponentNode> getGraph() {
         return graph;
     }
 
@@ -57,23 +83,47 @@ public class ComponentTree {
      *
      * @param currentNode  the node to process. At this point it is without any edge to other nodes.
      * @param previousNode the previously process node
+     * @throws IllegalArgumentException when the type of a node is not registered in the {@link NodeTypeRegistry}
      */
     public void addNode(ComponentNode currentNode, ComponentNode previousNode) {
-        graph.addNode(currentNode);
+        //The current node is usually new, so it is only looked up among the last added node and the open branch
+        int current = findOpen(currentNode);
+        current = current != NONE ? current : append(currentNode);
+        int parent = NONE;
+        boolean isCountedUnderParent = false;
         if (previousNode != ABSENT) { //1.
             if (currentNode.isAtRootLevel()) { //2.
                 //Takes into account that if the current node is at root level, then no edge should be created.
-                calculateRootLevelOccurrenceCount(currentNode);
+                currentNode.setOccurrenceCountUnderParent(openBranch.childTypeCount(OpenBranch.ROOT_PARENT_LEVEL, types[current]));
             } else if (currentNode.isOneLevelDeeperThan(previousNode)) { //3.
-                graph.putEdge(previousNode, currentNode);
-            } else if (currentNode.isHigherThan(previousNode)) { //4.
-                createEdgeWithCommonParent(previousNode, currentNode)
-                    .ifPresent(parent -> calculateOccurrenceCountUnderParent(currentNode, parent));
-            } else if (currentNode.isAtSameLevelAs(previousNode)) { //5.
-                createEdgeWithCommonParent(previousNode, currentNode)
-                    .ifPresent(parent -> calculateOccurrenceCountUnderParent(currentNode, parent));
+                parent = indexOrAppend(previousNode);
+                putEdge(parent, current);
+            } else if (currentNode.isHigherThan(previousNode) || currentNode.isAtSameLevelAs(previousNode)) { //4. and 5.
+                parent = findAncestorAtLevel(findChecked(previousNode), levels[current] - 1);
+                if (parent != NONE) {
+                    putEdge(parent, current);
+                    isCountedUnderParent = true;
+                }
             }
         }
+        openBranch(current, parent);
+        if (isCountedUnderParent) {
+            currentNode.setOccurrenceCountUnderParent(openBranch.childTypeCount(levels[parent], types[current]));
+        }
+        contextSelectors[current] = buildContextSelector(current);
+    }
+
+    /**
+     * Removes all nodes from this tree, so that it can be reused for building another tree.
+     * <p>
+     * The arrays backing the tree keep their capacity, so rebuilding a tree of at most the same size and depth doesn't
+     * allocate, and the occurrence counts, including the ones at the root level, start over.
+     */
+    public void clear() {
+        Arrays.fill(nodes, 0, size, null);
+        Arrays.fill(contextSelectors, 0, size, null);
+        size = 0;
+        openBranch.clear();
     }
 
     /**
@@ -82,36 +132,169 @@ public class ComponentTree {
      *
      * @param node the node to get the parent of
      * @return the parent node or {@link ComponentNode#ABSENT}
+     * @throws IllegalArgumentException when the node is not in this tree
      */
     public ComponentNode getParentNode(ComponentNode node) {
         //TODO: in case of modifiers the parent is not the component one level above but the last paragraph component
         // with the same level under its immediate parent
-        Iterator<ComponentNode> iterator = graph.predecessors(node).iterator();
-        return iterator.hasNext() ? iterator.next() : ABSENT;
+        int parent = parents[findChecked(node)];
+        return parent != NONE ? nodes[parent] : ABSENT;
+    }
+
+    /**
+     * Returns the CSS context selector of the argument node, built from the node and all its ancestors, e.g.
+     * {@code .container:nth-child(1) .layout .image-component:nth-child(2)}.
+     *
+     * @param node the node to get the context selector of
+     * @return the context selector
+     * @throws IllegalArgumentException when the node is not in this tree
+     */
+    public String getContextSelector(ComponentNode node) {
+        return contextSelectorAt(findChecked(node));
+    }
+
+    int size() {
+        return size;
+    }
+
+    ComponentNode nodeAt(int index) {
+        return nodes[index];
+    }
+
+    int parentIndexAt(int index) {
+        return parents[index];
+    }
+
+    int lastChildIndexAt(int index) {
+        return lastChildren[index];
+    }
+
+    int previousSiblingIndexAt(int index) {
+        return previousSiblings[index];
+    }
+
+    int indexOf(ComponentNode node) {
+        return find(node);
+    }
+
+    int checkedIndexOf(ComponentNode node) {
+        return findChecked(node);
+    }
+
+    /**
+     * Returns the index of the argument node in this tree, or -1 if it is not in this tree. The last added node and the
+     * nodes on the open branch are found in constant time, other nodes by scanning the tree backwards.
+     */
+    private int find(ComponentNode node) {
+        int index = findOpen(node);
+        for (int i = size - 1; index == NONE && i != NONE; i--) {
+            index = nodes[i] == node ? i : NONE;
+        }
+        return index;
+    }
+
+    private int findOpen(ComponentNode node) {
+        int index = size > 0 && nodes[size - 1] == node ? size - 1 : openBranch.nodeAtLevel(node.getLevel());
+        return index != NONE && nodes[index] == node ? index : NONE;
+    }
+
+    private int findChecked(ComponentNode node) {
+        int index = find(node);
+        check(index != NONE, "Node " + node + " is not an element of this component tree.");
+        return index;
+    }
+
+    private int indexOrAppend(ComponentNode node) {
+        int index = find(node);
+        return index != NONE ? index : append(node);
+    }
+
+    private int append(ComponentNode node) {
+        int type = nodeTypes.idOf(node.getType());
+        check(type != NodeTypeRegistry.NONE, "The node type [" + node.getType() + "] is not registered.");
+        if (size == nodes.length) {
+            grow();
+        }
+        int index = size++;
+        nodes[index] = node;
+        parents[index] = NONE;
+        levels[index] = node.getLevel();
+        types[index] = type;
+        if (node.isAtRootLevel()) {
+            openBranch.countChild(OpenBranch.ROOT_PARENT_LEVEL, type);
+        }
+        lastChildren[index] = NONE;
+        previousSiblings[index] = NONE;
+        return index;
+    }
+
+    private void grow() {
+        int capacity = nodes.length * 2;
+        nodes = Arrays.copyOf(nodes, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        types = Arrays.copyOf(types, capacity);
+        lastChildren = Arrays.copyOf(lastChildren, capacity);
+        previousSiblings = Arrays.copyOf(previousSiblings, capacity);
+        contextSelectors = Arrays.copyOf(contextSelectors, capacity);
     }
 
-    private Optional<ComponentNode> createEdgeWithCommonParent(ComponentNode previousNode, ComponentNode currentNode) {
-        Optional<ComponentNode> parent = branchTraverser.getPredecessorsFromBranchOf(previousNode)
-            .stream()
-            .filter(currentNode::isOneLevelDeeperThan)
-            .findFirst();
-        parent.ifPresent(parentNode -> graph.putEdge(parentNode, currentNode));
-        return parent;
+    private void putEdge(int parent, int child) {
+        if (parents[child] != parent) {
+            parents[child] = parent;
+            previousSiblings[child] = lastChildren[parent];
+            lastChildren[parent] = child;
+            //If the parent is not on the open branch, this count is recalculated when the branch is rebuilt
+            openBranch.countChild(levels[parent], types[child]);
+        }
     }
 
-    private void calculateRootLevelOccurrenceCount(ComponentNode currentNode) {
-        long occurrenceCount = graph.nodes().stream()
-            .filter(ComponentNode::isAtRootLevel)
-            .filter(node -> node.hasSameTypeAs(currentNode))
-            .count();
-        currentNode.setOccurrenceCountUnderParent(occurrenceCount);
+    /**
+     * Returns the ancestor of the argument node at the argument level, or -1 if there is none. The ancestors of the last
+     * added node are looked up directly on the open branch by their levels, otherwise the branch of the node is walked.
+     */
+    private int findAncestorAtLevel(int node, int level) {
+        int ancestor;
+        if (openBranch.isBottom(node, levels[node])) {
+            ancestor = openBranch.nodeAtLevel(level);
+        } else {
+            ancestor = parents[node];
+            while (ancestor != NONE && levels[ancestor] != level) {
+                ancestor = parents[ancestor];
+            }
+        }
+        return ancestor;
+    }
+
+    /**
+     * Makes the argument node the bottom of the open branch. If its parent is not on the open branch, because the previous
+     * node was not the last added one, the open branch is rebuilt from the ancestors of the node, recounting their children.
+     */
+    private void openBranch(int current, int parent) {
+        if (parent != NONE && !openBranch.isOpen(parent, levels[parent])) {
+            for (int ancestor = parent; ancestor != NONE; ancestor = parents[ancestor]) {
+                openBranch.reopen(ancestor, levels[ancestor]);
+                for (int child = lastChildren[ancestor]; child != NONE; child = previousSiblings[child]) {
+                    openBranch.countChild(levels[ancestor], types[child]);
+                }
+            }
+        }
+        openBranch.open(current, levels[current], parent == NONE);
+    }
+
+    /**
+     * Returns the context selector of the node at the argument index. It is built on demand only for nodes that were
+     * added to the tree as previous nodes, without having been added as current nodes before.
+     */
+    private String contextSelectorAt(int index) {
+        if (contextSelectors[index] == null) {
+            contextSelectors[index] = buildContextSelector(index);
+        }
+        return contextSelectors[index];
     }
 
-    private void calculateOccurrenceCountUnderParent(ComponentNode currentNode, ComponentNode parent) {
-        long occurrenceCount = graph.successors(parent)
-            .stream()
-            .filter(node -> node.hasSameTypeAs(currentNode))
-            .count();
-        currentNode.setOccurrenceCountUnderParent(occurrenceCount);
+    private String buildContextSelector(int index) {
+        int parent = parents[index];
+        return selectorAssembler.appendToContextSelector(parent != NONE ? contextSelectorAt(parent) : null, nodes[index]);
     }
 }
@@ -1,14 +1,7 @@
 package io.picimako.drupal.context;
 
-import com.google.common.graph.Traverser;
-
-import java.util.List;
-
-import static java.util.Collections.singletonList;
-
 /**
- * Traverses the current branch of the tree and builds a CSS selector representing the current context on the
- * editor.
+ * Returns the CSS selector representing the current context on the editor, based on the current branch of the tree.
  * <p>
  * Below are some examples (based on the dummy selectors in {@link ComponentContextSelector}) for input tree branches
  * and output CSS selectors:
@@ -46,35 +39,24 @@ import static java.util.Collections.singletonList;
  */
 public class ComponentTreeBranchToCssContextSelectorConverter {
 
-    private final CssContextSelectorAssembler selectorAssembler = new CssContextSelectorAssembler();
-
     /**
-     * Traverses the argument {@code componentTree}, and builds a CSS selector representing the current context
-     * to work with.
-     * <p>
-     * The tree is traversed in a depth-first pre-order way, and only the currently used branch whose starting point is
-     * determined by the following logic:
+     * Returns the CSS selector representing the current context to work with, based on the branch of the argument
+     * {@code componentTree} that ends with the current node (or with its parent).
      * <p>
-     * Get all the predecessors of the currently examined node, then get the one from them that is at the root level.
-     * There must be only one such node.
+     * The context selectors are built by the tree itself when the nodes are added to it, each one from the context selector
+     * of the parent node and the selector of the node itself, so no traversal is needed here, only a lookup.
      * <p>
-     * If the current node is a root level one, then no traversal is needed because it is the only node
-     * in that branch yet.
+     * If the current node is a root level one, then its own context selector is returned even when building the context
+     * from the parent is requested, because it is the only node in that branch.
      *
-     * @param componentTree the tree to traverse
-     * @param currentNode   the node which marks the branch to traverse
+     * @param componentTree the tree the current node is in
+     * @param currentNode   the node which marks the branch to convert
      * @param fromParent    whether to build the context starting from the parent of the current node
      * @return the built CSS context selector
-     * @see Traverser#depthFirstPreOrder(Object)
+     * @throws IllegalArgumentException when the node (or its parent) is not in the tree
      */
     public String convert(ComponentTree componentTree, ComponentNode currentNode, boolean fromParent) {
-        List<ComponentNode> nodes;
-        if (currentNode.isAtRootLevel()) {
-            nodes = singletonList(currentNode);
-        } else {
-            nodes = ComponentTreeBranchTraverser.on(componentTree.getGraph())
-                .getAllNodesFromBranchOfLeaf(fromParent ? componentTree.getParentNode(currentNode) : currentNode);
-        }
-        return selectorAssembler.createCssContextSelectorFrom(nodes);
+        ComponentNode contextNode = fromParent && !currentNode.isAtRootLevel() ? componentTree.getParentNode(currentNode) : currentNode;
+        return componentTree.getContextSelector(contextNode);
     }
 }
@@ -1,6 +1,6 @@
 package io.picimako.drupal.context;
 
-import com.google.common.graph.MutableGraph;
+import com.google.common.graph.Graph;
 
 import java.util.Collections;
 import java.util.LinkedList;
@@ -10,15 +10,22 @@ import java.util.Set;
 /**
  * Traverses a certain branch of the underlying graph starting from a specified node,
  * and collects them into a collection.
+ * <p>
+ * It can be created for a {@link ComponentTree} too, in which case it traverses the graph view of the tree returned by
+ * {@link ComponentTree#getGraph()}.
  */
 public class ComponentTreeBranchTraverser {
 
-    private final MutableGraph<ComponentNode> graph;
+    private final Graph<ComponentNode> graph;
 
-    public ComponentTreeBranchTraverser(MutableGraph<ComponentNode> graph) {
+    public ComponentTreeBranchTraverser(Graph<ComponentNode> graph) {
         this.graph = graph;
     }
 
+    public ComponentTreeBranchTraverser(ComponentTree tree) {
+        this(tree.getGraph());
+    }
+
     /**
      * Returns all predecessors on all levels of the argument node.
      * <p>
@@ -86,10 +93,14 @@ public class ComponentTreeBranchTraverser {
         return nodes;
     }
 
-    public static ComponentTreeBranchTraverser on(MutableGraph<ComponentNode> graph) {
+    public static ComponentTreeBranchTraverser on(Graph<ComponentNode> graph) {
         return new ComponentTreeBranchTraverser(graph);
     }
 
+    public static ComponentTreeBranchTraverser on(ComponentTree tree) {
+        return new ComponentTreeBranchTraverser(tree);
+    }
+
     private boolean hasPredecessor(ComponentNode node) {
         return !graph.predecessors(node).isEmpty();
     }
@@ -0,0 +1,85 @@
+package io.picimako.drupal.context;
+
+import io.picimako.drupal.context.monitoring.AssemblyPhase;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+import io.picimako.drupal.context.monitoring.jfr.LayoutParseEvent;
+import io.picimako.drupal.context.monitoring.jfr.NodeValidationEvent;
+import io.picimako.drupal.context.monitoring.jfr.TreeAddEvent;
+
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Parses the nodes of a layout, validates the Component nodes, and saves them in a {@link ComponentTree}, while reporting
+ * each of these phases to an {@link io.picimako.drupal.context.monitoring.AssemblyListener} and to Java Flight Recorder.
+ * <p>
+ * The content assemblers differ only in how they parse and validate their nodes, so they share the instrumentation
+ * via this class.
+ */
+public final class ComponentTreeBuilder {
+
+    private final ComponentNodeValidator validator;
+    private AssemblyProbe probe = AssemblyProbe.DISABLED;
+
+    /**
+     * Creates a new {@link ComponentTreeBuilder} instance.
+     *
+     * @param validator the validator to validate each Component node with before saving it in the tree
+     */
+    public ComponentTreeBuilder(ComponentNodeValidator validator) {
+        this.validator = requireNonNull(validator);
+    }
+
+    /**
+     * Sets the probe to report the phases to.
+     *
+     * @param probe the probe, or {@link AssemblyProbe#DISABLED} to not report anything
+     */
+    public void setProbe(AssemblyProbe probe) {
+        this.probe = requireNonNull(probe);
+    }
+
+    /**
+     * Parses the argument definition into a node.
+     *
+     * @param nodeParser the parser to parse the definition with
+     * @param definition the definition of a component or configuration
+     * @param sourceLine the line the definition is in
+     * @param <D>        the type of the definition
+     * @param <T>        the type of the parsed node
+     * @return the parsed node
+     */
+    public <D, T extends Node> T parse(Function<D, T> nodeParser, D definition, int sourceLine) {
+        LayoutParseEvent event = new LayoutParseEvent();
+        long start = probe.now();
+        event.begin();
+        T node = nodeParser.apply(definition);
+        event.commit(node, sourceLine);
+        probe.nodeProcessed(AssemblyPhase.PARSE, node, sourceLine, start);
+        return node;
+    }
+
+    /**
+     * Validates the argument Component node against the previous Component node, and saves it in the argument component tree.
+     *
+     * @param currentNode           the component node to validate and save
+     * @param previousComponentNode the previous component node, or {@link ComponentNode#ABSENT} if there is none
+     * @param target                the tree to save the node in
+     * @param sourceLine            the line the node is defined in
+     * @throws IllegalArgumentException when the current node is invalid, in which case it is not saved
+     */
+    public void addNode(ComponentNode currentNode, ComponentNode previousComponentNode, ComponentTree target, int sourceLine) {
+        NodeValidationEvent validationEvent = new NodeValidationEvent();
+        TreeAddEvent treeAddEvent = new TreeAddEvent();
+        long start = probe.now();
+        validationEvent.begin();
+        validator.validateNode(currentNode, previousComponentNode);
+        validationEvent.commit(currentNode, sourceLine);
+        start = probe.nodeProcessed(AssemblyPhase.VALIDATE, currentNode, sourceLine, start);
+        treeAddEvent.begin();
+        target.addNode(currentNode, previousComponentNode);
+        treeAddEvent.commit(currentNode, sourceLine);
+        probe.nodeProcessed(AssemblyPhase.TREE_BUILD, currentNode, sourceLine, start);
+    }
+}
@@ -0,0 +1,102 @@
+package io.picimako.drupal.context;
+
+import com.google.common.graph.AbstractGraph;
+import com.google.common.graph.ElementOrder;
+import com.google.common.graph.Graph;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only, live {@link Graph} view of a {@link ComponentTree}, so that the array based tree can still be traversed
+ * and inspected with Guava's graph utilities, e.g. {@link com.google.common.graph.Traverser}.
+ * <p>
+ * The graph is directed, and has an edge from each parent node to each of its children. Nodes, and the successors of
+ * each node, are iterated in insertion order.
+ */
+final class ComponentTreeGraphView extends AbstractGraph<ComponentNode> {
+
+    private final ComponentTree tree;
+
+    ComponentTreeGraphView(ComponentTree tree) {
+        this.tree = tree;
+    }
+
+    @Override
+    public Set<ComponentNode> nodes() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<ComponentNode> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < tree.size();
+                    }
+
+                    @Override
+                    public ComponentNode next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return tree.nodeAt(index++);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return tree.size();
+            }
+
+            @Override
+            public boolean contains(Object node) {
+                return node instanceof ComponentNode && tree.indexOf((ComponentNode) node) != -1;
+            }
+        };
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public boolean allowsSelfLoops() {
+        return false;
+    }
+
+    @Override
+    public ElementOrder<ComponentNode> nodeOrder() {
+        return ElementOrder.insertion();
+    }
+
+    @Override
+    public Set<ComponentNode> adjacentNodes(ComponentNode node) {
+        Set<ComponentNode> adjacentNodes = new LinkedHashSet<>(predecessors(node));
+        adjacentNodes.addAll(successors(node));
+        return adjacentNodes;
+    }
+
+    @Override
+    public Set<ComponentNode> predecessors(ComponentNode node) {
+        int parent = tree.parentIndexAt(tree.checkedIndexOf(node));
+        return parent != -1 ? Set.of(tree.nodeAt(parent)) : Set.of();
+    }
+
+    @Override
+    public Set<ComponentNode> successors(ComponentNode node) {
+        //Children are linked from the last one backwards, so they are reversed to be returned in insertion order
+        Deque<ComponentNode> successors = new ArrayDeque<>();
+        for (int child = tree.lastChildIndexAt(tree.checkedIndexOf(node)); child != -1; child = tree.previousSiblingIndexAt(child)) {
+            successors.addFirst(tree.nodeAt(child));
+        }
+        return new LinkedHashSet<>(successors);
+    }
+}
@@ -1,6 +1,7 @@
 package io.picimako.drupal.context;
 
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.ToString;
 
 import java.util.Collections;
@@ -20,6 +21,7 @@ import static java.util.Objects.requireNonNull;
 public class ConfigurationNode implements Node {
 
     public static final ConfigurationNode EMPTY = new ConfigurationNode(Collections.emptyMap());
+    @Getter
     private final Map<String, String> configurations;
 
     public ConfigurationNode(Map<String, String> configurations) {
@@ -1,15 +1,10 @@
 package io.picimako.drupal.context;
 
-import java.util.Arrays;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static io.picimako.drupal.context.util.Preconditions.check;
 import static io.picimako.drupal.context.util.StringUtils.isBlank;
-import static java.util.stream.Collectors.toList;
 
 /**
  * Parses a configuration value (consisting of key-value pairs) coming from a {@link ConfigurationNode}
@@ -19,100 +14,160 @@ public class ConfigurationNodeConfigParser {
 
     public static final String CONFIG_ITEM_DELIMITER = ",";
     public static final String CONFIG_KEY_VALUE_DELIMITER = ":";
-    private static final String ESCAPED_CONFIG_ITEM_DELIMITER_PATTERN = "\\\\" + CONFIG_ITEM_DELIMITER;
-    private static final Pattern QUOTED_VALUE_PATTERN = Pattern.compile("^\"(?<value>.*)\"$");
+    private static final char ITEM_DELIMITER = CONFIG_ITEM_DELIMITER.charAt(0);
+    private static final char KEY_VALUE_DELIMITER = CONFIG_KEY_VALUE_DELIMITER.charAt(0);
+    private static final char ESCAPE = '\\';
+    private static final char QUOTE = '"';
+    private static final String MISSING_KEY_OR_VALUE_MESSAGE =
+        "There is at least one configuration entry that doesn't have a key or a value part.";
 
     /**
      * Parses the argument configuration value (consisting of key-value pairs) and collects them in a String/String map.
      * <p>
-     * Leading and trailing whitespaces are trimmed, so it makes the pattern of the configuration values more relaxed.
+     * Leading whitespaces of the keys are trimmed, so it makes the pattern of the configuration values more relaxed.
      * <p>
      * The passed in value is expected in the following format: {@code key:value, otherkey:othervalue} or in certain
      * cases the values might need to be enclosed by quotation marks like {@code key:"value", otherkey:"othervalue"},
      * that is also possible.
+     * <p>
+     * The configuration is processed in a single pass over its characters, without backtracking:
+     * <ul>
+     *     <li>The key-value pairs are separated at commas that are not escaped, e.g. the value
+     *     {@code url:https://duckduckgo.com?param=value, image:someimage} consists of the pairs
+     *     {@code [url:https://duckduckgo.com?param=value]} and {@code [ image:someimage]}.
+     *     Escaping is removed from the escaped commas ({@code \,}), so that the keys and values will not contain them.</li>
+     *     <li>Keys and values are separated at the first colon ({@code :}) of each pair.</li>
+     *     <li>If a value is also enclosed in quotation marks, the actual value is the one between them.</li>
+     * </ul>
+     * Besides the map itself only the final key and value strings are allocated, except when they contain escaped commas.
+     * <p>
+     * Empty key-value pairs at the end of the configuration (e.g. in {@code url:something,,}) are ignored.
      *
      * @param configuration the configuration key-value pairs
      * @return the configuration values collected into a map
-     * @throws IllegalArgumentException when the argument configuration is blank
+     * @throws IllegalArgumentException when the argument configuration is blank,
+     *                                  or when at least one key-value pair doesn't contain a key-value separator
      */
     public Map<String, String> parseConfigurationValues(String configuration) {
         check(!isBlank(configuration), "The configuration value should not be blank.");
-        return splitToKeysAndValues(splitToKeyValuePairs(configuration));
+        return new ConfigurationCursor(configuration).parse();
     }
 
     /**
-     * Splits the input configuration node value to key-value pairs.
-     * <p>
-     * The separation happens at commas that are not escaped, then it removes all escaping from those
-     * commas, so that the input value will not contain them.
-     * <p>
-     * Example:
-     * <p>
-     * The value
-     * <pre>
-     * url:https://duckduckgo.com?param=value, image:someimage
-     * </pre>
-     * is split into the following list items:
-     * <pre>
-     * [url:https://duckduckgo.com?param=value] and [image:someimage]
-     * </pre>
-     *
-     * @param configuration the configuration value of a configuration node
-     * @return the list of key-value pairs
-     * @throws IllegalArgumentException when at least one key-value pair doesn't contain a key-value separator
+     * Walks through the characters of a configuration value once, and tracks the boundaries of the key-value pair
+     * currently being read.
      */
-    private List<String> splitToKeyValuePairs(String configuration) {
-        List<String> keyValuePairs = Arrays.stream(configuration.split("(?<!\\\\)" + CONFIG_ITEM_DELIMITER))
-            .map(kv -> kv.replaceAll(ESCAPED_CONFIG_ITEM_DELIMITER_PATTERN, CONFIG_ITEM_DELIMITER))
-            .collect(toList());
+    private static final class ConfigurationCursor {
+        private final String configuration;
+        private final Map<String, String> keysAndValues = new LinkedHashMap<>();
+        private StringBuilder unescaped;
+        private int pairStart;
+        private int keyValueDelimiter = -1;
+        private boolean isKeyEscaped;
+        private boolean isValueEscaped;
+        private boolean isValueMultiline;
+        private int pendingEmptyPairs;
 
-        check(isAllKeyValuePairHaveKeyValueDelimiter(keyValuePairs),
-            "There is at least one configuration entry that doesn't have a key or a value part.");
-        return keyValuePairs;
-    }
+        ConfigurationCursor(String configuration) {
+            this.configuration = configuration;
+        }
 
-    private boolean isAllKeyValuePairHaveKeyValueDelimiter(List<String> keyValuePairs) {
-        return keyValuePairs.stream().allMatch(kvp -> kvp.contains(CONFIG_KEY_VALUE_DELIMITER));
-    }
+        Map<String, String> parse() {
+            int length = configuration.length();
+            for (int i = 0; i < length; i++) {
+                char c = configuration.charAt(i);
+                if (c == ITEM_DELIMITER) {
+                    if (i > 0 && configuration.charAt(i - 1) == ESCAPE) {
+                        markEscapedDelimiter();
+                    } else {
+                        endPairAt(i);
+                    }
+                } else if (c == KEY_VALUE_DELIMITER && keyValueDelimiter < 0) {
+                    keyValueDelimiter = i;
+                } else if (keyValueDelimiter >= 0 && isLineTerminator(c)) {
+                    isValueMultiline = true;
+                }
+            }
+            endPairAt(length);
+            return keysAndValues;
+        }
 
-    /**
-     * Splits the input key-value pairs into keys and values, and collects them in a Map.
-     * <p>
-     * The keys and values are separated alongside colons ({@code :}).
-     * <p>
-     * Example:
-     * <p>
-     * The values
-     * <pre>
-     * [url:https://duckduckgo.com?param=value] and [image:someimage]
-     * </pre>
-     * are split into the following Map entries:
-     * <pre>
-     * url -> https://duckduckgo.com?param=value
-     * image -> someimage
-     * </pre>
-     *
-     * @param keyValuePairs the key-value pairs to split further
-     * @return the map of configuration key and value entries
-     */
-    private Map<String, String> splitToKeysAndValues(List<String> keyValuePairs) {
-        Map<String, String> split = new LinkedHashMap<>();
-        keyValuePairs.forEach(kvp -> {
-            String[] splitArray = kvp.stripLeading().split(CONFIG_KEY_VALUE_DELIMITER, 2);
-            split.put(splitArray[0], parseValue(splitArray[1]));
-        });
-        return split;
-    }
+        private void markEscapedDelimiter() {
+            if (keyValueDelimiter < 0) {
+                isKeyEscaped = true;
+            } else {
+                isValueEscaped = true;
+            }
+        }
 
-    /**
-     * Retrieves the actual value from the argument configuration value. If the value is also enclosed in
-     * quotation marks, it gets the value from between them.
-     *
-     * @param value a configuration value
-     * @return the actual configuration value
-     */
-    private String parseValue(String value) {
-        Matcher quotedValueMatcher = QUOTED_VALUE_PATTERN.matcher(value);
-        return quotedValueMatcher.matches() ? quotedValueMatcher.group("value") : value;
+        /**
+         * Finishes the current key-value pair. Empty pairs are only collected at this point, because (similarly to
+         * {@link String#split(String)}) the trailing ones are ignored, while the ones followed by actual pairs are invalid.
+         */
+        private void endPairAt(int pairEnd) {
+            if (pairEnd == pairStart) {
+                pendingEmptyPairs++;
+            } else {
+                check(pendingEmptyPairs == 0 && keyValueDelimiter >= 0, MISSING_KEY_OR_VALUE_MESSAGE);
+                keysAndValues.put(key(), value(pairEnd));
+            }
+            pairStart = pairEnd + 1;
+            keyValueDelimiter = -1;
+            isKeyEscaped = false;
+            isValueEscaped = false;
+            isValueMultiline = false;
+        }
+
+        private String key() {
+            int keyStart = pairStart;
+            while (keyStart < keyValueDelimiter && Character.isWhitespace(configuration.charAt(keyStart))) {
+                keyStart++;
+            }
+            return slice(keyStart, keyValueDelimiter, isKeyEscaped);
+        }
+
+        private String value(int pairEnd) {
+            int valueStart = keyValueDelimiter + 1;
+            int valueEnd = pairEnd;
+            if (!isValueMultiline && isQuoted(valueStart, valueEnd)) {
+                valueStart++;
+                valueEnd--;
+            }
+            return slice(valueStart, valueEnd, isValueEscaped);
+        }
+
+        private boolean isQuoted(int valueStart, int valueEnd) {
+            return valueEnd - valueStart >= 2
+                && configuration.charAt(valueStart) == QUOTE
+                && configuration.charAt(valueEnd - 1) == QUOTE;
+        }
+
+        /**
+         * Returns the part of the configuration between the argument indices, removing the escaping of commas if there is
+         * any in that range.
+         */
+        private String slice(int from, int to, boolean isEscaped) {
+            String slice;
+            if (isEscaped) {
+                if (unescaped == null) {
+                    unescaped = new StringBuilder(to - from);
+                }
+                unescaped.setLength(0);
+                for (int i = from; i < to; i++) {
+                    char c = configuration.charAt(i);
+                    if (c != ESCAPE || i + 1 >= to || configuration.charAt(i + 1) != ITEM_DELIMITER) {
+                        unescaped.append(c);
+                    }
+                }
+                slice = unescaped.toString();
+            } else {
+                slice = configuration.substring(from, to);
+            }
+            return slice;
+        }
+
+        private static boolean isLineTerminator(char c) {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
     }
 }
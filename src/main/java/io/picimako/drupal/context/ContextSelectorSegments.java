@@ -0,0 +1,62 @@
+package io.picimako.drupal.context;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * Keeps a table of the CSS selectors of a component indexed by the occurrence count, so that getting the CSS selector for
+ * an occurrence count is a lookup instead of a string concatenation.
+ * <p>
+ * The table is filled upfront for the most common occurrence counts, and grows lazily when larger occurrence counts are
+ * requested, up to a limit above which the CSS selectors are built on each request.
+ */
+final class ContextSelectorSegments {
+
+    private static final int INITIAL_SEGMENT_COUNT = 16;
+    private static final int MAX_SEGMENT_COUNT = 1024;
+
+    private final Function<Long, String> selector;
+    //Indexed by occurrence count, the element at index 0 is unused since occurrence counts start from 1
+    private volatile String[] segments;
+
+    ContextSelectorSegments(Function<Long, String> selector) {
+        this.selector = selector;
+        this.segments = buildSegments(new String[0], INITIAL_SEGMENT_COUNT);
+    }
+
+    Function<Long, String> getSelector() {
+        return selector;
+    }
+
+    /**
+     * Returns the CSS selector for the argument occurrence count.
+     *
+     * @throws IllegalArgumentException when the occurrence count is not positive
+     */
+    String getCssSelector(long occurrenceCount) {
+        String[] current = segments;
+        String segment;
+        if (occurrenceCount > 0 && occurrenceCount < current.length) {
+            segment = current[(int) occurrenceCount];
+        } else if (occurrenceCount > 0 && occurrenceCount < MAX_SEGMENT_COUNT) {
+            //Concurrent growths may build the same selectors more than once, but all of them build equal tables
+            current = buildSegments(current, (int) Math.min(Math.max(occurrenceCount + 1, current.length * 2L), MAX_SEGMENT_COUNT));
+            segments = current;
+            segment = current[(int) occurrenceCount];
+        } else {
+            check(occurrenceCount > 0, "The occurrence count should be greater than 0. It was: [" + occurrenceCount + "].");
+            segment = selector.apply(occurrenceCount);
+        }
+        return segment;
+    }
+
+    private String[] buildSegments(String[] existing, int length) {
+        String[] built = Arrays.copyOf(existing, length);
+        for (int i = Math.max(existing.length, 1); i < length; i++) {
+            built[i] = selector.apply((long) i);
+        }
+        return built;
+    }
+}
@@ -12,15 +12,17 @@ import static java.util.stream.Collectors.joining;
 public class CssContextSelectorAssembler {
 
     private static final String CSS_ANY_CHILD_SEPARATOR = " ";
+    private final NodeTypeRegistry nodeTypes = NodeTypeRegistry.registered();
 
     /**
      * Iterates through the argument nodes and converts each of them to a CSS selector based on the type and
      * the occurrence count of the node, then concatenates all into one CSS selector.
      * <p>
-     * If the CSS selector of a {@link ComponentContextSelector} entry actually uses an index, it will be properly
+     * If the context selector of a node type registered in the {@link NodeTypeRegistry} actually uses an index, it will be properly
      * applied from the occurrence count.
      *
      * @param nodes the tree nodes (from a branch of the tree) to traverse
+     * @return the CSS context selector
      */
     public String createCssContextSelectorFrom(List<ComponentNode> nodes) {
         check(!nodes.isEmpty(), "There is no node to create CSS selector from."
@@ -28,10 +30,21 @@ public class CssContextSelectorAssembler {
         return nodes.stream().map(this::toCssSelector).collect(joining(CSS_ANY_CHILD_SEPARATOR));
     }
 
+    /**
+     * Converts the argument node to a CSS selector based on its type and occurrence count, and appends it to the argument
+     * context selector of the parent of the node.
+     *
+     * @param parentContextSelector the context selector of the parent node, or null if the node doesn't have a parent
+     * @param node                  the node to append the CSS selector of
+     * @return the context selector of the node
+     */
+    public String appendToContextSelector(String parentContextSelector, ComponentNode node) {
+        return parentContextSelector != null
+            ? parentContextSelector + CSS_ANY_CHILD_SEPARATOR + toCssSelector(node)
+            : toCssSelector(node);
+    }
+
     private String toCssSelector(ComponentNode node) {
-        return node.getType()
-                .toContextSelector()
-                .getCssSelector()
-                .apply(node.getOccurrenceCountUnderParent());
+        return nodeTypes.cssSelectorOf(node.getType(), node.getOccurrenceCountUnderParent());
     }
 }
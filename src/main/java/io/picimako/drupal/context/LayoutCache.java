@@ -0,0 +1,39 @@
+package io.picimako.drupal.context;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A cache of values derived from layouts (e.g. compiled assembly plans), keyed by the contents of the layouts.
+ * <p>
+ * Implementations must be thread-safe, and must propagate the failures of the parser to the caller without caching
+ * anything for the layout.
+ *
+ * @param <V> the type of the cached values
+ * @see ParsedLayoutCache
+ */
+public interface LayoutCache<V> {
+
+    /**
+     * Returns the value cached for the argument layout contents, or if there is none, parses the layout with the argument
+     * parser and caches the result.
+     *
+     * @param layout the layout contents, e.g. a tree view based component tree
+     * @param parser the parser to call when the layout is not yet cached
+     * @return the cached or parsed value
+     */
+    V get(CharSequence layout, Supplier<V> parser);
+
+    /**
+     * Returns the value cached for the argument layout contents, or if there is none, parses the layout with the argument
+     * parser and caches the result.
+     * <p>
+     * This is for layouts that consist of multiple parts, e.g. the cells of a data table. The boundaries of the parts are
+     * also taken into account, so e.g. the parts {@code ["ab", "c"]} and {@code ["a", "bc"]} are different layouts.
+     *
+     * @param layoutParts the parts of the layout contents in order
+     * @param parser      the parser to call when the layout is not yet cached
+     * @return the cached or parsed value
+     */
+    V get(List<? extends CharSequence> layoutParts, Supplier<V> parser);
+}
@@ -0,0 +1,234 @@
+package io.picimako.drupal.context;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates through the lines of a component tree lazily, one line at a time, without splitting the whole input into
+ * an array of line copies upfront.
+ * <p>
+ * Lines are separated by {@code \n} characters, and similarly to {@link String#split(String)}, empty lines at the end of
+ * the input are not returned. In order to do that, the cursor looks ahead at most until the next non-empty line.
+ * <p>
+ * The returned lines are {@link CharSequence} views:
+ * <ul>
+ *     <li>when iterating over a {@link CharSequence}, they are backed by the input itself, and they remain valid
+ *     as long as the input is not modified,</li>
+ *     <li>when iterating over a {@link Reader}, they are backed by a single buffer that is reused for each line, thus a line
+ *     is only valid until the next call to {@link #hasNext()} or {@link #next()}. Callers that need to keep a line should
+ *     call {@code toString()} on it.</li>
+ * </ul>
+ * <p>
+ * A cursor doesn't close the underlying {@link Reader}, that is the responsibility of the caller.
+ */
+public final class LineCursor {
+
+    private static final char LINE_SEPARATOR = '\n';
+    private static final String EMPTY_LINE = "";
+
+    private final LineSource source;
+    private CharSequence lookahead;
+    private int pendingEmptyLines;
+
+    private LineCursor(LineSource source) {
+        this.source = source;
+    }
+
+    /**
+     * Creates a cursor iterating over the lines of the argument text.
+     *
+     * @param text the text to iterate over
+     * @return the line cursor
+     */
+    public static LineCursor over(CharSequence text) {
+        return new LineCursor(new CharSequenceLineSource(text));
+    }
+
+    /**
+     * Creates a cursor iterating over the lines read from the argument reader.
+     *
+     * @param reader the reader to read the lines from
+     * @return the line cursor
+     */
+    public static LineCursor over(Reader reader) {
+        return new LineCursor(new ReaderLineSource(reader));
+    }
+
+    /**
+     * Returns whether there is at least one more line to iterate over.
+     * <p>
+     * Consecutive empty lines are only reported as lines if there is a non-empty line after them.
+     *
+     * @return true if there is another line, false otherwise
+     * @throws UncheckedIOException when reading from the underlying reader fails
+     */
+    public boolean hasNext() {
+        if (pendingEmptyLines == 0 && lookahead == null) {
+            CharSequence line = source.nextLine();
+            int emptyLines = 0;
+            while (line != null && line.length() == 0) {
+                emptyLines++;
+                line = source.nextLine();
+            }
+            if (line != null) {
+                lookahead = line;
+                pendingEmptyLines = emptyLines;
+            }
+        }
+        return pendingEmptyLines > 0 || lookahead != null;
+    }
+
+    /**
+     * Returns the next line.
+     *
+     * @return the next line, without the line separator
+     * @throws NoSuchElementException when there is no more line to iterate over
+     * @throws UncheckedIOException   when reading from the underlying reader fails
+     */
+    public CharSequence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("There is no more line in the component tree.");
+        }
+        CharSequence line;
+        if (pendingEmptyLines > 0) {
+            pendingEmptyLines--;
+            line = EMPTY_LINE;
+        } else {
+            line = lookahead;
+            lookahead = null;
+        }
+        return line;
+    }
+
+    /**
+     * Provides the raw lines of the input, including the trailing empty ones.
+     */
+    private interface LineSource {
+
+        /**
+         * Returns the next line, or null if the end of the input is reached.
+         */
+        CharSequence nextLine();
+    }
+
+    /**
+     * Provides lines as views of a {@link CharSequence}.
+     */
+    private static final class CharSequenceLineSource implements LineSource {
+        private final CharSequence text;
+        private int position;
+
+        CharSequenceLineSource(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public CharSequence nextLine() {
+            CharSequence line = null;
+            if (position < text.length()) {
+                int end = position;
+                while (end < text.length() && text.charAt(end) != LINE_SEPARATOR) {
+                    end++;
+                }
+                line = new LineView(text, position, end);
+                position = end + 1;
+            }
+            return line;
+        }
+    }
+
+    /**
+     * Provides lines read from a {@link Reader} into a reused line buffer.
+     */
+    private static final class ReaderLineSource implements LineSource {
+        private static final int CHUNK_SIZE = 8192;
+        private final Reader reader;
+        private final char[] chunk = new char[CHUNK_SIZE];
+        private final StringBuilder line = new StringBuilder();
+        private int chunkPosition;
+        private int chunkLength;
+
+        ReaderLineSource(Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public CharSequence nextLine() {
+            line.setLength(0);
+            boolean isSeparatorFound = false;
+            boolean isAnythingRead = false;
+            while (!isSeparatorFound && fillChunk()) {
+                isAnythingRead = true;
+                int start = chunkPosition;
+                while (chunkPosition < chunkLength && chunk[chunkPosition] != LINE_SEPARATOR) {
+                    chunkPosition++;
+                }
+                line.append(chunk, start, chunkPosition - start);
+                if (chunkPosition < chunkLength) {
+                    isSeparatorFound = true;
+                    chunkPosition++;
+                }
+            }
+            return isAnythingRead ? line : null;
+        }
+
+        /**
+         * Makes sure that there are unprocessed characters in the chunk buffer, and returns false if the end of
+         * the input is reached.
+         */
+        private boolean fillChunk() {
+            if (chunkPosition == chunkLength) {
+                try {
+                    chunkLength = Math.max(reader.read(chunk), 0);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not read the component tree.", e);
+                }
+                chunkPosition = 0;
+            }
+            return chunkPosition < chunkLength;
+        }
+    }
+
+    /**
+     * A read-only view of a region of a {@link CharSequence}, so that lines don't need to be copied.
+     */
+    private static final class LineView implements CharSequence {
+        private final CharSequence text;
+        private final int start;
+        private final int end;
+
+        LineView(CharSequence text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + length());
+            }
+            return text.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            if (from < 0 || to > length() || from > to) {
+                throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") is out of bounds for length " + length());
+            }
+            return new LineView(text, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return text.subSequence(start, end).toString();
+        }
+    }
+}
@@ -6,13 +6,17 @@ package io.picimako.drupal.context;
  * <p>
  * Based on a node type additional validation can be put in place so that certain components cannot be put onto
  * certain level(s) or under certain component(s).
+ * <p>
+ * The mirrored context selectors are looked up once, and are stored by the ordinals of the node types.
  */
 public enum ModifierNodeType implements NodeType {
     ABSOLUTE_HEIGHT_MODIFIER,
     COLORS_MODIFIER;
 
+    private static final ComponentContextSelector[] CONTEXT_SELECTORS = ComponentContextSelector.mirrorsOf(values());
+
     @Override
     public ComponentContextSelector toContextSelector() {
-        return ComponentContextSelector.valueOf(this.name());
+        return ComponentContextSelector.mirrorOf(this, CONTEXT_SELECTORS);
     }
 }
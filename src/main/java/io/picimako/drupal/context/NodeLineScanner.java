@@ -0,0 +1,239 @@
+package io.picimako.drupal.context;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import static io.picimako.drupal.context.ConfigurationNodeConfigParser.CONFIG_ITEM_DELIMITER;
+import static io.picimako.drupal.context.ConfigurationNodeConfigParser.CONFIG_KEY_VALUE_DELIMITER;
+
+/**
+ * Character level scanner that classifies a single line of a tree view layout, or a component cell of a table view layout,
+ * in one pass, without using regular expressions.
+ * <p>
+ * During the scan it counts the level markers, reads the type name and slices out the (inline) configuration part of the
+ * line, so that {@link NodeCreator}s don't need to match the same line against multiple patterns, and inline configurations
+ * don't need to be rebuilt and parsed again as standalone configuration nodes.
+ * <p>
+ * The recognized formats are the following (see also the {@link NodeCreator} implementations):
+ * <ul>
+ *     <li>Paragraph: {@code <level markers> <TYPE>}, and in case of tree view layouts optionally followed by
+ *     {@code  >> <inline configuration>},</li>
+ *     <li>Modifier: {@code <level markers>@ <TYPE>},</li>
+ *     <li>Configuration (only in tree view layouts): {@code <optional level markers>* <configuration>}.</li>
+ * </ul>
+ * where {@code <TYPE>} is an all upper snake case string, and the level marker is {@code -} for tree view based, and {@code >}
+ * for table view based layouts.
+ * <p>
+ * The configuration parts must not contain line terminators, the same way as a {@code .*} regular expression would not
+ * match them.
+ */
+public final class NodeLineScanner {
+
+    public static final char TREE_VIEW_LEVEL_MARKER = '-';
+    public static final char TABLE_LEVEL_MARKER = '>';
+    private static final char MODIFIER_MARKER = '@';
+    private static final char CONFIGURATION_MARKER = '*';
+    private static final char SEPARATOR = ' ';
+    private static final String INLINE_CONFIG_SEPARATOR = " >> ";
+    private static final ScannedLine INVALID_LINE = new ScannedLine(LineKind.INVALID, 0, null, null);
+
+    private final char levelMarker;
+    private final boolean isTreeView;
+
+    private NodeLineScanner(char levelMarker) {
+        this.levelMarker = levelMarker;
+        this.isTreeView = levelMarker == TREE_VIEW_LEVEL_MARKER;
+    }
+
+    /**
+     * Creates a scanner for lines of tree view based layouts, recognizing paragraphs (with optional inline configuration),
+     * modifiers and configuration nodes.
+     *
+     * @return the scanner
+     */
+    public static NodeLineScanner forTreeView() {
+        return new NodeLineScanner(TREE_VIEW_LEVEL_MARKER);
+    }
+
+    /**
+     * Creates a scanner for component cells of table view based layouts, recognizing paragraphs and modifiers.
+     *
+     * @return the scanner
+     */
+    public static NodeLineScanner forTable() {
+        return new NodeLineScanner(TABLE_LEVEL_MARKER);
+    }
+
+    /**
+     * Scans the argument line and classifies it.
+     * <p>
+     * If the line matches none of the supported formats, the returned line has the kind {@link LineKind#INVALID}.
+     *
+     * @param line the line to scan
+     * @return the result of the scan
+     */
+    public ScannedLine scan(CharSequence line) {
+        int length = line.length();
+        int level = 0;
+        while (level < length && line.charAt(level) == levelMarker) {
+            level++;
+        }
+        ScannedLine scanned = INVALID_LINE;
+        if (level < length) {
+            char marker = line.charAt(level);
+            if (marker == SEPARATOR && level > 0) {
+                scanned = scanParagraph(line, level);
+            } else if (marker == MODIFIER_MARKER && level > 0) {
+                scanned = scanModifier(line, level);
+            } else if (marker == CONFIGURATION_MARKER && isTreeView) {
+                scanned = scanConfiguration(line, level);
+            }
+        }
+        return scanned;
+    }
+
+    private ScannedLine scanParagraph(CharSequence line, int level) {
+        int typeStart = level + 1;
+        int typeEnd = typeEndOf(line, typeStart);
+        ScannedLine scanned = INVALID_LINE;
+        if (typeEnd > typeStart) {
+            if (typeEnd == line.length()) {
+                scanned = new ScannedLine(LineKind.PARAGRAPH, level, line.subSequence(typeStart, typeEnd).toString(), null);
+            } else if (isTreeView && regionEquals(line, typeEnd, INLINE_CONFIG_SEPARATOR)) {
+                int configStart = typeEnd + INLINE_CONFIG_SEPARATOR.length();
+                if (!containsLineTerminator(line, configStart)) {
+                    scanned = new ScannedLine(LineKind.PARAGRAPH, level,
+                        line.subSequence(typeStart, typeEnd).toString(), line.subSequence(configStart, line.length()).toString());
+                }
+            }
+        }
+        return scanned;
+    }
+
+    private ScannedLine scanModifier(CharSequence line, int level) {
+        int typeStart = level + 2;
+        ScannedLine scanned = INVALID_LINE;
+        if (typeStart < line.length() && line.charAt(level + 1) == SEPARATOR) {
+            int typeEnd = typeEndOf(line, typeStart);
+            if (typeEnd > typeStart && typeEnd == line.length()) {
+                scanned = new ScannedLine(LineKind.MODIFIER, level, line.subSequence(typeStart, typeEnd).toString(), null);
+            }
+        }
+        return scanned;
+    }
+
+    private ScannedLine scanConfiguration(CharSequence line, int level) {
+        int configStart = level + 2;
+        ScannedLine scanned = INVALID_LINE;
+        if (configStart <= line.length() && line.charAt(level + 1) == SEPARATOR && !containsLineTerminator(line, configStart)) {
+            scanned = new ScannedLine(LineKind.CONFIGURATION, level, null, line.subSequence(configStart, line.length()).toString());
+        }
+        return scanned;
+    }
+
+    /**
+     * Returns the index right after the last upper snake case character starting from {@code from}.
+     */
+    private static int typeEndOf(CharSequence line, int from) {
+        int index = from;
+        while (index < line.length() && isTypeCharacter(line.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isTypeCharacter(char c) {
+        return c >= 'A' && c <= 'Z' || c == '_';
+    }
+
+    private static boolean regionEquals(CharSequence line, int from, String expected) {
+        boolean equals = from + expected.length() <= line.length();
+        for (int i = 0; equals && i < expected.length(); i++) {
+            equals = line.charAt(from + i) == expected.charAt(i);
+        }
+        return equals;
+    }
+
+    //------------ Configuration helpers ------------
+
+    /**
+     * Returns whether the argument text contains a line terminator character, which a {@code .} in a regular expression
+     * wouldn't match.
+     *
+     * @param text the text to inspect
+     * @return true if there is at least one line terminator in the text, false otherwise
+     */
+    public static boolean containsLineTerminator(CharSequence text) {
+        return containsLineTerminator(text, 0);
+    }
+
+    private static boolean containsLineTerminator(CharSequence text, int from) {
+        boolean found = false;
+        for (int i = from; !found && i < text.length(); i++) {
+            char c = text.charAt(i);
+            found = c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+        return found;
+    }
+
+    /**
+     * Returns whether the argument configuration contains at least one key-value delimiter.
+     *
+     * @param configuration the configuration to inspect
+     * @return true if the configuration has a key-value delimiter, false otherwise
+     */
+    public static boolean hasKeyValueDelimiter(CharSequence configuration) {
+        boolean found = false;
+        for (int i = 0; !found && i < configuration.length(); i++) {
+            found = configuration.charAt(i) == CONFIG_KEY_VALUE_DELIMITER.charAt(0);
+        }
+        return found;
+    }
+
+    /**
+     * Returns whether the argument configuration ends with a configuration item delimiter, optionally followed by
+     * whitespaces.
+     *
+     * @param configuration the configuration to inspect
+     * @return true if the configuration ends with an item delimiter, false otherwise
+     */
+    public static boolean endsWithItemDelimiter(CharSequence configuration) {
+        int index = configuration.length() - 1;
+        while (index >= 0 && configuration.charAt(index) == SEPARATOR) {
+            index--;
+        }
+        return index >= 0 && configuration.charAt(index) == CONFIG_ITEM_DELIMITER.charAt(0);
+    }
+
+    /**
+     * The kinds of lines the scanner can recognize.
+     */
+    public enum LineKind {
+        PARAGRAPH,
+        MODIFIER,
+        CONFIGURATION,
+        INVALID
+    }
+
+    /**
+     * The result of scanning a single line.
+     * <p>
+     * The type name is available only for paragraphs and modifiers, while the configuration is available for configuration
+     * lines, and paragraphs that have inline configuration.
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class ScannedLine {
+        private final LineKind kind;
+        private final int level;
+        private final String typeName;
+        private final String configuration;
+
+        public boolean hasConfiguration() {
+            return configuration != null;
+        }
+    }
+}
@@ -2,13 +2,22 @@ package io.picimako.drupal.context;
 
 /**
  * Represents the type of a {@link ComponentNode}.
+ * <p>
+ * Node types are enum constants registered in the {@link NodeTypeRegistry}, either as built-in ones, or via
+ * {@link NodeTypeProvider}s.
  */
 public interface NodeType {
 
     /**
      * Converts this node type to a {@link ComponentContextSelector} based on its name.
+     * <p>
+     * Node types registered via {@link NodeTypeProvider}s don't need to mirror a built-in context selector, since their
+     * context selectors are registered in the {@link NodeTypeRegistry}, so by default this method throws an exception.
      *
      * @return the component context selector
+     * @throws IllegalArgumentException when this node type doesn't have a mirrored context selector
      */
-    ComponentContextSelector toContextSelector();
+    default ComponentContextSelector toContextSelector() {
+        throw new IllegalArgumentException("The node type [" + this + "] doesn't have a mirrored component context selector.");
+    }
 }
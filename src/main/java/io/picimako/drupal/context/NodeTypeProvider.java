@@ -0,0 +1,31 @@
+package io.picimako.drupal.context;
+
+/**
+ * Service provider interface for registering site-specific {@link NodeType}s in the {@link NodeTypeRegistry}, without
+ * having to modify the built-in {@link ParagraphNodeType} and {@link ModifierNodeType} enums.
+ * <p>
+ * Providers are discovered via {@link java.util.ServiceLoader}, so implementations have to be listed in a
+ * {@code META-INF/services/io.picimako.drupal.context.NodeTypeProvider} file on the classpath, and must have a public no-arg
+ * constructor:
+ * <pre>
+ * public class SiteNodeTypeProvider implements NodeTypeProvider {
+ *
+ *     public void registerNodeTypes(NodeTypeRegistryBuilder registry) {
+ *         registry.paragraphTypes(SiteParagraphNodeType.class)
+ *             .selector(SiteParagraphNodeType.QUOTE, i -&gt; ".quote:nth-child(" + i + ")")
+ *             .adder(SiteParagraphNodeType.QUOTE, (parent, node, steps) -&gt; ((SitePageSteps) steps).i_add_a_quote());
+ *     }
+ * }
+ * </pre>
+ * The providers are invoked only once, when the registry is first used, after which the registry cannot be modified.
+ */
+@FunctionalInterface
+public interface NodeTypeProvider {
+
+    /**
+     * Registers the node types of this provider, along with their context selectors, adders and configurers.
+     *
+     * @param registry the registry to register the node types in
+     */
+    void registerNodeTypes(NodeTypeRegistryBuilder registry);
+}
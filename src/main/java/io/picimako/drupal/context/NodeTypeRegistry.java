@@ -0,0 +1,231 @@
+package io.picimako.drupal.context;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.picimako.drupal.context.ComponentAdder.ComponentInserter;
+import io.picimako.drupal.context.ComponentConfigurer.Configurer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * An immutable registry of the {@link NodeType}s that can be used in component trees, along with the context selector,
+ * the adder and the property configurers of each of them.
+ * <p>
+ * The registry contains the built-in {@link ParagraphNodeType}s and {@link ModifierNodeType}s, and the node types registered
+ * by the {@link NodeTypeProvider}s found via {@link java.util.ServiceLoader}. Node types are registered as whole enums,
+ * and each node type gets a dense integer id: the constants of each enum get consecutive ids in the order of their ordinals,
+ * following the constants of the previously registered enums. The context selectors, adders and configurers are stored
+ * in arrays indexed by these ids, so looking them up for a node type takes an array lookup, without hashing the node type.
+ * The first id of each enum is resolved only once per enum, and cached in a {@link ClassValue}, so resolving the id of
+ * a node type doesn't depend on the number of registered enums either.
+ * <p>
+ * The registry is populated once, when it is first used via {@link #registered()}, after which it is frozen, so it can be
+ * used by any number of threads concurrently, without locking.
+ */
+public final class NodeTypeRegistry {
+
+    /**
+     * The id of node types that are not registered.
+     */
+    public static final int NONE = -1;
+
+    private final Map<Class<?>, Integer> firstIdsByClass;
+    private final ClassValue<Integer> firstIds = new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> typeClass) {
+            return firstIdsByClass.getOrDefault(typeClass, NONE);
+        }
+    };
+    private final NodeType[] types;
+    private final ContextSelectorSegments[] selectors;
+    private final ComponentInserter[] adders;
+    private final List<Map<String, Configurer>> configurers;
+    private final Map<String, NodeType> paragraphTypesByName;
+    private final Map<String, NodeType> modifierTypesByName;
+    private final long fingerprint;
+
+    NodeTypeRegistry(NodeTypeRegistryBuilder builder) {
+        this.firstIdsByClass = Map.copyOf(builder.getFirstIds());
+        this.types = builder.getTypes().toArray(new NodeType[0]);
+        this.selectors = builder.getSelectors().toArray(new ContextSelectorSegments[0]);
+        this.adders = builder.getAdders().toArray(new ComponentInserter[0]);
+        this.configurers = List.copyOf(builder.getConfigurers());
+        this.paragraphTypesByName = Map.copyOf(builder.getParagraphTypesByName());
+        this.modifierTypesByName = Map.copyOf(builder.getModifierTypesByName());
+        this.fingerprint = calculateFingerprint();
+    }
+
+    /**
+     * Returns the registry of the built-in node types and the node types of the {@link NodeTypeProvider}s on the classpath.
+     * The providers are loaded when this method is first called.
+     *
+     * @return the registry
+     */
+    public static NodeTypeRegistry registered() {
+        return Registered.INSTANCE;
+    }
+
+    /**
+     * Returns a builder that already contains the built-in node types.
+     */
+    static NodeTypeRegistryBuilder builder() {
+        NodeTypeRegistryBuilder builder = new NodeTypeRegistryBuilder();
+        new BuiltInNodeTypeProvider().registerNodeTypes(builder);
+        return builder;
+    }
+
+    /**
+     * Returns the number of registered node types, which is also the upper bound (exclusive) of their ids.
+     *
+     * @return the number of node types
+     */
+    public int size() {
+        return types.length;
+    }
+
+    /**
+     * Returns the id of the argument node type.
+     *
+     * @param type the node type
+     * @return the id of the node type, or {@link #NONE} if the node type is not registered
+     */
+    public int idOf(NodeType type) {
+        int id = NONE;
+        if (type instanceof Enum) {
+            Enum<?> constant = (Enum<?>) type;
+            int firstId = firstIds.get(constant.getDeclaringClass());
+            id = firstId != NONE ? firstId + constant.ordinal() : NONE;
+        }
+        return id;
+    }
+
+    /**
+     * Returns the node type with the argument id.
+     *
+     * @param id the id of the node type
+     * @return the node type
+     * @throws IllegalArgumentException when there is no node type with the argument id
+     */
+    public NodeType typeOf(int id) {
+        check(id >= 0 && id < types.length, "There is no node type registered with the id [" + id + "].");
+        return types[id];
+    }
+
+    /**
+     * Returns the paragraph node type with the argument name.
+     *
+     * @param name the name of the node type
+     * @return the node type
+     * @throws IllegalArgumentException when there is no paragraph node type registered with the argument name
+     */
+    public NodeType paragraphType(String name) {
+        NodeType type = paragraphTypesByName.get(name);
+        check(type != null, "There is no paragraph node type registered with the name [" + name + "].");
+        return type;
+    }
+
+    /**
+     * Returns the modifier node type with the argument name.
+     *
+     * @param name the name of the node type
+     * @return the node type
+     * @throws IllegalArgumentException when there is no modifier node type registered with the argument name
+     */
+    public NodeType modifierType(String name) {
+        NodeType type = modifierTypesByName.get(name);
+        check(type != null, "There is no modifier node type registered with the name [" + name + "].");
+        return type;
+    }
+
+    /**
+     * Returns the CSS selector of a component of the argument type with the argument occurrence count under its parent.
+     * <p>
+     * For node types that are not registered, or don't have a registered context selector, it falls back to
+     * {@link NodeType#toContextSelector()}.
+     *
+     * @param type            the node type
+     * @param occurrenceCount the occurrence count of the component under its parent
+     * @return the CSS selector
+     * @throws IllegalArgumentException when the node type doesn't have a context selector, or the occurrence count is not positive
+     */
+    public String cssSelectorOf(NodeType type, long occurrenceCount) {
+        int id = idOf(type);
+        return id != NONE && selectors[id] != null
+            ? selectors[id].getCssSelector(occurrenceCount)
+            : type.toContextSelector().getCssSelector(occurrenceCount);
+    }
+
+    /**
+     * Returns the adder of the argument node type.
+     *
+     * @param type the node type
+     * @return the adder
+     * @throws IllegalArgumentException when the node type is not registered, or it doesn't have an adder
+     */
+    public ComponentInserter adderOf(NodeType type) {
+        ComponentInserter adder = adders[registeredIdOf(type)];
+        check(adder != null, "There is no adder registered for the node type [" + type + "].");
+        return adder;
+    }
+
+    /**
+     * Returns the property configurers of the argument node type, keyed by the names of the properties.
+     *
+     * @param type the node type
+     * @return the property configurers, or an empty map if the node type cannot be configured
+     * @throws IllegalArgumentException when the node type is not registered
+     */
+    public Map<String, Configurer> configurersOf(NodeType type) {
+        return configurers.get(registeredIdOf(type));
+    }
+
+    /**
+     * Returns a fingerprint of the registered node types, calculated from their ids, names, kinds, and the CSS selectors
+     * their context selectors produce, so that data referring to node types by their ids (e.g. persisted plans) can be
+     * recognized as stale when the registered node types change.
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    private long calculateFingerprint() {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (int id = 0; id < types.length; id++) {
+            String name = ((Enum<?>) types[id]).name();
+            hasher.putUnencodedChars(name).putBoolean(modifierTypesByName.get(name) == types[id]);
+            if (selectors[id] != null) {
+                //Selectors are functions, so they are identified by the selectors they produce for a few sample occurrence counts
+                hasher.putUnencodedChars(selectors[id].getCssSelector(1)).putUnencodedChars(selectors[id].getCssSelector(2));
+            }
+            hasher.putChar('\n');
+        }
+        return hasher.hash().asLong();
+    }
+
+    private int registeredIdOf(NodeType type) {
+        int id = idOf(type);
+        check(id != NONE, "The node type [" + type + "] is not registered.");
+        return id;
+    }
+
+    /**
+     * Loads the registry when it is first used.
+     */
+    private static final class Registered {
+        private static final NodeTypeRegistry INSTANCE = load();
+
+        private static NodeTypeRegistry load() {
+            NodeTypeRegistryBuilder builder = builder();
+            for (NodeTypeProvider provider : ServiceLoader.load(NodeTypeProvider.class)) {
+                provider.registerNodeTypes(builder);
+            }
+            return builder.build();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.picimako.drupal.context;
+
+import io.picimako.drupal.context.ComponentAdder.ComponentInserter;
+import io.picimako.drupal.context.ComponentConfigurer.Configurer;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Collects the node types, along with their context selectors, adders and configurers, for building a {@link NodeTypeRegistry}.
+ */
+@Getter(AccessLevel.PACKAGE)
+public final class NodeTypeRegistryBuilder {
+
+    private final Map<Class<?>, Integer> firstIds = new HashMap<>();
+    private final List<NodeType> types = new ArrayList<>();
+    private final List<ContextSelectorSegments> selectors = new ArrayList<>();
+    private final List<ComponentInserter> adders = new ArrayList<>();
+    private final List<Map<String, Configurer>> configurers = new ArrayList<>();
+    private final Map<String, NodeType> paragraphTypesByName = new HashMap<>();
+    private final Map<String, NodeType> modifierTypesByName = new HashMap<>();
+
+    NodeTypeRegistryBuilder() {
+    }
+
+    /**
+     * Registers the constants of the argument enum as paragraph node types.
+     *
+     * @param typeClass the enum of the node types
+     * @param <T>       the type of the enum
+     * @return this builder
+     * @throws IllegalArgumentException when the enum is already registered, or a paragraph node type is already registered
+     *                                  with the name of one of its constants
+     */
+    public <T extends Enum<T> & NodeType> NodeTypeRegistryBuilder paragraphTypes(Class<T> typeClass) {
+        return register(typeClass, paragraphTypesByName, "paragraph");
+    }
+
+    /**
+     * Registers the constants of the argument enum as modifier node types.
+     *
+     * @param typeClass the enum of the node types
+     * @param <T>       the type of the enum
+     * @return this builder
+     * @throws IllegalArgumentException when the enum is already registered, or a modifier node type is already registered
+     *                                  with the name of one of its constants
+     */
+    public <T extends Enum<T> & NodeType> NodeTypeRegistryBuilder modifierTypes(Class<T> typeClass) {
+        return register(typeClass, modifierTypesByName, "modifier");
+    }
+
+    /**
+     * Sets the context selector of the argument node type, which builds the CSS selector of a component of that type
+     * from its occurrence count under its parent.
+     *
+     * @param type     the node type
+     * @param selector the context selector
+     * @return this builder
+     * @throws IllegalArgumentException when the node type is not registered
+     */
+    public NodeTypeRegistryBuilder selector(NodeType type, Function<Long, String> selector) {
+        selectors.set(registeredIdOf(type), new ContextSelectorSegments(requireNonNull(selector)));
+        return this;
+    }
+
+    /**
+     * Sets the context selector of the argument node type to a built-in context selector.
+     *
+     * @param type     the node type
+     * @param selector the context selector
+     * @return this builder
+     * @throws IllegalArgumentException when the node type is not registered
+     */
+    public NodeTypeRegistryBuilder selector(NodeType type, ComponentContextSelector selector) {
+        selectors.set(registeredIdOf(type), selector.getSegments());
+        return this;
+    }
+
+    /**
+     * Sets the adder of the argument node type, which invokes the step definition methods adding a component of that type.
+     *
+     * @param type  the node type
+     * @param adder the adder
+     * @return this builder
+     * @throws IllegalArgumentException when the node type is not registered
+     */
+    public NodeTypeRegistryBuilder adder(NodeType type, ComponentInserter adder) {
+        adders.set(registeredIdOf(type), requireNonNull(adder));
+        return this;
+    }
+
+    /**
+     * Sets the property configurers of the argument node type. The configurers are applied in the iteration order
+     * of the argument map, which is copied, so later changes to it don't affect the registry.
+     *
+     * @param type        the node type
+     * @param configurers the property configurers keyed by the names of the properties
+     * @return this builder
+     * @throws IllegalArgumentException when the node type is not registered
+     */
+    public NodeTypeRegistryBuilder configurers(NodeType type, Map<String, Configurer> configurers) {
+        this.configurers.set(registeredIdOf(type), Collections.unmodifiableMap(new LinkedHashMap<>(configurers)));
+        return this;
+    }
+
+    NodeTypeRegistry build() {
+        return new NodeTypeRegistry(this);
+    }
+
+    private <T extends Enum<T> & NodeType> NodeTypeRegistryBuilder register(Class<T> typeClass, Map<String, NodeType> typesByName, String kind) {
+        check(!firstIds.containsKey(typeClass), "The node types of [" + typeClass.getName() + "] are already registered.");
+        T[] constants = typeClass.getEnumConstants();
+        for (T constant : constants) {
+            check(!typesByName.containsKey(constant.name()),
+                "There is already a " + kind + " node type registered with the name [" + constant.name() + "].");
+        }
+        firstIds.put(typeClass, types.size());
+        for (T constant : constants) {
+            typesByName.put(constant.name(), constant);
+            types.add(constant);
+            selectors.add(null);
+            adders.add(null);
+            configurers.add(Map.of());
+        }
+        return this;
+    }
+
+    private int registeredIdOf(NodeType type) {
+        int id = types.indexOf(type);
+        check(id != NodeTypeRegistry.NONE, "The node type [" + type + "] should be registered before setting its properties.");
+        return id;
+    }
+}
@@ -0,0 +1,120 @@
+package io.picimako.drupal.context;
+
+import java.util.Arrays;
+
+/**
+ * The open branch of a {@link ComponentTree}, which is the last added node and its ancestors, indexed by the levels of
+ * the nodes, along with the number of children per type of each node on it. Root level nodes are counted as the children
+ * of {@link #ROOT_PARENT_LEVEL}.
+ * <p>
+ * Since nodes are added in document order, only the nodes on the open branch can get new children, so keeping these
+ * counts makes both finding the parent of a new node, and calculating its occurrence count take constant time.
+ * <p>
+ * Nodes are referenced by their indices in the tree, and types by their ids in the {@link NodeTypeRegistry}.
+ */
+final class OpenBranch {
+
+    static final int ROOT_PARENT_LEVEL = 0;
+    private static final int INITIAL_DEPTH = 8;
+    private static final int INITIAL_TYPE_COUNT = 8;
+    private static final int NONE = -1;
+
+    private int[] branch = new int[INITIAL_DEPTH];
+    private int top;
+    private int bottom;
+    //The number of children per type of each node on the open branch, indexed by the levels of the nodes
+    private int[][] childTypeCounts = new int[INITIAL_DEPTH][];
+
+    /**
+     * Empties the branch and resets all counts, keeping the capacity of the arrays.
+     */
+    void clear() {
+        top = 0;
+        bottom = 0;
+        for (int[] counts : childTypeCounts) {
+            if (counts != null) {
+                Arrays.fill(counts, 0);
+            }
+        }
+    }
+
+    int childTypeCount(int parentLevel, int type) {
+        return childTypeCounts[parentLevel][type];
+    }
+
+    void countChild(int parentLevel, int type) {
+        ensureDepth(parentLevel);
+        childTypeCounts[parentLevel] = ensureLength(childTypeCounts[parentLevel], type + 1);
+        childTypeCounts[parentLevel][type]++;
+    }
+
+    /**
+     * Returns whether the argument node is the bottom of the open branch, i.e. the last added node.
+     */
+    boolean isBottom(int node, int level) {
+        return bottom != 0 && level == bottom && branch[bottom] == node;
+    }
+
+    /**
+     * Returns whether the argument node is on the open branch.
+     */
+    boolean isOpen(int node, int level) {
+        return bottom != 0 && level >= top && level <= bottom && branch[level] == node;
+    }
+
+    /**
+     * Returns the node on the open branch at the argument level above its bottom, or -1 if there is no such node.
+     */
+    int nodeAtLevel(int level) {
+        return level >= top && level < bottom ? branch[level] : NONE;
+    }
+
+    /**
+     * Makes the argument node the bottom of the open branch, with no children counted yet.
+     *
+     * @param isRoot whether the node has no parent, thus it is the top of the open branch too
+     */
+    void open(int node, int level, boolean isRoot) {
+        ensureDepth(level);
+        if (isRoot) {
+            top = level;
+        }
+        branch[level] = node;
+        bottom = level;
+        if (childTypeCounts[level] != null) {
+            Arrays.fill(childTypeCounts[level], 0);
+        }
+    }
+
+    /**
+     * Puts the argument node on the open branch as the top of it, with no children counted yet. It is used for
+     * rebuilding the open branch from the bottom up, when a node is added under a node that is not on the open branch.
+     */
+    void reopen(int node, int level) {
+        ensureDepth(level);
+        branch[level] = node;
+        top = level;
+        if (childTypeCounts[level] != null) {
+            Arrays.fill(childTypeCounts[level], 0);
+        }
+    }
+
+    private void ensureDepth(int level) {
+        if (level >= branch.length) {
+            branch = ensureLength(branch, level + 1);
+            childTypeCounts = Arrays.copyOf(childTypeCounts, branch.length);
+        }
+    }
+
+    private static int[] ensureLength(int[] array, int length) {
+        int[] ensured;
+        if (array == null) {
+            ensured = new int[Math.max(length, INITIAL_TYPE_COUNT)];
+        } else if (array.length < length) {
+            ensured = Arrays.copyOf(array, Math.max(length, array.length * 2));
+        } else {
+            ensured = array;
+        }
+        return ensured;
+    }
+}
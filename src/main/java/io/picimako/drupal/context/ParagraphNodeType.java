@@ -6,6 +6,8 @@ package io.picimako.drupal.context;
  * <p>
  * Based on a node type additional validation can be put in place so that certain components cannot be put onto
  * certain level(s) or under certain component(s).
+ * <p>
+ * The mirrored context selectors are looked up once, and are stored by the ordinals of the node types.
  */
 public enum ParagraphNodeType implements NodeType {
     ABSENT,
@@ -17,8 +19,10 @@ public enum ParagraphNodeType implements NodeType {
     CAROUSEL_ITEM,
     YOUTUBE_VIDEO;
 
+    private static final ComponentContextSelector[] CONTEXT_SELECTORS = ComponentContextSelector.mirrorsOf(values());
+
     @Override
     public ComponentContextSelector toContextSelector() {
-        return ComponentContextSelector.valueOf(this.name());
+        return ComponentContextSelector.mirrorOf(this, CONTEXT_SELECTORS);
     }
 }
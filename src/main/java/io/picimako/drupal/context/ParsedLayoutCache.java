@@ -0,0 +1,136 @@
+package io.picimako.drupal.context;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import io.picimako.drupal.context.util.LayoutHashing;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A bounded, thread-safe cache of parsed and validated layouts, so that layouts assembled repeatedly (e.g. in Scenario
+ * Outlines, or during reruns) are parsed, validated and built into a {@link ComponentTree} only once, and the repeated
+ * assemblies can skip straight to invoking the steps.
+ * <p>
+ * Entries are keyed by the 128-bit murmur3 hash of the layout contents instead of the contents themselves, so that large
+ * layouts are not kept in memory as keys. When the maximum size is reached, the least recently used entries are evicted.
+ * <p>
+ * Layouts that fail to parse or validate are not cached, the failure is simply propagated to the caller.
+ * <p>
+ * The cached values are shared between assemblies and threads, thus they must not be modified after they are cached.
+ * One cache instance is meant to be shared by assemblers of the same kind, e.g. by all
+ * {@link io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler} instances.
+ * <p>
+ * A cache may be backed by another, e.g. persistent, {@link LayoutCache}, in which case layouts not found in this cache
+ * are looked up in the backing cache before they are parsed.
+ *
+ * @param <V> the type of the parsed layouts
+ */
+public final class ParsedLayoutCache<V> implements LayoutCache<V> {
+
+    private final Cache<HashCode, V> cache;
+    private final LayoutCache<V> backingCache;
+
+    private ParsedLayoutCache(long maximumSize, LayoutCache<V> backingCache) {
+        cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+        this.backingCache = backingCache;
+    }
+
+    /**
+     * Creates a cache that holds at most the argument number of parsed layouts.
+     *
+     * @param maximumSize the maximum number of parsed layouts to cache
+     * @param <V>         the type of the parsed layouts
+     * @return the cache
+     * @throws IllegalArgumentException when the maximum size is not positive
+     */
+    public static <V> ParsedLayoutCache<V> withMaximumSize(long maximumSize) {
+        check(maximumSize > 0, "The maximum size of the layout cache should be greater than 0. It was: [" + maximumSize + "].");
+        return new ParsedLayoutCache<>(maximumSize, null);
+    }
+
+    /**
+     * Creates a cache that holds at most the argument number of parsed layouts, and looks up the layouts not found in it
+     * in the argument backing cache before parsing them.
+     *
+     * @param maximumSize  the maximum number of parsed layouts to cache
+     * @param backingCache the cache to look up the layouts in that are not found in this cache
+     * @param <V>          the type of the parsed layouts
+     * @return the cache
+     * @throws IllegalArgumentException when the maximum size is not positive
+     */
+    public static <V> ParsedLayoutCache<V> withMaximumSize(long maximumSize, LayoutCache<V> backingCache) {
+        check(maximumSize > 0, "The maximum size of the layout cache should be greater than 0. It was: [" + maximumSize + "].");
+        return new ParsedLayoutCache<>(maximumSize, requireNonNull(backingCache));
+    }
+
+    /**
+     * Returns the parsed layout cached for the argument layout contents, or if there is none, parses the layout with
+     * the argument parser and caches the result.
+     *
+     * @param layout the layout contents, e.g. a tree view based component tree
+     * @param parser the parser to call when the layout is not yet cached
+     * @return the parsed layout
+     */
+    @Override
+    public V get(CharSequence layout, Supplier<V> parser) {
+        return get(LayoutHashing.hash(layout), backingCache != null ? () -> backingCache.get(layout, parser) : parser);
+    }
+
+    /**
+     * Returns the parsed layout cached for the argument layout contents, or if there is none, parses the layout with
+     * the argument parser and caches the result.
+     * <p>
+     * This is for layouts that consist of multiple parts, e.g. the cells of a data table. The boundaries of the parts are
+     * also taken into account, so e.g. the parts {@code ["ab", "c"]} and {@code ["a", "bc"]} are different layouts.
+     *
+     * @param layoutParts the parts of the layout contents in order
+     * @param parser      the parser to call when the layout is not yet cached
+     * @return the parsed layout
+     */
+    @Override
+    public V get(List<? extends CharSequence> layoutParts, Supplier<V> parser) {
+        return get(LayoutHashing.hash(layoutParts), backingCache != null ? () -> backingCache.get(layoutParts, parser) : parser);
+    }
+
+    private V get(HashCode key, Supplier<V> parser) {
+        V layout = cache.getIfPresent(key);
+        if (layout == null) {
+            //Parsing happens outside of the cache, so that parsing failures are propagated as they are.
+            //Concurrent misses for the same layout may parse it more than once, but all of them produce an equivalent layout.
+            layout = parser.get();
+            cache.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the hit and miss statistics of this cache.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached layouts.
+     *
+     * @return the number of cached layouts
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Removes all cached layouts.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -1,20 +1,21 @@
 package io.picimako.drupal.context.converter;
 
+import static io.picimako.drupal.context.NodeLineScanner.TABLE_LEVEL_MARKER;
 import static java.util.stream.Collectors.joining;
 
+import io.picimako.drupal.context.NodeLineScanner;
+import io.picimako.drupal.context.NodeLineScanner.LineKind;
+import io.picimako.drupal.context.NodeLineScanner.ScannedLine;
+
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Converts a component tree to its table view representation.
  */
 public final class TreeViewToDataTableConverter {
 
-    private static final Pattern PARAGRAPH_NODE_PATTERN = Pattern.compile("(?<level>-+) (?<type>[A-Z_]+)(?<inlineconfig> >> (?<config>.*))?");
-    private static final Pattern MODIFIER_NODE_PATTERN = Pattern.compile("(?<level>-+)@ (?<type>[A-Z_]+)");
-    private static final Pattern CONFIGURATION_NODE_PATTERN = Pattern.compile("(?<level>-*)\\* (?<config>.*)");
+    private static final NodeLineScanner SCANNER = NodeLineScanner.forTreeView();
 
     /**
      * Converts a tree view based component collection to a table view based representation.
@@ -37,45 +38,34 @@ public final class TreeViewToDataTableConverter {
     public String convert(List<String> nodes) {
         final List<RowItem> table = new ArrayList<>();
         int currentTableRow = -1;
-        for (int i = 0; i < nodes.size(); i++) {
-            Matcher paragraphMatcher = PARAGRAPH_NODE_PATTERN.matcher(nodes.get(i));
-            if (paragraphMatcher.matches()) {
+        for (String node : nodes) {
+            ScannedLine scannedLine = SCANNER.scan(node);
+            if (scannedLine.getKind() == LineKind.PARAGRAPH) {
                 table.add(new RowItem());
                 currentTableRow++;
-                table.get(currentTableRow).component = convertLevelOf(paragraphMatcher) + " " + paragraphMatcher.group("type");
-                if (paragraphMatcher.group("inlineconfig") != null) {
-                    table.get(currentTableRow).configuration = paragraphMatcher.group("config");
+                table.get(currentTableRow).component = convertLevelOf(scannedLine) + " " + scannedLine.getTypeName();
+                if (scannedLine.hasConfiguration()) {
+                    table.get(currentTableRow).configuration = scannedLine.getConfiguration();
                 }
-            } else {
-                Matcher configMatcher = CONFIGURATION_NODE_PATTERN.matcher(nodes.get(i));
-                if (configMatcher.matches()) {
-                    if (configMatcher.group("level").isBlank()) { //root level configuration
-                        table.add(new RowItem());
-                        currentTableRow++;
-                        if (currentTableRow == 0) {
-                            table.get(currentTableRow).component = "<";
-                        }
-                        table.get(currentTableRow).configuration = configMatcher.group("config");
-                    } else {
-                        if (!table.get(currentTableRow).configuration.isEmpty()) {
-                            //previous node: paragraph without inline config -> put config into the same row as the paragraph
-                            //previous node: paragraph with inline config -> create new table row
-                            //previous node: configuration node -> create new table row
-                            table.add(new RowItem());
-                            currentTableRow++;
-                        }
-                        table.get(currentTableRow).configuration = configMatcher.group("config");
-                    }
-                } else { //Check for modifier
-                    Matcher modifierNodeMatcher = MODIFIER_NODE_PATTERN.matcher(nodes.get(i));
-                    if (modifierNodeMatcher.matches()) {
-                        table.add(new RowItem());
-                        currentTableRow++;
-                        table.get(currentTableRow).component = convertLevelOf(modifierNodeMatcher)
-                            + "@ "
-                            + modifierNodeMatcher.group("type");
+            } else if (scannedLine.getKind() == LineKind.CONFIGURATION) {
+                if (scannedLine.getLevel() == 0) { //root level configuration
+                    table.add(new RowItem());
+                    currentTableRow++;
+                    if (currentTableRow == 0) {
+                        table.get(currentTableRow).component = "<";
                     }
+                } else if (!table.get(currentTableRow).configuration.isEmpty()) {
+                    //previous node: paragraph without inline config -> put config into the same row as the paragraph
+                    //previous node: paragraph with inline config -> create new table row
+                    //previous node: configuration node -> create new table row
+                    table.add(new RowItem());
+                    currentTableRow++;
                 }
+                table.get(currentTableRow).configuration = scannedLine.getConfiguration();
+            } else if (scannedLine.getKind() == LineKind.MODIFIER) {
+                table.add(new RowItem());
+                currentTableRow++;
+                table.get(currentTableRow).component = convertLevelOf(scannedLine) + "@ " + scannedLine.getTypeName();
             }
         }
 
@@ -84,8 +74,8 @@ public final class TreeViewToDataTableConverter {
             .collect(joining("\n"));
     }
 
-    private String convertLevelOf(Matcher matcher) {
-        return matcher.group("level").replaceAll("-", ">");
+    private String convertLevelOf(ScannedLine scannedLine) {
+        return String.valueOf(TABLE_LEVEL_MARKER).repeat(scannedLine.getLevel());
     }
 
     /**
@@ -0,0 +1,251 @@
+package io.picimako.drupal.context.generator;
+
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.table.ComponentAndConfiguration;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+import java.util.function.Consumer;
+
+
+/**
+ * Generates synthetic layouts of arbitrary size for stress and load testing, both as tree views and as data tables.
+ * <p>
+ * The generated layouts follow the structure of real pages:
+ * <ul>
+ *     <li>root level components are containers,</li>
+ *     <li>below them there are layouts and carousels (holding carousel items) down to the configured depth,</li>
+ *     <li>and on the deepest level there are images and YouTube videos. Images are always configured with a name and a link,
+ *     either inline, or in separate configuration nodes (rows).</li>
+ *     <li>Images and videos may be followed by a modifier on the same level.</li>
+ * </ul>
+ * The layouts are generated from a random generator with a fixed seed, so the same generator always generates the same
+ * layout, and the tree view and the table generated by the same generator describe the same layout. Everything generated
+ * passes the validation of {@link io.picimako.drupal.context.treeview.TreeViewBasedComponentTreeValidator} and
+ * {@link io.picimako.drupal.context.table.DataTableValidator}.
+ * <p>
+ * Lines and rows are generated one by one, and only the currently open branch is kept in memory, so layouts of millions
+ * of lines can be streamed to files via {@link #writeTreeView(Path)} and {@link #writeTable(Path)}.
+ * <p>
+ * For example:
+ * <pre>
+ * LayoutGenerator.builder()
+ *     .componentCount(1_000_000)
+ *     .depth(5)
+ *     .fanOut(2, 8)
+ *     .modifierRatio(0.3)
+ *     .seed(42)
+ *     .build()
+ *     .writeTreeView(Paths.get("large-layout.txt"));
+ * </pre>
+ */
+public final class LayoutGenerator {
+    private static final double VIDEO_RATIO = 0.25;
+    private static final char[] CONFIG_VALUE_CHARACTERS = "abcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final String ESCAPED_COMMA = "\\,";
+    private static final ModifierNodeType[] MODIFIER_TYPES = ModifierNodeType.values();
+
+    private final int componentCount;
+    private final int depth;
+    private final int minFanOut;
+    private final int maxFanOut;
+    private final double carouselRatio;
+    private final double modifierRatio;
+    private final double inlineConfigRatio;
+    private final int minConfigValueLength;
+    private final int maxConfigValueLength;
+    private final double escapedCommaRatio;
+    private final long seed;
+
+    LayoutGenerator(LayoutGeneratorBuilder builder) {
+        this.componentCount = builder.getComponentCount();
+        this.depth = builder.getDepth();
+        this.minFanOut = builder.getMinFanOut();
+        this.maxFanOut = builder.getMaxFanOut();
+        this.carouselRatio = builder.getCarouselRatio();
+        this.modifierRatio = builder.getModifierRatio();
+        this.inlineConfigRatio = builder.getInlineConfigRatio();
+        this.minConfigValueLength = builder.getMinConfigValueLength();
+        this.maxConfigValueLength = builder.getMaxConfigValueLength();
+        this.escapedCommaRatio = builder.getEscapedCommaRatio();
+        this.seed = builder.getSeed();
+    }
+
+    public static LayoutGeneratorBuilder builder() {
+        return new LayoutGeneratorBuilder();
+    }
+
+    /**
+     * Generates the layout as a tree view, and passes its lines to the argument consumer one by one.
+     *
+     * @param lines the consumer of the lines
+     */
+    public void generateTreeView(Consumer<String> lines) {
+        generate(new TreeViewSink(lines));
+    }
+
+    /**
+     * Generates the layout as a tree view.
+     *
+     * @return the lines of the tree view, separated by new lines
+     */
+    public String generateTreeView() {
+        StringJoiner treeView = new StringJoiner("\n");
+        generateTreeView(treeView::add);
+        return treeView.toString();
+    }
+
+    /**
+     * Generates the layout as a data table, and passes its rows to the argument consumer one by one.
+     *
+     * @param rows the consumer of the rows
+     */
+    public void generateTable(Consumer<ComponentAndConfiguration> rows) {
+        TableSink sink = new TableSink(rows);
+        generate(sink);
+        sink.flush();
+    }
+
+    /**
+     * Generates the layout as a data table.
+     *
+     * @return the rows of the table, without a header row
+     */
+    public List<ComponentAndConfiguration> generateTable() {
+        List<ComponentAndConfiguration> table = new ArrayList<>();
+        generateTable(table::add);
+        return table;
+    }
+
+    /**
+     * Generates the layout as a tree view into the argument file, one line at a time.
+     *
+     * @param file the file to write the tree view to
+     * @throws UncheckedIOException when the file cannot be written
+     */
+    public void writeTreeView(Path file) {
+        write(file, this::generateTreeView);
+    }
+
+    /**
+     * Generates the layout as a data table into the argument file, one row at a time, in the same format as
+     * {@link io.picimako.drupal.context.converter.TreeViewToDataTableConverter} converts tree views to, e.g.
+     * {@code | >>> IMAGE | name:image.png |}.
+     *
+     * @param file the file to write the data table to
+     * @throws UncheckedIOException when the file cannot be written
+     */
+    public void writeTable(Path file) {
+        write(file, lines -> generateTable(row -> lines.accept("| " + row.getComponent() + " | " + row.getConfiguration() + " |")));
+    }
+
+    private static void write(Path file, Consumer<Consumer<String>> generator) {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            generator.accept(line -> {
+                try {
+                    writer.write(line);
+                    writer.newLine();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the generated layout to: " + file, e);
+        }
+    }
+
+    /**
+     * Generates the layout depth-first. Only the types and the number of remaining children of the open branch are stored,
+     * indexed by the levels of the nodes. Level 0 stands for the root of the layout, which can have any number of children.
+     */
+    private void generate(LayoutSink sink) {
+        Random random = new Random(seed);
+        ParagraphNodeType[] openTypes = new ParagraphNodeType[depth + 1];
+        int[] remainingChildCounts = new int[depth + 1];
+        int openLevel = 0;
+        int generatedCount = 0;
+        while (generatedCount < componentCount) {
+            while (openLevel > 0 && remainingChildCounts[openLevel] == 0) {
+                openLevel--;
+            }
+            int level = openLevel + 1;
+            ParagraphNodeType type = childTypeOf(openTypes[openLevel], level, random);
+            remainingChildCounts[openLevel]--;
+            generatedCount++;
+            if (type == ParagraphNodeType.IMAGE || type == ParagraphNodeType.YOUTUBE_VIDEO) {
+                generateLeaf(sink, level, type, random);
+                if (random.nextDouble() < modifierRatio && generatedCount < componentCount) {
+                    sink.modifier(level, MODIFIER_TYPES[random.nextInt(MODIFIER_TYPES.length)]);
+                    generatedCount++;
+                }
+            } else {
+                sink.paragraph(level, type, null);
+                if (level < depth) {
+                    openTypes[level] = type;
+                    remainingChildCounts[level] = minFanOut + random.nextInt(maxFanOut - minFanOut + 1);
+                    openLevel = level;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the type of the next child of the argument parent. Carousels are only placed where there is room for
+     * their items and the content of the items.
+     */
+    private ParagraphNodeType childTypeOf(ParagraphNodeType parentType, int level, Random random) {
+        ParagraphNodeType type;
+        if (level == 1) {
+            type = ParagraphNodeType.CONTAINER;
+        } else if (parentType == ParagraphNodeType.CAROUSEL) {
+            type = ParagraphNodeType.CAROUSEL_ITEM;
+        } else if (level == depth) {
+            type = random.nextDouble() < VIDEO_RATIO ? ParagraphNodeType.YOUTUBE_VIDEO : ParagraphNodeType.IMAGE;
+        } else if (level <= depth - 2 && random.nextDouble() < carouselRatio) {
+            type = ParagraphNodeType.CAROUSEL;
+        } else {
+            type = ParagraphNodeType.LAYOUT;
+        }
+        return type;
+    }
+
+    private void generateLeaf(LayoutSink sink, int level, ParagraphNodeType type, Random random) {
+        if (type == ParagraphNodeType.IMAGE) {
+            String name = "name:" + configValue(random) + ".png";
+            String link = "link:/" + configValue(random);
+            if (random.nextDouble() < inlineConfigRatio) {
+                sink.paragraph(level, type, name + ", " + link);
+            } else {
+                sink.paragraph(level, type, null);
+                sink.configuration(level, name);
+                sink.configuration(level, link);
+            }
+        } else {
+            sink.paragraph(level, type, null);
+        }
+    }
+
+    /**
+     * Generates a configuration value of random length. An escaped comma is never placed at the end of the value,
+     * since configurations must not end with a comma.
+     */
+    private String configValue(Random random) {
+        int length = minConfigValueLength + random.nextInt(maxConfigValueLength - minConfigValueLength + 1);
+        StringBuilder value = new StringBuilder(length + ESCAPED_COMMA.length());
+        for (int i = 0; i < length; i++) {
+            value.append(CONFIG_VALUE_CHARACTERS[random.nextInt(CONFIG_VALUE_CHARACTERS.length)]);
+        }
+        if (length > 1 && random.nextDouble() < escapedCommaRatio) {
+            value.insert(1 + random.nextInt(length - 1), ESCAPED_COMMA);
+        }
+        return value.toString();
+    }
+}
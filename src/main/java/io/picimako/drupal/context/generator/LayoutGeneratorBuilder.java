@@ -0,0 +1,168 @@
+package io.picimako.drupal.context.generator;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * Builds a {@link LayoutGenerator}. By default, it generates layouts of 100 components, 4 levels deep, with 1 to 4 children
+ * per component.
+ */
+@Getter(AccessLevel.PACKAGE)
+public final class LayoutGeneratorBuilder {
+    private static final int DEFAULT_COMPONENT_COUNT = 100;
+    private static final int DEFAULT_DEPTH = 4;
+    private static final int DEFAULT_MAX_FAN_OUT = 4;
+    private static final double DEFAULT_CAROUSEL_RATIO = 0.2;
+    private static final double DEFAULT_MODIFIER_RATIO = 0.2;
+    private static final double DEFAULT_INLINE_CONFIG_RATIO = 0.5;
+    private static final int DEFAULT_MIN_CONFIG_VALUE_LENGTH = 8;
+    private static final int DEFAULT_MAX_CONFIG_VALUE_LENGTH = 16;
+    private static final double DEFAULT_ESCAPED_COMMA_RATIO = 0.1;
+
+    private int componentCount = DEFAULT_COMPONENT_COUNT;
+    private int depth = DEFAULT_DEPTH;
+    private int minFanOut = 1;
+    private int maxFanOut = DEFAULT_MAX_FAN_OUT;
+    private double carouselRatio = DEFAULT_CAROUSEL_RATIO;
+    private double modifierRatio = DEFAULT_MODIFIER_RATIO;
+    private double inlineConfigRatio = DEFAULT_INLINE_CONFIG_RATIO;
+    private int minConfigValueLength = DEFAULT_MIN_CONFIG_VALUE_LENGTH;
+    private int maxConfigValueLength = DEFAULT_MAX_CONFIG_VALUE_LENGTH;
+    private double escapedCommaRatio = DEFAULT_ESCAPED_COMMA_RATIO;
+    private long seed;
+
+    LayoutGeneratorBuilder() {
+    }
+
+    /**
+     * Sets the number of components (paragraphs and modifiers) to generate.
+     *
+     * @param componentCount the number of components
+     * @return this builder
+     * @throws IllegalArgumentException when the count is not positive
+     */
+    public LayoutGeneratorBuilder componentCount(int componentCount) {
+        check(componentCount > 0, "The component count should be greater than 0. It was: [" + componentCount + "].");
+        this.componentCount = componentCount;
+        return this;
+    }
+
+    /**
+     * Sets the level of the images and videos, which is the depth of the layout.
+     *
+     * @param depth the depth of the layout
+     * @return this builder
+     * @throws IllegalArgumentException when the depth is not positive
+     */
+    public LayoutGeneratorBuilder depth(int depth) {
+        check(depth > 0, "The depth should be greater than 0. It was: [" + depth + "].");
+        this.depth = depth;
+        return this;
+    }
+
+    /**
+     * Sets the range of the number of children of the components above the deepest level.
+     *
+     * @param min the minimum number of children, inclusive
+     * @param max the maximum number of children, inclusive
+     * @return this builder
+     * @throws IllegalArgumentException when the minimum is not positive or is greater than the maximum
+     */
+    public LayoutGeneratorBuilder fanOut(int min, int max) {
+        checkRange(min, max, "fan-out");
+        this.minFanOut = min;
+        this.maxFanOut = max;
+        return this;
+    }
+
+    /**
+     * Sets the ratio of carousels among the components that are placed below containers and layouts, but not on
+     * the two deepest levels.
+     *
+     * @param carouselRatio the ratio of carousels, between 0 and 1
+     * @return this builder
+     * @throws IllegalArgumentException when the ratio is not between 0 and 1
+     */
+    public LayoutGeneratorBuilder carouselRatio(double carouselRatio) {
+        this.carouselRatio = checkRatio(carouselRatio, "carousel");
+        return this;
+    }
+
+    /**
+     * Sets the ratio of images and videos that are followed by a modifier.
+     *
+     * @param modifierRatio the ratio of images and videos followed by a modifier, between 0 and 1
+     * @return this builder
+     * @throws IllegalArgumentException when the ratio is not between 0 and 1
+     */
+    public LayoutGeneratorBuilder modifierRatio(double modifierRatio) {
+        this.modifierRatio = checkRatio(modifierRatio, "modifier");
+        return this;
+    }
+
+    /**
+     * Sets the ratio of images whose configuration is inline, instead of in separate configuration nodes (rows).
+     *
+     * @param inlineConfigRatio the ratio of images with inline configuration, between 0 and 1
+     * @return this builder
+     * @throws IllegalArgumentException when the ratio is not between 0 and 1
+     */
+    public LayoutGeneratorBuilder inlineConfigRatio(double inlineConfigRatio) {
+        this.inlineConfigRatio = checkRatio(inlineConfigRatio, "inline configuration");
+        return this;
+    }
+
+    /**
+     * Sets the range of the length of the generated configuration values, excluding the escaped commas.
+     *
+     * @param min the minimum length, inclusive
+     * @param max the maximum length, inclusive
+     * @return this builder
+     * @throws IllegalArgumentException when the minimum is not positive or is greater than the maximum
+     */
+    public LayoutGeneratorBuilder configValueLength(int min, int max) {
+        checkRange(min, max, "configuration value length");
+        this.minConfigValueLength = min;
+        this.maxConfigValueLength = max;
+        return this;
+    }
+
+    /**
+     * Sets the ratio of configuration values that contain an escaped comma.
+     *
+     * @param escapedCommaRatio the ratio of configuration values with an escaped comma, between 0 and 1
+     * @return this builder
+     * @throws IllegalArgumentException when the ratio is not between 0 and 1
+     */
+    public LayoutGeneratorBuilder escapedCommaRatio(double escapedCommaRatio) {
+        this.escapedCommaRatio = checkRatio(escapedCommaRatio, "escaped comma");
+        return this;
+    }
+
+    /**
+     * Sets the seed of the random generator the layout is generated with.
+     *
+     * @param seed the seed
+     * @return this builder
+     */
+    public LayoutGeneratorBuilder seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public LayoutGenerator build() {
+        return new LayoutGenerator(this);
+    }
+
+    private static void checkRange(int min, int max, String name) {
+        check(min > 0, "The minimum " + name + " should be greater than 0. It was: [" + min + "].");
+        check(min <= max, "The minimum " + name + " [" + min + "] should not be greater than the maximum " + name + " [" + max + "].");
+    }
+
+    private static double checkRatio(double ratio, String name) {
+        check(ratio >= 0 && ratio <= 1, "The " + name + " ratio should be between 0 and 1. It was: [" + ratio + "].");
+        return ratio;
+    }
+}
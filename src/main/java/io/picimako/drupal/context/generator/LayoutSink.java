@@ -0,0 +1,16 @@
+package io.picimako.drupal.context.generator;
+
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+
+/**
+ * Receives the nodes of a layout in the order they are generated.
+ */
+interface LayoutSink {
+
+    void paragraph(int level, ParagraphNodeType type, String inlineConfiguration);
+
+    void modifier(int level, ModifierNodeType type);
+
+    void configuration(int level, String configuration);
+}
@@ -0,0 +1,61 @@
+package io.picimako.drupal.context.generator;
+
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.table.ComponentAndConfiguration;
+
+import java.util.function.Consumer;
+
+import static io.picimako.drupal.context.NodeLineScanner.TABLE_LEVEL_MARKER;
+
+/**
+ * Formats the nodes as table rows. The first separate configuration of a paragraph is placed in the row of the paragraph,
+ * further configurations are placed in rows without component.
+ */
+final class TableSink implements LayoutSink {
+
+    private final Consumer<ComponentAndConfiguration> rows;
+    private String component;
+    private String configuration;
+
+    TableSink(Consumer<ComponentAndConfiguration> rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public void paragraph(int level, ParagraphNodeType type, String inlineConfiguration) {
+        flush();
+        component = levelOf(level) + " " + type.name();
+        configuration = inlineConfiguration != null ? inlineConfiguration : "";
+    }
+
+    @Override
+    public void modifier(int level, ModifierNodeType type) {
+        flush();
+        component = levelOf(level) + "@ " + type.name();
+        configuration = "";
+    }
+
+    @Override
+    public void configuration(int level, String configuration) {
+        if (!this.configuration.isEmpty()) {
+            flush();
+            component = "";
+        }
+        this.configuration = configuration;
+    }
+
+    /**
+     * Passes on the row being filled, if there is any.
+     */
+    void flush() {
+        if (component != null) {
+            rows.accept(ComponentAndConfiguration.create(component, configuration));
+            component = null;
+        }
+    }
+
+    private static String levelOf(int level) {
+        return String.valueOf(TABLE_LEVEL_MARKER).repeat(level);
+    }
+}
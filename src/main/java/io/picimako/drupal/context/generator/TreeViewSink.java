@@ -0,0 +1,40 @@
+package io.picimako.drupal.context.generator;
+
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+
+import java.util.function.Consumer;
+
+import static io.picimako.drupal.context.NodeLineScanner.TREE_VIEW_LEVEL_MARKER;
+
+/**
+ * Formats the nodes as tree view lines.
+ */
+final class TreeViewSink implements LayoutSink {
+
+    private final Consumer<String> lines;
+
+    TreeViewSink(Consumer<String> lines) {
+        this.lines = lines;
+    }
+
+    @Override
+    public void paragraph(int level, ParagraphNodeType type, String inlineConfiguration) {
+        String line = levelOf(level) + " " + type.name();
+        lines.accept(inlineConfiguration != null ? line + " >> " + inlineConfiguration : line);
+    }
+
+    @Override
+    public void modifier(int level, ModifierNodeType type) {
+        lines.accept(levelOf(level) + "@ " + type.name());
+    }
+
+    @Override
+    public void configuration(int level, String configuration) {
+        lines.accept(levelOf(level) + "* " + configuration);
+    }
+
+    private static String levelOf(int level) {
+        return String.valueOf(TREE_VIEW_LEVEL_MARKER).repeat(level);
+    }
+}
@@ -0,0 +1,221 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.monitoring.AssemblyProgressEvent.Kind;
+import io.picimako.drupal.context.plan.PlanInstruction;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Publishes the progress of the assemblies of the assemblers it is registered on as a listener, as a stream of
+ * {@link AssemblyProgressEvent}s, to any number of {@link Flow.Subscriber}s, e.g. reporters, progress loggers or dashboards:
+ * <pre>
+ * AssemblyEventPublisher publisher = AssemblyEventPublisher.builder().overflowPolicy(OverflowPolicy.DROP).build();
+ * publisher.subscribe(progressLogger);
+ * assembler.setListener(publisher);
+ * </pre>
+ * The events are delivered to the subscribers asynchronously, by the executor of the publisher, so subscribers don't add
+ * latency to the assembly. Each subscriber has a bounded buffer of events it hasn't consumed yet, and when that is full,
+ * the {@link OverflowPolicy} decides whether further events are dropped for that subscriber, or the assembly waits until
+ * the subscriber catches up. No event is created while there is no subscriber.
+ * <p>
+ * The events of the compilation of pipelined assemblies are published from the thread compiling the layout, so they may
+ * interleave with the events of the invocation of the steps. Instructions sent in batches are published when the batch has
+ * been sent, with zero duration, and their configuration properties are not published.
+ * <p>
+ * Closing the publisher completes the subscriptions, after which no more event is published.
+ */
+public final class AssemblyEventPublisher implements AssemblyListener, Flow.Publisher<AssemblyProgressEvent>, AutoCloseable {
+
+    private final SubmissionPublisher<AssemblyProgressEvent> publisher;
+    private final OverflowPolicy overflowPolicy;
+    private final LongAdder droppedEventCount = new LongAdder();
+
+    private AssemblyEventPublisher(Builder builder) {
+        this.publisher = new SubmissionPublisher<>(builder.executor, builder.bufferCapacity);
+        this.overflowPolicy = builder.overflowPolicy;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super AssemblyProgressEvent> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Returns the number of events dropped so far, counted once for each subscriber they were dropped for.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEventCount() {
+        return droppedEventCount.sum();
+    }
+
+    @Override
+    public void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+        AssemblyPhase phase = processedNode.getPhase();
+        if ((phase == AssemblyPhase.PARSE || phase == AssemblyPhase.TREE_BUILD) && isPublishing()) {
+            Kind kind = phase == AssemblyPhase.PARSE ? Kind.NODE_PARSED : Kind.NODE_ADDED;
+            publish(AssemblyProgressEvent.ofNode(kind, processedNode, startNanos, durationNanos));
+        }
+    }
+
+    @Override
+    public void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+        if (instruction.getOpcode() != Opcode.CONFIGURE && isPublishing()) {
+            publish(toEvent(instruction, startNanos, durationNanos));
+        }
+    }
+
+    @Override
+    public void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+        if (isPublishing()) {
+            for (PlanInstruction instruction : instructions) {
+                if (instruction.getOpcode() != Opcode.CONFIGURE) {
+                    publish(toEvent(instruction, startNanos + durationNanos, 0L));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void configurationApplied(NodeType type, String property, long startNanos, long durationNanos) {
+        if (isPublishing()) {
+            publish(AssemblyProgressEvent.configurationApplied(type, property, startNanos, durationNanos));
+        }
+    }
+
+    @Override
+    public void assemblyFinished(long startNanos, long durationNanos) {
+        if (isPublishing()) {
+            publish(AssemblyProgressEvent.assemblyEnded(null, startNanos, durationNanos));
+        }
+    }
+
+    @Override
+    public void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+        if (isPublishing()) {
+            publish(AssemblyProgressEvent.assemblyEnded(failure, startNanos, durationNanos));
+        }
+    }
+
+    /**
+     * Completes the subscriptions, after the events published so far are delivered.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    private boolean isPublishing() {
+        return publisher.hasSubscribers() && !publisher.isClosed();
+    }
+
+    private static AssemblyProgressEvent toEvent(PlanInstruction instruction, long startNanos, long durationNanos) {
+        AssemblyProgressEvent event;
+        if (instruction.getOpcode() == Opcode.SET_CONTEXT) {
+            event = AssemblyProgressEvent.contextSet(instruction.getContextSelector(), instruction.getSourceLine(), startNanos, durationNanos);
+        } else {
+            ProcessedNode addedNode = new ProcessedNode(AssemblyPhase.STEP_INVOCATION, instruction.getNode(), instruction.getSourceLine());
+            event = AssemblyProgressEvent.ofNode(Kind.COMPONENT_ADDED, addedNode, startNanos, durationNanos);
+        }
+        return event;
+    }
+
+    /**
+     * Publishes the argument event to each subscriber according to the overflow policy. In case the publisher is closed
+     * concurrently, the event is dropped.
+     */
+    private void publish(AssemblyProgressEvent event) {
+        try {
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                publisher.submit(event);
+            } else {
+                publisher.offer(event, (subscriber, droppedEvent) -> {
+                    droppedEventCount.increment();
+                    return false;
+                });
+            }
+        } catch (IllegalStateException e) {
+            droppedEventCount.increment();
+        }
+    }
+
+    /**
+     * What happens when a subscriber's buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The event is dropped for that subscriber, so the assembly is never slowed down by slow subscribers.
+         */
+        DROP,
+        /**
+         * The assembly waits until the subscriber consumes an event, so that no event is lost.
+         */
+        BLOCK
+    }
+
+    /**
+     * Builds an {@link AssemblyEventPublisher}. By default, events are delivered by the common fork-join pool, the buffer
+     * of each subscriber can hold {@link Flow#defaultBufferSize()} events, and events are dropped when that is full.
+     */
+    public static final class Builder {
+        private Executor executor = ForkJoinPool.commonPool();
+        private int bufferCapacity = Flow.defaultBufferSize();
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the executor that delivers the events to the subscribers.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of events buffered for each subscriber. It is rounded up to the next power of two.
+         *
+         * @param bufferCapacity the maximum number of buffered events
+         * @return this builder
+         * @throws IllegalArgumentException when the capacity is not positive
+         */
+        public Builder bufferCapacity(int bufferCapacity) {
+            check(bufferCapacity > 0, "The buffer capacity should be greater than 0. It was: [" + bufferCapacity + "].");
+            this.bufferCapacity = bufferCapacity;
+            return this;
+        }
+
+        /**
+         * Sets what happens when the buffer of a subscriber is full.
+         *
+         * @param overflowPolicy the overflow policy
+         * @return this builder
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = requireNonNull(overflowPolicy);
+            return this;
+        }
+
+        public AssemblyEventPublisher build() {
+            return new AssemblyEventPublisher(this);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.plan.PlanInstruction;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Receives the timings of the assemblies performed by an assembler it is registered on, e.g. to collect metrics from them.
+ * <p>
+ * All timestamps are in nanoseconds, as returned by {@link System#nanoTime()}. Timestamps are only taken when there is a
+ * listener registered on an assembler, so assemblies without listeners are not slowed down by the measurements.
+ * <p>
+ * Listeners are invoked synchronously on the thread performing the measured work, so they should return quickly. In case
+ * of pipelined assemblies, the compilation phases are reported from a different thread than the invocations of the steps,
+ * thus listeners must be thread-safe.
+ *
+ * @see AssemblyMetrics
+ */
+public interface AssemblyListener {
+
+    /**
+     * A listener that ignores everything.
+     */
+    AssemblyListener NONE = new AssemblyListener() {
+    };
+
+    /**
+     * Returns a listener that forwards everything to all argument listeners, in the order of the arguments, e.g. to collect
+     * metrics and to trace the assemblies at the same time.
+     *
+     * @param listeners the listeners to forward to
+     * @return the composite listener, or the single listener if there is only one, or {@link #NONE} if there is none
+     */
+    static AssemblyListener of(AssemblyListener... listeners) {
+        AssemblyListener listener;
+        if (listeners.length == 0) {
+            listener = NONE;
+        } else if (listeners.length == 1) {
+            listener = requireNonNull(listeners[0]);
+        } else {
+            listener = new CompositeAssemblyListener(List.of(listeners));
+        }
+        return listener;
+    }
+
+    /**
+     * Called when the assembly of a layout starts.
+     *
+     * @param startNanos the start of the assembly
+     */
+    default void assemblyStarted(long startNanos) {
+    }
+
+    /**
+     * Called when the assembly of a layout finishes successfully.
+     *
+     * @param startNanos    the start of the assembly
+     * @param durationNanos the duration of the whole assembly
+     */
+    default void assemblyFinished(long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Called when the assembly of a layout fails.
+     *
+     * @param failure       the exception the assembly failed with
+     * @param startNanos    the start of the assembly
+     * @param durationNanos the duration of the assembly until the failure
+     */
+    default void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Called when one of the compilation phases, i.e. {@link AssemblyPhase#PARSE}, {@link AssemblyPhase#VALIDATE},
+     * {@link AssemblyPhase#TREE_BUILD} or {@link AssemblyPhase#SELECTOR_GENERATION}, has been performed for a node.
+     *
+     * @param processedNode the node, along with the phase performed and the line (or table row) of the node
+     * @param startNanos    the start of the phase
+     * @param durationNanos the duration of the phase
+     */
+    default void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Called when the steps of an instruction have been invoked. It is not called for the context settings that are
+     * skipped because they would set the active context again.
+     *
+     * @param instruction   the executed instruction
+     * @param startNanos    the start of the invocation
+     * @param durationNanos the duration of the invocation
+     */
+    default void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Called when a batch of instructions has been sent to a {@link io.picimako.drupal.context.steps.StepBatchTransport}.
+     *
+     * @param instructions  the instructions in the batch
+     * @param startNanos    the start of the sending
+     * @param durationNanos the duration of the round trip
+     */
+    default void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Called when a single configuration property of a component has been applied. This is part of the execution of
+     * the configuring instruction.
+     *
+     * @param type          the type of the configured component
+     * @param property      the name of the configuration property, e.g. {@code name} of an image
+     * @param startNanos    the start of the configuration
+     * @param durationNanos the duration of the configuration
+     */
+    default void configurationApplied(NodeType type, String property, long startNanos, long durationNanos) {
+    }
+
+    /**
+     * Called in case of pipelined assemblies each time an instruction is taken from the instruction queue for execution.
+     *
+     * @param queueDepth     the number of instructions still waiting in the queue
+     * @param timestampNanos the time the instruction was taken
+     */
+    default void queueDepthSampled(int queueDepth, long timestampNanos) {
+    }
+
+    /**
+     * Called when an assembler having a layout cache looks up the plan of a layout in the cache.
+     *
+     * @param isHit whether the plan was found in the cache, i.e. the layout didn't have to be compiled
+     */
+    default void layoutCacheLookedUp(boolean isHit) {
+    }
+}
@@ -0,0 +1,125 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.plan.PlanInstruction;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects metrics of the assemblies of the assemblers it is registered on as a listener:
+ * <ul>
+ *     <li>the number of successful and failed assemblies, and the latency of the assemblies,</li>
+ *     <li>the total time spent in each {@link AssemblyPhase},</li>
+ *     <li>the latencies of setting the context, of adding components and of configuring components by node type,</li>
+ *     <li>the latencies of applying each configuration property.</li>
+ * </ul>
+ * The metrics are accumulated over all assemblies, and can be read via {@link #snapshot()} at any time, e.g. after each
+ * assembly, to see which component types make the assemblies slow:
+ * <pre>
+ * AssemblyMetrics metrics = new AssemblyMetrics();
+ * assembler.setListener(metrics);
+ * assembler.assembleContent(componentTree);
+ * metrics.snapshot().getComponentAdditionLatencies().get(ParagraphNodeType.IMAGE).getValueAtPercentile(99);
+ * </pre>
+ * When the instructions are sent in batches to a {@link io.picimako.drupal.context.steps.StepBatchTransport}, only the
+ * round trips of the batches are known, not the time spent on each step, so the round trips count towards
+ * {@link AssemblyPhase#STEP_INVOCATION}, but no context setting, component addition and configuration latencies are
+ * recorded for the batched instructions.
+ * <p>
+ * The metrics are recorded without locking, into histograms of fixed size, so the same instance can be shared by
+ * assemblers running in parallel.
+ */
+public final class AssemblyMetrics implements AssemblyListener {
+
+    private final LongAdder assemblyCount = new LongAdder();
+    private final LongAdder failedAssemblyCount = new LongAdder();
+    private final LatencyHistogram assemblyLatency = new LatencyHistogram();
+    private final Map<AssemblyPhase, LongAdder> phaseNanos = new EnumMap<>(AssemblyPhase.class);
+    private final LatencyHistogram contextSettingLatency = new LatencyHistogram();
+    private final ConcurrentMap<NodeType, LatencyHistogram> componentAdditionLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<NodeType, LatencyHistogram> configurationLatencies = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> propertyConfigurationLatencies = new ConcurrentHashMap<>();
+
+    public AssemblyMetrics() {
+        for (AssemblyPhase phase : AssemblyPhase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    @Override
+    public void assemblyFinished(long startNanos, long durationNanos) {
+        assemblyCount.increment();
+        assemblyLatency.record(durationNanos);
+    }
+
+    @Override
+    public void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+        failedAssemblyCount.increment();
+        assemblyLatency.record(durationNanos);
+    }
+
+    @Override
+    public void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+        phaseNanos.get(processedNode.getPhase()).add(durationNanos);
+    }
+
+    @Override
+    public void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+        phaseNanos.get(AssemblyPhase.STEP_INVOCATION).add(durationNanos);
+        Opcode opcode = instruction.getOpcode();
+        if (opcode == Opcode.SET_CONTEXT) {
+            contextSettingLatency.record(durationNanos);
+        } else if (opcode == Opcode.CONFIGURE) {
+            histogramOf(configurationLatencies, instruction.getType()).record(durationNanos);
+        } else {
+            histogramOf(componentAdditionLatencies, instruction.getNode().getType()).record(durationNanos);
+        }
+    }
+
+    @Override
+    public void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+        phaseNanos.get(AssemblyPhase.STEP_INVOCATION).add(durationNanos);
+    }
+
+    @Override
+    public void configurationApplied(NodeType type, String property, long startNanos, long durationNanos) {
+        histogramOf(propertyConfigurationLatencies, property).record(durationNanos);
+    }
+
+    /**
+     * Returns a snapshot of the metrics collected so far.
+     *
+     * @return the snapshot
+     */
+    public AssemblyMetricsSnapshot snapshot() {
+        Map<AssemblyPhase, Long> phases = new EnumMap<>(AssemblyPhase.class);
+        phaseNanos.forEach((phase, nanos) -> phases.put(phase, nanos.sum()));
+        return AssemblyMetricsSnapshot.builder()
+            .assemblyCounts(assemblyCount.sum(), failedAssemblyCount.sum())
+            .assemblyLatency(assemblyLatency.snapshot())
+            .phaseNanos(phases)
+            .contextSettingLatency(contextSettingLatency.snapshot())
+            .componentAdditionLatencies(snapshotOf(componentAdditionLatencies))
+            .configurationLatencies(snapshotOf(configurationLatencies))
+            .propertyConfigurationLatencies(snapshotOf(propertyConfigurationLatencies))
+            .build();
+    }
+
+    private static <K> LatencyHistogram histogramOf(ConcurrentMap<K, LatencyHistogram> histograms, K key) {
+        LatencyHistogram histogram = histograms.get(key);
+        return histogram != null ? histogram : histograms.computeIfAbsent(key, k -> new LatencyHistogram());
+    }
+
+    private static <K> Map<K, HistogramSnapshot> snapshotOf(Map<K, LatencyHistogram> histograms) {
+        Map<K, HistogramSnapshot> snapshots = new HashMap<>();
+        histograms.forEach((key, histogram) -> snapshots.put(key, histogram.snapshot()));
+        return snapshots;
+    }
+}
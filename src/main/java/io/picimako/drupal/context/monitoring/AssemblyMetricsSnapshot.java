@@ -0,0 +1,159 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.NodeType;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of {@link AssemblyMetrics}.
+ */
+@Getter
+public final class AssemblyMetricsSnapshot {
+    /**
+     * The number of successful assemblies.
+     */
+    private final long assemblyCount;
+    /**
+     * The number of failed assemblies.
+     */
+    private final long failedAssemblyCount;
+    /**
+     * The latencies of the whole assemblies, both successful and failed ones.
+     */
+    private final HistogramSnapshot assemblyLatency;
+    /**
+     * The latencies of the context settings. Context settings that are skipped because they would set the active context
+     * again are not included.
+     */
+    private final HistogramSnapshot contextSettingLatency;
+    /**
+     * The latencies of adding components (paragraphs and modifiers), by the types of the components.
+     */
+    private final Map<NodeType, HistogramSnapshot> componentAdditionLatencies;
+    /**
+     * The latencies of configuring components, by the types of the components.
+     */
+    private final Map<NodeType, HistogramSnapshot> configurationLatencies;
+    /**
+     * The latencies of applying single configuration properties, by the names of the properties.
+     */
+    private final Map<String, HistogramSnapshot> propertyConfigurationLatencies;
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<AssemblyPhase, Long> phaseNanos;
+
+    private AssemblyMetricsSnapshot(Builder builder) {
+        this.assemblyCount = builder.assemblyCount;
+        this.failedAssemblyCount = builder.failedAssemblyCount;
+        this.assemblyLatency = builder.assemblyLatency;
+        this.contextSettingLatency = builder.contextSettingLatency;
+        this.componentAdditionLatencies = Collections.unmodifiableMap(builder.componentAdditionLatencies);
+        this.configurationLatencies = Collections.unmodifiableMap(builder.configurationLatencies);
+        this.propertyConfigurationLatencies = Collections.unmodifiableMap(builder.propertyConfigurationLatencies);
+        this.phaseNanos = new EnumMap<>(builder.phaseNanos);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the total time spent in the argument phase, summed over all assemblies.
+     *
+     * @param phase the phase
+     * @return the time spent in the phase
+     */
+    public Duration getPhaseDuration(AssemblyPhase phase) {
+        return Duration.ofNanos(phaseNanos.getOrDefault(phase, 0L));
+    }
+
+    /**
+     * Returns the latencies of adding the components of the argument type.
+     *
+     * @param type the type of the components
+     * @return the latencies, or an empty snapshot if no such component has been added
+     */
+    public HistogramSnapshot getComponentAdditionLatency(NodeType type) {
+        return componentAdditionLatencies.getOrDefault(type, HistogramSnapshot.EMPTY);
+    }
+
+    /**
+     * Returns the latencies of configuring the components of the argument type.
+     *
+     * @param type the type of the components
+     * @return the latencies, or an empty snapshot if no such component has been configured
+     */
+    public HistogramSnapshot getConfigurationLatency(NodeType type) {
+        return configurationLatencies.getOrDefault(type, HistogramSnapshot.EMPTY);
+    }
+
+    /**
+     * Returns the latencies of applying the argument configuration property.
+     *
+     * @param property the name of the configuration property
+     * @return the latencies, or an empty snapshot if no such property has been applied
+     */
+    public HistogramSnapshot getPropertyConfigurationLatency(String property) {
+        return propertyConfigurationLatencies.getOrDefault(property, HistogramSnapshot.EMPTY);
+    }
+
+    /**
+     * Builds an {@link AssemblyMetricsSnapshot}.
+     */
+    static final class Builder {
+        private long assemblyCount;
+        private long failedAssemblyCount;
+        private HistogramSnapshot assemblyLatency = HistogramSnapshot.EMPTY;
+        private HistogramSnapshot contextSettingLatency = HistogramSnapshot.EMPTY;
+        private Map<NodeType, HistogramSnapshot> componentAdditionLatencies = Map.of();
+        private Map<NodeType, HistogramSnapshot> configurationLatencies = Map.of();
+        private Map<String, HistogramSnapshot> propertyConfigurationLatencies = Map.of();
+        private Map<AssemblyPhase, Long> phaseNanos = Map.of();
+
+        private Builder() {
+        }
+
+        Builder assemblyCounts(long assemblyCount, long failedAssemblyCount) {
+            this.assemblyCount = assemblyCount;
+            this.failedAssemblyCount = failedAssemblyCount;
+            return this;
+        }
+
+        Builder assemblyLatency(HistogramSnapshot assemblyLatency) {
+            this.assemblyLatency = assemblyLatency;
+            return this;
+        }
+
+        Builder phaseNanos(Map<AssemblyPhase, Long> phaseNanos) {
+            this.phaseNanos = phaseNanos;
+            return this;
+        }
+
+        Builder contextSettingLatency(HistogramSnapshot contextSettingLatency) {
+            this.contextSettingLatency = contextSettingLatency;
+            return this;
+        }
+
+        Builder componentAdditionLatencies(Map<NodeType, HistogramSnapshot> componentAdditionLatencies) {
+            this.componentAdditionLatencies = componentAdditionLatencies;
+            return this;
+        }
+
+        Builder configurationLatencies(Map<NodeType, HistogramSnapshot> configurationLatencies) {
+            this.configurationLatencies = configurationLatencies;
+            return this;
+        }
+
+        Builder propertyConfigurationLatencies(Map<String, HistogramSnapshot> propertyConfigurationLatencies) {
+            this.propertyConfigurationLatencies = propertyConfigurationLatencies;
+            return this;
+        }
+
+        AssemblyMetricsSnapshot build() {
+            return new AssemblyMetricsSnapshot(this);
+        }
+    }
+}
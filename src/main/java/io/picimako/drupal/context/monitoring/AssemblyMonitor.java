@@ -0,0 +1,256 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.plan.PlanInstruction;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exposes live metrics of the assemblies of the assemblers it is registered on as a listener, as an MXBean, so that they can
+ * be watched in JConsole, VisualVM or any other JMX client, e.g. while a long-running test JVM is executing scenarios in parallel.
+ * <p>
+ * The monitor registered in the platform MBean server under {@value #OBJECT_NAME} is shared by all assemblers of the JVM:
+ * <pre>
+ * assembler.setListener(AssemblyMonitor.registered());
+ * </pre>
+ * and it can be combined with other listeners via {@link AssemblyListener#of(AssemblyListener...)}.
+ * <p>
+ * All counts are recorded into {@link LongAdder}s and into a {@link LatencyHistogram}, without locking, so assemblers
+ * running in parallel don't contend on the monitor.
+ */
+public final class AssemblyMonitor implements AssemblyListener, AssemblyMonitorMXBean {
+
+    /**
+     * The name of the monitor registered by {@link #registered()}.
+     */
+    public static final String OBJECT_NAME = "io.picimako.drupal.context:type=AssemblyMonitor";
+    private static final String BATCH = "BATCH";
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    //Registered lazily, and not by a holder class, so that a failed registration is reported as is on each call
+    private static volatile AssemblyMonitor registeredMonitor;
+    private final LongAdder startedAssemblyCount = new LongAdder();
+    private final LongAdder completedAssemblyCount = new LongAdder();
+    private final LongAdder failedAssemblyCount = new LongAdder();
+    private final LongAdder processedNodeCount = new LongAdder();
+    private final RateMeter nodeRate;
+    private final ConcurrentMap<String, LongAdder> stepCallCounts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> componentAdditionCounts = new ConcurrentHashMap<>();
+    private final LatencyHistogram stepLatency = new LatencyHistogram();
+    private final LongAdder layoutCacheLookupCount = new LongAdder();
+    private final LongAdder layoutCacheHitCount = new LongAdder();
+    //The tree of an assembly is built either on the thread of the assembly, or on a producer thread started by it
+    private final InheritableThreadLocal<LongAdder> currentTreeSize = new InheritableThreadLocal<>();
+    private final Set<LongAdder> treeSizesInFlight = ConcurrentHashMap.newKeySet();
+
+    public AssemblyMonitor() {
+        this(new RateMeter());
+    }
+
+    AssemblyMonitor(RateMeter nodeRate) {
+        this.nodeRate = nodeRate;
+    }
+
+    /**
+     * Returns the monitor registered in the platform MBean server. The monitor is created and registered on the first call.
+     * If the registration fails, it is attempted again on the next call.
+     *
+     * @return the registered monitor
+     * @throws IllegalStateException when the monitor cannot be registered, e.g. because another class loader has
+     *                               already registered one under the same name
+     */
+    public static AssemblyMonitor registered() {
+        AssemblyMonitor monitor = registeredMonitor;
+        if (monitor == null) {
+            synchronized (AssemblyMonitor.class) {
+                monitor = registeredMonitor;
+                if (monitor == null) {
+                    monitor = register(new AssemblyMonitor());
+                    registeredMonitor = monitor;
+                }
+            }
+        }
+        return monitor;
+    }
+
+    @Override
+    public void assemblyStarted(long startNanos) {
+        startedAssemblyCount.increment();
+        LongAdder treeSize = new LongAdder();
+        currentTreeSize.set(treeSize);
+        treeSizesInFlight.add(treeSize);
+    }
+
+    @Override
+    public void assemblyFinished(long startNanos, long durationNanos) {
+        completedAssemblyCount.increment();
+        endAssembly();
+    }
+
+    @Override
+    public void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+        failedAssemblyCount.increment();
+        endAssembly();
+    }
+
+    @Override
+    public void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+        AssemblyPhase phase = processedNode.getPhase();
+        if (phase == AssemblyPhase.PARSE) {
+            processedNodeCount.increment();
+            nodeRate.record(1);
+        } else if (phase == AssemblyPhase.TREE_BUILD) {
+            LongAdder treeSize = currentTreeSize.get();
+            if (treeSize != null) {
+                treeSize.increment();
+            }
+        }
+    }
+
+    @Override
+    public void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+        Opcode opcode = instruction.getOpcode();
+        countOf(stepCallCounts, opcode.name()).increment();
+        if (opcode == Opcode.ADD_COMPONENT || opcode == Opcode.ADD_MODIFIER) {
+            countOf(componentAdditionCounts, String.valueOf(instruction.getType())).increment();
+        }
+        stepLatency.record(durationNanos);
+    }
+
+    @Override
+    public void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+        countOf(stepCallCounts, BATCH).increment();
+        for (PlanInstruction instruction : instructions) {
+            if (instruction.getOpcode() == Opcode.ADD_COMPONENT || instruction.getOpcode() == Opcode.ADD_MODIFIER) {
+                countOf(componentAdditionCounts, String.valueOf(instruction.getType())).increment();
+            }
+        }
+    }
+
+    @Override
+    public void layoutCacheLookedUp(boolean isHit) {
+        layoutCacheLookupCount.increment();
+        if (isHit) {
+            layoutCacheHitCount.increment();
+        }
+    }
+
+    @Override
+    public long getAssembliesInFlight() {
+        //Read in the reverse order of the updates, so that a concurrent assembly is never seen as finished but not started
+        long endedAssemblyCount = completedAssemblyCount.sum() + failedAssemblyCount.sum();
+        return Math.max(0, startedAssemblyCount.sum() - endedAssemblyCount);
+    }
+
+    @Override
+    public long getCompletedAssemblies() {
+        return completedAssemblyCount.sum();
+    }
+
+    @Override
+    public long getFailedAssemblies() {
+        return failedAssemblyCount.sum();
+    }
+
+    @Override
+    public long getNodesProcessed() {
+        return processedNodeCount.sum();
+    }
+
+    @Override
+    public double getNodesPerSecond() {
+        return nodeRate.getRate();
+    }
+
+    @Override
+    public Map<String, Long> getStepCalls() {
+        return sums(stepCallCounts);
+    }
+
+    @Override
+    public Map<String, Long> getComponentAdditions() {
+        return sums(componentAdditionCounts);
+    }
+
+    @Override
+    public double getAverageStepLatencyMillis() {
+        return millis(stepLatency.snapshot().getMean());
+    }
+
+    @Override
+    public double getStepLatencyP50Millis() {
+        return millis(stepLatency.snapshot().getValueAtPercentile(HistogramSnapshot.MEDIAN));
+    }
+
+    @Override
+    public double getStepLatencyP90Millis() {
+        return millis(stepLatency.snapshot().getValueAtPercentile(HistogramSnapshot.P90));
+    }
+
+    @Override
+    public double getStepLatencyP99Millis() {
+        return millis(stepLatency.snapshot().getValueAtPercentile(HistogramSnapshot.P99));
+    }
+
+    @Override
+    public double getMaxStepLatencyMillis() {
+        return millis(stepLatency.snapshot().getMax());
+    }
+
+    @Override
+    public long getLayoutCacheLookups() {
+        return layoutCacheLookupCount.sum();
+    }
+
+    @Override
+    public double getLayoutCacheHitRate() {
+        long lookupCount = layoutCacheLookupCount.sum();
+        return lookupCount == 0 ? 0.0 : (double) layoutCacheHitCount.sum() / lookupCount;
+    }
+
+    @Override
+    public long getCurrentTreeSize() {
+        return treeSizesInFlight.stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    private void endAssembly() {
+        LongAdder treeSize = currentTreeSize.get();
+        if (treeSize != null) {
+            treeSizesInFlight.remove(treeSize);
+            currentTreeSize.remove();
+        }
+    }
+
+    private static LongAdder countOf(ConcurrentMap<String, LongAdder> counts, String key) {
+        return counts.computeIfAbsent(key, k -> new LongAdder());
+    }
+
+    private static Map<String, Long> sums(Map<String, LongAdder> counts) {
+        Map<String, Long> sums = new TreeMap<>();
+        counts.forEach((key, count) -> sums.put(key, count.sum()));
+        return sums;
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / NANOS_PER_MILLI;
+    }
+
+    private static AssemblyMonitor register(AssemblyMonitor monitor) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register the assembly monitor as " + OBJECT_NAME + ".", e);
+        }
+        return monitor;
+    }
+}
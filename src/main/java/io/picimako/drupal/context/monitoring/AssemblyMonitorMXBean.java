@@ -0,0 +1,82 @@
+package io.picimako.drupal.context.monitoring;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link AssemblyMonitor}, exposing live metrics of the assemblies running in a JVM.
+ * <p>
+ * Latencies are in milliseconds, counts are accumulated since the creation of the monitor.
+ */
+public interface AssemblyMonitorMXBean {
+
+    /**
+     * Returns the number of assemblies that have started but not yet finished.
+     *
+     * @return the number of assemblies in flight
+     */
+    long getAssembliesInFlight();
+
+    long getCompletedAssemblies();
+
+    long getFailedAssemblies();
+
+    /**
+     * Returns the number of layout nodes (lines or table rows) parsed.
+     *
+     * @return the number of nodes processed
+     */
+    long getNodesProcessed();
+
+    /**
+     * Returns the number of layout nodes parsed per second, averaged over the last 10 seconds.
+     *
+     * @return the number of nodes processed per second
+     */
+    double getNodesPerSecond();
+
+    /**
+     * Returns the number of step calls by instruction type, e.g. {@code ADD_COMPONENT}, and the number of batches sent
+     * as {@code BATCH}.
+     *
+     * @return the number of step calls by instruction type
+     */
+    Map<String, Long> getStepCalls();
+
+    /**
+     * Returns the number of components and modifiers added by node type.
+     *
+     * @return the number of additions by node type
+     */
+    Map<String, Long> getComponentAdditions();
+
+    double getAverageStepLatencyMillis();
+
+    double getStepLatencyP50Millis();
+
+    double getStepLatencyP90Millis();
+
+    double getStepLatencyP99Millis();
+
+    double getMaxStepLatencyMillis();
+
+    /**
+     * Returns the number of times a plan was looked up in the layout cache of an assembler.
+     *
+     * @return the number of layout cache lookups
+     */
+    long getLayoutCacheLookups();
+
+    /**
+     * Returns the ratio of the layout cache lookups that didn't require compiling the layout, between 0 and 1.
+     *
+     * @return the layout cache hit rate
+     */
+    double getLayoutCacheHitRate();
+
+    /**
+     * Returns the number of nodes in the component trees of the assemblies in flight.
+     *
+     * @return the number of nodes in the component trees in flight
+     */
+    long getCurrentTreeSize();
+}
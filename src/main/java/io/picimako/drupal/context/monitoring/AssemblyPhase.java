@@ -0,0 +1,30 @@
+package io.picimako.drupal.context.monitoring;
+
+/**
+ * The phases of the assembly of a layout, which are timed separately.
+ * <p>
+ * The compilation phases are performed node by node, interleaved with each other, so the time of each phase is the sum of
+ * the times spent with it for the individual nodes.
+ */
+public enum AssemblyPhase {
+    /**
+     * Parsing a line of a tree view, or a row of a table, into a node.
+     */
+    PARSE,
+    /**
+     * Validating a component node against the previous one.
+     */
+    VALIDATE,
+    /**
+     * Adding a component node to the component tree, which includes building its context selector.
+     */
+    TREE_BUILD,
+    /**
+     * Resolving the context selectors for the context setting instructions of the assembly plan.
+     */
+    SELECTOR_GENERATION,
+    /**
+     * Invoking the steps that set the context, add and configure the components, or sending them in batches.
+     */
+    STEP_INVOCATION
+}
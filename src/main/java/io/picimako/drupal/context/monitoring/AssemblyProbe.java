@@ -0,0 +1,176 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.plan.PlanInstruction;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Takes the measurements for an {@link AssemblyListener} at the instrumented points of the assembly.
+ * <p>
+ * When there is no listener, no timestamp is taken, and every method is a no-op returning 0. Otherwise each reporting
+ * method returns the end of the reported work, so that it can be used as the start of the work that follows, thus
+ * consecutive phases cost only one timestamp each:
+ * <pre>
+ * long start = probe.now();
+ * Node node = nodeCreator.createNode(line);
+ * start = probe.nodeProcessed(AssemblyPhase.PARSE, node, sourceLine, start);
+ * validator.validateNode(node, previousNode);
+ * probe.nodeProcessed(AssemblyPhase.VALIDATE, node, sourceLine, start);
+ * </pre>
+ */
+public final class AssemblyProbe {
+
+    /**
+     * A probe without listener.
+     */
+    public static final AssemblyProbe DISABLED = new AssemblyProbe(AssemblyListener.NONE);
+
+    private final AssemblyListener listener;
+    private final boolean isEnabled;
+
+    private AssemblyProbe(AssemblyListener listener) {
+        this.listener = listener;
+        this.isEnabled = listener != AssemblyListener.NONE;
+    }
+
+    /**
+     * Returns a probe reporting to the argument listener.
+     *
+     * @param listener the listener to report to
+     * @return the probe, or {@link #DISABLED} in case of {@link AssemblyListener#NONE}
+     */
+    public static AssemblyProbe of(AssemblyListener listener) {
+        return requireNonNull(listener) == AssemblyListener.NONE ? DISABLED : new AssemblyProbe(listener);
+    }
+
+    public AssemblyListener getListener() {
+        return listener;
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Returns the current timestamp, or 0 if this probe is disabled.
+     *
+     * @return the current timestamp in nanoseconds
+     */
+    public long now() {
+        return isEnabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Reports the start of an assembly.
+     *
+     * @return the start of the assembly
+     */
+    public long assemblyStarted() {
+        long start = now();
+        if (isEnabled) {
+            listener.assemblyStarted(start);
+        }
+        return start;
+    }
+
+    public void assemblyFinished(long startNanos) {
+        if (isEnabled) {
+            listener.assemblyFinished(startNanos, System.nanoTime() - startNanos);
+        }
+    }
+
+    public void assemblyFailed(Throwable failure, long startNanos) {
+        if (isEnabled) {
+            listener.assemblyFailed(failure, startNanos, System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * Reports that a compilation phase has been performed for the argument node.
+     *
+     * @param phase      the compilation phase
+     * @param node       the node processed
+     * @param sourceLine the line of the node in the layout
+     * @param startNanos the start of the phase, in nanoseconds
+     * @return the end of the phase
+     */
+    public long nodeProcessed(AssemblyPhase phase, Node node, int sourceLine, long startNanos) {
+        long end = now();
+        if (isEnabled) {
+            listener.nodeProcessed(new ProcessedNode(phase, node, sourceLine), startNanos, end - startNanos);
+        }
+        return end;
+    }
+
+    /**
+     * Reports that the steps of the argument instruction have been invoked.
+     *
+     * @param instruction the instruction executed
+     * @param startNanos  the start of the invocation, in nanoseconds
+     * @return the end of the invocation
+     */
+    public long instructionExecuted(PlanInstruction instruction, long startNanos) {
+        long end = now();
+        if (isEnabled) {
+            listener.instructionExecuted(instruction, startNanos, end - startNanos);
+        }
+        return end;
+    }
+
+    /**
+     * Reports that the argument batch of instructions has been sent.
+     *
+     * @param instructions the instructions in the batch
+     * @param startNanos   the start of the round trip, in nanoseconds
+     * @return the end of the round trip
+     */
+    public long batchSent(List<PlanInstruction> instructions, long startNanos) {
+        long end = now();
+        if (isEnabled) {
+            listener.batchSent(instructions, startNanos, end - startNanos);
+        }
+        return end;
+    }
+
+    /**
+     * Reports that a configuration property of a component has been applied.
+     *
+     * @param type       the type of the configured component
+     * @param property   the name of the configuration property
+     * @param startNanos the start of the configuration, in nanoseconds
+     * @return the end of the configuration
+     */
+    public long configurationApplied(NodeType type, String property, long startNanos) {
+        long end = now();
+        if (isEnabled) {
+            listener.configurationApplied(type, property, startNanos, end - startNanos);
+        }
+        return end;
+    }
+
+    /**
+     * Reports whether the plan of a layout was found in the layout cache.
+     *
+     * @param isHit whether the plan was found in the cache
+     */
+    public void layoutCacheLookedUp(boolean isHit) {
+        if (isEnabled) {
+            listener.layoutCacheLookedUp(isHit);
+        }
+    }
+
+    /**
+     * Reports the number of instructions waiting in the queue of a pipelined assembly.
+     *
+     * @param queueDepth the number of instructions waiting
+     */
+    public void queueDepthSampled(int queueDepth) {
+        if (isEnabled) {
+            listener.queueDepthSampled(queueDepth, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.NodeType;
+import lombok.Getter;
+
+/**
+ * A single, immutable event of the progress of an assembly, published by an {@link AssemblyEventPublisher}.
+ * <p>
+ * Each event has a {@link Kind}, the time it happened at and how long it took, and the details that are relevant for its kind:
+ * <ul>
+ *     <li>{@link Kind#NODE_PARSED} and {@link Kind#NODE_ADDED}: the node, its type in case of component nodes, and the line
+ *     (or table row) of the node,</li>
+ *     <li>{@link Kind#CONTEXT_SET}: the context selector and the source line,</li>
+ *     <li>{@link Kind#COMPONENT_ADDED}: the added component node, its type and the source line,</li>
+ *     <li>{@link Kind#CONFIGURATION_APPLIED}: the type of the configured component and the name of the configuration property,</li>
+ *     <li>{@link Kind#ASSEMBLY_FINISHED}: nothing else,</li>
+ *     <li>{@link Kind#ASSEMBLY_FAILED}: the exception the assembly failed with.</li>
+ * </ul>
+ * The details not relevant for the kind are null, and the source line is 0.
+ */
+@Getter
+public final class AssemblyProgressEvent {
+    private final Kind kind;
+    /**
+     * The end of the reported work, as returned by {@link System#nanoTime()}.
+     */
+    private final long timestampNanos;
+    private final long durationNanos;
+    private final int sourceLine;
+    private final Node node;
+    private final NodeType type;
+    private final String contextSelector;
+    private final String property;
+    private final Throwable failure;
+
+    private AssemblyProgressEvent(Kind kind, ProcessedNode processedNode, long startNanos, long durationNanos) {
+        this.kind = kind;
+        this.timestampNanos = startNanos + durationNanos;
+        this.durationNanos = durationNanos;
+        this.sourceLine = processedNode.getSourceLine();
+        this.node = processedNode.getNode();
+        this.type = node instanceof ComponentNode ? ((ComponentNode) node).getType() : null;
+        this.contextSelector = null;
+        this.property = null;
+        this.failure = null;
+    }
+
+    private AssemblyProgressEvent(String contextSelector, int sourceLine, long startNanos, long durationNanos) {
+        this.kind = Kind.CONTEXT_SET;
+        this.timestampNanos = startNanos + durationNanos;
+        this.durationNanos = durationNanos;
+        this.sourceLine = sourceLine;
+        this.node = null;
+        this.type = null;
+        this.contextSelector = contextSelector;
+        this.property = null;
+        this.failure = null;
+    }
+
+    private AssemblyProgressEvent(NodeType type, String property, long startNanos, long durationNanos) {
+        this.kind = Kind.CONFIGURATION_APPLIED;
+        this.timestampNanos = startNanos + durationNanos;
+        this.durationNanos = durationNanos;
+        this.sourceLine = 0;
+        this.node = null;
+        this.type = type;
+        this.contextSelector = null;
+        this.property = property;
+        this.failure = null;
+    }
+
+    private AssemblyProgressEvent(Throwable failure, long startNanos, long durationNanos) {
+        this.kind = failure != null ? Kind.ASSEMBLY_FAILED : Kind.ASSEMBLY_FINISHED;
+        this.timestampNanos = startNanos + durationNanos;
+        this.durationNanos = durationNanos;
+        this.sourceLine = 0;
+        this.node = null;
+        this.type = null;
+        this.contextSelector = null;
+        this.property = null;
+        this.failure = failure;
+    }
+
+    static AssemblyProgressEvent ofNode(Kind kind, ProcessedNode processedNode, long startNanos, long durationNanos) {
+        return new AssemblyProgressEvent(kind, processedNode, startNanos, durationNanos);
+    }
+
+    static AssemblyProgressEvent contextSet(String contextSelector, int sourceLine, long startNanos, long durationNanos) {
+        return new AssemblyProgressEvent(contextSelector, sourceLine, startNanos, durationNanos);
+    }
+
+    static AssemblyProgressEvent configurationApplied(NodeType type, String property, long startNanos, long durationNanos) {
+        return new AssemblyProgressEvent(type, property, startNanos, durationNanos);
+    }
+
+    static AssemblyProgressEvent assemblyEnded(Throwable failure, long startNanos, long durationNanos) {
+        return new AssemblyProgressEvent(failure, startNanos, durationNanos);
+    }
+
+    /**
+     * Returns a human readable representation of this event, e.g. {@code COMPONENT_ADDED(IMAGE, line 3)}.
+     */
+    @Override
+    public String toString() {
+        String details;
+        if (kind == Kind.CONTEXT_SET) {
+            details = contextSelector + ", line " + sourceLine;
+        } else if (kind == Kind.CONFIGURATION_APPLIED) {
+            details = type + "." + property;
+        } else if (kind == Kind.ASSEMBLY_FAILED) {
+            details = String.valueOf(failure);
+        } else if (kind == Kind.ASSEMBLY_FINISHED) {
+            details = "";
+        } else {
+            details = (type != null ? type + ", " : "") + "line " + sourceLine;
+        }
+        return kind + "(" + details + ")";
+    }
+
+    /**
+     * The kinds of progress an assembly can make.
+     */
+    public enum Kind {
+        /**
+         * A line of a tree view, or a component or configuration definition of a table row, has been parsed into a node.
+         */
+        NODE_PARSED,
+        /**
+         * A component node has been validated and added to the component tree.
+         */
+        NODE_ADDED,
+        /**
+         * The step setting the component context has been invoked.
+         */
+        CONTEXT_SET,
+        /**
+         * The step adding a component or a modifier has been invoked.
+         */
+        COMPONENT_ADDED,
+        /**
+         * The step applying a configuration property of a component has been invoked.
+         */
+        CONFIGURATION_APPLIED,
+        /**
+         * The assembly has finished successfully.
+         */
+        ASSEMBLY_FINISHED,
+        /**
+         * The assembly has failed.
+         */
+        ASSEMBLY_FAILED
+    }
+}
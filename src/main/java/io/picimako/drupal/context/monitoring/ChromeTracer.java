@@ -0,0 +1,216 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.monitoring.TraceEventWriter.Interval;
+import io.picimako.drupal.context.plan.PlanInstruction;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.picimako.drupal.context.util.StringUtils.toJsonString;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes the assemblies of the assemblers it is registered on as a listener in the
+ * <a href="https://docs.google.com/document/d/1CvAClvFfyA5R-PhYUmn5OOQtYMH4h6I0nSsKchNAySU">Chrome Trace Event Format</a>,
+ * which can be viewed in <a href="https://ui.perfetto.dev">Perfetto</a> or in {@code chrome://tracing}:
+ * <pre>
+ * try (ChromeTracer tracer = ChromeTracer.toFile(Paths.get("assembly-trace.json"))) {
+ *     assembler.setListener(tracer);
+ *     assembler.assembleContent(componentTree);
+ * }
+ * </pre>
+ * The trace contains the following spans, nested into each other on the timeline of the thread invoking the steps:
+ * <ul>
+ *     <li>one span for each assembly,</li>
+ *     <li>one span for each root component, covering the steps of the whole subtree of the root component,</li>
+ *     <li>one span for each node, covering the steps of a line (or table row) of the layout,</li>
+ *     <li>one span for each step call, named after the class and method invoking it, e.g. {@code ComponentAdder.addComponentToPage},
+ *     and one span for each applied configuration property within the {@code ComponentConfigurer.configure} spans.</li>
+ * </ul>
+ * The parsing, validation, tree building and selector generation of each node is traced as well, on the timeline of
+ * the thread compiling the layout, along with counters of the size of the component tree and, for pipelined assemblies,
+ * the depth of the instruction queue. In case of batched executions, each batch is traced as a single span.
+ * <p>
+ * The events are written as soon as they are complete, through a buffered writer, so the trace is not kept in memory.
+ * The trace is written in the JSON Array Format, which is valid even if the tracer is not closed, e.g. when the process
+ * is killed. The writer is flushed after each assembly.
+ * <p>
+ * A tracer is meant to trace one assembly at a time.
+ */
+public final class ChromeTracer implements AssemblyListener, Closeable {
+
+    private final TraceEventWriter events;
+    private int treeSize;
+    private Span rootSpan;
+    private Span nodeSpan;
+    private long lastStepEndNanos;
+
+    /**
+     * Creates a tracer that writes the trace into the argument writer. The writer is closed when the tracer is closed.
+     *
+     * @param writer the writer to write the trace into
+     */
+    public ChromeTracer(Writer writer) {
+        this.events = new TraceEventWriter(requireNonNull(writer));
+    }
+
+    /**
+     * Creates a tracer that writes the trace into the argument file, through a buffered writer.
+     *
+     * @param traceFile the file to write the trace into
+     * @return the tracer
+     * @throws UncheckedIOException when the file cannot be opened
+     */
+    public static ChromeTracer toFile(Path traceFile) {
+        try {
+            return new ChromeTracer(Files.newBufferedWriter(traceFile, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the trace file: " + traceFile, e);
+        }
+    }
+
+    @Override
+    public synchronized void assemblyStarted(long startNanos) {
+        treeSize = 0;
+        rootSpan = null;
+        nodeSpan = null;
+        events.counter("tree size", "nodes", 0, startNanos);
+    }
+
+    @Override
+    public synchronized void assemblyFinished(long startNanos, long durationNanos) {
+        completeAssembly(startNanos, durationNanos, "{}");
+    }
+
+    @Override
+    public synchronized void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+        completeAssembly(startNanos, durationNanos, "{\"failure\":" + toJsonString(String.valueOf(failure)) + "}");
+    }
+
+    @Override
+    public synchronized void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+        String name = processedNode.getPhase().name().toLowerCase() + " " + nodeName(processedNode.getNode());
+        events.complete(name, "compile", new Interval(startNanos, durationNanos), "{\"line\":" + processedNode.getSourceLine() + "}");
+        if (processedNode.getPhase() == AssemblyPhase.TREE_BUILD) {
+            events.counter("tree size", "nodes", ++treeSize, startNanos + durationNanos);
+        }
+    }
+
+    @Override
+    public synchronized void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+        if (nodeSpan == null || nodeSpan.sourceLine != instruction.getSourceLine()) {
+            endNodeSpan();
+            nodeSpan = new Span(null, instruction.getSourceLine(), startNanos);
+        }
+        if (nodeSpan.name == null && instruction.getOpcode() != Opcode.SET_CONTEXT) {
+            nodeSpan.name = String.valueOf(instruction.getType());
+        }
+        if (instruction.getOpcode() == Opcode.ADD_COMPONENT && instruction.getParentNode() == ComponentNode.ABSENT) {
+            //The root component span starts with the node span, so that it includes the context setting before the addition
+            endRootSpan();
+            rootSpan = new Span(nodeSpan.name, instruction.getSourceLine(), nodeSpan.startNanos);
+        }
+        events.complete(stepName(instruction.getOpcode()), "step", new Interval(startNanos, durationNanos), stepArgs(instruction));
+        lastStepEndNanos = startNanos + durationNanos;
+    }
+
+    @Override
+    public synchronized void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+        events.complete("StepBatchTransport.send", "step", new Interval(startNanos, durationNanos), "{\"size\":" + instructions.size() + "}");
+    }
+
+    @Override
+    public synchronized void configurationApplied(NodeType type, String property, long startNanos, long durationNanos) {
+        events.complete(type + "." + property, "configuration", new Interval(startNanos, durationNanos), "{}");
+    }
+
+    @Override
+    public synchronized void queueDepthSampled(int queueDepth, long timestampNanos) {
+        events.counter("queue depth", "instructions", queueDepth, timestampNanos);
+    }
+
+    /**
+     * Finishes the trace, and closes the underlying writer.
+     *
+     * @throws UncheckedIOException when writing the trace fails
+     */
+    @Override
+    public synchronized void close() {
+        events.close();
+    }
+
+    private void completeAssembly(long startNanos, long durationNanos, String args) {
+        endNodeSpan();
+        endRootSpan();
+        events.complete("assembly", "assembly", new Interval(startNanos, durationNanos), args);
+        events.flush();
+    }
+
+    private void endNodeSpan() {
+        if (nodeSpan != null) {
+            String name = nodeSpan.name != null ? nodeSpan.name : "line " + nodeSpan.sourceLine;
+            events.complete(name, "node", new Interval(nodeSpan.startNanos, lastStepEndNanos - nodeSpan.startNanos),
+                "{\"line\":" + nodeSpan.sourceLine + "}");
+            nodeSpan = null;
+        }
+    }
+
+    private void endRootSpan() {
+        if (rootSpan != null) {
+            events.complete(rootSpan.name, "root component", new Interval(rootSpan.startNanos, lastStepEndNanos - rootSpan.startNanos),
+                "{\"line\":" + rootSpan.sourceLine + "}");
+            rootSpan = null;
+        }
+    }
+
+    private static String stepName(Opcode opcode) {
+        String name;
+        if (opcode == Opcode.SET_CONTEXT) {
+            name = "ComponentContextSetter.setContext";
+        } else if (opcode == Opcode.CONFIGURE) {
+            name = "ComponentConfigurer.configure";
+        } else {
+            name = "ComponentAdder.addComponentToPage";
+        }
+        return name;
+    }
+
+    private static String stepArgs(PlanInstruction instruction) {
+        String args;
+        if (instruction.getOpcode() == Opcode.SET_CONTEXT) {
+            args = "{\"selector\":" + toJsonString(instruction.getContextSelector()) + ",\"line\":" + instruction.getSourceLine() + "}";
+        } else {
+            args = "{\"type\":" + toJsonString(String.valueOf(instruction.getType())) + ",\"line\":" + instruction.getSourceLine() + "}";
+        }
+        return args;
+    }
+
+    private static String nodeName(Node node) {
+        return node instanceof ComponentNode ? String.valueOf(((ComponentNode) node).getType()) : "configuration";
+    }
+
+    /**
+     * A span that is still open.
+     */
+    private static final class Span {
+        private String name;
+        private final int sourceLine;
+        private final long startNanos;
+
+        Span(String name, int sourceLine, long startNanos) {
+            this.name = name;
+            this.sourceLine = sourceLine;
+            this.startNanos = startNanos;
+        }
+    }
+}
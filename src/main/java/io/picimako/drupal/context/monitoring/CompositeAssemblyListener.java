@@ -0,0 +1,65 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.plan.PlanInstruction;
+
+import java.util.List;
+
+/**
+ * Forwards everything to multiple listeners.
+ *
+ * @see AssemblyListener#of(AssemblyListener...)
+ */
+final class CompositeAssemblyListener implements AssemblyListener {
+
+    private final List<AssemblyListener> listeners;
+
+    CompositeAssemblyListener(List<AssemblyListener> listeners) {
+        this.listeners = listeners;
+    }
+
+    @Override
+    public void assemblyStarted(long startNanos) {
+        listeners.forEach(listener -> listener.assemblyStarted(startNanos));
+    }
+
+    @Override
+    public void assemblyFinished(long startNanos, long durationNanos) {
+        listeners.forEach(listener -> listener.assemblyFinished(startNanos, durationNanos));
+    }
+
+    @Override
+    public void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+        listeners.forEach(listener -> listener.assemblyFailed(failure, startNanos, durationNanos));
+    }
+
+    @Override
+    public void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+        listeners.forEach(listener -> listener.nodeProcessed(processedNode, startNanos, durationNanos));
+    }
+
+    @Override
+    public void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+        listeners.forEach(listener -> listener.instructionExecuted(instruction, startNanos, durationNanos));
+    }
+
+    @Override
+    public void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+        listeners.forEach(listener -> listener.batchSent(instructions, startNanos, durationNanos));
+    }
+
+    @Override
+    public void configurationApplied(NodeType type, String property, long startNanos, long durationNanos) {
+        listeners.forEach(listener -> listener.configurationApplied(type, property, startNanos, durationNanos));
+    }
+
+    @Override
+    public void queueDepthSampled(int queueDepth, long timestampNanos) {
+        listeners.forEach(listener -> listener.queueDepthSampled(queueDepth, timestampNanos));
+    }
+
+    @Override
+    public void layoutCacheLookedUp(boolean isHit) {
+        listeners.forEach(listener -> listener.layoutCacheLookedUp(isHit));
+    }
+}
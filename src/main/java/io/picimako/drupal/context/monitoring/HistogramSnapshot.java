@@ -0,0 +1,100 @@
+package io.picimako.drupal.context.monitoring;
+
+import java.time.Duration;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * An immutable snapshot of a {@link LatencyHistogram}.
+ */
+public final class HistogramSnapshot {
+
+    /**
+     * A snapshot without any latency.
+     */
+    public static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0L, 0L);
+    static final double MEDIAN = 50;
+    static final double P90 = 90;
+    static final double P99 = 99;
+    private static final double MAX_PERCENTILE = 100;
+
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    HistogramSnapshot(long[] counts, long totalNanos, long maxNanos) {
+        this.counts = counts;
+        long sum = 0;
+        for (long bucketCount : counts) {
+            sum += bucketCount;
+        }
+        this.count = sum;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     *
+     * @return the number of latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of the recorded latencies.
+     *
+     * @return the total latency
+     */
+    public Duration getTotal() {
+        return Duration.ofNanos(totalNanos);
+    }
+
+    /**
+     * Returns the highest recorded latency.
+     *
+     * @return the maximum latency, or zero if there is no latency recorded
+     */
+    public Duration getMax() {
+        return Duration.ofNanos(maxNanos);
+    }
+
+    /**
+     * Returns the average of the recorded latencies.
+     *
+     * @return the mean latency, or zero if there is no latency recorded
+     */
+    public Duration getMean() {
+        return Duration.ofNanos(count > 0 ? totalNanos / count : 0L);
+    }
+
+    /**
+     * Returns the latency at the argument percentile, e.g. {@code getValueAtPercentile(99)} returns the latency which
+     * 99% of the recorded latencies are not higher than.
+     * <p>
+     * The returned latency is the upper bound of the bucket the percentile falls into, but never more than the maximum latency.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency at the percentile, or zero if there is no latency recorded
+     * @throws IllegalArgumentException when the percentile is not between 0 and 100
+     */
+    public Duration getValueAtPercentile(double percentile) {
+        check(percentile >= 0 && percentile <= MAX_PERCENTILE, "The percentile should be between 0 and 100. It was: [" + percentile + "].");
+        long rank = Math.max(1L, (long) Math.ceil(count * percentile / MAX_PERCENTILE));
+        long value = 0L;
+        long seen = 0L;
+        for (int bucket = 0; bucket < counts.length && seen < rank && count > 0; bucket++) {
+            seen += counts[bucket];
+            value = LatencyHistogram.upperBoundOf(bucket);
+        }
+        return Duration.ofNanos(Math.min(value, maxNanos));
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(MEDIAN) + ", p99=" + getValueAtPercentile(P99)
+            + ", max=" + getMax();
+    }
+}
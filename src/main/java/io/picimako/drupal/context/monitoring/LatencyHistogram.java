@@ -0,0 +1,83 @@
+package io.picimako.drupal.context.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, fixed size histogram of latencies, with logarithmic buckets.
+ * <p>
+ * Each power of two range of latencies is divided into {@value #SUB_BUCKET_COUNT} equal buckets, so the relative error of
+ * the reported percentiles is at most 12.5%, regardless of the magnitude of the latencies. Latencies below
+ * {@value #SUB_BUCKET_COUNT} nanoseconds have a bucket each. This way the full range of {@code long} latencies is covered by
+ * {@value #BUCKET_COUNT} buckets, so a histogram takes about 4 KB of memory, no matter how many latencies are recorded.
+ * <p>
+ * Recording is wait-free, and can be performed concurrently from any number of threads. Snapshots taken while latencies
+ * are being recorded may miss some of the concurrently recorded latencies.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_COUNT = 8;
+    static final int SUB_BUCKET_BITS = 3;
+    static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a latency. Negative latencies, e.g. due to the imprecision of the clock, are recorded as 0.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long latency = Math.max(nanos, 0L);
+        buckets.incrementAndGet(bucketOf(latency));
+        totalNanos.add(latency);
+        maxNanos.accumulateAndGet(latency, Math::max);
+    }
+
+    /**
+     * Returns a snapshot of the latencies recorded so far.
+     *
+     * @return the snapshot
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return new HistogramSnapshot(counts, totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Returns the index of the bucket of the argument, non-negative, latency.
+     */
+    static int bucketOf(long nanos) {
+        int bucket;
+        if (nanos < SUB_BUCKET_COUNT) {
+            bucket = (int) nanos;
+        } else {
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+            int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+            bucket = (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+        }
+        return bucket;
+    }
+
+    /**
+     * Returns the highest latency that falls into the argument bucket.
+     */
+    static long upperBoundOf(int bucket) {
+        long upperBound;
+        if (bucket < SUB_BUCKET_COUNT) {
+            upperBound = bucket;
+        } else {
+            int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            long lowerBound = (SUB_BUCKET_COUNT + bucket % SUB_BUCKET_COUNT) * width;
+            upperBound = lowerBound + width - 1;
+        }
+        return upperBound;
+    }
+}
@@ -0,0 +1,32 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.Node;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A node one of the compilation phases has been performed for, reported to {@link AssemblyListener}s, along with the phase
+ * and the line (or table row) of the node.
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class ProcessedNode {
+    private final AssemblyPhase phase;
+    private final Node node;
+    private final int sourceLine;
+
+    /**
+     * Creates a new {@link ProcessedNode} instance.
+     *
+     * @param phase      the phase performed
+     * @param node       the node the phase was performed for
+     * @param sourceLine the line (or table row) of the node
+     */
+    public ProcessedNode(AssemblyPhase phase, Node node, int sourceLine) {
+        this.phase = phase;
+        this.node = node;
+        this.sourceLine = sourceLine;
+    }
+}
@@ -0,0 +1,79 @@
+package io.picimako.drupal.context.monitoring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures the rate of events per second over a sliding window of the last {@value #WINDOW_SECONDS} completed seconds.
+ * <p>
+ * The events are counted in one {@link LongAdder} per second, so recording doesn't contend between threads.
+ * The counts of the current, not yet completed second are not part of the rate.
+ */
+final class RateMeter {
+
+    static final int WINDOW_SECONDS = 10;
+    //One more slot than the window, so that the current second never overwrites the oldest second of the window
+    private static final int SLOT_COUNT = WINDOW_SECONDS + 1;
+    private final LongAdder[] counts = new LongAdder[SLOT_COUNT];
+    private final AtomicLongArray seconds = new AtomicLongArray(SLOT_COUNT);
+    private final LongSupplier nanoClock;
+    private final long startSecond;
+
+    RateMeter() {
+        this(System::nanoTime);
+    }
+
+    RateMeter(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.startSecond = currentSecond();
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            counts[i] = new LongAdder();
+            seconds.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Records the argument number of events in the current second.
+     */
+    void record(long eventCount) {
+        long second = currentSecond();
+        int slot = slotOf(second);
+        long slotSecond = seconds.get(slot);
+        if (slotSecond != second && seconds.compareAndSet(slot, slotSecond, second)) {
+            //Events recorded concurrently into the outdated slot, before it is reset, may be lost, which is fine for a gauge
+            counts[slot].reset();
+        }
+        counts[slot].add(eventCount);
+    }
+
+    /**
+     * Returns the average number of events per second in the completed seconds of the window, or in the completed seconds
+     * since the creation of this meter, if it was created less than {@value #WINDOW_SECONDS} seconds ago.
+     */
+    double getRate() {
+        long currentSecond = currentSecond();
+        long windowSeconds = Math.min(WINDOW_SECONDS, currentSecond - startSecond);
+        double rate = 0.0;
+        if (windowSeconds > 0) {
+            long eventCount = 0;
+            for (int i = 0; i < SLOT_COUNT; i++) {
+                long second = seconds.get(i);
+                if (second < currentSecond && second >= currentSecond - windowSeconds) {
+                    eventCount += counts[i].sum();
+                }
+            }
+            rate = (double) eventCount / windowSeconds;
+        }
+        return rate;
+    }
+
+    private long currentSecond() {
+        return TimeUnit.NANOSECONDS.toSeconds(nanoClock.getAsLong());
+    }
+
+    private static int slotOf(long second) {
+        return (int) Math.floorMod(second, (long) SLOT_COUNT);
+    }
+}
@@ -0,0 +1,117 @@
+package io.picimako.drupal.context.monitoring;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.google.common.base.Strings.padStart;
+import static io.picimako.drupal.context.util.StringUtils.toJsonString;
+
+/**
+ * Writes the events of a {@link ChromeTracer} as a JSON array, one event per line, naming the timeline of each thread
+ * the first time an event is written on it. Timestamps are relative to the creation of the writer.
+ * <p>
+ * It is not thread-safe, the tracer synchronizes the calls.
+ */
+final class TraceEventWriter {
+
+    private static final int PROCESS_ID = 1;
+    private static final long NANOS_PER_MICRO = 1000L;
+    private static final int FRACTION_DIGITS = 3;
+    private final Writer writer;
+    private final long originNanos = System.nanoTime();
+    private final Set<Long> namedThreadIds = new HashSet<>();
+    private boolean isFirstEvent = true;
+    private boolean isClosed;
+
+    TraceEventWriter(Writer writer) {
+        this.writer = writer;
+        write("[");
+    }
+
+    /**
+     * Writes a complete event on the timeline of the current thread. Node and root component spans are ended on the thread
+     * executing the instructions as well, either by the next instruction, or by the end of the assembly.
+     */
+    void complete(String name, String category, Interval interval, String args) {
+        long threadId = Thread.currentThread().getId();
+        nameThread(threadId);
+        event("{\"name\":" + toJsonString(name) + ",\"cat\":" + toJsonString(category) + ",\"ph\":\"X\",\"ts\":" + micros(interval.startNanos - originNanos)
+            + ",\"dur\":" + micros(interval.durationNanos) + ",\"pid\":" + PROCESS_ID + ",\"tid\":" + threadId + ",\"args\":" + args + "}");
+    }
+
+    void counter(String name, String series, long value, long timestampNanos) {
+        event("{\"name\":" + toJsonString(name) + ",\"ph\":\"C\",\"ts\":" + micros(timestampNanos - originNanos) + ",\"pid\":" + PROCESS_ID
+            + ",\"args\":{" + toJsonString(series) + ":" + value + "}}");
+    }
+
+    void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the trace.", e);
+        }
+    }
+
+    /**
+     * Closes the JSON array, and the underlying writer, unless it is already closed.
+     */
+    void close() {
+        if (!isClosed) {
+            isClosed = true;
+            write("\n]\n");
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close the trace.", e);
+            }
+        }
+    }
+
+    /**
+     * Names the timeline of the current thread, the first time an event is written for it.
+     */
+    private void nameThread(long threadId) {
+        if (namedThreadIds.add(threadId)) {
+            event("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + PROCESS_ID + ",\"tid\":" + threadId
+                + ",\"args\":{\"name\":" + toJsonString(Thread.currentThread().getName()) + "}}");
+        }
+    }
+
+    private void event(String json) {
+        write(isFirstEvent ? "\n" + json : ",\n" + json);
+        isFirstEvent = false;
+    }
+
+    private void write(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the trace.", e);
+        }
+    }
+
+    /**
+     * Formats the argument nanoseconds as microseconds with nanosecond precision, e.g. 1234567 as {@code 1234.567}.
+     */
+    static String micros(long nanos) {
+        long absoluteNanos = Math.abs(nanos);
+        long fraction = absoluteNanos % NANOS_PER_MICRO;
+        return (nanos < 0 ? "-" : "") + absoluteNanos / NANOS_PER_MICRO + "." + padStart(String.valueOf(fraction), FRACTION_DIGITS, '0');
+    }
+
+    /**
+     * The start and the duration of a complete event.
+     */
+    static final class Interval {
+        private final long startNanos;
+        private final long durationNanos;
+
+        Interval(long startNanos, long durationNanos) {
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.picimako.drupal.context.monitoring.cucumber;
+
+import cucumber.api.TestCase;
+import cucumber.api.event.ConcurrentEventListener;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+
+import java.io.File;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A Cucumber plugin that reports the performance of the assemblies per scenario: the slowest scenarios with the timings and
+ * browser round trips of each layout assembled in them, and the most expensive component types.
+ * <p>
+ * The plugin is registered via the Cucumber options, optionally with the directory to write the report into, which is
+ * {@value #DEFAULT_REPORT_DIRECTORY} by default:
+ * <pre>
+ * &#64;CucumberOptions(plugin = "io.picimako.drupal.context.monitoring.cucumber.AssemblyPerformancePlugin:target/assembly-performance")
+ * </pre>
+ * and the assemblers report to it via {@link #listener()}:
+ * <pre>
+ * assembler.setListener(AssemblyPerformancePlugin.listener());
+ * </pre>
+ * The assemblies are correlated with the scenarios by the threads running the scenarios, so the plugin is safe to use with
+ * parallel execution, as long as each scenario assembles its layouts on its own thread, or on threads started by it.
+ * <p>
+ * The report is written only at the end of the run, as {@code assembly-performance.json} and {@code assembly-performance.html}.
+ */
+public final class AssemblyPerformancePlugin implements ConcurrentEventListener {
+
+    /**
+     * The directory the report is written into, when no directory is specified in the plugin option.
+     */
+    public static final String DEFAULT_REPORT_DIRECTORY = "target/assembly-performance";
+    private final File reportDirectory;
+    private final Queue<ScenarioPerformance> scenarios = new ConcurrentLinkedQueue<>();
+
+    public AssemblyPerformancePlugin() {
+        this(new File(DEFAULT_REPORT_DIRECTORY));
+    }
+
+    /**
+     * Creates a plugin that writes the report into the argument directory, which is created if it doesn't exist.
+     *
+     * @param reportDirectory the directory to write the report into
+     */
+    public AssemblyPerformancePlugin(File reportDirectory) {
+        this.reportDirectory = requireNonNull(reportDirectory);
+    }
+
+    /**
+     * Returns the listener to set on the assemblers, which records the assemblies into the scenario running on the current
+     * thread. It can be combined with other listeners via {@link AssemblyListener#of(AssemblyListener...)}.
+     *
+     * @return the listener
+     */
+    public static AssemblyListener listener() {
+        return ScenarioAssemblyListener.INSTANCE;
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, this::handleTestCaseStarted);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::handleTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> writeReport());
+    }
+
+    private void handleTestCaseStarted(TestCaseStarted event) {
+        TestCase testCase = event.getTestCase();
+        ScenarioAssemblyListener.scenarioStarted(new ScenarioPerformance(testCase.getName(), testCase.getUri() + ":" + testCase.getLine()));
+    }
+
+    private void handleTestCaseFinished(TestCaseFinished event) {
+        ScenarioPerformance scenario = ScenarioAssemblyListener.scenarioFinished();
+        if (scenario != null) {
+            Long durationNanos = event.result.getDuration();
+            scenario.finished(String.valueOf(event.result.getStatus()), durationNanos != null ? durationNanos : 0L);
+            scenarios.add(scenario);
+        }
+    }
+
+    private void writeReport() {
+        new AssemblyPerformanceReport(scenarios).writeTo(reportDirectory.toPath());
+    }
+}
@@ -0,0 +1,160 @@
+package io.picimako.drupal.context.monitoring.cucumber;
+
+import io.picimako.drupal.context.monitoring.cucumber.ScenarioPerformance.ComponentTypeCost;
+import io.picimako.drupal.context.monitoring.cucumber.ScenarioPerformance.LayoutPerformance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static io.picimako.drupal.context.util.StringUtils.toJsonString;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The assembly performance report of a test run, written as JSON and as HTML.
+ * <p>
+ * It contains the slowest scenarios, slowest first, with the duration and browser round trips of each layout assembled in
+ * them, and the component types, the most expensive first, by the total time spent adding and configuring them.
+ */
+final class AssemblyPerformanceReport {
+
+    static final String JSON_FILE_NAME = "assembly-performance.json";
+    static final String HTML_FILE_NAME = "assembly-performance.html";
+    static final int MAX_SCENARIOS = 50;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private final int scenarioCount;
+    private final long layoutCount;
+    private final long roundTrips;
+    private final List<ScenarioPerformance> slowestScenarios;
+    private final List<ComponentTypeCost> componentTypeCosts;
+
+    AssemblyPerformanceReport(Collection<ScenarioPerformance> scenarios) {
+        this.scenarioCount = scenarios.size();
+        this.layoutCount = scenarios.stream().mapToLong(scenario -> scenario.getLayouts().size()).sum();
+        this.roundTrips = scenarios.stream().mapToLong(ScenarioPerformance::getRoundTrips).sum();
+        this.slowestScenarios = scenarios.stream()
+            .sorted(Comparator.comparingLong(ScenarioPerformance::getDurationNanos)
+                .thenComparingLong(ScenarioPerformance::getAssemblyNanos)
+                .reversed())
+            .limit(MAX_SCENARIOS)
+            .collect(toList());
+        this.componentTypeCosts = mergeComponentTypeCosts(scenarios);
+    }
+
+    /**
+     * Writes the report into the argument directory, creating the directory if it doesn't exist.
+     *
+     * @throws UncheckedIOException when the report cannot be written
+     */
+    void writeTo(Path directory) {
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(JSON_FILE_NAME), StandardCharsets.UTF_8)) {
+                writeJson(writer);
+            }
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(HTML_FILE_NAME), StandardCharsets.UTF_8)) {
+                writeHtml(writer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the assembly performance report into " + directory, e);
+        }
+    }
+
+    void writeJson(Writer writer) throws IOException {
+        writer.write("{\n  \"scenarioCount\": " + scenarioCount + ",\n  \"layoutCount\": " + layoutCount
+            + ",\n  \"roundTrips\": " + roundTrips + ",\n  \"slowestScenarios\": [");
+        for (int i = 0; i < slowestScenarios.size(); i++) {
+            ScenarioPerformance scenario = slowestScenarios.get(i);
+            writer.write((i == 0 ? "\n" : ",\n") + "    {\"name\": " + toJsonString(scenario.getName())
+                + ", \"location\": " + toJsonString(scenario.getLocation())
+                + ", \"status\": " + toJsonString(scenario.getStatus())
+                + ", \"durationMillis\": " + millis(scenario.getDurationNanos())
+                + ", \"assemblyMillis\": " + millis(scenario.getAssemblyNanos())
+                + ", \"roundTrips\": " + scenario.getRoundTrips()
+                + ", \"layouts\": [");
+            List<LayoutPerformance> layouts = scenario.getLayouts();
+            for (int j = 0; j < layouts.size(); j++) {
+                LayoutPerformance layout = layouts.get(j);
+                writer.write((j == 0 ? "" : ", ") + "{\"index\": " + layout.getIndex() + ", \"nodes\": " + layout.getNodeCount()
+                    + ", \"roundTrips\": " + layout.getRoundTrips() + ", \"durationMillis\": " + millis(layout.getDurationNanos())
+                    + ", \"failed\": " + layout.isFailed() + "}");
+            }
+            writer.write("]}");
+        }
+        writer.write("\n  ],\n  \"componentTypes\": [");
+        for (int i = 0; i < componentTypeCosts.size(); i++) {
+            ComponentTypeCost cost = componentTypeCosts.get(i);
+            writer.write((i == 0 ? "\n" : ",\n") + "    {\"type\": " + toJsonString(cost.getType())
+                + ", \"additions\": " + cost.getAdditionCount() + ", \"additionMillis\": " + millis(cost.getAdditionNanos())
+                + ", \"configurations\": " + cost.getConfigurationCount() + ", \"configurationMillis\": " + millis(cost.getConfigurationNanos())
+                + ", \"totalMillis\": " + millis(cost.getTotalNanos()) + "}");
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    void writeHtml(Writer writer) throws IOException {
+        writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Assembly performance</title>\n<style>\n"
+            + "body { font-family: sans-serif; margin: 2em; }\n"
+            + "table { border-collapse: collapse; margin-bottom: 2em; }\n"
+            + "th, td { border: 1px solid #ccc; padding: 4px 8px; }\n"
+            + "td.number { text-align: right; }\n"
+            + "</style>\n</head>\n<body>\n<h1>Assembly performance</h1>\n");
+        writer.write("<p>" + scenarioCount + " scenarios, " + layoutCount + " layouts, " + roundTrips + " browser round trips</p>\n");
+
+        writer.write("<h2>Slowest scenarios</h2>\n<table>\n<tr><th>Scenario</th><th>Location</th><th>Status</th><th>Duration (ms)</th>"
+            + "<th>Assembly (ms)</th><th>Round trips</th><th>Layouts (nodes / round trips / ms)</th></tr>\n");
+        for (ScenarioPerformance scenario : slowestScenarios) {
+            writer.write("<tr><td>" + html(scenario.getName()) + "</td><td>" + html(scenario.getLocation()) + "</td><td>"
+                + html(scenario.getStatus()) + "</td>" + numberCell(millis(scenario.getDurationNanos()))
+                + numberCell(millis(scenario.getAssemblyNanos())) + numberCell(String.valueOf(scenario.getRoundTrips())) + "<td>");
+            for (LayoutPerformance layout : scenario.getLayouts()) {
+                writer.write("#" + layout.getIndex() + ": " + layout.getNodeCount() + " / " + layout.getRoundTrips() + " / "
+                    + millis(layout.getDurationNanos()) + (layout.isFailed() ? " (failed)" : "") + "<br>");
+            }
+            writer.write("</td></tr>\n");
+        }
+        writer.write("</table>\n");
+
+        writer.write("<h2>Most expensive component types</h2>\n<table>\n<tr><th>Type</th><th>Additions</th><th>Addition (ms)</th>"
+            + "<th>Configurations</th><th>Configuration (ms)</th><th>Total (ms)</th></tr>\n");
+        for (ComponentTypeCost cost : componentTypeCosts) {
+            writer.write("<tr><td>" + html(cost.getType()) + "</td>" + numberCell(String.valueOf(cost.getAdditionCount()))
+                + numberCell(millis(cost.getAdditionNanos())) + numberCell(String.valueOf(cost.getConfigurationCount()))
+                + numberCell(millis(cost.getConfigurationNanos())) + numberCell(millis(cost.getTotalNanos())) + "</tr>\n");
+        }
+        writer.write("</table>\n</body>\n</html>\n");
+    }
+
+    private static List<ComponentTypeCost> mergeComponentTypeCosts(Collection<ScenarioPerformance> scenarios) {
+        Map<String, ComponentTypeCost> costs = new HashMap<>();
+        for (ScenarioPerformance scenario : scenarios) {
+            scenario.getComponentTypeCosts().forEach((type, cost) -> costs.computeIfAbsent(type, ComponentTypeCost::new).add(cost));
+        }
+        return costs.values().stream()
+            .sorted(Comparator.comparingLong(ComponentTypeCost::getTotalNanos)
+                .thenComparingLong(ComponentTypeCost::getAdditionCount)
+                .reversed())
+            .collect(toList());
+    }
+
+    private static String numberCell(String number) {
+        return "<td class=\"number\">" + number + "</td>";
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI);
+    }
+
+    private static String html(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
@@ -0,0 +1,72 @@
+package io.picimako.drupal.context.monitoring.cucumber;
+
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.monitoring.ProcessedNode;
+import io.picimako.drupal.context.plan.PlanInstruction;
+
+import java.util.List;
+
+/**
+ * Forwards the assemblies to the {@link ScenarioPerformance} of the scenario running on the current thread.
+ * <p>
+ * The scenario is inherited by the threads started during the scenario, e.g. by the threads compiling the layouts of
+ * pipelined assemblies. Assemblies running outside of scenarios are not recorded.
+ */
+final class ScenarioAssemblyListener implements AssemblyListener {
+
+    static final ScenarioAssemblyListener INSTANCE = new ScenarioAssemblyListener();
+    private static final InheritableThreadLocal<ScenarioPerformance> CURRENT_SCENARIO = new InheritableThreadLocal<>();
+
+    private ScenarioAssemblyListener() {
+    }
+
+    static void scenarioStarted(ScenarioPerformance scenario) {
+        CURRENT_SCENARIO.set(scenario);
+    }
+
+    /**
+     * Ends the scenario running on the current thread.
+     *
+     * @return the scenario, or null if no scenario has been started on the current thread
+     */
+    static ScenarioPerformance scenarioFinished() {
+        ScenarioPerformance scenario = CURRENT_SCENARIO.get();
+        CURRENT_SCENARIO.remove();
+        return scenario;
+    }
+
+    @Override
+    public void assemblyStarted(long startNanos) {
+        currentScenario().assemblyStarted(startNanos);
+    }
+
+    @Override
+    public void assemblyFinished(long startNanos, long durationNanos) {
+        currentScenario().assemblyFinished(startNanos, durationNanos);
+    }
+
+    @Override
+    public void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+        currentScenario().assemblyFailed(failure, startNanos, durationNanos);
+    }
+
+    @Override
+    public void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+        currentScenario().nodeProcessed(processedNode, startNanos, durationNanos);
+    }
+
+    @Override
+    public void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+        currentScenario().instructionExecuted(instruction, startNanos, durationNanos);
+    }
+
+    @Override
+    public void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+        currentScenario().batchSent(instructions, startNanos, durationNanos);
+    }
+
+    private static AssemblyListener currentScenario() {
+        ScenarioPerformance scenario = CURRENT_SCENARIO.get();
+        return scenario != null ? scenario : AssemblyListener.NONE;
+    }
+}
@@ -0,0 +1,173 @@
+package io.picimako.drupal.context.monitoring.cucumber;
+
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.monitoring.AssemblyPhase;
+import io.picimako.drupal.context.monitoring.ProcessedNode;
+import io.picimako.drupal.context.plan.PlanInstruction;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the assembly timings and step counts of a single scenario.
+ * <p>
+ * The steps of a scenario are executed on a single thread, but the layouts of pipelined assemblies are compiled on
+ * a separate thread, so the recording methods are synchronized.
+ */
+final class ScenarioPerformance implements AssemblyListener {
+
+    @Getter(AccessLevel.PACKAGE)
+    private final String name;
+    @Getter(AccessLevel.PACKAGE)
+    private final String location;
+    private final List<LayoutPerformance> layouts = new ArrayList<>();
+    private final Map<String, ComponentTypeCost> componentTypeCosts = new HashMap<>();
+    private LayoutPerformance currentLayout;
+    private String status = "UNKNOWN";
+    private long durationNanos;
+
+    ScenarioPerformance(String name, String location) {
+        this.name = name;
+        this.location = location;
+    }
+
+    synchronized String getStatus() {
+        return status;
+    }
+
+    synchronized long getDurationNanos() {
+        return durationNanos;
+    }
+
+    synchronized List<LayoutPerformance> getLayouts() {
+        return new ArrayList<>(layouts);
+    }
+
+    synchronized Map<String, ComponentTypeCost> getComponentTypeCosts() {
+        return new HashMap<>(componentTypeCosts);
+    }
+
+    synchronized long getAssemblyNanos() {
+        return layouts.stream().mapToLong(LayoutPerformance::getDurationNanos).sum();
+    }
+
+    synchronized long getRoundTrips() {
+        return layouts.stream().mapToLong(LayoutPerformance::getRoundTrips).sum();
+    }
+
+    synchronized void finished(String status, long durationNanos) {
+        this.status = status;
+        this.durationNanos = durationNanos;
+    }
+
+    @Override
+    public synchronized void assemblyStarted(long startNanos) {
+        currentLayout = new LayoutPerformance(layouts.size() + 1);
+    }
+
+    @Override
+    public synchronized void assemblyFinished(long startNanos, long durationNanos) {
+        endLayout(durationNanos, false);
+    }
+
+    @Override
+    public synchronized void assemblyFailed(Throwable failure, long startNanos, long durationNanos) {
+        endLayout(durationNanos, true);
+    }
+
+    @Override
+    public synchronized void nodeProcessed(ProcessedNode processedNode, long startNanos, long durationNanos) {
+        if (currentLayout != null && processedNode.getPhase() == AssemblyPhase.PARSE) {
+            currentLayout.nodeCount++;
+        }
+    }
+
+    @Override
+    public synchronized void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+        if (currentLayout != null) {
+            currentLayout.roundTrips++;
+        }
+        recordCost(instruction, durationNanos);
+    }
+
+    @Override
+    public synchronized void batchSent(List<PlanInstruction> instructions, long startNanos, long durationNanos) {
+        if (currentLayout != null) {
+            currentLayout.roundTrips++;
+        }
+        instructions.forEach(instruction -> recordCost(instruction, 0L));
+    }
+
+    private void endLayout(long durationNanos, boolean isFailed) {
+        if (currentLayout != null) {
+            currentLayout.durationNanos = durationNanos;
+            currentLayout.isFailed = isFailed;
+            layouts.add(currentLayout);
+            currentLayout = null;
+        }
+    }
+
+    private void recordCost(PlanInstruction instruction, long durationNanos) {
+        if (instruction.getOpcode() != Opcode.SET_CONTEXT) {
+            ComponentTypeCost cost = componentTypeCosts.computeIfAbsent(String.valueOf(instruction.getType()), ComponentTypeCost::new);
+            if (instruction.getOpcode() == Opcode.CONFIGURE) {
+                cost.configurationCount++;
+                cost.configurationNanos += durationNanos;
+            } else {
+                cost.additionCount++;
+                cost.additionNanos += durationNanos;
+            }
+        }
+    }
+
+    /**
+     * The performance of a single layout assembled in a scenario.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    static final class LayoutPerformance {
+        private final int index;
+        private int nodeCount;
+        private long roundTrips;
+        private long durationNanos;
+        private boolean isFailed;
+
+        LayoutPerformance(int index) {
+            this.index = index;
+        }
+    }
+
+    /**
+     * The number and total duration of the additions and configurations of a component type.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    static final class ComponentTypeCost {
+        private final String type;
+        private long additionCount;
+        private long additionNanos;
+        private long configurationCount;
+        private long configurationNanos;
+
+        ComponentTypeCost(String type) {
+            this.type = type;
+        }
+
+        long getTotalNanos() {
+            return additionNanos + configurationNanos;
+        }
+
+        /**
+         * Adds the counts and durations of the argument cost to this one.
+         */
+        void add(ComponentTypeCost other) {
+            additionCount += other.additionCount;
+            additionNanos += other.additionNanos;
+            configurationCount += other.configurationCount;
+            configurationNanos += other.configurationNanos;
+        }
+    }
+}
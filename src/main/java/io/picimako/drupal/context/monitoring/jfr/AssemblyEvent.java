@@ -0,0 +1,64 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.Node;
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the Java Flight Recorder events emitted during the assembly of a layout, carrying the component node
+ * and the line (or table row) the event belongs to.
+ * <p>
+ * The events are disabled by default, so unless a recording enables them, e.g. via {@link AssemblyEvents#enableAll},
+ * emitting them costs next to nothing. Stack traces are not recorded for them.
+ * <p>
+ * When the instructions of a plan are sent in batches to a {@link io.picimako.drupal.context.steps.StepBatchTransport},
+ * the steps are invoked by the transport, so no {@link ContextSetEvent}, {@link ComponentAddEvent} and {@link ConfigureEvent}
+ * is emitted for them, only a {@link StepBatchSendEvent} for each batch.
+ * <p>
+ * An event is emitted the usual way, by calling {@link #begin()} before the measured work, and
+ * {@link #commit(Node, int)} after it.
+ */
+@Category({"Drupal Paragraph Context", "Assembly"})
+@Enabled(false)
+@StackTrace(false)
+public abstract class AssemblyEvent extends Event {
+
+    //The fields are not private, because the flight recorder doesn't record the private fields of the superclasses of events
+    @Label("Node Type")
+    String nodeType;
+
+    @Label("Level")
+    int level;
+
+    @Label("Occurrence Index")
+    long occurrenceIndex;
+
+    @Label("Source Line")
+    int sourceLine;
+
+    /**
+     * Commits this event if it is enabled and passes the threshold of the recording, filling the node related fields.
+     * <p>
+     * The node type, the level and the occurrence index under the parent are only filled for component nodes. Occurrence
+     * indices are calculated when a node is added to the component tree, so they are 1 for events preceding that.
+     *
+     * @param node       the node the event belongs to, or null if it is unknown
+     * @param sourceLine the line (or table row) of the node
+     */
+    public void commit(Node node, int sourceLine) {
+        if (shouldCommit()) {
+            if (node instanceof ComponentNode && node != ComponentNode.ABSENT) {
+                ComponentNode componentNode = (ComponentNode) node;
+                this.nodeType = String.valueOf(componentNode.getType());
+                this.level = componentNode.getLevel();
+                this.occurrenceIndex = componentNode.getOccurrenceCountUnderParent();
+            }
+            this.sourceLine = sourceLine;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+
+import java.util.List;
+
+/**
+ * Utilities for the Java Flight Recorder events of the assemblies.
+ * <p>
+ * The events are disabled by default. They can be enabled in a recording started from code:
+ * <pre>
+ * try (Recording recording = AssemblyEvents.enableAll(new Recording())) {
+ *     recording.start();
+ *     ...
+ * }
+ * </pre>
+ * or by their names in a custom {@code .jfc} settings file, e.g. {@code <event name="io.picimako.drupal.context.ComponentAdd">}.
+ */
+public final class AssemblyEvents {
+
+    /**
+     * The types of all assembly events.
+     */
+    public static final List<Class<? extends Event>> EVENT_TYPES = List.of(LayoutParseEvent.class, NodeValidationEvent.class,
+        TreeAddEvent.class, ContextSetEvent.class, ComponentAddEvent.class, ConfigureEvent.class, StepBatchSendEvent.class);
+
+    private AssemblyEvents() {
+    }
+
+    /**
+     * Enables all assembly events in the argument recording, without threshold.
+     *
+     * @param recording the recording to enable the events in
+     * @return the argument recording
+     */
+    public static Recording enableAll(Recording recording) {
+        EVENT_TYPES.forEach(eventType -> recording.enable(eventType).withoutThreshold());
+        return recording;
+    }
+}
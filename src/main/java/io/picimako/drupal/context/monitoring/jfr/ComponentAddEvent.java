@@ -0,0 +1,14 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Invoking the step that adds a component or a modifier to the content.
+ */
+@Name("io.picimako.drupal.context.ComponentAdd")
+@Label("Component Add")
+@Description("Invoking the step that adds a component or a modifier")
+public final class ComponentAddEvent extends AssemblyEvent {
+}
@@ -0,0 +1,17 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Invoking the steps that configure a component.
+ * <p>
+ * The node related fields describe the last component added during the execution of the plan, which is the configured
+ * one, and are empty for root level configurations.
+ */
+@Name("io.picimako.drupal.context.Configure")
+@Label("Configure")
+@Description("Invoking the steps that configure a component")
+public final class ConfigureEvent extends AssemblyEvent {
+}
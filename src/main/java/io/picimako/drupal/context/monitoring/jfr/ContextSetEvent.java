@@ -0,0 +1,25 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Invoking the step that sets the component context.
+ * <p>
+ * The plan instructions setting the context don't reference the component node, so the node related fields are empty,
+ * the component is identified by the context selector and the source line. Context settings skipped because they would
+ * set the active context again are not emitted.
+ */
+@Name("io.picimako.drupal.context.ContextSet")
+@Label("Context Set")
+@Description("Invoking the step that sets the component context")
+public final class ContextSetEvent extends AssemblyEvent {
+
+    @Label("Context Selector")
+    private String contextSelector;
+
+    public ContextSetEvent(String contextSelector) {
+        this.contextSelector = contextSelector;
+    }
+}
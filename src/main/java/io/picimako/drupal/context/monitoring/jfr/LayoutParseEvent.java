@@ -0,0 +1,14 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Parsing a line of a tree view, or a component or configuration definition of a table row, into a node.
+ */
+@Name("io.picimako.drupal.context.LayoutParse")
+@Label("Layout Parse")
+@Description("Parsing a line or a table entry into a node")
+public final class LayoutParseEvent extends AssemblyEvent {
+}
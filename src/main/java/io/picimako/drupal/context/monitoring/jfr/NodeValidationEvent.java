@@ -0,0 +1,14 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Validating a component node against the previous component node.
+ */
+@Name("io.picimako.drupal.context.NodeValidation")
+@Label("Node Validation")
+@Description("Validating a component node against the previous one")
+public final class NodeValidationEvent extends AssemblyEvent {
+}
@@ -0,0 +1,30 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Sending a batch of instructions to a {@link io.picimako.drupal.context.steps.StepBatchTransport}, including the round
+ * trip.
+ * <p>
+ * The steps of a batch are invoked by the transport in a single round trip, so there are no separate events for the
+ * context settings, component additions and configurations in it. The event carries the number of instructions in
+ * the batch, and the source line of its first and last instruction. The node related fields are empty.
+ */
+@Name("io.picimako.drupal.context.StepBatchSend")
+@Label("Step Batch Send")
+@Description("Sending a batch of instructions to a step batch transport")
+public final class StepBatchSendEvent extends AssemblyEvent {
+
+    @Label("Instruction Count")
+    private int instructionCount;
+
+    @Label("First Source Line")
+    private int firstSourceLine;
+
+    public StepBatchSendEvent(int instructionCount, int firstSourceLine) {
+        this.instructionCount = instructionCount;
+        this.firstSourceLine = firstSourceLine;
+    }
+}
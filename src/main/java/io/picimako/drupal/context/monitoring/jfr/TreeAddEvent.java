@@ -0,0 +1,14 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Adding a component node to the component tree, including building its context selector.
+ */
+@Name("io.picimako.drupal.context.TreeAdd")
+@Label("Tree Add")
+@Description("Adding a component node to the component tree")
+public final class TreeAddEvent extends AssemblyEvent {
+}
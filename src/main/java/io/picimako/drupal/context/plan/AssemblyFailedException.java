@@ -0,0 +1,22 @@
+package io.picimako.drupal.context.plan;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a pipelined assembly fails, either while the layout is being parsed and compiled, or while the steps are
+ * being invoked, reporting the number of the layout line the failure originates from.
+ *
+ * @see PlanPipeline
+ */
+@Getter
+public class AssemblyFailedException extends RuntimeException {
+    /**
+     * The number of the line (or table row) in the layout the failure originates from, or 0 if it is unknown.
+     */
+    private final int sourceLine;
+
+    public AssemblyFailedException(int sourceLine, Throwable cause) {
+        super("Assembly failed at line " + sourceLine + ": " + cause.getMessage(), cause);
+        this.sourceLine = sourceLine;
+    }
+}
@@ -0,0 +1,125 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.NodeType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable list of {@link PlanInstruction}s compiled from a layout, which adds and configures the components of the
+ * layout when executed by an {@link AssemblyPlanExecutor}.
+ * <p>
+ * All parsing, validation, component tree building and context selector generation happens while the plan is compiled,
+ * so executing a plan only invokes the steps. This also means that a plan can be executed any number of times,
+ * and by multiple threads, and that it can be printed (via {@link #toString()}) to see what an assembly would do
+ * without executing anything, as a dry-run.
+ */
+public final class AssemblyPlan {
+    private final List<PlanInstruction> instructions;
+
+    private AssemblyPlan(List<PlanInstruction> instructions) {
+        this.instructions = List.copyOf(instructions);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<PlanInstruction> getInstructions() {
+        return instructions;
+    }
+
+    public int size() {
+        return instructions.size();
+    }
+
+    /**
+     * Returns the instructions one per line, along with the line numbers of the layout they are compiled from.
+     * <p>
+     * For example:
+     * <pre>
+     * 1: SET_CONTEXT(.container:nth-child(1))
+     * 1: ADD_COMPONENT(CONTAINER)
+     * 2: ADD_COMPONENT(IMAGE)
+     * 2: CONFIGURE(IMAGE, {url=https://duckduckgo.com})
+     * </pre>
+     */
+    @Override
+    public String toString() {
+        StringBuilder plan = new StringBuilder();
+        for (PlanInstruction instruction : instructions) {
+            plan.append(instruction.getSourceLine()).append(": ").append(instruction).append('\n');
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Collects the instructions of a plan while a layout is being compiled.
+     */
+    public static final class Builder {
+        private final List<PlanInstruction> instructions = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Appends an instruction that sets the argument context selector.
+         *
+         * @param contextSelector the context selector to set
+         * @param sourceLine      the line of the node the instruction is emitted for
+         * @return this builder
+         * @see PlanInstruction#setContext(String, int)
+         */
+        public Builder setContext(String contextSelector, int sourceLine) {
+            instructions.add(PlanInstruction.setContext(contextSelector, sourceLine));
+            return this;
+        }
+
+        /**
+         * Appends an instruction that adds the argument component or modifier.
+         *
+         * @param parentNode the parent of the node, or {@link ComponentNode#ABSENT} for root level nodes
+         * @param node       the component or modifier to add
+         * @param sourceLine the line of the node the instruction is emitted for
+         * @return this builder
+         * @see PlanInstruction#addComponent(ComponentNode, ComponentNode, int)
+         */
+        public Builder addComponent(ComponentNode parentNode, ComponentNode node, int sourceLine) {
+            instructions.add(PlanInstruction.addComponent(parentNode, node, sourceLine));
+            return this;
+        }
+
+        /**
+         * Appends an instruction that configures the component of the argument type.
+         *
+         * @param type          the type of the component to configure
+         * @param configuration the configuration to apply
+         * @param sourceLine    the line of the node the instruction is emitted for
+         * @return this builder
+         * @see PlanInstruction#configure(NodeType, ConfigurationNode, int)
+         */
+        public Builder configure(NodeType type, ConfigurationNode configuration, int sourceLine) {
+            instructions.add(PlanInstruction.configure(type, configuration, sourceLine));
+            return this;
+        }
+
+        /**
+         * Appends the argument, already created, instruction.
+         *
+         * @param instruction the instruction to append
+         * @return this builder
+         */
+        public Builder add(PlanInstruction instruction) {
+            instructions.add(requireNonNull(instruction));
+            return this;
+        }
+
+        public AssemblyPlan build() {
+            return new AssemblyPlan(instructions);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.NodeTypeRegistry;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * Encodes {@link AssemblyPlan}s into, and decodes them from, a compact binary format, so that compiled plans can be
+ * persisted and loaded without parsing the layouts, building the component trees and assembling the context selectors again.
+ * <p>
+ * An encoded plan consists of a fixed size header and a payload:
+ * <ul>
+ *     <li>header: magic number (int), format version (short), schema fingerprint (long), payload length (int)
+ *     and the CRC32 checksum of the payload (long),</li>
+ *     <li>payload:
+ *     <ul>
+ *         <li>the node table: the number of nodes, then for each node the id of its type in the {@link NodeTypeRegistry},
+ *         its level, occurrence count under its parent and whether it is a modifier node,</li>
+ *         <li>the string table: the number of strings, then each context selector, configuration key and value
+ *         as a length prefixed UTF-8 byte sequence, each distinct string stored only once,</li>
+ *         <li>the instructions: the number of instructions, then for each instruction its opcode ordinal, source line and
+ *         operands. Nodes and strings are referenced by their indices in the tables, {@link ComponentNode#ABSENT} by -1.</li>
+ *     </ul>
+ *     </li>
+ * </ul>
+ * <p>
+ * The schema fingerprint is the {@link NodeTypeRegistry#fingerprint() fingerprint} of the registered node types, so that
+ * plans encoded with a different set of node types (including the ones registered by {@link io.picimako.drupal.context.NodeTypeProvider}s),
+ * or different context selectors, are recognized as stale and are not decoded.
+ */
+final class AssemblyPlanCodec {
+
+    static final int HEADER_SIZE = Integer.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES + Long.BYTES;
+    private static final int MAGIC = 0x44504331; //"DPC1"
+    private static final short FORMAT_VERSION = 2;
+    private static final NodeTypeRegistry NODE_TYPES = NodeTypeRegistry.registered();
+    private static final long SCHEMA_FINGERPRINT = NODE_TYPES.fingerprint();
+    private static final int ABSENT_NODE_INDEX = -1;
+    private static final Opcode[] OPCODES = Opcode.values();
+
+    private AssemblyPlanCodec() {
+        //Util class
+    }
+
+    /**
+     * Encodes the argument plan along with its header.
+     *
+     * @param plan the plan to encode
+     * @return the encoded plan
+     * @throws IllegalArgumentException when the plan contains node types that are not registered in the {@link NodeTypeRegistry}
+     */
+    static ByteBuffer encode(AssemblyPlan plan) {
+        PayloadWriter writer = new PayloadWriter();
+        for (PlanInstruction instruction : plan.getInstructions()) {
+            writer.index(instruction);
+        }
+        ByteBuffer payload = writer.write(plan);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+        ByteBuffer encoded = ByteBuffer.allocate(HEADER_SIZE + payload.remaining());
+        encoded.putInt(MAGIC)
+            .putShort(FORMAT_VERSION)
+            .putLong(SCHEMA_FINGERPRINT)
+            .putInt(payload.remaining())
+            .putLong(checksum.getValue())
+            .put(payload);
+        return encoded.flip();
+    }
+
+    /**
+     * Decodes a plan from the argument buffer, if the buffer holds a plan with the current format version and schema,
+     * and its payload is intact.
+     *
+     * @param encoded the encoded plan, e.g. a memory-mapped file
+     * @return the decoded plan, or null if the encoded plan is stale or corrupt
+     */
+    static AssemblyPlan decode(ByteBuffer encoded) {
+        AssemblyPlan plan = null;
+        if (isValid(encoded)) {
+            ByteBuffer payload = encoded.duplicate().position(encoded.position() + HEADER_SIZE);
+            try {
+                plan = readPayload(payload);
+            } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException | IllegalArgumentException e) {
+                //A payload with a matching checksum but invalid content is treated as corrupt as well
+                plan = null;
+            }
+        }
+        return plan;
+    }
+
+    private static boolean isValid(ByteBuffer encoded) {
+        ByteBuffer header = encoded.duplicate();
+        boolean isValid = header.remaining() >= HEADER_SIZE
+            && header.getInt() == MAGIC
+            && header.getShort() == FORMAT_VERSION
+            && header.getLong() == SCHEMA_FINGERPRINT;
+        if (isValid) {
+            int payloadLength = header.getInt();
+            long expectedChecksum = header.getLong();
+            isValid = payloadLength >= 0 && payloadLength == header.remaining();
+            if (isValid) {
+                CRC32 checksum = new CRC32();
+                checksum.update(header);
+                isValid = checksum.getValue() == expectedChecksum;
+            }
+        }
+        return isValid;
+    }
+
+    private static AssemblyPlan readPayload(ByteBuffer payload) {
+        ComponentNode[] nodes = new ComponentNode[payload.getInt()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = readNode(payload);
+        }
+        String[] strings = new String[payload.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int length = payload.getInt();
+            strings[i] = StandardCharsets.UTF_8.decode(payload.slice().limit(length)).toString();
+            payload.position(payload.position() + length);
+        }
+        AssemblyPlan.Builder plan = AssemblyPlan.builder();
+        int instructionCount = payload.getInt();
+        for (int i = 0; i < instructionCount; i++) {
+            Opcode opcode = OPCODES[payload.get()];
+            int sourceLine = payload.getInt();
+            if (opcode == Opcode.SET_CONTEXT) {
+                plan.setContext(strings[payload.getInt()], sourceLine);
+            } else if (opcode == Opcode.ADD_COMPONENT || opcode == Opcode.ADD_MODIFIER) {
+                int parentIndex = payload.getInt();
+                plan.addComponent(parentIndex == ABSENT_NODE_INDEX ? ComponentNode.ABSENT : nodes[parentIndex], nodes[payload.getInt()], sourceLine);
+            } else {
+                NodeType type = readType(payload);
+                Map<String, String> configurations = new HashMap<>();
+                int pairCount = payload.getInt();
+                for (int j = 0; j < pairCount; j++) {
+                    configurations.put(strings[payload.getInt()], strings[payload.getInt()]);
+                }
+                plan.configure(type, new ConfigurationNode(configurations), sourceLine);
+            }
+        }
+        check(!payload.hasRemaining(), "There are unprocessed bytes at the end of the plan.");
+        return plan.build();
+    }
+
+    private static ComponentNode readNode(ByteBuffer payload) {
+        NodeType type = readType(payload);
+        ComponentNode node = new ComponentNode(payload.getInt(), type);
+        node.setOccurrenceCountUnderParent(payload.getLong());
+        node.setModifierNode(payload.get() != 0);
+        return node;
+    }
+
+    private static NodeType readType(ByteBuffer payload) {
+        return NODE_TYPES.typeOf(payload.getShort());
+    }
+
+    /**
+     * Collects the nodes and strings referenced by the instructions of a plan into tables, and writes the payload.
+     */
+    private static final class PayloadWriter {
+        private final Map<ComponentNode, Integer> nodeIndices = new IdentityHashMap<>();
+        private final List<ComponentNode> nodes = new ArrayList<>();
+        private final Map<String, Integer> stringIndices = new HashMap<>();
+        private final List<byte[]> strings = new ArrayList<>();
+        //The node, string and instruction counts
+        private int size = Integer.BYTES + Integer.BYTES + Integer.BYTES;
+
+        void index(PlanInstruction instruction) {
+            size += Byte.BYTES + Integer.BYTES;
+            Opcode opcode = instruction.getOpcode();
+            if (opcode == Opcode.SET_CONTEXT) {
+                indexString(instruction.getContextSelector());
+                size += Integer.BYTES;
+            } else if (opcode == Opcode.ADD_COMPONENT || opcode == Opcode.ADD_MODIFIER) {
+                if (instruction.getParentNode() != ComponentNode.ABSENT) {
+                    indexNode(instruction.getParentNode());
+                }
+                indexNode(instruction.getNode());
+                size += Integer.BYTES * 2;
+            } else {
+                checkSupported(instruction.getType());
+                size += Short.BYTES + Integer.BYTES;
+                for (Map.Entry<String, String> configuration : instruction.getConfiguration().getConfigurations().entrySet()) {
+                    indexString(configuration.getKey());
+                    indexString(configuration.getValue());
+                    size += Integer.BYTES * 2;
+                }
+            }
+        }
+
+        ByteBuffer write(AssemblyPlan plan) {
+            ByteBuffer payload = ByteBuffer.allocate(size);
+            payload.putInt(nodes.size());
+            for (ComponentNode node : nodes) {
+                writeType(payload, node.getType());
+                payload.putInt(node.getLevel())
+                    .putLong(node.getOccurrenceCountUnderParent())
+                    .put((byte) (node.isModifierNode() ? 1 : 0));
+            }
+            payload.putInt(strings.size());
+            for (byte[] string : strings) {
+                payload.putInt(string.length).put(string);
+            }
+            payload.putInt(plan.size());
+            for (PlanInstruction instruction : plan.getInstructions()) {
+                writeInstruction(payload, instruction);
+            }
+            return payload.flip();
+        }
+
+        private void writeInstruction(ByteBuffer payload, PlanInstruction instruction) {
+            Opcode opcode = instruction.getOpcode();
+            payload.put((byte) opcode.ordinal()).putInt(instruction.getSourceLine());
+            if (opcode == Opcode.SET_CONTEXT) {
+                payload.putInt(stringIndices.get(instruction.getContextSelector()));
+            } else if (opcode == Opcode.ADD_COMPONENT || opcode == Opcode.ADD_MODIFIER) {
+                ComponentNode parentNode = instruction.getParentNode();
+                payload.putInt(parentNode == ComponentNode.ABSENT ? ABSENT_NODE_INDEX : nodeIndices.get(parentNode))
+                    .putInt(nodeIndices.get(instruction.getNode()));
+            } else {
+                writeType(payload, instruction.getType());
+                Map<String, String> configurations = instruction.getConfiguration().getConfigurations();
+                payload.putInt(configurations.size());
+                for (Map.Entry<String, String> configuration : configurations.entrySet()) {
+                    payload.putInt(stringIndices.get(configuration.getKey())).putInt(stringIndices.get(configuration.getValue()));
+                }
+            }
+        }
+
+        private void indexNode(ComponentNode node) {
+            if (!nodeIndices.containsKey(node)) {
+                checkSupported(node.getType());
+                nodeIndices.put(node, nodes.size());
+                nodes.add(node);
+                size += Short.BYTES + Integer.BYTES + Long.BYTES + Byte.BYTES;
+            }
+        }
+
+        private void indexString(String string) {
+            if (!stringIndices.containsKey(string)) {
+                byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+                stringIndices.put(string, strings.size());
+                strings.add(bytes);
+                size += Integer.BYTES + bytes.length;
+            }
+        }
+
+        private static void checkSupported(NodeType type) {
+            check(NODE_TYPES.idOf(type) != NodeTypeRegistry.NONE,
+                "Only node types registered in the NodeTypeRegistry can be encoded. It was: [" + type + "].");
+        }
+
+        private static void writeType(ByteBuffer payload, NodeType type) {
+            payload.putShort((short) NODE_TYPES.idOf(type));
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentAdder;
+import io.picimako.drupal.context.ComponentConfigurer;
+import io.picimako.drupal.context.ComponentContextSetter;
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+import io.picimako.drupal.context.monitoring.jfr.AssemblyEvent;
+import io.picimako.drupal.context.monitoring.jfr.ComponentAddEvent;
+import io.picimako.drupal.context.monitoring.jfr.ConfigureEvent;
+import io.picimako.drupal.context.monitoring.jfr.ContextSetEvent;
+import io.picimako.drupal.context.monitoring.jfr.StepBatchSendEvent;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+import io.picimako.drupal.context.steps.StepBatchTransport;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Executes the instructions of an {@link AssemblyPlan} in order, by delegating them to the component context setter,
+ * the component adder and the component configurer, thus invoking the underlying steps.
+ * <p>
+ * No parsing or component tree related work is done during execution, that all happened when the plan was compiled.
+ * <p>
+ * Setting the context is usually an expensive operation (e.g. a round trip to the browser), so the executor keeps track of
+ * the currently active context selector, and context setting instructions that would set the same context selector again
+ * (e.g. for subsequent configuration rows of the same component) are skipped. Since the context may be changed by other
+ * steps between the executions of plans, the active context selector is forgotten at the start of each plan execution.
+ * <p>
+ * Alternatively, an executor can collect the instructions into batches and send them to a {@link StepBatchTransport},
+ * instead of invoking the steps one by one. When the batches are sent is controlled by a {@link StepBatchPolicy}.
+ * Batching executors are not thread-safe.
+ * <p>
+ * The invocation of each instruction, or the sending of each batch, can be timed by setting an {@link AssemblyListener}
+ * via {@link #setListener(AssemblyListener)}. The invocation of each instruction, or the sending of each batch, is
+ * also emitted as a Java Flight Recorder event, see {@link AssemblyEvent}. Since the steps of a batch are invoked by
+ * the transport, there are no per instruction timings and events for batched instructions.
+ */
+public class AssemblyPlanExecutor {
+
+    private final ComponentContextSetter contextSetter;
+    private final ComponentAdder componentAdder;
+    private final ComponentConfigurer componentConfigurer;
+    private final StepBatchTransport transport;
+    private final StepBatchPolicy batchPolicy;
+    private final List<PlanInstruction> batch;
+    private int batchSize;
+    private String activeContextSelector;
+    private long elidedContextSwitchCount;
+    private AssemblyProbe probe = AssemblyProbe.DISABLED;
+    private ComponentNode lastAddedNode = ComponentNode.ABSENT;
+
+    public AssemblyPlanExecutor(ComponentContextSetter contextSetter, ComponentAdder componentAdder, ComponentConfigurer componentConfigurer) {
+        this.contextSetter = contextSetter;
+        this.componentAdder = componentAdder;
+        this.componentConfigurer = componentConfigurer;
+        this.transport = null;
+        this.batchPolicy = null;
+        this.batch = null;
+    }
+
+    /**
+     * Creates an executor that sends the instructions in batches to the argument transport, according to the argument policy.
+     *
+     * @param transport   the transport to send the batches to
+     * @param batchPolicy the policy controlling when the batches are sent
+     */
+    public AssemblyPlanExecutor(StepBatchTransport transport, StepBatchPolicy batchPolicy) {
+        this.contextSetter = null;
+        this.componentAdder = null;
+        this.componentConfigurer = null;
+        this.transport = requireNonNull(transport);
+        this.batchPolicy = requireNonNull(batchPolicy);
+        this.batch = new ArrayList<>();
+        this.batchSize = batchPolicy.getMinBatchSize();
+    }
+
+    /**
+     * Sets the listener to report the timing of each executed instruction, or in case of batching, of each sent batch to.
+     *
+     * @param listener the listener, or {@link AssemblyListener#NONE} to not report anything
+     */
+    public void setListener(AssemblyListener listener) {
+        this.probe = AssemblyProbe.of(listener);
+    }
+
+    /**
+     * Executes all instructions of the argument plan. In case of batching, the last batch is sent before this method returns.
+     *
+     * @param plan the plan to execute
+     */
+    public void execute(AssemblyPlan plan) {
+        execute(plan.getInstructions().iterator());
+    }
+
+    /**
+     * Executes the instructions of a plan, as they are provided by the argument iterator, e.g. while the plan is still
+     * being compiled. In case of batching, the last batch is sent before this method returns.
+     *
+     * @param instructions the instructions of the plan to execute
+     * @see PlanPipeline
+     */
+    public void execute(Iterator<PlanInstruction> instructions) {
+        activeContextSelector = null;
+        lastAddedNode = ComponentNode.ABSENT;
+        while (instructions.hasNext()) {
+            execute(instructions.next());
+        }
+        flush();
+    }
+
+    /**
+     * Executes a single instruction. A context setting instruction is skipped if its context selector is already the active one.
+     * <p>
+     * In case of batching, the instruction is only added to the current batch, which may or may not be sent right away.
+     *
+     * @param instruction the instruction to execute
+     */
+    public void execute(PlanInstruction instruction) {
+        Opcode opcode = instruction.getOpcode();
+        if (opcode == Opcode.SET_CONTEXT && instruction.getContextSelector().equals(activeContextSelector)) {
+            elidedContextSwitchCount++;
+        } else if (transport != null) {
+            addToBatch(instruction);
+        } else {
+            long start = probe.now();
+            invoke(instruction);
+            probe.instructionExecuted(instruction, start);
+        }
+    }
+
+    /**
+     * Sends the instructions collected so far, if there is any. This is a no-op for executors that don't batch the instructions.
+     */
+    public void flush() {
+        if (batch != null && !batch.isEmpty()) {
+            send(batch.size());
+        }
+    }
+
+    /**
+     * Returns the number of context setting instructions that were skipped by this executor, because they would have set
+     * the already active context selector again.
+     *
+     * @return the number of skipped context setting instructions
+     */
+    public long getElidedContextSwitchCount() {
+        return elidedContextSwitchCount;
+    }
+
+    AssemblyProbe getProbe() {
+        return probe;
+    }
+
+    /**
+     * Returns the current batch size, which changes over time if the batch policy is adaptive.
+     *
+     * @return the batch size, or 0 for executors that don't batch the instructions
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    private void invoke(PlanInstruction instruction) {
+        Opcode opcode = instruction.getOpcode();
+        if (opcode == Opcode.SET_CONTEXT) {
+            ContextSetEvent event = new ContextSetEvent(instruction.getContextSelector());
+            event.begin();
+            contextSetter.setContext(instruction.getContextSelector());
+            event.commit(null, instruction.getSourceLine());
+            activeContextSelector = instruction.getContextSelector();
+        } else if (opcode == Opcode.ADD_COMPONENT || opcode == Opcode.ADD_MODIFIER) {
+            ComponentAddEvent event = new ComponentAddEvent();
+            event.begin();
+            componentAdder.addComponentToPage(instruction.getParentNode(), instruction.getNode());
+            event.commit(instruction.getNode(), instruction.getSourceLine());
+            lastAddedNode = instruction.getNode();
+        } else {
+            ConfigureEvent event = new ConfigureEvent();
+            event.begin();
+            componentConfigurer.configure(instruction.getType(), instruction.getConfiguration());
+            event.commit(lastAddedNode, instruction.getSourceLine());
+        }
+    }
+
+    private void addToBatch(PlanInstruction instruction) {
+        if (batchPolicy.isFlushPerRootComponent() && isRootComponentAddition(instruction)) {
+            //The context setting right before the root component belongs to the root component, so it is kept for the next batch
+            int lastIndex = batch.size() - 1;
+            send(lastIndex >= 0 && batch.get(lastIndex).getOpcode() == Opcode.SET_CONTEXT ? lastIndex : batch.size());
+        }
+        batch.add(instruction);
+        if (instruction.getOpcode() == Opcode.SET_CONTEXT) {
+            activeContextSelector = instruction.getContextSelector();
+        }
+        if (batch.size() >= batchSize) {
+            send(batch.size());
+        }
+    }
+
+    private static boolean isRootComponentAddition(PlanInstruction instruction) {
+        return instruction.getOpcode() == Opcode.ADD_COMPONENT && instruction.getParentNode() == ComponentNode.ABSENT;
+    }
+
+    /**
+     * Sends the first {@code count} instructions of the current batch, and adapts the batch size to the round trip time
+     * if the policy is adaptive.
+     * <p>
+     * The instructions are removed from the batch before sending them, so that they are not sent again after a failure.
+     * Since it is unknown in that case which context is active, the active context selector is forgotten.
+     */
+    private void send(int count) {
+        if (count > 0) {
+            List<PlanInstruction> operations = List.copyOf(batch.subList(0, count));
+            batch.subList(0, count).clear();
+            long start = batchPolicy.getTicker().read();
+            long probeStart = probe.now();
+            StepBatchSendEvent event = new StepBatchSendEvent(count, operations.get(0).getSourceLine());
+            event.begin();
+            try {
+                transport.send(operations);
+            } catch (RuntimeException e) {
+                activeContextSelector = null;
+                throw e;
+            }
+            event.commit(null, operations.get(count - 1).getSourceLine());
+            probe.batchSent(operations, probeStart);
+            adaptBatchSize(batchPolicy.getTicker().read() - start);
+        }
+    }
+
+    private void adaptBatchSize(long roundTripNanos) {
+        if (batchPolicy.isAdaptive()) {
+            if (roundTripNanos < batchPolicy.getTargetRoundTrip().toNanos()) {
+                batchSize = (int) Math.min((long) batchSize * 2, batchPolicy.getMaxBatchSize());
+            } else {
+                batchSize = Math.max(batchSize / 2, batchPolicy.getMinBatchSize());
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package io.picimako.drupal.context.plan;
+
+import com.google.common.hash.HashCode;
+import io.picimako.drupal.context.LayoutCache;
+import io.picimako.drupal.context.util.LayoutHashing;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A persistent cache of compiled {@link AssemblyPlan}s, stored as binary files in a local directory, so that JVMs assembling
+ * the same layouts (e.g. parallel or subsequent CI runs) can load the plans compiled by others, instead of parsing the layouts,
+ * building the component trees and assembling the context selectors again.
+ * <p>
+ * Each layout is stored in a separate file named after the hash of the layout contents, in the format described in
+ * {@link AssemblyPlanCodec}. The files are loaded via memory-mapping them.
+ * <p>
+ * If a file is stale (e.g. it was written when the node types or the context selectors were different) or corrupt,
+ * the layout is compiled again, and the file is overwritten with the new plan. Files are written to a temporary file first,
+ * then moved in place, so that other JVMs never read a partially written file.
+ * <p>
+ * Failures of the compilation are propagated to the caller, and nothing is written for the layout in that case. If the
+ * compiled plan cannot be written (e.g. the disk is full), it is still returned, it is just compiled again next time.
+ * <p>
+ * This cache is usually not used on its own, but as the backing cache of an in-memory cache, so that each plan is loaded
+ * from disk at most once per JVM:
+ * <pre>
+ * ParsedLayoutCache.withMaximumSize(100, PlanFileCache.inDirectory(Path.of("target/plan-cache")))
+ * </pre>
+ */
+public final class PlanFileCache implements LayoutCache<AssemblyPlan> {
+
+    private static final String FILE_EXTENSION = ".plan";
+    private final Path directory;
+
+    private PlanFileCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Creates a cache that stores the plans in the argument directory. The directory is created if it doesn't exist.
+     *
+     * @param directory the directory to store the plans in
+     * @return the cache
+     * @throws UncheckedIOException when the directory cannot be created
+     */
+    public static PlanFileCache inDirectory(Path directory) {
+        try {
+            Files.createDirectories(requireNonNull(directory));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the plan cache directory: " + directory, e);
+        }
+        return new PlanFileCache(directory);
+    }
+
+    @Override
+    public AssemblyPlan get(CharSequence layout, Supplier<AssemblyPlan> parser) {
+        return get(LayoutHashing.hash(layout), parser);
+    }
+
+    @Override
+    public AssemblyPlan get(List<? extends CharSequence> layoutParts, Supplier<AssemblyPlan> parser) {
+        return get(LayoutHashing.hash(layoutParts), parser);
+    }
+
+    private AssemblyPlan get(HashCode key, Supplier<AssemblyPlan> parser) {
+        Path planFile = directory.resolve(key + FILE_EXTENSION);
+        AssemblyPlan plan = load(planFile);
+        if (plan == null) {
+            plan = parser.get();
+            store(planFile, plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Returns the plan stored in the argument file, or null if there is no such file, or it is stale, corrupt or unreadable.
+     */
+    private static AssemblyPlan load(Path planFile) {
+        AssemblyPlan plan = null;
+        if (Files.isRegularFile(planFile)) {
+            try (FileChannel channel = FileChannel.open(planFile, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                plan = AssemblyPlanCodec.decode(mapped);
+            } catch (IOException e) {
+                //An unreadable file is treated the same way as a stale one, it is overwritten with a freshly compiled plan
+                plan = null;
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Writes the plan to the argument file. If that fails, the plan is not cached, and the temporary file is deleted.
+     */
+    private void store(Path planFile, AssemblyPlan plan) {
+        ByteBuffer encoded = AssemblyPlanCodec.encode(plan);
+        Path tempFile = null;
+        try {
+            tempFile = Files.createTempFile(directory, planFile.getFileName().toString(), ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                while (encoded.hasRemaining()) {
+                    channel.write(encoded);
+                }
+            }
+            moveInPlace(tempFile, planFile);
+        } catch (IOException e) {
+            //The plan is still usable, it is only compiled again the next time
+        } finally {
+            deleteIfExists(tempFile);
+        }
+    }
+
+    private static void deleteIfExists(Path tempFile) {
+        if (tempFile != null) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                //A leftover temporary file is never loaded, since it doesn't have the extension of plan files
+            }
+        }
+    }
+
+    private static void moveInPlace(Path tempFile, Path planFile) throws IOException {
+        try {
+            Files.move(tempFile, planFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, planFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.NodeType;
+import lombok.Getter;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A single, immutable instruction of an {@link AssemblyPlan}.
+ * <p>
+ * Each instruction has an {@link Opcode}, the number of the line (or table row) in the layout it was compiled from, and
+ * the operands that are relevant for its opcode:
+ * <ul>
+ *     <li>{@link Opcode#SET_CONTEXT}: the context selector,</li>
+ *     <li>{@link Opcode#ADD_COMPONENT} and {@link Opcode#ADD_MODIFIER}: the component node to add and its parent node,
+ *     which is {@link ComponentNode#ABSENT} for root level components,</li>
+ *     <li>{@link Opcode#CONFIGURE}: the type of the configured component and the configuration.</li>
+ * </ul>
+ * The operands not relevant for the opcode are null.
+ */
+@Getter
+public final class PlanInstruction {
+    private final Opcode opcode;
+    private final int sourceLine;
+    private final String contextSelector;
+    private final ComponentNode parentNode;
+    private final ComponentNode node;
+    private final NodeType type;
+    private final ConfigurationNode configuration;
+
+    private PlanInstruction(String contextSelector, int sourceLine) {
+        this.opcode = Opcode.SET_CONTEXT;
+        this.sourceLine = sourceLine;
+        this.contextSelector = contextSelector;
+        this.parentNode = null;
+        this.node = null;
+        this.type = null;
+        this.configuration = null;
+    }
+
+    private PlanInstruction(Opcode opcode, int sourceLine, ComponentNode parentNode, ComponentNode node) {
+        this.opcode = opcode;
+        this.sourceLine = sourceLine;
+        this.contextSelector = null;
+        this.parentNode = parentNode;
+        this.node = node;
+        this.type = node.getType();
+        this.configuration = null;
+    }
+
+    private PlanInstruction(int sourceLine, NodeType type, ConfigurationNode configuration) {
+        this.opcode = Opcode.CONFIGURE;
+        this.sourceLine = sourceLine;
+        this.contextSelector = null;
+        this.parentNode = null;
+        this.node = null;
+        this.type = type;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Creates an instruction that sets the argument context selector as the component context.
+     *
+     * @param contextSelector the context selector
+     * @param sourceLine      the number of the line the instruction is compiled from
+     * @return the instruction
+     */
+    public static PlanInstruction setContext(String contextSelector, int sourceLine) {
+        return new PlanInstruction(requireNonNull(contextSelector), sourceLine);
+    }
+
+    /**
+     * Creates an instruction that adds the argument component to the content, either as a component or as a modifier,
+     * based on the type of the node.
+     *
+     * @param parentNode the parent of the node, or {@link ComponentNode#ABSENT} for root level components
+     * @param node       the component node to add
+     * @param sourceLine the number of the line the instruction is compiled from
+     * @return the instruction
+     */
+    public static PlanInstruction addComponent(ComponentNode parentNode, ComponentNode node, int sourceLine) {
+        Opcode opcode = node.isModifierNode() ? Opcode.ADD_MODIFIER : Opcode.ADD_COMPONENT;
+        return new PlanInstruction(opcode, sourceLine, requireNonNull(parentNode), node);
+    }
+
+    /**
+     * Creates an instruction that configures the component of the argument type.
+     *
+     * @param type          the type of the configured component
+     * @param configuration the configuration to apply
+     * @param sourceLine    the number of the line the instruction is compiled from
+     * @return the instruction
+     */
+    public static PlanInstruction configure(NodeType type, ConfigurationNode configuration, int sourceLine) {
+        return new PlanInstruction(sourceLine, requireNonNull(type), requireNonNull(configuration));
+    }
+
+    /**
+     * Returns a human readable representation of this instruction, e.g. {@code ADD_COMPONENT(IMAGE)}, or
+     * {@code SET_CONTEXT(.container:nth-child(1) .layout)}.
+     */
+    @Override
+    public String toString() {
+        String operands;
+        if (opcode == Opcode.SET_CONTEXT) {
+            operands = contextSelector;
+        } else if (opcode == Opcode.CONFIGURE) {
+            operands = type + ", " + configuration.getConfigurations();
+        } else {
+            operands = String.valueOf(type);
+        }
+        return opcode + "(" + operands + ")";
+    }
+
+    /**
+     * The kinds of actions a plan instruction can take.
+     */
+    public enum Opcode {
+        SET_CONTEXT,
+        ADD_COMPONENT,
+        ADD_MODIFIER,
+        CONFIGURE
+    }
+}
@@ -0,0 +1,239 @@
+package io.picimako.drupal.context.plan;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs the compilation and the execution of a layout in a pipeline, so that parsing and planning ahead overlaps with
+ * the (usually much slower) invocation of the steps.
+ * <p>
+ * The producer, which parses the layout and emits its instructions, runs on a separate thread, while the instructions are
+ * executed on the calling thread, so that the steps are invoked on the same thread as without pipelining (step definitions
+ * and WebDriver instances are often bound to threads). The instructions are passed through a bounded queue, so that
+ * the producer is blocked when it gets too far ahead, and memory usage stays bounded even for huge layouts.
+ * <p>
+ * If either side fails, the other side is cancelled, and the failure is reported as an {@link AssemblyFailedException}
+ * with the number of the layout line it originates from:
+ * <ul>
+ *     <li>producers are expected to throw {@link AssemblyFailedException}s themselves, since only they know the line they are
+ *     processing, other failures of the producer are reported with the line of the last instruction it emitted. Producer
+ *     failures are passed to the executing thread out of band, so the execution stops before the next instruction,
+ *     and the instructions already queued are not executed,</li>
+ *     <li>failures of the execution are reported with the line of the instruction being executed. In case of a batching
+ *     executor it is the last instruction added to the batch being sent.</li>
+ * </ul>
+ * Note that unlike with separate compilation and execution, the steps for the beginning of a layout are invoked before
+ * the rest of the layout is validated.
+ * <p>
+ * When the execution ends before the producer, the producer is cancelled: it is interrupted, and the next instruction it
+ * emits fails with a {@link java.util.concurrent.CancellationException}. The pipeline waits for the producer to stop only
+ * for a limited time, since a producer blocked in an input that doesn't respond to interrupts (e.g. a socket or a console)
+ * may never stop. Such a producer is abandoned: it runs on a daemon thread, so it doesn't keep the JVM alive, and it stops
+ * without emitting anything further once its input unblocks.
+ * <p>
+ * If the executor has a listener, the depth of the queue is reported to it each time an instruction is taken from the queue.
+ */
+public final class PlanPipeline {
+
+    private static final Object END_OF_PLAN = new Object();
+    private static final Duration DEFAULT_PRODUCER_STOP_TIMEOUT = Duration.ofSeconds(5);
+    private final int capacity;
+    private final Duration producerStopTimeout;
+
+    /**
+     * Creates a pipeline in which the producer can get at most the argument number of instructions ahead of the execution,
+     * and a cancelled producer is waited for at most 5 seconds.
+     *
+     * @param capacity the capacity of the instruction queue
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    public PlanPipeline(int capacity) {
+        this(capacity, DEFAULT_PRODUCER_STOP_TIMEOUT);
+    }
+
+    /**
+     * Creates a pipeline in which the producer can get at most the argument number of instructions ahead of the execution,
+     * and a cancelled producer is waited for at most the argument amount of time before it is abandoned.
+     *
+     * @param capacity            the capacity of the instruction queue
+     * @param producerStopTimeout the maximum time to wait for a cancelled producer to stop
+     * @throws IllegalArgumentException when the capacity is not positive, or the timeout is negative
+     */
+    public PlanPipeline(int capacity, Duration producerStopTimeout) {
+        check(capacity > 0, "The capacity of the pipeline should be greater than 0. It was: [" + capacity + "].");
+        check(!producerStopTimeout.isNegative(), "The producer stop timeout should not be negative. It was: [" + producerStopTimeout + "].");
+        this.capacity = capacity;
+        this.producerStopTimeout = producerStopTimeout;
+    }
+
+    /**
+     * Runs the argument producer on a separate thread, and executes the instructions it emits with the argument executor
+     * on the calling thread. Returns when all instructions are executed, or when either side fails.
+     *
+     * @param producer the producer emitting the instructions into the consumer it receives
+     * @param executor the executor to execute the instructions with
+     * @throws AssemblyFailedException when either the producer or the execution fails
+     */
+    public void run(Consumer<Consumer<PlanInstruction>> producer, AssemblyPlanExecutor executor) {
+        requireNonNull(producer);
+        InstructionChannel instructions = new InstructionChannel(new ArrayBlockingQueue<>(capacity), executor.getProbe());
+        Thread producerThread = new Thread(() -> produce(producer, instructions), "assembly-plan-producer");
+        producerThread.setDaemon(true);
+        producerThread.start();
+        try {
+            executor.execute(instructions);
+        } catch (AssemblyFailedException e) {
+            throw e;
+        } catch (RuntimeException | Error e) {
+            throw new AssemblyFailedException(instructions.sourceLine, e);
+        } finally {
+            //Cancels the producer if it is still running, and waits for it a limited time, so that a producer blocked
+            //in its input doesn't block the assembly too
+            instructions.cancel();
+            producerThread.interrupt();
+            Uninterruptibles.joinUninterruptibly(producerThread, producerStopTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void produce(Consumer<Consumer<PlanInstruction>> producer, InstructionChannel instructions) {
+        try {
+            producer.accept(instructions::emit);
+            instructions.end();
+        } catch (CancellationException e) {
+            //The execution has already failed, there is no one to report to
+        } catch (RuntimeException | Error e) {
+            instructions.fail(e);
+        }
+    }
+
+    /**
+     * Passes the instructions from the producer to the executing thread through a bounded queue, and iterates over them on
+     * the executing thread, blocking until the producer emits the next one.
+     * <p>
+     * Failures of the producer are passed out of band: the instructions still in the queue are dropped, and the failure
+     * is thrown on the executing thread before it would execute the next instruction.
+     */
+    private static final class InstructionChannel implements Iterator<PlanInstruction> {
+        private final BlockingQueue<Object> queue;
+        private final AssemblyProbe probe;
+        private volatile AssemblyFailedException producerFailure;
+        private volatile boolean isCancelled;
+        //Written only by the producer
+        private int lastEmittedLine;
+        //Accessed only by the executing thread
+        private PlanInstruction next;
+        private boolean isEndReached;
+        private int sourceLine;
+
+        InstructionChannel(BlockingQueue<Object> queue, AssemblyProbe probe) {
+            this.queue = queue;
+            this.probe = probe;
+        }
+
+        void emit(PlanInstruction instruction) {
+            put(requireNonNull(instruction));
+            lastEmittedLine = instruction.getSourceLine();
+        }
+
+        void end() {
+            put(END_OF_PLAN);
+        }
+
+        /**
+         * Reports the failure of the producer, with the line of the last instruction it emitted, unless the failure is
+         * already an {@link AssemblyFailedException}.
+         */
+        void fail(Throwable cause) {
+            producerFailure = cause instanceof AssemblyFailedException
+                ? (AssemblyFailedException) cause
+                : new AssemblyFailedException(lastEmittedLine, cause);
+            queue.clear();
+            //Wakes up the executing thread if it is waiting for an instruction. The producer is the only one putting elements
+            //into the queue, so there is room for this after clearing it.
+            queue.offer(END_OF_PLAN);
+        }
+
+        /**
+         * Makes the producer fail with a {@link CancellationException} at its next instruction, even if it swallows
+         * interrupts, or it is blocked putting an instruction into the full queue.
+         */
+        void cancel() {
+            isCancelled = true;
+            queue.clear();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !isEndReached) {
+                throwIfProducerFailed();
+                Object element = take();
+                throwIfProducerFailed();
+                if (element == END_OF_PLAN) {
+                    isEndReached = true;
+                } else {
+                    next = (PlanInstruction) element;
+                    probe.queueDepthSampled(queue.size());
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public PlanInstruction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("There is no more instruction in the pipeline.");
+            }
+            PlanInstruction instruction = next;
+            next = null;
+            sourceLine = instruction.getSourceLine();
+            return instruction;
+        }
+
+        private void throwIfProducerFailed() {
+            AssemblyFailedException failure = producerFailure;
+            if (failure != null) {
+                isEndReached = true;
+                next = null;
+                throw failure;
+            }
+        }
+
+        private void put(Object element) {
+            try {
+                throwIfCancelled();
+                queue.put(element);
+                throwIfCancelled();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("The assembly was cancelled.");
+            }
+        }
+
+        private void throwIfCancelled() {
+            if (isCancelled) {
+                throw new CancellationException("The assembly was cancelled.");
+            }
+        }
+
+        private Object take() {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssemblyFailedException(sourceLine, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentAdder;
+import io.picimako.drupal.context.ComponentConfigurer;
+import io.picimako.drupal.context.ComponentContextSetter;
+import io.picimako.drupal.context.LayoutCache;
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+import io.picimako.drupal.context.steps.DrupalPageSteps;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs the {@link AssemblyPlan}s of a content assembler, independently of the format of the layouts they are compiled from:
+ * <ul>
+ *     <li>looks up the plans in the layout cache of the assembler, if it has one,</li>
+ *     <li>executes the plans with the component adder, configurer and context setter of the assembler, either after
+ *     compilation, or pipelined with it,</li>
+ *     <li>reports the assemblies to the listener of the assembler, and counts the context settings elided during
+ *     the executions.</li>
+ * </ul>
+ * Like the assemblers, it is not thread-safe, it is meant to be used only by the thread its assembler is confined to.
+ *
+ * @see io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler
+ * @see io.picimako.drupal.context.table.TableBasedContentAssembler
+ */
+public final class PlanRunner {
+
+    private final ComponentAdder componentAdder;
+    private final ComponentContextSetter contextSetter;
+    private final ComponentConfigurer componentConfigurer;
+    private final LayoutCache<AssemblyPlan> layoutCache;
+    private long elidedContextSwitchCount;
+    private AssemblyProbe probe = AssemblyProbe.DISABLED;
+
+    /**
+     * Creates a new {@link PlanRunner} instance that compiles each layout.
+     *
+     * @param steps               a step definitions class for handling component addition and context setting
+     * @param componentConfigurer the configurer of the components
+     */
+    public PlanRunner(DrupalPageSteps steps, ComponentConfigurer componentConfigurer) {
+        this.componentAdder = new ComponentAdder(requireNonNull(steps));
+        this.contextSetter = new ComponentContextSetter(steps);
+        this.componentConfigurer = requireNonNull(componentConfigurer);
+        this.layoutCache = null;
+    }
+
+    /**
+     * Creates a new {@link PlanRunner} instance that caches the plans compiled from layouts in the argument cache.
+     *
+     * @param steps               a step definitions class for handling component addition and context setting
+     * @param componentConfigurer the configurer of the components
+     * @param layoutCache         the cache to store the compiled plans in, possibly shared with other assemblers
+     */
+    public PlanRunner(DrupalPageSteps steps, ComponentConfigurer componentConfigurer, LayoutCache<AssemblyPlan> layoutCache) {
+        this.componentAdder = new ComponentAdder(requireNonNull(steps));
+        this.contextSetter = new ComponentContextSetter(steps);
+        this.componentConfigurer = requireNonNull(componentConfigurer);
+        this.layoutCache = requireNonNull(layoutCache);
+    }
+
+    /**
+     * Sets the listener to report the assemblies, the instructions executed, and the configuration properties applied to.
+     *
+     * @param listener the listener, or {@link AssemblyListener#NONE} to not report anything
+     */
+    public void setListener(AssemblyListener listener) {
+        this.probe = AssemblyProbe.of(listener);
+        componentConfigurer.setListener(listener);
+    }
+
+    public AssemblyProbe getProbe() {
+        return probe;
+    }
+
+    public ComponentContextSetter getContextSetter() {
+        return contextSetter;
+    }
+
+    /**
+     * Returns the number of context settings skipped so far, because they would have set the already active context
+     * selector again.
+     *
+     * @return the number of skipped context settings
+     */
+    public long getElidedContextSwitchCount() {
+        return elidedContextSwitchCount;
+    }
+
+    /**
+     * Returns the plan cached for the argument layout contents, or if there is none, or there is no cache, compiles
+     * the layout with the argument compilation, and reports to the listener whether the plan was found in the cache.
+     *
+     * @param layout      the layout contents, e.g. a tree view based component tree
+     * @param compilation the compilation to call when the layout is not yet cached
+     * @return the cached or compiled plan
+     */
+    public AssemblyPlan cachedOrCompiled(CharSequence layout, Supplier<AssemblyPlan> compilation) {
+        return cachedOrCompiled(compileOnMiss -> layoutCache.get(layout, compileOnMiss), compilation);
+    }
+
+    /**
+     * Returns the plan cached for the argument layout parts, the same way as {@link #cachedOrCompiled(CharSequence, Supplier)}
+     * does for layouts that consist of multiple parts.
+     *
+     * @param layoutParts the parts of the layout contents in order, e.g. the cells of a data table
+     * @param compilation the compilation to call when the layout is not yet cached
+     * @return the cached or compiled plan
+     * @see LayoutCache#get(List, Supplier)
+     */
+    public AssemblyPlan cachedOrCompiled(List<? extends CharSequence> layoutParts, Supplier<AssemblyPlan> compilation) {
+        return cachedOrCompiled(compileOnMiss -> layoutCache.get(layoutParts, compileOnMiss), compilation);
+    }
+
+    /**
+     * Runs the argument assembly, and reports its start, and its end or failure to the listener.
+     *
+     * @param assembly the assembly to run
+     */
+    public void monitor(Runnable assembly) {
+        long start = probe.assemblyStarted();
+        try {
+            assembly.run();
+        } catch (RuntimeException e) {
+            probe.assemblyFailed(e, start);
+            throw e;
+        }
+        probe.assemblyFinished(start);
+    }
+
+    /**
+     * Executes the argument plan, invoking the steps that add and configure the components.
+     *
+     * @param plan the plan to execute
+     */
+    public void execute(AssemblyPlan plan) {
+        execute(plan, new AssemblyPlanExecutor(contextSetter, componentAdder, componentConfigurer));
+    }
+
+    /**
+     * Executes the argument plan with the argument executor, after setting the listener on the executor.
+     *
+     * @param plan     the plan to execute
+     * @param executor the executor to execute the plan with
+     */
+    public void execute(AssemblyPlan plan, AssemblyPlanExecutor executor) {
+        execute(executor, planExecutor -> planExecutor.execute(plan));
+    }
+
+    /**
+     * Runs the argument producer in a {@link PlanPipeline}, and executes the instructions it emits, invoking the steps
+     * that add and configure the components.
+     *
+     * @param producer the producer emitting the instructions into the consumer it receives
+     * @param capacity the maximum number of instructions emitted ahead of the invocation of the steps
+     * @throws AssemblyFailedException when either the producer or the execution fails
+     */
+    public void executePipelined(Consumer<Consumer<PlanInstruction>> producer, int capacity) {
+        PlanPipeline pipeline = new PlanPipeline(capacity);
+        execute(new AssemblyPlanExecutor(contextSetter, componentAdder, componentConfigurer), executor -> pipeline.run(producer, executor));
+    }
+
+    private AssemblyPlan cachedOrCompiled(Function<Supplier<AssemblyPlan>, AssemblyPlan> cacheLookup, Supplier<AssemblyPlan> compilation) {
+        AssemblyPlan plan;
+        if (layoutCache != null) {
+            AtomicBoolean isCompiled = new AtomicBoolean();
+            plan = cacheLookup.apply(() -> {
+                isCompiled.set(true);
+                return compilation.get();
+            });
+            probe.layoutCacheLookedUp(!isCompiled.get());
+        } else {
+            plan = compilation.get();
+        }
+        return plan;
+    }
+
+    private void execute(AssemblyPlanExecutor executor, Consumer<AssemblyPlanExecutor> execution) {
+        long elidedBefore = executor.getElidedContextSwitchCount();
+        if (probe.isEnabled()) {
+            executor.setListener(probe.getListener());
+        }
+        try {
+            execution.accept(executor);
+        } finally {
+            elidedContextSwitchCount += executor.getElidedContextSwitchCount() - elidedBefore;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package io.picimako.drupal.context.plan;
+
+import com.google.common.base.Ticker;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Controls when an {@link AssemblyPlanExecutor} sends the batch of collected operations to its
+ * {@link io.picimako.drupal.context.steps.StepBatchTransport}.
+ * <p>
+ * A batch is always sent at the end of the execution of each plan, and when {@link AssemblyPlanExecutor#flush()} is called,
+ * e.g. when the result of the operations is needed for further steps. Besides that, a batch is sent:
+ * <ul>
+ *     <li>when it reaches the current batch size, which is the maximum batch size by default,</li>
+ *     <li>optionally, before each root level component, so that each batch contains the operations of at most one root
+ *     level component along with its descendants.</li>
+ * </ul>
+ * Optionally, the batch size can adapt to the observed round trip times of the batches: it is doubled (up to the maximum
+ * batch size) after each batch whose round trip was shorter than the target round trip time, and it is halved (down to
+ * the minimum batch size) after each batch whose round trip took longer. This way batches amortize the overhead of the round
+ * trips as much as possible, without running into e.g. script timeouts.
+ * <p>
+ * For example:
+ * <pre>
+ * StepBatchPolicy.builder()
+ *     .flushPerRootComponent()
+ *     .maxBatchSize(200)
+ *     .adaptToRoundTrip(Duration.ofSeconds(2), 10)
+ *     .build();
+ * </pre>
+ */
+@Getter
+public final class StepBatchPolicy {
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private final boolean flushPerRootComponent;
+    private final int maxBatchSize;
+    private final int minBatchSize;
+    /**
+     * The target round trip time of a batch, or null if the batch size doesn't adapt to the round trip times.
+     */
+    private final Duration targetRoundTrip;
+    @Getter(AccessLevel.PACKAGE)
+    private final Ticker ticker;
+
+    private StepBatchPolicy(Builder builder) {
+        this.flushPerRootComponent = builder.flushPerRootComponent;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.minBatchSize = builder.targetRoundTrip != null ? builder.minBatchSize : builder.maxBatchSize;
+        this.targetRoundTrip = builder.targetRoundTrip;
+        this.ticker = builder.ticker;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean isAdaptive() {
+        return targetRoundTrip != null;
+    }
+
+    /**
+     * Builds a {@link StepBatchPolicy}. By default, batches are sent only when they reach 100 operations.
+     */
+    public static final class Builder {
+        private boolean flushPerRootComponent;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private int minBatchSize = 1;
+        private Duration targetRoundTrip;
+        private Ticker ticker = Ticker.systemTicker();
+
+        private Builder() {
+        }
+
+        /**
+         * Sends the collected batch before each root level component.
+         *
+         * @return this builder
+         */
+        public Builder flushPerRootComponent() {
+            this.flushPerRootComponent = true;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of operations sent in one batch.
+         *
+         * @param maxBatchSize the maximum batch size
+         * @return this builder
+         * @throws IllegalArgumentException when the batch size is not positive
+         */
+        public Builder maxBatchSize(int maxBatchSize) {
+            check(maxBatchSize > 0, "The maximum batch size should be greater than 0. It was: [" + maxBatchSize + "].");
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Makes the batch size adapt to the observed round trip times of the batches, starting from the minimum batch size.
+         *
+         * @param targetRoundTrip the round trip time the batches should stay under
+         * @param minBatchSize    the minimum number of operations sent in one batch
+         * @return this builder
+         * @throws IllegalArgumentException when the target round trip time or the batch size is not positive
+         */
+        public Builder adaptToRoundTrip(Duration targetRoundTrip, int minBatchSize) {
+            check(!targetRoundTrip.isNegative() && !targetRoundTrip.isZero(),
+                "The target round trip time should be positive. It was: [" + targetRoundTrip + "].");
+            check(minBatchSize > 0, "The minimum batch size should be greater than 0. It was: [" + minBatchSize + "].");
+            this.targetRoundTrip = targetRoundTrip;
+            this.minBatchSize = minBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets the ticker to measure the round trip times with. Meant for testing purposes.
+         */
+        Builder ticker(Ticker ticker) {
+            this.ticker = requireNonNull(ticker);
+            return this;
+        }
+
+        /**
+         * Builds the policy.
+         *
+         * @return the policy
+         * @throws IllegalArgumentException when the minimum batch size is greater than the maximum batch size
+         */
+        public StepBatchPolicy build() {
+            check(targetRoundTrip == null || minBatchSize <= maxBatchSize, "The minimum batch size [" + minBatchSize
+                + "] should not be greater than the maximum batch size [" + maxBatchSize + "].");
+            return new StepBatchPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.picimako.drupal.context.steps;
+
+import io.picimako.drupal.context.plan.PlanInstruction;
+
+import java.util.List;
+
+/**
+ * An optional alternative to {@link DrupalPageSteps} and {@link DrupalConfigurationSteps}, that receives the editor operations
+ * (context setting, component addition and configuration) in ordered batches, instead of one method call per operation.
+ * <p>
+ * This is useful when each call into the browser is expensive, e.g. with a remote Selenium grid, so that an implementation
+ * can send a whole batch in one round trip, e.g. as a single {@code executeScript} call or a single composite request.
+ * <p>
+ * The batches are assembled and sent by an {@link io.picimako.drupal.context.plan.AssemblyPlanExecutor} created with
+ * a {@link io.picimako.drupal.context.plan.StepBatchPolicy} that controls when a batch is sent.
+ */
+@FunctionalInterface
+public interface StepBatchTransport {
+
+    /**
+     * Executes the argument operations on the editor, in order.
+     * <p>
+     * The operations are the instructions of an {@link io.picimako.drupal.context.plan.AssemblyPlan}, and only the ones
+     * that actually need to be executed: context settings that would not change the active context are already left out.
+     * If this method fails, the failure is propagated to the caller of the executor, and the batch is not sent again.
+     *
+     * @param operations the operations to execute, never empty
+     */
+    void send(List<PlanInstruction> operations);
+}
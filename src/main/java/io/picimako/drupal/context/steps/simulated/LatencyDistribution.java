@@ -0,0 +1,72 @@
+package io.picimako.drupal.context.steps.simulated;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * A distribution of the latency of a simulated editor operation, from which latencies are sampled.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * No latency at all.
+     */
+    LatencyDistribution NONE = random -> 0L;
+
+    /**
+     * Samples a latency from this distribution.
+     *
+     * @param random the source of randomness, so that simulations can be reproduced with the same seed
+     * @return the sampled latency in nanoseconds, never negative
+     */
+    long sampleNanos(Random random);
+
+    /**
+     * Returns a distribution that always returns the argument latency.
+     *
+     * @param latency the latency
+     * @return the distribution
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        long nanos = checkNotNegative(latency).toNanos();
+        return random -> nanos;
+    }
+
+    /**
+     * Returns a distribution that returns latencies uniformly distributed between the argument bounds.
+     *
+     * @param min the minimum latency, inclusive
+     * @param max the maximum latency, exclusive
+     * @return the distribution
+     * @throws IllegalArgumentException when the minimum is negative or greater than the maximum
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = checkNotNegative(min).toNanos();
+        long maxNanos = max.toNanos();
+        check(minNanos <= maxNanos, "The minimum latency [" + min + "] should not be greater than the maximum latency [" + max + "].");
+        return random -> minNanos == maxNanos ? minNanos : minNanos + (long) (random.nextDouble() * (maxNanos - minNanos));
+    }
+
+    /**
+     * Returns a log-normal distribution with the argument median, which resembles the long-tailed latency of browser
+     * round trips: most operations take around the median, but some of them take many times longer.
+     *
+     * @param median the median latency
+     * @param sigma  the standard deviation of the logarithm of the latency, e.g. 0.5 for a moderately long tail
+     * @return the distribution
+     * @throws IllegalArgumentException when the median or sigma is negative
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        long medianNanos = checkNotNegative(median).toNanos();
+        check(sigma >= 0, "Sigma should not be negative. It was: [" + sigma + "].");
+        return random -> (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    private static Duration checkNotNegative(Duration latency) {
+        check(!latency.isNegative(), "The latency should not be negative. It was: [" + latency + "].");
+        return latency;
+    }
+}
@@ -0,0 +1,234 @@
+package io.picimako.drupal.context.steps.simulated;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.picimako.drupal.context.ComponentAdder;
+import io.picimako.drupal.context.ComponentConfigurer;
+import io.picimako.drupal.context.ComponentContextSetter;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.plan.PlanInstruction;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
+import io.picimako.drupal.context.steps.DrupalPageSteps;
+import io.picimako.drupal.context.steps.ImageComponentSteps;
+import io.picimako.drupal.context.steps.StepBatchTransport;
+import io.picimako.drupal.context.steps.YouTubeComponentSteps;
+import io.picimako.drupal.context.steps.simulated.StepRecording.Operation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A browser-free backend for the step definitions, which records every operation performed on it instead of executing it
+ * in a real editor, and optionally simulates the latency of the operations.
+ * <p>
+ * It is meant for benchmarking the assemblers, and for testing scheduling, batching and pipelining against realistic timings,
+ * without a browser:
+ * <pre>
+ * SimulatedEditor editor = SimulatedEditor.withLatency(latency);
+ * new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent(componentTree);
+ * editor.getRecording(); //the operations performed
+ * </pre>
+ * Configurations are recorded at the level of {@link ComponentConfigurer#configure(NodeType, ConfigurationNode)}, with
+ * the node type and all properties of the configuration node, regardless of which steps the configurers of the node type
+ * would invoke. They are still validated the same way, e.g. configuring a node type without configurers fails.
+ * <p>
+ * The same editor can also be used as a {@link StepBatchTransport} via {@link #batchTransport()}, in which case the operations
+ * are recorded the same way as if the steps were invoked one by one, but a batch costs only one round trip.
+ * <p>
+ * Just like a real browser session, an editor is meant to be used by one assembly at a time.
+ */
+public final class SimulatedEditor {
+
+    private final StepRecording recording = new StepRecording();
+    private final SimulatedLatency latency;
+    private final Random random;
+    private final Sleeper sleeper;
+    private final DrupalPageSteps pageSteps = new SimulatedPageSteps();
+    private final ComponentContextSetter contextSetter = new ComponentContextSetter(pageSteps);
+    private final ComponentAdder componentAdder = new ComponentAdder(pageSteps);
+    private final ComponentConfigurer componentConfigurer = new RecordingComponentConfigurer();
+    private long simulatedLatencyNanos;
+    private boolean isInBatch;
+
+    private SimulatedEditor(SimulatedLatency latency, Sleeper sleeper) {
+        this.latency = requireNonNull(latency);
+        this.random = latency.newRandom();
+        this.sleeper = sleeper;
+    }
+
+    /**
+     * Creates an editor that only records the operations, without any latency.
+     *
+     * @return the editor
+     */
+    public static SimulatedEditor withoutLatency() {
+        return new SimulatedEditor(SimulatedLatency.NONE, nanos -> {
+        });
+    }
+
+    /**
+     * Creates an editor that records the operations, and blocks the calling thread for the latency of each operation.
+     *
+     * @param latency the latencies to simulate
+     * @return the editor
+     */
+    public static SimulatedEditor withLatency(SimulatedLatency latency) {
+        return new SimulatedEditor(latency, nanos -> Uninterruptibles.sleepUninterruptibly(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * Creates an editor that records the operations, and passes the latency of each operation to the argument sleeper.
+     */
+    static SimulatedEditor withLatency(SimulatedLatency latency, Sleeper sleeper) {
+        return new SimulatedEditor(latency, sleeper);
+    }
+
+    public DrupalPageSteps pageSteps() {
+        return pageSteps;
+    }
+
+    /**
+     * Returns the configurer that records the configurations on this editor, to be passed to the assemblers instead of
+     * configuration steps.
+     *
+     * @return the recording configurer
+     */
+    public ComponentConfigurer componentConfigurer() {
+        return componentConfigurer;
+    }
+
+    /**
+     * Returns a transport that performs each batch of operations on this editor at the cost of one round trip.
+     *
+     * @return the batch transport
+     */
+    public StepBatchTransport batchTransport() {
+        return this::send;
+    }
+
+    public StepRecording getRecording() {
+        return recording;
+    }
+
+    /**
+     * Returns the total latency simulated so far.
+     *
+     * @return the simulated latency
+     */
+    public synchronized Duration getSimulatedLatency() {
+        return Duration.ofNanos(simulatedLatencyNanos);
+    }
+
+    private synchronized void perform(Operation operation, String argument) {
+        recording.record(operation, argument);
+        pause(latency.sampleOperation(operation, random) + (isInBatch ? 0 : latency.sampleRoundTrip(random)));
+    }
+
+    private synchronized void send(List<PlanInstruction> operations) {
+        pause(latency.sampleRoundTrip(random));
+        isInBatch = true;
+        try {
+            for (PlanInstruction operation : operations) {
+                if (operation.getOpcode() == Opcode.SET_CONTEXT) {
+                    contextSetter.setContext(operation.getContextSelector());
+                } else if (operation.getOpcode() == Opcode.CONFIGURE) {
+                    componentConfigurer.configure(operation.getType(), operation.getConfiguration());
+                } else {
+                    componentAdder.addComponentToPage(operation.getParentNode(), operation.getNode());
+                }
+            }
+        } finally {
+            isInBatch = false;
+        }
+    }
+
+    private void pause(long nanos) {
+        simulatedLatencyNanos += nanos;
+        if (nanos > 0) {
+            sleeper.sleep(nanos);
+        }
+    }
+
+    /**
+     * Blocks the calling thread for the simulated latencies.
+     */
+    @FunctionalInterface
+    interface Sleeper {
+        void sleep(long nanos);
+    }
+
+    /**
+     * Page steps that record the operations on this editor.
+     */
+    private final class SimulatedPageSteps extends DrupalPageSteps {
+
+        @Override
+        public void i_work_with_X(String contextSelector) {
+            perform(Operation.SET_CONTEXT, contextSelector);
+        }
+
+        @Override
+        public void i_add_a_container() {
+            perform(Operation.ADD_COMPONENT, ParagraphNodeType.CONTAINER.name());
+        }
+
+        @Override
+        public void i_add_a_layout() {
+            perform(Operation.ADD_COMPONENT, ParagraphNodeType.LAYOUT.name());
+        }
+
+        @Override
+        public void i_add_X_component(ParagraphNodeType nodeType) {
+            perform(Operation.ADD_COMPONENT, nodeType.name());
+        }
+
+        @Override
+        public void i_add_X_modifier(ModifierNodeType nodeType) {
+            perform(Operation.ADD_MODIFIER, nodeType.name());
+        }
+    }
+
+    /**
+     * A configurer that records each configuration on this editor, after validating it and applying its properties to
+     * configuration steps that do nothing.
+     */
+    private final class RecordingComponentConfigurer extends ComponentConfigurer {
+
+        RecordingComponentConfigurer() {
+            super(new NoOpConfigurationSteps());
+        }
+
+        @Override
+        public void configure(NodeType type, ConfigurationNode node) {
+            super.configure(type, node);
+            //The properties are sorted, so that the recordings don't depend on the iteration order of the configuration
+            perform(Operation.CONFIGURE, type + " " + new TreeMap<>(node.getConfigurations()));
+        }
+    }
+
+    /**
+     * Configuration steps that do nothing, for the configurers registered for the node types to invoke.
+     */
+    private static final class NoOpConfigurationSteps extends DrupalConfigurationSteps {
+        private final ImageComponentSteps imageSteps = new ImageComponentSteps();
+        private final YouTubeComponentSteps youTubeSteps = new YouTubeComponentSteps();
+
+        @Override
+        public ImageComponentSteps image() {
+            return imageSteps;
+        }
+
+        @Override
+        public YouTubeComponentSteps youtube() {
+            return youTubeSteps;
+        }
+    }
+}
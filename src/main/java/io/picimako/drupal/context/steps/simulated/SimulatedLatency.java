@@ -0,0 +1,113 @@
+package io.picimako.drupal.context.steps.simulated;
+
+import io.picimako.drupal.context.steps.simulated.StepRecording.Operation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The latencies of a {@link SimulatedEditor}, to mimic the timings of a real editor in a browser.
+ * <p>
+ * The latency of an operation consists of two parts: the round trip to the browser, and the time the operation itself
+ * takes in the browser. When the steps are invoked one by one, each operation costs a round trip, while batches sent via
+ * a {@link io.picimako.drupal.context.steps.StepBatchTransport} cost only one round trip per batch.
+ * <p>
+ * Latencies are sampled from a random generator with a fixed seed, so that simulations can be reproduced.
+ * <p>
+ * For example:
+ * <pre>
+ * SimulatedLatency.builder()
+ *     .roundTrip(LatencyDistribution.logNormal(Duration.ofMillis(80), 0.5))
+ *     .operation(Operation.ADD_COMPONENT, LatencyDistribution.uniform(Duration.ofMillis(100), Duration.ofMillis(300)))
+ *     .build();
+ * </pre>
+ */
+public final class SimulatedLatency {
+
+    /**
+     * No latency at all, for measuring the overhead of the assembly itself.
+     */
+    public static final SimulatedLatency NONE = builder().build();
+
+    private final LatencyDistribution roundTrip;
+    private final Map<Operation, LatencyDistribution> operations;
+    private final long seed;
+
+    private SimulatedLatency(Builder builder) {
+        this.roundTrip = builder.roundTrip;
+        this.operations = new EnumMap<>(builder.operations);
+        this.seed = builder.seed;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a new random generator to sample the latencies with, seeded with the seed of this configuration.
+     */
+    Random newRandom() {
+        return new Random(seed);
+    }
+
+    long sampleRoundTrip(Random random) {
+        return roundTrip.sampleNanos(random);
+    }
+
+    long sampleOperation(Operation operation, Random random) {
+        return operations.getOrDefault(operation, LatencyDistribution.NONE).sampleNanos(random);
+    }
+
+    /**
+     * Builds a {@link SimulatedLatency}. By default there is no latency at all.
+     */
+    public static final class Builder {
+        private LatencyDistribution roundTrip = LatencyDistribution.NONE;
+        private final Map<Operation, LatencyDistribution> operations = new EnumMap<>(Operation.class);
+        private long seed;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the latency of a round trip to the browser.
+         *
+         * @param roundTrip the latency of a round trip
+         * @return this builder
+         */
+        public Builder roundTrip(LatencyDistribution roundTrip) {
+            this.roundTrip = requireNonNull(roundTrip);
+            return this;
+        }
+
+        /**
+         * Sets the latency of the argument kind of operation in the browser, excluding the round trip.
+         *
+         * @param operation the kind of operation
+         * @param latency   the latency of the operation
+         * @return this builder
+         */
+        public Builder operation(Operation operation, LatencyDistribution latency) {
+            operations.put(requireNonNull(operation), requireNonNull(latency));
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random generator the latencies are sampled with.
+         *
+         * @param seed the seed
+         * @return this builder
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public SimulatedLatency build() {
+            return new SimulatedLatency(this);
+        }
+    }
+}
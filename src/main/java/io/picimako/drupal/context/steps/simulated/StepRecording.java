@@ -0,0 +1,129 @@
+package io.picimako.drupal.context.steps.simulated;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An in-memory log of the editor operations performed via a {@link SimulatedEditor}, in the order they were performed.
+ * <p>
+ * Each entry is stored as the ordinal of its {@link Operation} and a reference to its argument (e.g. the context selector),
+ * so the log is compact, since context selectors and node type names are shared strings.
+ * <p>
+ * Recordings are comparable: two recordings are equal if they contain the same operations with the same arguments in
+ * the same order, regardless of whether they were made by invoking the steps one by one or in batches, so e.g. the tree view
+ * and the table based assembly of the same layout can be diffed via {@link #toString()}, which lists the entries one per line:
+ * <pre>
+ * SET_CONTEXT .container:nth-child(1)
+ * ADD_COMPONENT CONTAINER
+ * CONFIGURE IMAGE {name=some-image.png}
+ * </pre>
+ * Recordings are thread-safe.
+ */
+public final class StepRecording {
+
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final int INITIAL_CAPACITY = 64;
+    private byte[] operations = new byte[INITIAL_CAPACITY];
+    private final List<String> arguments = new ArrayList<>();
+
+    /**
+     * Records the argument operation.
+     *
+     * @param operation the kind of the operation
+     * @param argument  the argument of the operation, e.g. the context selector or the name of the added node type
+     */
+    public synchronized void record(Operation operation, String argument) {
+        int index = arguments.size();
+        if (index == operations.length) {
+            operations = Arrays.copyOf(operations, index * 2);
+        }
+        operations[index] = (byte) operation.ordinal();
+        arguments.add(argument);
+    }
+
+    public synchronized int size() {
+        return arguments.size();
+    }
+
+    /**
+     * Returns the kind of the operation recorded at the argument position.
+     *
+     * @param index the position of the entry
+     * @return the kind of the operation
+     */
+    public synchronized Operation getOperation(int index) {
+        return OPERATIONS[operations[checkIndex(index)]];
+    }
+
+    /**
+     * Returns the argument of the operation recorded at the argument position.
+     *
+     * @param index the position of the entry
+     * @return the argument of the operation
+     */
+    public synchronized String getArgument(int index) {
+        return arguments.get(checkIndex(index));
+    }
+
+    /**
+     * Returns a snapshot of the entries in their textual form, e.g. {@code SET_CONTEXT .container:nth-child(1)}.
+     *
+     * @return the entries in the order they were recorded
+     */
+    public synchronized List<String> getEntries() {
+        List<String> entries = new ArrayList<>(arguments.size());
+        for (int i = 0; i < arguments.size(); i++) {
+            entries.add(OPERATIONS[operations[i]] + " " + arguments.get(i));
+        }
+        return entries;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public synchronized void clear() {
+        arguments.clear();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        boolean isEqual = this == o;
+        if (!isEqual && o instanceof StepRecording) {
+            StepRecording other = (StepRecording) o;
+            isEqual = getEntries().equals(other.getEntries());
+        }
+        return isEqual;
+    }
+
+    @Override
+    public int hashCode() {
+        return getEntries().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder recording = new StringBuilder();
+        for (String entry : getEntries()) {
+            recording.append(entry).append('\n');
+        }
+        return recording.toString();
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= arguments.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + arguments.size());
+        }
+        return index;
+    }
+
+    /**
+     * The kinds of operations recorded.
+     */
+    public enum Operation {
+        SET_CONTEXT,
+        ADD_COMPONENT,
+        ADD_MODIFIER,
+        CONFIGURE
+    }
+}
@@ -1,6 +1,7 @@
 package io.picimako.drupal.context.table;
 
 import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentNodeValidator;
 import io.picimako.drupal.context.ConfigurationNodeConfigParser;
 
 import java.util.List;
@@ -11,11 +12,12 @@ import static io.picimako.drupal.context.util.Preconditions.check;
  * Validates the input data table for various violations.
  * <p>
  * This is used before the actual content creation, so that content creation won't even start if there is a problem
- * with the definitions in the table.
+ * with the definitions in the table. It can either validate a whole table, or validate the components one by one,
+ * while they are being parsed for the content assembly.
  *
  * @see TableBasedContentAssembler
  */
-public class DataTableValidator {
+public class DataTableValidator implements ComponentNodeValidator {
 
     private static final String EXCEPTION_MESSAGE_FORMAT = "%s\nParent was: [%s]\nChild was: [%s]";
     private final TableBasedNodeCreator nodeCreator = new TableBasedNodeCreator();
@@ -72,18 +74,36 @@ public class DataTableValidator {
      */
     public void validateTree(List<ComponentAndConfiguration> definitions) {
         ComponentNode previousComponentNode = ComponentNode.ABSENT;
-        check(definitions.stream().anyMatch(ComponentAndConfiguration::hasComponentDefinition),
-            "None of the entries in the input data table has a component defined.");
+        validateComponentPresence(definitions);
         for (ComponentAndConfiguration definition : definitions) {
             if (!definition.hasRootLevelConfiguration() && definition.hasComponentDefinition()) {
                 ComponentNode currentNode = nodeCreator.createComponentNode(definition.getComponent());
-                validateCurrentNode(currentNode, previousComponentNode);
+                validateNode(currentNode, previousComponentNode);
                 previousComponentNode = currentNode;
             }
         }
     }
 
-    private void validateCurrentNode(ComponentNode currentNode, ComponentNode previousNode) {
+    /**
+     * Validates that at least one of the entries in the argument data table has a component defined.
+     *
+     * @param definitions the list of component and configuration definitions
+     */
+    public void validateComponentPresence(List<ComponentAndConfiguration> definitions) {
+        check(definitions.stream().anyMatch(ComponentAndConfiguration::hasComponentDefinition),
+            "None of the entries in the input data table has a component defined.");
+    }
+
+    /**
+     * Validates a single, already parsed component against the component that was parsed before it.
+     * <p>
+     * The violations are the same as in case of {@link #validateTree(List)}.
+     *
+     * @param currentNode  the component to validate
+     * @param previousNode the previous component, or {@link ComponentNode#ABSENT} if there is none
+     */
+    @Override
+    public void validateNode(ComponentNode currentNode, ComponentNode previousNode) {
         if (currentNode.isDeeperThan(previousNode)) {
             if (!currentNode.isOneLevelDeeperThan(previousNode)) {
                 throwException("Child defined more than 1 level deeper than its immediate parent "
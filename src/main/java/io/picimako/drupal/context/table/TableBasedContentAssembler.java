@@ -1,19 +1,20 @@
 package io.picimako.drupal.context.table;
 
-import io.picimako.drupal.context.ComponentAdder;
 import io.picimako.drupal.context.ComponentConfigurer;
-import io.picimako.drupal.context.ComponentContextSetter;
-import io.picimako.drupal.context.ComponentNode;
 import io.picimako.drupal.context.ComponentTree;
-import io.picimako.drupal.context.ConfigurationNode;
-import io.picimako.drupal.context.NodeCreator;
+import io.picimako.drupal.context.LayoutCache;
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.plan.AssemblyPlan;
+import io.picimako.drupal.context.plan.AssemblyPlanExecutor;
+import io.picimako.drupal.context.plan.PlanRunner;
 import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
 import io.picimako.drupal.context.steps.DrupalPageSteps;
+import io.picimako.drupal.context.util.ThreadConfinement;
 
+import java.util.AbstractList;
 import java.util.List;
 
 import static io.picimako.drupal.context.util.Preconditions.check;
-import static java.util.Objects.requireNonNull;
 
 /**
  * This implementation of a content assembler is designed to work with tests where the input is in a specific table
@@ -34,17 +35,22 @@ import static java.util.Objects.requireNonNull;
  * </pre>
  * It is up to the users whether they define the header row (Component/Configuration), it depends on how they want the
  * input file to look like and according to that how they parse the table.
+ * <p>
+ * The phases of the assemblies, and the invocations of the steps can be timed by setting an {@link AssemblyListener},
+ * e.g. an {@link io.picimako.drupal.context.monitoring.AssemblyMetrics}, via {@link #setListener(AssemblyListener)}.
+ * <p>
+ * An assembler can be reused for any number of tables, reusing the capacity of its {@link ComponentTree} and node arrays,
+ * so memory stays flat. It is not thread-safe though, it can be used by only one thread at a time, e.g. one assembler per
+ * Cucumber worker thread. Using it from another thread while an assembly or compilation is in progress fails with an
+ * {@link IllegalStateException}.
  *
  * @see io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler
  */
 public class TableBasedContentAssembler {
 
-    private final ComponentTree tree = new ComponentTree();
-    private final NodeCreator nodeCreator = new TableBasedNodeCreator();
-    private final DataTableValidator dataTableValidator = new DataTableValidator();
-    private final ComponentConfigurer componentConfigurer;
-    private final ComponentAdder componentAdder;
-    private final ComponentContextSetter contextSetter;
+    private final ThreadConfinement confinement = new ThreadConfinement(TableBasedContentAssembler.class.getSimpleName());
+    private final PlanRunner runner;
+    private final TableCompiler compiler;
 
     /**
      * Creates a new {@link TableBasedContentAssembler} instance.
@@ -58,34 +64,91 @@ public class TableBasedContentAssembler {
      * @param steps a step definitions class for handling component addition and context setting
      */
     public TableBasedContentAssembler(DrupalPageSteps steps, DrupalConfigurationSteps configSteps) {
-        requireNonNull(steps);
-        this.componentAdder = new ComponentAdder(steps);
-        this.contextSetter = new ComponentContextSetter(steps);
-        this.componentConfigurer = new ComponentConfigurer(configSteps);
+        this(steps, new ComponentConfigurer(configSteps));
+    }
+
+    /**
+     * Creates a new {@link TableBasedContentAssembler} instance that caches the plans compiled from tables in the
+     * argument cache, so that assembling the same table again only executes the cached plan.
+     *
+     * @param steps       a step definitions class for handling component addition and context setting
+     * @param configSteps a step definitions class for handling component configuration
+     * @param layoutCache the cache to store the compiled plans in, possibly shared with other assemblers
+     */
+    public TableBasedContentAssembler(DrupalPageSteps steps, DrupalConfigurationSteps configSteps, LayoutCache<AssemblyPlan> layoutCache) {
+        this(steps, new ComponentConfigurer(configSteps), layoutCache);
+    }
+
+    /**
+     * Creates an assembler that configures the components with the argument configurer instead of configuration steps,
+     * e.g. with the recording one of a {@link io.picimako.drupal.context.steps.simulated.SimulatedEditor}.
+     */
+    public TableBasedContentAssembler(DrupalPageSteps steps, ComponentConfigurer componentConfigurer) {
+        this.runner = new PlanRunner(steps, componentConfigurer);
+        this.compiler = new TableCompiler(runner.getContextSetter());
+    }
+
+    /**
+     * Creates an assembler that caches the plans compiled from tables, and configures the components with the argument
+     * configurer instead of configuration steps.
+     */
+    public TableBasedContentAssembler(DrupalPageSteps steps, ComponentConfigurer componentConfigurer, LayoutCache<AssemblyPlan> layoutCache) {
+        this.runner = new PlanRunner(steps, componentConfigurer, layoutCache);
+        this.compiler = new TableCompiler(runner.getContextSetter());
     }
 
     /**
-     * Assembles a Drupal or other CMS content.
+     * Sets the listener to report the timings of the assemblies to, including the parsing, validation and tree building
+     * of each entry, the generation of the context selectors, and the invocation of each step.
+     * <p>
+     * The listener is also set on the executors the plans are executed with, including the ones passed to
+     * {@link #execute(AssemblyPlan, AssemblyPlanExecutor)}.
+     *
+     * @param listener the listener, or {@link AssemblyListener#NONE} to not report anything
+     */
+    public void setListener(AssemblyListener listener) {
+        runner.setListener(listener);
+        compiler.setProbe(runner.getProbe());
+    }
+
+    /**
+     * Assembles a Drupal or other CMS content by compiling the argument table entries into an {@link AssemblyPlan},
+     * and executing that plan.
+     * The input is the list of component and configuration entries, and is expected to not include the header row.
+     *
+     * @param definitions the table entries to assemble the content from
+     * @see #compile(List)
+     */
+    public void assembleContent(List<ComponentAndConfiguration> definitions) {
+        confinement.run(() -> runner.monitor(() -> execute(compile(definitions))));
+    }
+
+    /**
+     * Compiles the argument table entries into an {@link AssemblyPlan}, without invoking any step.
      * The input is the list of component and configuration entries, and is expected to not include the header row.
      * <p>
      * NOTE: Map as input type is not sufficient as multiple table rows might have empty component strings in case of
      * multi-row configuration definitions.
      * <p>
-     * The steps it takes to parse definitions and execute configurations are the following: the method iterates through
-     * the input list and based on what definitions are present it acts as follows:
+     * First, the method parses each component and configuration definition exactly once, validates the components and
+     * the placement of root level configurations, and saves the components in a {@link ComponentTree}. This way, the
+     * whole table is validated before the first step is executed, so that content creation won't even start if there is
+     * a problem with the definitions in the table.
+     * <p>
+     * Then, it iterates through the already parsed entries, and based on what definitions are present it emits the
+     * following instructions:
      * <ul>
-     *     <li>If the entry is a root level configuration (component defined as {@code <}) it executes the
-     *     configuration.
+     *     <li>If the entry is a root level configuration (component defined as {@code <}) it configures the content.
      *     If such component is defined somewhere other than the first line (other than having ABSENT as parent), or
-     *     the configuration part of this entry is empty, it will throw an exception.</li>
+     *     the configuration part of this entry is empty, it will throw an exception (during the first phase).</li>
      *     <li>If the entry has an actual component definition like {@code >> LAYOUT} it will go through the following
      *     steps:
      *     <ul>
-     *          <li>it saves the components in a {@link ComponentTree},</li>
      *          <li>if there is still another, not yet processed entry in the table,
      *           or the currently processed entry is the last one having both a component and a configuration defined,
      *           then it sets the path leading to the current node as the context,</li>
-     *          <li>invokes the methods that add the component to the actual content/page.</li>
+     *          <li>adds the component to the actual content/page,</li>
+     *          <li>if the entry has a configuration definition as well, it configures the component.</li>
      *      </ul>
      *      </li>
      *      <li>If neither of the two preceding conditions is true, it means that the current entry has only
@@ -95,59 +158,73 @@ public class TableBasedContentAssembler {
      *      It also sets the component context but only when the configuration is not a root level one.</li>
      * </ul>
      * <p>
+     * If this assembler has a cache, the plan is looked up by the contents of the table first, and the table is only
+     * compiled when there is no cached plan for it.
+     * <p>
      * Please note that there is no validation for the following:
      * <ul>
      *     <li>Whether a certain configuration property is defined for a component that is not configuration holder, or is not
      *     the proper configuration for that Component. That will be fairly evident when the test execution fails.</li>
      * </ul>
+     *
+     * @param definitions the table entries to compile
+     * @return the compiled plan
      */
-    public void assembleContent(List<ComponentAndConfiguration> definitions) {
+    public AssemblyPlan compile(List<ComponentAndConfiguration> definitions) {
         check(!definitions.isEmpty(), "There is no table entry to process. It should not be empty.");
-        dataTableValidator.validateTree(definitions);
-
-        TableBasedAssemblerContext assemblerCtx = new TableBasedAssemblerContext();
-        for (ComponentAndConfiguration definition : definitions) {
-            if (definition.hasRootLevelConfiguration()) {
-                processRootLevelConfiguration(assemblerCtx, definition);
-            } else if (definition.hasComponentDefinition()) {
-                processComponent(definitions, assemblerCtx, definition);
-            } else { //Configuration node (multi-row)
-                if (assemblerCtx.getPreviousComponentNode() != ComponentNode.ABSENT) {
-                    contextSetter.setContext(tree, assemblerCtx.getPreviousComponentNode(), false);
-                }
-                processConfiguration(assemblerCtx, definition);
-            }
-        }
+        return confinement.call(() -> runner.cachedOrCompiled(toLayoutParts(definitions), () -> compiler.compile(definitions)));
     }
 
-    private void processRootLevelConfiguration(TableBasedAssemblerContext assemblerCtx, ComponentAndConfiguration definition) {
-        check(assemblerCtx.getPreviousComponentNode() == ComponentNode.ABSENT,
-            "Root level configuration should only be defined in the first row of the data table.");
-        check(definition.hasConfiguration(),
-            "Root level configuration definition is empty. It should contain some actual configurations.");
-        processConfiguration(assemblerCtx, definition);
+    /**
+     * Executes the argument, already compiled, plan, invoking the steps that add and configure the components.
+     * <p>
+     * The same plan can be executed any number of times.
+     * <p>
+     * Context setting instructions that would set the already active context selector again are skipped,
+     * see {@link AssemblyPlanExecutor}.
+     *
+     * @param plan the plan to execute
+     */
+    public void execute(AssemblyPlan plan) {
+        confinement.run(() -> runner.execute(plan));
     }
 
-    private void processComponent(List<ComponentAndConfiguration> definitions, TableBasedAssemblerContext assemblerCtx, ComponentAndConfiguration definition) {
-        ComponentNode currentNode = nodeCreator.createComponentNode(definition.getComponent());
-        tree.addNode(currentNode, assemblerCtx.getPreviousComponentNode());
-
-        //Next row may contain either another component or a configuration for the current component
-        boolean isThereANextRow = definition != definitions.get(definitions.size() - 1);
-        if (isThereANextRow || definition.hasConfiguration()) {
-            contextSetter.setContext(tree, currentNode, true);
-        }
-        componentAdder.addComponentToPage(tree.getParentNode(currentNode), currentNode);
-        assemblerCtx.setPreviousComponentNode(currentNode);
-
-        //If the current table entry has not just a component but a configuration definition, process that as well.
-        if (definition.hasConfiguration()) {
-            processConfiguration(assemblerCtx, definition);
-        }
+    /**
+     * Executes the argument, already compiled, plan with the argument executor, e.g. with one that sends the instructions
+     * in batches to a {@link io.picimako.drupal.context.steps.StepBatchTransport}.
+     *
+     * @param plan     the plan to execute
+     * @param executor the executor to execute the plan with
+     */
+    public void execute(AssemblyPlan plan, AssemblyPlanExecutor executor) {
+        confinement.run(() -> runner.execute(plan, executor));
+    }
+
+    /**
+     * Returns the number of context settings skipped by this assembler so far, because they would have set the already
+     * active context selector again.
+     *
+     * @return the number of skipped context settings
+     */
+    public long getElidedContextSwitchCount() {
+        return runner.getElidedContextSwitchCount();
     }
 
-    private void processConfiguration(TableBasedAssemblerContext assemblerCtx, ComponentAndConfiguration cc) {
-        ConfigurationNode node = nodeCreator.createConfigurationNode(cc.getConfiguration());
-        componentConfigurer.configure(assemblerCtx.getPreviousComponentNode().getType(), node);
+    /**
+     * Returns a view of the cells of the argument table entries, row by row, as the key of the table in the layout cache.
+     */
+    private static List<String> toLayoutParts(List<ComponentAndConfiguration> definitions) {
+        return new AbstractList<>() {
+            @Override
+            public String get(int index) {
+                ComponentAndConfiguration definition = definitions.get(index / 2);
+                return index % 2 == 0 ? definition.getComponent() : definition.getConfiguration();
+            }
+
+            @Override
+            public int size() {
+                return definitions.size() * 2;
+            }
+        };
     }
 }
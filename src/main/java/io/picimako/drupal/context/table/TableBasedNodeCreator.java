@@ -3,17 +3,18 @@ package io.picimako.drupal.context.table;
 import io.picimako.drupal.context.ComponentNode;
 import io.picimako.drupal.context.ConfigurationNode;
 import io.picimako.drupal.context.ConfigurationNodeConfigParser;
-import io.picimako.drupal.context.ModifierNodeType;
 import io.picimako.drupal.context.Node;
 import io.picimako.drupal.context.NodeCreator;
+import io.picimako.drupal.context.NodeLineScanner;
+import io.picimako.drupal.context.NodeLineScanner.LineKind;
+import io.picimako.drupal.context.NodeLineScanner.ScannedLine;
 import io.picimako.drupal.context.NodeType;
-import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.NodeTypeRegistry;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static io.picimako.drupal.context.ConfigurationNodeConfigParser.CONFIG_ITEM_DELIMITER;
 import static io.picimako.drupal.context.ConfigurationNodeConfigParser.CONFIG_KEY_VALUE_DELIMITER;
+import static io.picimako.drupal.context.NodeLineScanner.containsLineTerminator;
+import static io.picimako.drupal.context.NodeLineScanner.endsWithItemDelimiter;
+import static io.picimako.drupal.context.NodeLineScanner.hasKeyValueDelimiter;
 import static io.picimako.drupal.context.util.Preconditions.check;
 import static java.lang.String.format;
 
@@ -39,26 +40,22 @@ import static java.lang.String.format;
  * basically a list of key-value pairs having the following pattern: {@code keyA:valueA, keyB:valueB}.
  * <p>
  * (There is no validation here for the format of the key-value pairs.)
+ * <p>
+ * Component cells are classified by a {@link NodeLineScanner} in a single pass.
  *
  * @see ConfigurationNodeConfigParser#CONFIG_ITEM_DELIMITER
  * @see ConfigurationNodeConfigParser#CONFIG_KEY_VALUE_DELIMITER
  */
 public class TableBasedNodeCreator implements NodeCreator {
 
-    private static final Pattern PARAGRAPH_NODE_PATTERN = Pattern.compile("(?<level>>+) (?<type>[A-Z_]+)");
-    private static final Pattern MODIFIER_NODE_PATTERN = Pattern.compile("(?<level>>+)@ (?<type>[A-Z_]+)");
-    private static final Pattern CONFIGURATION_NODE_PATTERN = Pattern.compile("(?<config>.*)");
-    private static final String CONFIGURATION_NODE_ENDING_PATTERN = format(".*%s *$", CONFIG_ITEM_DELIMITER);
+    private static final NodeLineScanner SCANNER = NodeLineScanner.forTable();
+    private static final NodeTypeRegistry NODE_TYPES = NodeTypeRegistry.registered();
 
     private static final String INCORRECT_NODE_DEFINITION_ENDING_MESSAGE = format("The configuration node ends with a '%s',"
         + " which is not considered a valid configuration node value.", CONFIG_KEY_VALUE_DELIMITER);
     private static final String INCORRECT_KEY_VALUE_PAIR_DEFINITION_MESSAGE = format("The configuration node doesn't contain a valid"
         + " key-value pair. They should be in the following format: <key>%s<value>", CONFIG_KEY_VALUE_DELIMITER);
 
-    private static final String LEVEL = "level";
-    private static final String TYPE = "type";
-    private static final String CONFIG = "config";
-
     private final ConfigurationNodeConfigParser parser = new ConfigurationNodeConfigParser();
 
     @Override
@@ -80,17 +77,14 @@ public class TableBasedNodeCreator implements NodeCreator {
      */
     @Override
     public ComponentNode createComponentNode(String component) {
+        ScannedLine scannedComponent = SCANNER.scan(component);
         ComponentNode node;
-        Matcher paragraphNodeMatcher = PARAGRAPH_NODE_PATTERN.matcher(component);
-        if (paragraphNodeMatcher.matches()) {
-            node = createParagraphNode(paragraphNodeMatcher);
+        if (scannedComponent.getKind() == LineKind.PARAGRAPH) {
+            node = createParagraphNode(scannedComponent);
+        } else if (scannedComponent.getKind() == LineKind.MODIFIER) {
+            node = createModifierNode(scannedComponent);
         } else {
-            Matcher modifierNodeMatcher = MODIFIER_NODE_PATTERN.matcher(component);
-            if (modifierNodeMatcher.matches()) {
-                node = createModifierNode(modifierNodeMatcher);
-            } else {
-                throw new IllegalArgumentException("The component node is not in a supported format.");
-            }
+            throw new IllegalArgumentException("The component node is not in a supported format.");
         }
         return node;
     }
@@ -105,29 +99,27 @@ public class TableBasedNodeCreator implements NodeCreator {
      * @throws IllegalArgumentException when the line doesn't contain a key-value separator, or
      *                                  when the key-value pairs end with a separator followed by 0 or more whitespaces or,
      *                                  when the line has the pattern neither of a component nor a configuration.
-     *                                  Or, finally, when for some reason the configuration value doesn't match the pattern that
-     *                                  is supposed to match anything.
+     *                                  Or, finally, when for some reason the configuration value contains a line terminator.
      */
     @Override
     public ConfigurationNode createConfigurationNode(String configuration) {
-        Matcher configurationNodeMatcher = CONFIGURATION_NODE_PATTERN.matcher(configuration);
-        if (configurationNodeMatcher.matches()) {
+        if (!containsLineTerminator(configuration)) {
             validatePresenceOfKeyValueDelimiter(configuration);
             validateNodeDefinitionEnding(configuration);
-            return new ConfigurationNode(parser.parseConfigurationValues(configurationNodeMatcher.group(CONFIG)));
+            return new ConfigurationNode(parser.parseConfigurationValues(configuration));
         } else {
-            throw new IllegalArgumentException("Congrats! You did some big magic here that the argument cell value doesn't match the .* regexp.");
+            throw new IllegalArgumentException("Congrats! You did some big magic here that the argument cell value spans multiple lines.");
         }
     }
 
-    private ComponentNode createParagraphNode(Matcher nodeMatcher) {
-        NodeType nodeType = ParagraphNodeType.valueOf(nodeMatcher.group(TYPE));
-        return new ComponentNode(nodeMatcher.group(LEVEL).length(), nodeType);
+    private ComponentNode createParagraphNode(ScannedLine scannedComponent) {
+        NodeType nodeType = NODE_TYPES.paragraphType(scannedComponent.getTypeName());
+        return new ComponentNode(scannedComponent.getLevel(), nodeType);
     }
 
-    private ComponentNode createModifierNode(Matcher nodeMatcher) {
-        NodeType nodeType = ModifierNodeType.valueOf(nodeMatcher.group(TYPE));
-        ComponentNode node = new ComponentNode(nodeMatcher.group(LEVEL).length(), nodeType);
+    private ComponentNode createModifierNode(ScannedLine scannedComponent) {
+        NodeType nodeType = NODE_TYPES.modifierType(scannedComponent.getTypeName());
+        ComponentNode node = new ComponentNode(scannedComponent.getLevel(), nodeType);
         node.setModifierNode(true);
         return node;
     }
@@ -135,14 +127,10 @@ public class TableBasedNodeCreator implements NodeCreator {
     //------------ Validate configuration node ------------
 
     private void validatePresenceOfKeyValueDelimiter(String cell) {
-        check(cell.contains(CONFIG_KEY_VALUE_DELIMITER), INCORRECT_KEY_VALUE_PAIR_DEFINITION_MESSAGE);
+        check(hasKeyValueDelimiter(cell), INCORRECT_KEY_VALUE_PAIR_DEFINITION_MESSAGE);
     }
 
     private void validateNodeDefinitionEnding(String cell) {
-        check(violatesValueEndingPattern(cell), INCORRECT_NODE_DEFINITION_ENDING_MESSAGE);
-    }
-
-    private boolean violatesValueEndingPattern(String cell) {
-        return !cell.matches(CONFIGURATION_NODE_ENDING_PATTERN);
+        check(!endsWithItemDelimiter(cell), INCORRECT_NODE_DEFINITION_ENDING_MESSAGE);
     }
 }
@@ -0,0 +1,137 @@
+package io.picimako.drupal.context.table;
+
+import io.picimako.drupal.context.ComponentContextSetter;
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentTree;
+import io.picimako.drupal.context.ComponentTreeBuilder;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.NodeCreator;
+import io.picimako.drupal.context.monitoring.AssemblyPhase;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+import io.picimako.drupal.context.plan.AssemblyPlan;
+
+import java.util.List;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * Compiles data table based layouts into {@link AssemblyPlan}s.
+ * <p>
+ * Each table is parsed into the same {@link ComponentTree} and {@link TableLayout}, which are cleared before each
+ * compilation, so their capacity is reused.
+ *
+ * @see TableBasedContentAssembler
+ */
+final class TableCompiler {
+
+    private final ComponentTree tree = new ComponentTree();
+    private final TableLayout reusableLayout = new TableLayout();
+    private final NodeCreator nodeCreator = new TableBasedNodeCreator();
+    private final DataTableValidator dataTableValidator = new DataTableValidator();
+    private final ComponentTreeBuilder treeBuilder = new ComponentTreeBuilder(dataTableValidator);
+    private final ComponentContextSetter contextSetter;
+    private AssemblyProbe probe = AssemblyProbe.DISABLED;
+
+    TableCompiler(ComponentContextSetter contextSetter) {
+        this.contextSetter = contextSetter;
+    }
+
+    void setProbe(AssemblyProbe probe) {
+        this.probe = probe;
+        treeBuilder.setProbe(probe);
+    }
+
+    /**
+     * Parses and validates the argument table entries, then compiles them into a plan.
+     */
+    AssemblyPlan compile(List<ComponentAndConfiguration> definitions) {
+        return compile(buildLayout(definitions));
+    }
+
+    /**
+     * Emits the instructions for the rows of the argument, already validated, layout.
+     * <p>
+     * Root level configurations are handled the same way as multi-row configurations, since they can only be defined
+     * before the first component, thus there is no component context to set for them.
+     * <p>
+     * The source line of each instruction is the (1-based) index of the table entry it is emitted for.
+     */
+    private AssemblyPlan compile(TableLayout layout) {
+        ComponentTree layoutTree = layout.getTree();
+        AssemblyPlan.Builder plan = AssemblyPlan.builder();
+        TableBasedAssemblerContext assemblerCtx = new TableBasedAssemblerContext();
+        for (int i = 0; i < layout.rowCount(); i++) {
+            int sourceLine = i + 1;
+            ComponentNode componentNode = layout.getComponentNodes()[i];
+            ConfigurationNode configurationNode = layout.getConfigurationNodes()[i];
+            if (componentNode != null) {
+                //Next row may contain either another component or a configuration for the current component
+                boolean isThereANextRow = i < layout.rowCount() - 1;
+                if (isThereANextRow || configurationNode != null) {
+                    plan.setContext(resolveContext(layoutTree, componentNode, true, sourceLine), sourceLine);
+                }
+                plan.addComponent(layoutTree.getParentNode(componentNode), componentNode, sourceLine);
+                assemblerCtx.setPreviousComponentNode(componentNode);
+            } else if (assemblerCtx.getPreviousComponentNode() != ComponentNode.ABSENT) { //Configuration node (multi-row)
+                plan.setContext(resolveContext(layoutTree, assemblerCtx.getPreviousComponentNode(), false, sourceLine), sourceLine);
+            }
+            //If the current table entry has a configuration definition (with or without a component), process that as well.
+            if (configurationNode != null) {
+                plan.configure(assemblerCtx.getPreviousComponentNode().getType(), configurationNode, sourceLine);
+            }
+        }
+        return plan.build();
+    }
+
+    /**
+     * Parses each component and configuration definition exactly once, validates the components and root level
+     * configurations, and saves the components in the component tree of this compiler.
+     */
+    private TableLayout buildLayout(List<ComponentAndConfiguration> definitions) {
+        ComponentTree target = clearedTree();
+        dataTableValidator.validateComponentPresence(definitions);
+        TableLayout layout = reusableLayout.reset(definitions.size(), target);
+        ComponentNode[] componentNodes = layout.getComponentNodes();
+        ConfigurationNode[] configurationNodes = layout.getConfigurationNodes();
+        ComponentNode previousComponentNode = ComponentNode.ABSENT;
+        for (int i = 0; i < definitions.size(); i++) {
+            ComponentAndConfiguration definition = definitions.get(i);
+            if (definition.hasRootLevelConfiguration()) {
+                validateRootLevelConfiguration(definition, previousComponentNode);
+            } else if (definition.hasComponentDefinition()) {
+                ComponentNode currentNode = treeBuilder.parse(nodeCreator::createComponentNode, definition.getComponent(), i + 1);
+                treeBuilder.addNode(currentNode, previousComponentNode, target, i + 1);
+                componentNodes[i] = currentNode;
+                previousComponentNode = currentNode;
+            }
+            //Configuration-only rows are always parsed, so that an empty one is reported as invalid.
+            if (definition.hasConfiguration() || !definition.hasComponentDefinition()) {
+                configurationNodes[i] = treeBuilder.parse(nodeCreator::createConfigurationNode, definition.getConfiguration(), i + 1);
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Clears the component tree of this compiler, so that the next table is built into an empty tree, reusing the
+     * capacity of the tree.
+     */
+    private ComponentTree clearedTree() {
+        tree.clear();
+        return tree;
+    }
+
+    private String resolveContext(ComponentTree layoutTree, ComponentNode node, boolean fromParent, int sourceLine) {
+        long start = probe.now();
+        String contextSelector = contextSetter.resolveContext(layoutTree, node, fromParent);
+        probe.nodeProcessed(AssemblyPhase.SELECTOR_GENERATION, node, sourceLine, start);
+        return contextSelector;
+    }
+
+    private void validateRootLevelConfiguration(ComponentAndConfiguration definition, ComponentNode previousComponentNode) {
+        check(previousComponentNode == ComponentNode.ABSENT,
+            "Root level configuration should only be defined in the first row of the data table.");
+        check(definition.hasConfiguration(),
+            "Root level configuration definition is empty. It should contain some actual configurations.");
+    }
+}
@@ -0,0 +1,58 @@
+package io.picimako.drupal.context.table;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentTree;
+import io.picimako.drupal.context.ConfigurationNode;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * A parsed and validated data table based layout: the component and configuration nodes parsed from each table row,
+ * and the {@link ComponentTree} built from the component nodes, with the occurrence counts of the nodes already calculated.
+ * <p>
+ * It contains everything that is necessary to compile the layout into an {@link io.picimako.drupal.context.plan.AssemblyPlan}.
+ * <p>
+ * A layout is reused by its compiler for each table, via {@link #reset(int, ComponentTree)}, so the arrays of the nodes
+ * are only reallocated when a table has more rows than any of the previous ones. The arrays may be longer than the number
+ * of rows, the rows are the first {@link #rowCount()} elements of them.
+ */
+@Getter(AccessLevel.PACKAGE)
+final class TableLayout {
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * The component node of each row, or null for rows without component, e.g. multi-row configurations.
+     */
+    private ComponentNode[] componentNodes = new ComponentNode[INITIAL_CAPACITY];
+    /**
+     * The configuration node of each row, or null for rows without configuration.
+     */
+    private ConfigurationNode[] configurationNodes = new ConfigurationNode[INITIAL_CAPACITY];
+    private ComponentTree tree;
+    @Getter(AccessLevel.NONE)
+    private int rowCount;
+
+    /**
+     * Clears this layout for a table of the argument number of rows, whose components are saved in the argument tree.
+     *
+     * @return this layout
+     */
+    TableLayout reset(int rowCount, ComponentTree tree) {
+        if (rowCount > componentNodes.length) {
+            int capacity = Math.max(rowCount, componentNodes.length * 2);
+            componentNodes = new ComponentNode[capacity];
+            configurationNodes = new ConfigurationNode[capacity];
+        } else {
+            Arrays.fill(componentNodes, 0, Math.max(this.rowCount, rowCount), null);
+            Arrays.fill(configurationNodes, 0, Math.max(this.rowCount, rowCount), null);
+        }
+        this.rowCount = rowCount;
+        this.tree = tree;
+        return this;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+}
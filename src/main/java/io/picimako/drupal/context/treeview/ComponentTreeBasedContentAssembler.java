@@ -1,18 +1,25 @@
 package io.picimako.drupal.context.treeview;
 
-import io.picimako.drupal.context.ComponentAdder;
 import io.picimako.drupal.context.ComponentConfigurer;
-import io.picimako.drupal.context.ComponentContextSetter;
-import io.picimako.drupal.context.ComponentNode;
 import io.picimako.drupal.context.ComponentTree;
-import io.picimako.drupal.context.ConfigurationNode;
-import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.LayoutCache;
+import io.picimako.drupal.context.LineCursor;
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.plan.AssemblyFailedException;
+import io.picimako.drupal.context.plan.AssemblyPlan;
+import io.picimako.drupal.context.plan.AssemblyPlanExecutor;
+import io.picimako.drupal.context.plan.PlanPipeline;
+import io.picimako.drupal.context.plan.PlanRunner;
 import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
 import io.picimako.drupal.context.steps.DrupalPageSteps;
+import io.picimako.drupal.context.util.ThreadConfinement;
+
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 
 import static io.picimako.drupal.context.util.Preconditions.check;
 import static io.picimako.drupal.context.util.StringUtils.isBlank;
-import static java.util.Objects.requireNonNull;
 
 /**
  * Parses a component tree string from a given format, iterates through its lines, and based on what type of node a
@@ -43,15 +50,16 @@ import static java.util.Objects.requireNonNull;
  * </pre>
  * Inline configurations in Component nodes are designed to provide a more concise and more readable layout. Regardless of whether
  * a Component node has an inline configuration or not, further Configuration nodes can be defined right after them for the same Component.
+ * <p>
+ * An assembler can be reused for any number of layouts, reusing the capacity of its {@link ComponentTree}, so memory
+ * stays flat. It is not thread-safe though, it can be used by only one thread at a time, e.g. one assembler per Cucumber
+ * worker thread. Using it from another thread while an assembly or compilation is in progress fails with an {@link IllegalStateException}.
  */
 public class ComponentTreeBasedContentAssembler {
 
-    private final ComponentTree tree = new ComponentTree();
-    private final TreeViewBasedNodeCreator nodeCreator = new TreeViewBasedNodeCreator();
-    private final TreeViewBasedComponentTreeValidator componentTreeValidator = new TreeViewBasedComponentTreeValidator();
-    private final ComponentConfigurer componentConfigurer;
-    private final ComponentAdder componentAdder;
-    private final ComponentContextSetter contextSetter;
+    private final ThreadConfinement confinement = new ThreadConfinement(ComponentTreeBasedContentAssembler.class.getSimpleName());
+    private final PlanRunner runner;
+    private final TreeViewCompiler compiler;
 
     /**
      * Creates a new {@link ComponentTreeBasedContentAssembler} instance.
@@ -65,37 +73,146 @@ public class ComponentTreeBasedContentAssembler {
      * @param steps a step definitions class for handling component addition and context setting
      */
     public ComponentTreeBasedContentAssembler(DrupalPageSteps steps, DrupalConfigurationSteps configSteps) {
-        requireNonNull(steps);
-        this.componentAdder = new ComponentAdder(steps);
-        this.contextSetter = new ComponentContextSetter(steps);
-        this.componentConfigurer = new ComponentConfigurer(configSteps);
+        this(steps, new ComponentConfigurer(configSteps));
+    }
+
+    /**
+     * Creates a new {@link ComponentTreeBasedContentAssembler} instance that caches the plans compiled from component trees
+     * in the argument cache, so that assembling the same component tree again only executes the cached plan.
+     * <p>
+     * Only component trees passed in as {@link CharSequence}s are cached, the ones read from a {@link Reader} or a
+     * {@link Path} are not, since hashing them would require reading the whole input upfront.
+     *
+     * @param steps       a step definitions class for handling component addition and context setting
+     * @param configSteps a step definitions class for handling component configuration
+     * @param layoutCache the cache to store the compiled plans in, possibly shared with other assemblers
+     */
+    public ComponentTreeBasedContentAssembler(DrupalPageSteps steps, DrupalConfigurationSteps configSteps, LayoutCache<AssemblyPlan> layoutCache) {
+        this(steps, new ComponentConfigurer(configSteps), layoutCache);
+    }
+
+    /**
+     * Creates an assembler that configures the components with the argument configurer instead of configuration steps,
+     * e.g. with the recording one of a {@link io.picimako.drupal.context.steps.simulated.SimulatedEditor}.
+     */
+    public ComponentTreeBasedContentAssembler(DrupalPageSteps steps, ComponentConfigurer componentConfigurer) {
+        this.runner = new PlanRunner(steps, componentConfigurer);
+        this.compiler = new TreeViewCompiler(runner.getContextSetter());
+    }
+
+    /**
+     * Creates an assembler that caches the plans compiled from component trees, and configures the components with
+     * the argument configurer instead of configuration steps.
+     */
+    public ComponentTreeBasedContentAssembler(DrupalPageSteps steps, ComponentConfigurer componentConfigurer, LayoutCache<AssemblyPlan> layoutCache) {
+        this.runner = new PlanRunner(steps, componentConfigurer, layoutCache);
+        this.compiler = new TreeViewCompiler(runner.getContextSetter());
+    }
+
+    /**
+     * Sets the listener to report the timings of the assemblies to, including the parsing, validation and tree building
+     * of each node, the generation of the context selectors, and the invocation of each step.
+     * <p>
+     * The listener is also set on the executors the plans are executed with, including the ones passed to
+     * {@link #execute(AssemblyPlan, AssemblyPlanExecutor)}.
+     *
+     * @param listener the listener, or {@link AssemblyListener#NONE} to not report anything
+     */
+    public void setListener(AssemblyListener listener) {
+        runner.setListener(listener);
+        compiler.setProbe(runner.getProbe());
+    }
+
+    /**
+     * Assembles a Drupal or other CMS content by compiling the argument component tree into an {@link AssemblyPlan},
+     * and executing that plan.
+     *
+     * @param componentTree the component tree to assemble the content from
+     * @see #compile(CharSequence)
+     */
+    public void assembleContent(CharSequence componentTree) {
+        monitor(() -> execute(compile(componentTree)));
+    }
+
+    /**
+     * Assembles a Drupal or other CMS content from a component tree read from the argument reader.
+     * <p>
+     * The reader is not closed by this method.
+     *
+     * @param componentTree the reader to read the component tree from
+     * @throws UncheckedIOException when reading the component tree fails
+     * @see #compile(Reader)
+     */
+    public void assembleContent(Reader componentTree) {
+        monitor(() -> execute(compile(componentTree)));
+    }
+
+    /**
+     * Assembles a Drupal or other CMS content from a component tree stored in the argument UTF-8 encoded file.
+     *
+     * @param componentTreeFile the file to read the component tree from
+     * @throws UncheckedIOException when reading the component tree file fails
+     * @see #compile(Path)
+     */
+    public void assembleContent(Path componentTreeFile) {
+        monitor(() -> execute(compile(componentTreeFile)));
+    }
+
+    /**
+     * Assembles a Drupal or other CMS content from a component tree read from the argument reader, in a pipelined way:
+     * the lines are compiled on a separate thread, at most {@code capacity} instructions ahead of the steps being invoked
+     * on the calling thread. Unlike {@link #assembleContent(Reader)}, this doesn't validate the whole tree before the first
+     * step is invoked, so the components before a problematic line are already added. The reader is not closed.
+     *
+     * @param componentTree the reader to read the component tree from
+     * @param capacity      the maximum number of instructions compiled ahead of the invocation of the steps
+     * @throws AssemblyFailedException when parsing, validation or the invocation of a step fails, reporting the line
+     *                                 the failure originates from
+     * @see PlanPipeline
+     */
+    public void assembleContentPipelined(Reader componentTree, int capacity) {
+        monitor(() -> runner.executePipelined(sink -> compiler.compileStreaming(LineCursor.over(componentTree), sink), capacity));
     }
 
     /**
-     * Assembles a Drupal or other CMS content.
+     * Assembles a Drupal or other CMS content from a component tree stored in the argument UTF-8 encoded file, in
+     * a pipelined way, the same way as {@link #assembleContentPipelined(Reader, int)} does.
+     *
+     * @param componentTreeFile the file to read the component tree from
+     * @param capacity          the maximum number of instructions compiled ahead of the invocation of the steps
+     * @throws AssemblyFailedException when reading the file, parsing, validation or the invocation of a step fails
+     * @throws UncheckedIOException    when the component tree file cannot be opened
+     */
+    public void assembleContentPipelined(Path componentTreeFile, int capacity) {
+        ComponentTreeFiles.consume(componentTreeFile, reader -> assembleContentPipelined(reader, capacity));
+    }
+
+    /**
+     * Compiles the argument component tree into an {@link AssemblyPlan}, without invoking any step.
+     * <p>
+     * It iterates through the lines of the input tree lazily, parses each line exactly once, and converts it to either
+     * a Component or a Configuration node. Component nodes are validated against the previous Component node, and are
+     * saved in a {@link ComponentTree}. Since the plan is returned only after the whole tree is built and validated,
+     * content creation won't even start if there is a problem with the component tree definition.
      * <p>
-     * The steps it takes to parse nodes and execute configuration nodes are the following:
+     * As soon as the next node is parsed, it emits the following instructions for the previous node:
      * <ul>
-     *     <li>Separates the input tree into lines.</li>
-     *     <li>Iterates through the lines, parses and converts each of them to either a Component or a Configuration
-     *     node.</li>
-     *     <li><ul>
      *       <li>In case of Component nodes
      *          <ul>
-     *           <li>it saves the nodes in a {@link ComponentTree},</li>
      *           <li>if there is still another, not yet processed node, besides the current node in the tree,
      *           then it sets the path leading to the current node as the context,</li>
-     *           <li>invokes the methods that add the component to the actual content/page.</li>
-     *           <li>if the Component node has an inline configuration, then after adding the component, it also invokes
-     *           the configurer to configure the component.</li>
+     *           <li>adds the component to the actual content/page.</li>
+     *           <li>if the Component node has an inline configuration, then after adding the component, it also
+     *           configures the component.</li>
      *          </ul></li>
-     *       <li>In case of Configuration nodes it executes the Gherkin steps or any other actions
-     *       mapped to the previously parsed and saved Component Node.
+     *       <li>In case of Configuration nodes it configures the previously parsed and saved Component Node.
      * <p>
      *       It also sets the component context but only when the configuration is not a root level one.</li>
-     *      </ul></li>
      * </ul>
      * <p>
+     * If this assembler has a cache, the plan is looked up by the contents of the component tree first, and the tree
+     * is only compiled when there is no cached plan for it.
+     * <p>
      * Please note that there is no validation for the following things (see the reasons for each):
      * <ul>
      *     <li>Whether there are only configuration nodes in the argument tree. It would require traversing
@@ -103,44 +220,81 @@ public class ComponentTreeBasedContentAssembler {
      *     <li>Whether a configuration node is put after a component node that is not configuration holder, or is not
      *     the proper configuration for that Component. That will be fairly evident when the test execution fails.</li>
      * </ul>
+     *
+     * @param componentTree the component tree to compile
+     * @return the compiled plan
+     */
+    public AssemblyPlan compile(CharSequence componentTree) {
+        check(!isBlank(componentTree), TreeViewCompiler.NO_COMPONENT_TREE_MESSAGE);
+        return confinement.call(() -> runner.cachedOrCompiled(componentTree, () -> compiler.compile(LineCursor.over(componentTree))));
+    }
+
+    /**
+     * Compiles a component tree read from the argument reader into an {@link AssemblyPlan}, without invoking any step.
+     * <p>
+     * The lines are read, parsed and compiled one by one, so the input itself is never loaded into memory as a whole.
+     * However, since the whole tree is validated before the plan is returned, the component tree and the compiled plan
+     * grow with the size of the input. For component trees too large to be kept in memory, use
+     * {@link #assembleContentPipelined(Reader, int)} instead. The compilation itself happens the same way as in case of
+     * {@link #compile(CharSequence)}.
+     * <p>
+     * The reader is not closed by this method.
+     *
+     * @param componentTree the reader to read the component tree from
+     * @return the compiled plan
+     * @throws UncheckedIOException when reading the component tree fails
+     */
+    public AssemblyPlan compile(Reader componentTree) {
+        return confinement.call(() -> compiler.compile(LineCursor.over(componentTree)));
+    }
+
+    /**
+     * Compiles a component tree stored in the argument UTF-8 encoded file, the same way as {@link #compile(Reader)} does.
+     *
+     * @param componentTreeFile the file to read the component tree from
+     * @return the compiled plan
+     * @throws UncheckedIOException when reading the component tree file fails
+     */
+    public AssemblyPlan compile(Path componentTreeFile) {
+        return ComponentTreeFiles.read(componentTreeFile, this::compile);
+    }
+
+    /**
+     * Executes the argument, already compiled, plan, invoking the steps that add and configure the components. The same
+     * plan can be executed any number of times. Context settings of the already active context selector are skipped.
+     *
+     * @param plan the plan to execute
+     */
+    public void execute(AssemblyPlan plan) {
+        confinement.run(() -> runner.execute(plan));
+    }
+
+    /**
+     * Executes the argument, already compiled, plan with the argument executor, e.g. with one that sends the instructions
+     * in batches to a {@link io.picimako.drupal.context.steps.StepBatchTransport}.
+     *
+     * @param plan     the plan to execute
+     * @param executor the executor to execute the plan with
+     */
+    public void execute(AssemblyPlan plan, AssemblyPlanExecutor executor) {
+        confinement.run(() -> runner.execute(plan, executor));
+    }
+
+    /**
+     * Returns the number of context settings skipped by this assembler so far, because they would have set the already
+     * active context selector again.
+     *
+     * @return the number of skipped context settings
+     */
+    public long getElidedContextSwitchCount() {
+        return runner.getElidedContextSwitchCount();
+    }
+
+    /**
+     * Runs the argument assembly on the thread this assembler is confined to, and reports its start, and its end or
+     * failure to the listener.
      */
-    public void assembleContent(String componentTree) {
-        check(!isBlank(componentTree), "There is no component tree to process. It should not be blank.");
-        componentTreeValidator.validateTree(componentTree);
-
-        TreeViewAssemblerContext assemblerCtx = new TreeViewAssemblerContext(componentTree.split("\n"));
-        for (int i = 0; i < assemblerCtx.nodeCount(); i++) {
-            //NOTE: somewhere inside this for loop additional logging might be placed to track the progress of the assembler
-            String line = assemblerCtx.getStringNode(i);
-            assemblerCtx.setIndex(i);
-            Node node = nodeCreator.createNode(line);
-            if (node instanceof ComponentNode) {
-                ComponentNode currentNode = (ComponentNode) node;
-                tree.addNode(currentNode, assemblerCtx.getPreviousComponentNode());
-                setComponentContext(currentNode, assemblerCtx);
-                componentAdder.addComponentToPage(tree.getParentNode(currentNode), currentNode);
-                if (currentNode.hasInlineConfig()) {
-                    componentConfigurer.configure(currentNode.getType(), currentNode.getInlineConfig());
-                }
-                assemblerCtx.setPreviousComponentNode(currentNode);
-            } else {
-                if (assemblerCtx.getPreviousComponentNode() != ComponentNode.ABSENT) {
-                    contextSetter.setContext(tree, assemblerCtx.getPreviousComponentNode(), false);
-                }
-                componentConfigurer.configure(assemblerCtx.getPreviousComponentNode().getType(), (ConfigurationNode) node);
-            }
-        }
-    }
-
-    /**
-     * Component context setting should happen when there is still at least one other unprocessed
-     * node in the tree besides {@code currentNode}, which can either be a configuration node
-     * or a component node that is one level deeper than this node (TODO: no validation yet),
-     * or a Modifier node.
-     */
-    private void setComponentContext(ComponentNode currentNode, TreeViewAssemblerContext context) {
-        if (context.hasNextNode()) {
-            contextSetter.setContext(tree, currentNode, true);
-        }
+    private void monitor(Runnable assembly) {
+        confinement.run(() -> runner.monitor(assembly));
     }
 }
@@ -0,0 +1,47 @@
+package io.picimako.drupal.context.treeview;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reads tree view based component trees from UTF-8 encoded files.
+ *
+ * @see ComponentTreeBasedContentAssembler
+ */
+final class ComponentTreeFiles {
+
+    private ComponentTreeFiles() {
+        //Utility class
+    }
+
+    /**
+     * Opens the argument file, passes a reader of it to the argument action, and closes the file.
+     *
+     * @throws UncheckedIOException when the file cannot be opened or closed
+     */
+    static <T> T read(Path componentTreeFile, Function<Reader, T> action) {
+        try (Reader reader = Files.newBufferedReader(componentTreeFile, StandardCharsets.UTF_8)) {
+            return action.apply(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the component tree file: " + componentTreeFile, e);
+        }
+    }
+
+    /**
+     * Opens the argument file, passes a reader of it to the argument action, and closes the file.
+     *
+     * @throws UncheckedIOException when the file cannot be opened or closed
+     */
+    static void consume(Path componentTreeFile, Consumer<Reader> action) {
+        read(componentTreeFile, reader -> {
+            action.accept(reader);
+            return null;
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package io.picimako.drupal.context.treeview;
+
+import io.picimako.drupal.context.ComponentContextSetter;
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentTree;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.monitoring.AssemblyPhase;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+import io.picimako.drupal.context.plan.PlanInstruction;
+
+import java.util.function.Consumer;
+
+/**
+ * Emits the instructions for the nodes of a tree view layout one by one, in the order of the nodes.
+ *
+ * @see TreeViewCompiler
+ */
+final class InstructionEmitter {
+    private final ComponentTree layoutTree;
+    private final ComponentContextSetter contextSetter;
+    private final AssemblyProbe probe;
+    private final Consumer<PlanInstruction> sink;
+    private ComponentNode previousComponentNode = ComponentNode.ABSENT;
+
+    InstructionEmitter(ComponentTree layoutTree, ComponentContextSetter contextSetter, AssemblyProbe probe, Consumer<PlanInstruction> sink) {
+        this.layoutTree = layoutTree;
+        this.contextSetter = contextSetter;
+        this.probe = probe;
+        this.sink = sink;
+    }
+
+    /**
+     * Emits the instructions for the argument node.
+     * <p>
+     * Component context setting should happen when there is still at least one other unprocessed
+     * node in the tree besides the current node, which can either be a configuration node
+     * or a component node that is one level deeper than this node (TODO: no validation yet),
+     * or a Modifier node.
+     *
+     * @param node        the node to emit the instructions for
+     * @param sourceLine  the line of the node
+     * @param hasNextNode whether there is at least one more node after this one
+     */
+    void emit(Node node, int sourceLine, boolean hasNextNode) {
+        if (node instanceof ComponentNode) {
+            ComponentNode currentNode = (ComponentNode) node;
+            if (hasNextNode) {
+                sink.accept(PlanInstruction.setContext(resolveContext(currentNode, true, sourceLine), sourceLine));
+            }
+            sink.accept(PlanInstruction.addComponent(layoutTree.getParentNode(currentNode), currentNode, sourceLine));
+            if (currentNode.hasInlineConfig()) {
+                sink.accept(PlanInstruction.configure(currentNode.getType(), currentNode.getInlineConfig(), sourceLine));
+            }
+            previousComponentNode = currentNode;
+        } else {
+            if (previousComponentNode != ComponentNode.ABSENT) {
+                sink.accept(PlanInstruction.setContext(resolveContext(previousComponentNode, false, sourceLine), sourceLine));
+            }
+            sink.accept(PlanInstruction.configure(previousComponentNode.getType(), (ConfigurationNode) node, sourceLine));
+        }
+    }
+
+    private String resolveContext(ComponentNode node, boolean fromParent, int sourceLine) {
+        long start = probe.now();
+        String contextSelector = contextSetter.resolveContext(layoutTree, node, fromParent);
+        probe.nodeProcessed(AssemblyPhase.SELECTOR_GENERATION, node, sourceLine, start);
+        return contextSelector;
+    }
+}
@@ -1,18 +1,21 @@
 package io.picimako.drupal.context.treeview;
 
 import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentNodeValidator;
 import io.picimako.drupal.context.ConfigurationNodeConfigParser;
+import io.picimako.drupal.context.LineCursor;
 import io.picimako.drupal.context.Node;
 
 /**
  * Validates the input component tree String for various violations.
  * <p>
  * This is used before the actual content creation, so that content creation won't even start if there is a problem
- * with the component tree definition.
+ * with the component tree definition. It can either validate a whole component tree, or validate the component nodes
+ * one by one, while they are being parsed for the content assembly.
  *
  * @see ComponentTreeBasedContentAssembler
  */
-public class TreeViewBasedComponentTreeValidator {
+public class TreeViewBasedComponentTreeValidator implements ComponentNodeValidator {
 
     private static final String EXCEPTION_MESSAGE_FORMAT = "%s\nParent was: [%s]\nChild was: [%s]";
     private final TreeViewBasedNodeCreator nodeCreator = new TreeViewBasedNodeCreator();
@@ -54,21 +57,31 @@ public class TreeViewBasedComponentTreeValidator {
      * </ul>
      * ConfigurationNode validation is handled in {@link TreeViewBasedNodeCreator} and {@link ConfigurationNodeConfigParser}.
      *
-     * @param componentTree
+     * @param componentTree the component tree to validate
      */
-    public void validateTree(String componentTree) {
-        TreeViewAssemblerContext ctx = new TreeViewAssemblerContext();
-        for (String line : componentTree.split("\n")) {
-            Node node = nodeCreator.createNode(line);
+    public void validateTree(CharSequence componentTree) {
+        ComponentNode previousNode = ComponentNode.ABSENT;
+        LineCursor lines = LineCursor.over(componentTree);
+        while (lines.hasNext()) {
+            Node node = nodeCreator.createNode(lines.next());
             if (node instanceof ComponentNode) {
                 ComponentNode currentNode = (ComponentNode) node;
-                validateCurrentNode(currentNode, ctx.getPreviousComponentNode());
-                ctx.setPreviousComponentNode(currentNode);
+                validateNode(currentNode, previousNode);
+                previousNode = currentNode;
             }
         }
     }
 
-    private void validateCurrentNode(ComponentNode currentNode, ComponentNode previousNode) {
+    /**
+     * Validates a single, already parsed component node against the component node that was parsed before it.
+     * <p>
+     * The violations are the same as in case of {@link #validateTree(CharSequence)}.
+     *
+     * @param currentNode  the component node to validate
+     * @param previousNode the previous component node, or {@link ComponentNode#ABSENT} if there is none
+     */
+    @Override
+    public void validateNode(ComponentNode currentNode, ComponentNode previousNode) {
         if (currentNode.isDeeperThan(previousNode)) {
             if (!currentNode.isOneLevelDeeperThan(previousNode)) {
                 throwException("Child defined more than 1 level deeper than its immediate parent "
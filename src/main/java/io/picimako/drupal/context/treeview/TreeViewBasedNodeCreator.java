@@ -3,17 +3,18 @@ package io.picimako.drupal.context.treeview;
 import io.picimako.drupal.context.ComponentNode;
 import io.picimako.drupal.context.ConfigurationNode;
 import io.picimako.drupal.context.ConfigurationNodeConfigParser;
-import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.LineCursor;
 import io.picimako.drupal.context.Node;
 import io.picimako.drupal.context.NodeCreator;
+import io.picimako.drupal.context.NodeLineScanner;
+import io.picimako.drupal.context.NodeLineScanner.LineKind;
+import io.picimako.drupal.context.NodeLineScanner.ScannedLine;
 import io.picimako.drupal.context.NodeType;
-import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.NodeTypeRegistry;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
-import static io.picimako.drupal.context.ConfigurationNodeConfigParser.CONFIG_ITEM_DELIMITER;
 import static io.picimako.drupal.context.ConfigurationNodeConfigParser.CONFIG_KEY_VALUE_DELIMITER;
+import static io.picimako.drupal.context.NodeLineScanner.endsWithItemDelimiter;
+import static io.picimako.drupal.context.NodeLineScanner.hasKeyValueDelimiter;
 import static io.picimako.drupal.context.util.Preconditions.check;
 import static java.lang.String.format;
 
@@ -43,27 +44,23 @@ import static java.lang.String.format;
  * specific to the content itself being created, followed by a whitespace, and followed by a list of key-value pairs having
  * the following pattern: {@code keyA:valueA, keyB:valueB}. (There is also no validation here for the format of the
  * key-value pairs.)
+ * <p>
+ * Lines are classified by a {@link NodeLineScanner} in a single pass, and inline configurations are parsed directly from
+ * the slice of the line after the {@code >>} separator.
  *
  * @see ConfigurationNodeConfigParser#CONFIG_ITEM_DELIMITER
  * @see ConfigurationNodeConfigParser#CONFIG_KEY_VALUE_DELIMITER
  */
 public class TreeViewBasedNodeCreator implements NodeCreator {
 
-    private static final Pattern PARAGRAPH_NODE_PATTERN = Pattern.compile("(?<level>-+) (?<type>[A-Z_]+)(?<inlineconfig> >> (?<config>.*))?");
-    private static final Pattern MODIFIER_NODE_PATTERN = Pattern.compile("(?<level>-+)@ (?<type>[A-Z_]+)");
-    private static final Pattern CONFIGURATION_NODE_PATTERN = Pattern.compile("-*\\* (?<config>.*)");
-    private static final String CONFIGURATION_NODE_ENDING_PATTERN = format(".*%s *$", CONFIG_ITEM_DELIMITER);
+    private static final NodeLineScanner SCANNER = NodeLineScanner.forTreeView();
+    private static final NodeTypeRegistry NODE_TYPES = NodeTypeRegistry.registered();
 
     private static final String INCORRECT_NODE_DEFINITION_ENDING_MESSAGE = format("The configuration node ends with a '%s',"
         + " which is not considered a valid configuration node value.", CONFIG_KEY_VALUE_DELIMITER);
     private static final String INCORRECT_KEY_VALUE_PAIR_DEFINITION_MESSAGE = format("The configuration node doesn't contain a valid"
         + " key-value pair. They should be in the following format: <key>%s<value>", CONFIG_KEY_VALUE_DELIMITER);
 
-    private static final String LEVEL = "level";
-    private static final String TYPE = "type";
-    private static final String CONFIG = "config";
-    private static final String INLINE_CONFIG = "inlineconfig";
-
     private final ConfigurationNodeConfigParser parser = new ConfigurationNodeConfigParser();
 
     /**
@@ -79,70 +76,81 @@ public class TreeViewBasedNodeCreator implements NodeCreator {
      *                                  or the line has neither the pattern of a component nor a configuration node
      */
     public Node createNode(String line) {
+        return createNode((CharSequence) line);
+    }
+
+    /**
+     * Converts the argument line to a {@link Node} the same way as {@link #createNode(String)} does, but without requiring
+     * the line to be a standalone String, so that lines provided by a {@link LineCursor} don't need to be copied.
+     * <p>
+     * The argument line is not referenced by the created node after this method returns.
+     *
+     * @param line the line (component or configuration) to convert
+     * @return the created node
+     * @throws IllegalArgumentException the same way as {@link #createNode(String)} does
+     */
+    public Node createNode(CharSequence line) {
+        ScannedLine scannedLine = SCANNER.scan(line);
         Node node;
-        Matcher paragraphNodeMatcher = PARAGRAPH_NODE_PATTERN.matcher(line);
-        if (paragraphNodeMatcher.matches()) {
-            node = createParagraphNode(paragraphNodeMatcher);
+        if (scannedLine.getKind() == LineKind.PARAGRAPH) {
+            node = createParagraphNode(scannedLine);
+        } else if (scannedLine.getKind() == LineKind.MODIFIER) {
+            node = createModifierNode(scannedLine);
+        } else if (scannedLine.getKind() == LineKind.CONFIGURATION) {
+            node = createConfigurationNodeFrom(scannedLine.getConfiguration());
         } else {
-            Matcher modifierNodeMatcher = MODIFIER_NODE_PATTERN.matcher(line);
-            if (modifierNodeMatcher.matches()) {
-                node = createModifierNode(modifierNodeMatcher);
-            } else {
-                node = createConfigurationNode(line);
-            }
+            throw invalidLine(line);
         }
         return node;
     }
 
-    private ComponentNode createParagraphNode(Matcher nodeMatcher) {
-        NodeType nodeType = ParagraphNodeType.valueOf(nodeMatcher.group(TYPE));
-        ComponentNode componentNode = new ComponentNode(nodeMatcher.group(LEVEL).length(), nodeType);
-        if (nodeMatcher.group(INLINE_CONFIG) != null) {
-            if (nodeMatcher.group(CONFIG) != null) {
-                String rawInlineConfig = rawConfigurationNodeFromInlineConfiguration(nodeMatcher, componentNode.getLevel());
-                componentNode.setInlineConfig(createConfigurationNode(rawInlineConfig));
-            } else {
-                throw new IllegalArgumentException("Found inline config initializer (>>) but not actual inline configuration.");
-            }
+    private ComponentNode createParagraphNode(ScannedLine scannedLine) {
+        NodeType nodeType = NODE_TYPES.paragraphType(scannedLine.getTypeName());
+        ComponentNode componentNode = new ComponentNode(scannedLine.getLevel(), nodeType);
+        if (scannedLine.hasConfiguration()) {
+            componentNode.setInlineConfig(createConfigurationNodeFrom(scannedLine.getConfiguration()));
         }
         return componentNode;
     }
 
-    private String rawConfigurationNodeFromInlineConfiguration(Matcher nodeMatcher, int level) {
-        return "-".repeat(level) + "* " + nodeMatcher.group(CONFIG);
-    }
-
-    private ComponentNode createModifierNode(Matcher nodeMatcher) {
-        NodeType nodeType = ModifierNodeType.valueOf(nodeMatcher.group(TYPE));
-        ComponentNode node = new ComponentNode(nodeMatcher.group(LEVEL).length(), nodeType);
+    private ComponentNode createModifierNode(ScannedLine scannedLine) {
+        NodeType nodeType = NODE_TYPES.modifierType(scannedLine.getTypeName());
+        ComponentNode node = new ComponentNode(scannedLine.getLevel(), nodeType);
         node.setModifierNode(true);
         return node;
     }
 
     @Override
     public ConfigurationNode createConfigurationNode(String line) {
-        Matcher configurationNodeMatcher = CONFIGURATION_NODE_PATTERN.matcher(line);
-        if (configurationNodeMatcher.matches()) {
-            validatePresenceOfKeyValueDelimiter(line);
-            validateNodeDefinitionEnding(line);
-            return new ConfigurationNode(parser.parseConfigurationValues(configurationNodeMatcher.group(CONFIG)));
-        } else {
-            throw new IllegalArgumentException("The provided line from the component tree is not valid: [" + line + "]");
+        ScannedLine scannedLine = SCANNER.scan(line);
+        if (scannedLine.getKind() != LineKind.CONFIGURATION) {
+            throw invalidLine(line);
         }
+        return createConfigurationNodeFrom(scannedLine.getConfiguration());
     }
 
-    //------------ Validate configuration node ------------
+    /**
+     * Creates a configuration node from the configuration part of a configuration node, or from the inline configuration
+     * of a component node.
+     */
+    private ConfigurationNode createConfigurationNodeFrom(String configuration) {
+        validatePresenceOfKeyValueDelimiter(configuration);
+        validateNodeDefinitionEnding(configuration);
+        return new ConfigurationNode(parser.parseConfigurationValues(configuration));
+    }
 
-    private void validatePresenceOfKeyValueDelimiter(String line) {
-        check(line.contains(CONFIG_KEY_VALUE_DELIMITER), INCORRECT_KEY_VALUE_PAIR_DEFINITION_MESSAGE);
+    private IllegalArgumentException invalidLine(CharSequence line) {
+        return new IllegalArgumentException("The provided line from the component tree is not valid: [" + line + "]");
     }
 
-    private void validateNodeDefinitionEnding(String line) {
-        check(violatesLineEndingPattern(line), INCORRECT_NODE_DEFINITION_ENDING_MESSAGE);
+    //------------ Validate configuration node ------------
+
+    private void validatePresenceOfKeyValueDelimiter(String configuration) {
+        check(hasKeyValueDelimiter(configuration), INCORRECT_KEY_VALUE_PAIR_DEFINITION_MESSAGE);
     }
 
-    private boolean violatesLineEndingPattern(String line) {
-        return !line.matches(CONFIGURATION_NODE_ENDING_PATTERN);
+    private void validateNodeDefinitionEnding(String configuration) {
+        check(!endsWithItemDelimiter(configuration), INCORRECT_NODE_DEFINITION_ENDING_MESSAGE);
     }
 
     /**
@@ -152,6 +160,6 @@ public class TreeViewBasedNodeCreator implements NodeCreator {
      * @return true if it is a configuration node, otherwise false
      */
     public static boolean isConfigurationNode(String node) {
-        return CONFIGURATION_NODE_PATTERN.matcher(node).matches();
+        return SCANNER.scan(node).getKind() == LineKind.CONFIGURATION;
     }
 }
@@ -0,0 +1,107 @@
+package io.picimako.drupal.context.treeview;
+
+import io.picimako.drupal.context.ComponentContextSetter;
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ComponentTree;
+import io.picimako.drupal.context.ComponentTreeBuilder;
+import io.picimako.drupal.context.LineCursor;
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+import io.picimako.drupal.context.plan.AssemblyFailedException;
+import io.picimako.drupal.context.plan.AssemblyPlan;
+import io.picimako.drupal.context.plan.PlanInstruction;
+
+import java.util.concurrent.CancellationException;
+import java.util.function.Consumer;
+
+import static io.picimako.drupal.context.util.Preconditions.check;
+
+/**
+ * Compiles tree view based component trees into the instructions of {@link AssemblyPlan}s, either into whole plans,
+ * or streaming the instructions into a consumer, e.g. into a {@link io.picimako.drupal.context.plan.PlanPipeline}.
+ * <p>
+ * Each layout is built into the same {@link ComponentTree}, which is cleared before each compilation, so its capacity
+ * is reused.
+ *
+ * @see ComponentTreeBasedContentAssembler
+ */
+final class TreeViewCompiler {
+
+    static final String NO_COMPONENT_TREE_MESSAGE = "There is no component tree to process. It should not be blank.";
+    private final ComponentTree tree = new ComponentTree();
+    private final TreeViewBasedNodeCreator nodeCreator = new TreeViewBasedNodeCreator();
+    private final ComponentTreeBuilder treeBuilder = new ComponentTreeBuilder(new TreeViewBasedComponentTreeValidator());
+    private final ComponentContextSetter contextSetter;
+    private AssemblyProbe probe = AssemblyProbe.DISABLED;
+
+    TreeViewCompiler(ComponentContextSetter contextSetter) {
+        this.contextSetter = contextSetter;
+    }
+
+    void setProbe(AssemblyProbe probe) {
+        this.probe = probe;
+        treeBuilder.setProbe(probe);
+    }
+
+    /**
+     * Compiles the argument lines into a plan. The whole layout is parsed and validated before the plan is returned,
+     * so failures are reported as they are, without wrapping them into {@link AssemblyFailedException}s.
+     */
+    AssemblyPlan compile(LineCursor lines) {
+        AssemblyPlan.Builder plan = AssemblyPlan.builder();
+        try {
+            compileStreaming(lines, plan::add);
+        } catch (AssemblyFailedException e) {
+            throw (RuntimeException) e.getCause();
+        }
+        return plan.build();
+    }
+
+    /**
+     * Parses each line exactly once, validates each Component node against the previous Component node, saves them in
+     * the component tree, and emits the instructions of each node as soon as the next node is parsed (so that it is
+     * known whether it is the last node), without collecting the nodes of the whole layout.
+     * <p>
+     * The source line of each instruction is the line of the node it is emitted for.
+     *
+     * @throws AssemblyFailedException when a line cannot be read or parsed, or is invalid, with the failure as its cause
+     * @see TreeViewBasedComponentTreeValidator#validateNode(ComponentNode, ComponentNode)
+     */
+    void compileStreaming(LineCursor lines, Consumer<PlanInstruction> sink) {
+        ComponentTree target = clearedTree();
+        InstructionEmitter emitter = new InstructionEmitter(target, contextSetter, probe, sink);
+        ComponentNode previousComponentNode = ComponentNode.ABSENT;
+        Node pendingNode = null;
+        int sourceLine = 0;
+        try {
+            while (lines.hasNext()) {
+                sourceLine++;
+                Node node = treeBuilder.parse(nodeCreator::createNode, lines.next(), sourceLine);
+                if (node instanceof ComponentNode) {
+                    ComponentNode currentNode = (ComponentNode) node;
+                    treeBuilder.addNode(currentNode, previousComponentNode, target, sourceLine);
+                    previousComponentNode = currentNode;
+                }
+                if (pendingNode != null) {
+                    emitter.emit(pendingNode, sourceLine - 1, true);
+                }
+                pendingNode = node;
+            }
+            check(pendingNode != null, NO_COMPONENT_TREE_MESSAGE);
+            emitter.emit(pendingNode, sourceLine, false);
+        } catch (AssemblyFailedException | CancellationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new AssemblyFailedException(sourceLine, e);
+        }
+    }
+
+    /**
+     * Clears the component tree of this compiler, so that the next layout is built into an empty tree, reusing the
+     * capacity of the tree.
+     */
+    private ComponentTree clearedTree() {
+        tree.clear();
+        return tree;
+    }
+}
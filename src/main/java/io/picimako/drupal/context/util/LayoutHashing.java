@@ -0,0 +1,47 @@
+package io.picimako.drupal.context.util;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.util.List;
+
+/**
+ * Utility class for hashing the contents of layouts, so that layouts can be identified by a fixed size key in caches.
+ * <p>
+ * The hashes are 128-bit murmur3 hashes, which are stable across JVMs, thus they can also be used as keys of persistent
+ * caches.
+ */
+public final class LayoutHashing {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private LayoutHashing() {
+        //Util class
+    }
+
+    /**
+     * Returns the hash of the argument layout contents.
+     *
+     * @param layout the layout contents, e.g. a tree view based component tree
+     * @return the hash of the layout
+     */
+    public static HashCode hash(CharSequence layout) {
+        return HASH_FUNCTION.hashUnencodedChars(layout);
+    }
+
+    /**
+     * Returns the hash of the argument layout parts, taking into account the boundaries of the parts as well.
+     *
+     * @param layoutParts the parts of the layout contents in order
+     * @return the hash of the layout
+     */
+    public static HashCode hash(List<? extends CharSequence> layoutParts) {
+        Hasher hasher = HASH_FUNCTION.newHasher();
+        for (CharSequence part : layoutParts) {
+            hasher.putInt(part.length()).putUnencodedChars(part);
+        }
+        return hasher.hash();
+    }
+}
@@ -18,4 +18,40 @@ public final class StringUtils {
     public static boolean isBlank(String text) {
         return text == null || text.isBlank();
     }
+
+    /**
+     * Checks whether the argument text is null or blank, without converting it to a String.
+     *
+     * @param text the text to validate
+     * @return true if the text is null, empty or contains only whitespaces, false otherwise
+     */
+    public static boolean isBlank(CharSequence text) {
+        boolean isBlank = true;
+        for (int i = 0; text != null && isBlank && i < text.length(); i++) {
+            isBlank = Character.isWhitespace(text.charAt(i));
+        }
+        return isBlank;
+    }
+
+    /**
+     * Returns the argument text as a JSON string literal, enclosed in double quotes, with the double quotes, the backslashes
+     * and the control characters in it escaped.
+     *
+     * @param text the text to quote
+     * @return the JSON string literal
+     */
+    public static String toJsonString(String text) {
+        StringBuilder quoted = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < ' ') {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
 }
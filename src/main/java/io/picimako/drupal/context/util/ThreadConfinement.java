@@ -0,0 +1,80 @@
+package io.picimako.drupal.context.util;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Enforces that an object which is not thread-safe is used by only one thread at a time.
+ * <p>
+ * The object may be handed over from one thread to another between two calls, but a call from a thread while another
+ * thread is in the middle of using the object fails fast, instead of corrupting the state of the object. Calls are reentrant,
+ * so a guarded method may call other guarded methods of the same object.
+ * <p>
+ * Acquiring and releasing the object costs one compare-and-set and one volatile write per outermost call.
+ */
+public final class ThreadConfinement {
+
+    private final String objectName;
+    private final AtomicReference<Thread> user = new AtomicReference<>();
+    //Only accessed by the thread using the object, after acquiring it
+    private int depth;
+
+    /**
+     * Creates a guard for the object of the argument name.
+     *
+     * @param objectName the name of the guarded object, used in the error message
+     */
+    public ThreadConfinement(String objectName) {
+        this.objectName = objectName;
+    }
+
+    /**
+     * Runs the argument action on behalf of the current thread.
+     *
+     * @param action the action to run
+     * @throws IllegalStateException when another thread is using the guarded object
+     */
+    public void run(Runnable action) {
+        acquire();
+        try {
+            action.run();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Calls the argument action on behalf of the current thread, and returns its result.
+     *
+     * @param action the action to call
+     * @param <T>    the type of the result
+     * @return the result of the action
+     * @throws IllegalStateException when another thread is using the guarded object
+     */
+    public <T> T call(Supplier<T> action) {
+        T result;
+        acquire();
+        try {
+            result = action.get();
+        } finally {
+            release();
+        }
+        return result;
+    }
+
+    private void acquire() {
+        Thread current = Thread.currentThread();
+        if (user.get() != current && !user.compareAndSet(null, current)) {
+            Thread otherUser = user.get();
+            throw new IllegalStateException("The " + objectName + " is already in use by thread ["
+                + (otherUser != null ? otherUser.getName() : "unknown") + "]. It must not be used by multiple threads at the same time.");
+        }
+        depth++;
+    }
+
+    private void release() {
+        if (--depth == 0) {
+            user.set(null);
+        }
+    }
+}
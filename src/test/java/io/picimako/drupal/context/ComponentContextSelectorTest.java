@@ -0,0 +1,44 @@
+package io.picimako.drupal.context;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link ComponentContextSelector}.
+ */
+public class ComponentContextSelectorTest {
+
+    @Test
+    public void shouldReturnSameCssSelectorInstanceForCommonOccurrenceCounts() {
+        String selector = ComponentContextSelector.IMAGE.getCssSelector(2);
+
+        assertThat(selector).isEqualTo(".image-component:nth-child(2)");
+        assertThat(ComponentContextSelector.IMAGE.getCssSelector(2)).isSameAs(selector);
+    }
+
+    @Test
+    public void shouldGrowCssSelectorsForLargerOccurrenceCounts() {
+        String selector = ComponentContextSelector.CAROUSEL_ITEM.getCssSelector(100);
+
+        assertThat(selector).isEqualTo(".carousel-item:nth-child(100)");
+        assertThat(ComponentContextSelector.CAROUSEL_ITEM.getCssSelector(100)).isSameAs(selector);
+        assertThat(ComponentContextSelector.CAROUSEL_ITEM.getCssSelector(17)).isEqualTo(".carousel-item:nth-child(17)");
+    }
+
+    @Test
+    public void shouldBuildCssSelectorForVeryLargeOccurrenceCounts() {
+        assertThat(ComponentContextSelector.CONTAINER.getCssSelector(5_000_000_000L)).isEqualTo(".container:nth-child(5000000000)");
+    }
+
+    @Test
+    public void shouldReturnCssSelectorIgnoringOccurrenceCount() {
+        assertThat(ComponentContextSelector.LAYOUT.getCssSelector(3)).isEqualTo(".layout");
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveOccurrenceCount() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ComponentContextSelector.IMAGE.getCssSelector(0));
+    }
+}
@@ -2,72 +2,58 @@ package io.picimako.drupal.context;
 
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Mock;
-
-import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.Mockito.when;
-import static org.mockito.MockitoAnnotations.initMocks;
-import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 /**
  * Unit test for {@link ComponentTreeBranchToCssContextSelectorConverter}.
  */
 public class ComponentTreeBranchToCssContextSelectorConverterTest {
 
-    @Mock
-    private CssContextSelectorAssembler assembler;
     private ComponentTreeBranchToCssContextSelectorConverter converter;
+    private ComponentTree tree;
+    private ComponentNode container;
+    private ComponentNode layout;
+    private ComponentNode image;
 
     @Before
     public void setup() {
         converter = new ComponentTreeBranchToCssContextSelectorConverter();
-        initMocks(this);
+        tree = new ComponentTree();
+        container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        image = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(layout, container);
+        tree.addNode(image, layout);
     }
 
     @Test
-    public void shouldConvertCurrentNodeIntoSingletonListIfItIsAtRootLevel() {
-        ComponentTree tree = new ComponentTree();
-        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
-        tree.addNode(container, ComponentNode.ABSENT);
-
-        when(assembler.createCssContextSelectorFrom(argThat(list -> list.size() == 1))).thenReturn(".container");
-        setField(converter, "selectorAssembler", assembler, CssContextSelectorAssembler.class);
+    public void shouldConvertCurrentNodeOnlyIfItIsAtRootLevel() {
+        assertThat(converter.convert(tree, container, false)).isEqualTo(".container:nth-child(1)");
+    }
 
-        assertThat(converter.convert(tree, container, false)).isEqualTo(".container");
+    @Test
+    public void shouldConvertCurrentNodeOnlyIfItIsAtRootLevelEvenFromParent() {
+        assertThat(converter.convert(tree, container, true)).isEqualTo(".container:nth-child(1)");
     }
 
     @Test
     public void shouldConvertNodesFromBranchFromParentNodeIfCurrentNodeIsNotAtRootLevel() {
-        ComponentTree tree = new ComponentTree();
-        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
-        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
-        ComponentNode image = new ComponentNode(3, ParagraphNodeType.IMAGE);
-        tree.addNode(container, ComponentNode.ABSENT);
-        tree.addNode(layout, container);
-        tree.addNode(image, layout);
-
-        when(assembler.createCssContextSelectorFrom(List.of(container, layout))).thenReturn(".container .layout");
-        setField(converter, "selectorAssembler", assembler, CssContextSelectorAssembler.class);
-
-        assertThat(converter.convert(tree, image, true)).isEqualTo(".container .layout");
+        assertThat(converter.convert(tree, image, true)).isEqualTo(".container:nth-child(1) .layout");
     }
 
     @Test
     public void shouldConvertNodesFromBranchNotFromParentNodeIfCurrentNodeIsNotAtRootLevel() {
-        ComponentTree tree = new ComponentTree();
-        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
-        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
-        ComponentNode image = new ComponentNode(3, ParagraphNodeType.IMAGE);
-        tree.addNode(container, ComponentNode.ABSENT);
-        tree.addNode(layout, container);
-        tree.addNode(image, layout);
+        assertThat(converter.convert(tree, image, false)).isEqualTo(".container:nth-child(1) .layout .image-component:nth-child(1)");
+    }
 
-        when(assembler.createCssContextSelectorFrom(List.of(container, layout, image))).thenReturn(".container .layout div.image");
-        setField(converter, "selectorAssembler", assembler, CssContextSelectorAssembler.class);
+    @Test
+    public void shouldConvertNodesFromBranchWithOccurrenceCountOfSiblings() {
+        ComponentNode secondImage = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        tree.addNode(secondImage, image);
 
-        assertThat(converter.convert(tree, image, false)).isEqualTo(".container .layout div.image");
+        assertThat(converter.convert(tree, secondImage, false)).isEqualTo(".container:nth-child(1) .layout .image-component:nth-child(2)");
+        assertThat(converter.convert(tree, secondImage, true)).isEqualTo(".container:nth-child(1) .layout");
     }
 }
@@ -0,0 +1,75 @@
+package io.picimako.drupal.context;
+
+import io.picimako.drupal.context.monitoring.AssemblyListener;
+import io.picimako.drupal.context.monitoring.AssemblyPhase;
+import io.picimako.drupal.context.monitoring.ProcessedNode;
+import io.picimako.drupal.context.monitoring.AssemblyProbe;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Unit test for {@link ComponentTreeBuilder}.
+ */
+public class ComponentTreeBuilderTest {
+
+    private final ComponentNodeValidator validator = mock(ComponentNodeValidator.class);
+    private final AssemblyListener listener = mock(AssemblyListener.class);
+    private final ComponentTree tree = mock(ComponentTree.class);
+    private ComponentTreeBuilder treeBuilder;
+
+    @Before
+    public void setup() {
+        treeBuilder = new ComponentTreeBuilder(validator);
+        treeBuilder.setProbe(AssemblyProbe.of(listener));
+    }
+
+    @Test
+    public void shouldReportParsing() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+
+        ComponentNode parsed = treeBuilder.parse(definition -> container, "- CONTAINER", 3);
+
+        assertThat(parsed).isSameAs(container);
+        verify(listener).nodeProcessed(eq(new ProcessedNode(AssemblyPhase.PARSE, container, 3)), anyLong(), anyLong());
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void shouldValidateNodeBeforeAddingItToTree() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = new ComponentNode(2, ParagraphNodeType.IMAGE);
+
+        treeBuilder.addNode(image, container, tree, 2);
+
+        InOrder inOrder = inOrder(validator, tree, listener);
+        inOrder.verify(validator).validateNode(image, container);
+        inOrder.verify(listener).nodeProcessed(eq(new ProcessedNode(AssemblyPhase.VALIDATE, image, 2)), anyLong(), anyLong());
+        inOrder.verify(tree).addNode(image, container);
+        inOrder.verify(listener).nodeProcessed(eq(new ProcessedNode(AssemblyPhase.TREE_BUILD, image, 2)), anyLong(), anyLong());
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void shouldNotAddInvalidNodeToTree() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        doThrow(new IllegalArgumentException("invalid")).when(validator).validateNode(image, container);
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> treeBuilder.addNode(image, container, tree, 2))
+            .withMessage("invalid");
+        verifyZeroInteractions(tree, listener);
+    }
+}
@@ -0,0 +1,55 @@
+package io.picimako.drupal.context;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link ComponentTreeGraphView}.
+ */
+public class ComponentTreeGraphViewTest {
+
+    private ComponentTree tree;
+
+    @Before
+    public void setup() {
+        tree = new ComponentTree();
+    }
+
+    @Test
+    public void shouldProvideReadOnlyGraphView() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = new ComponentNode(2, ParagraphNodeType.IMAGE);
+        ComponentNode youtubeVideo = new ComponentNode(2, ParagraphNodeType.YOUTUBE_VIDEO);
+
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(image, container);
+        tree.addNode(youtubeVideo, image);
+
+        assertThat(tree.getGraph().isDirected()).isTrue();
+        assertThat(tree.getGraph().nodes()).containsExactly(container, image, youtubeVideo);
+        assertThat(tree.getGraph().successors(container)).containsExactly(image, youtubeVideo);
+        assertThat(tree.getGraph().predecessors(youtubeVideo)).containsExactly(container);
+        assertThat(tree.getGraph().edges()).hasSize(2);
+        assertThatIllegalArgumentException().isThrownBy(() -> tree.getGraph().successors(new ComponentNode(1, ParagraphNodeType.LAYOUT)));
+    }
+
+    @Test
+    public void shouldListChildrenOfWideTree() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        tree.addNode(container, ComponentNode.ABSENT);
+        ComponentNode previousNode = container;
+        for (int i = 1; i <= 1000; i++) {
+            ComponentNode image = new ComponentNode(2, i % 2 == 0 ? ParagraphNodeType.IMAGE : ParagraphNodeType.YOUTUBE_VIDEO);
+            tree.addNode(image, previousNode);
+            previousNode = image;
+        }
+
+        assertThat(tree.getGraph().nodes()).hasSize(1001).first().isSameAs(container);
+        assertThat(tree.getGraph().successors(container)).hasSize(1000);
+        assertThat(tree.getParentNode(previousNode)).isSameAs(container);
+        assertThat(previousNode.getOccurrenceCountUnderParent()).isEqualTo(500);
+    }
+}
@@ -3,29 +3,21 @@ package io.picimako.drupal.context;
 import com.google.common.graph.Traverser;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.Mock;
-
-import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.when;
-import static org.mockito.MockitoAnnotations.initMocks;
-import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
 
 /**
  * Unit test for {@link ComponentTree}.
  */
 public class ComponentTreeTest {
 
-    @Mock
-    private ComponentTreeBranchTraverser branchTraverser;
-
     private ComponentTree tree;
 
     @Before
     public void setup() {
         tree = new ComponentTree();
-        initMocks(this);
     }
 
     @Test
@@ -79,9 +71,6 @@ public class ComponentTreeTest {
         tree.addNode(image, layout);
         tree.addNode(layout2, image);
 
-        when(branchTraverser.getPredecessorsFromBranchOf(layout2)).thenReturn(List.of(container));
-        setField(tree, "branchTraverser", branchTraverser, ComponentTreeBranchTraverser.class);
-
         Iterable<ComponentNode> traversedContainer1 = traverseTreeFrom(container);
         assertThat(traversedContainer1).contains(container, layout, image, layout2);
 
@@ -125,9 +114,6 @@ public class ComponentTreeTest {
         tree.addNode(image, layout);
         tree.addNode(youtubeVideo, image);
 
-        when(branchTraverser.getPredecessorsFromBranchOf(youtubeVideo)).thenReturn(List.of(container1, layout));
-        setField(tree, "branchTraverser", branchTraverser, ComponentTreeBranchTraverser.class);
-
         Iterable<ComponentNode> traversedContainer1 = traverseTreeFrom(container1);
         assertThat(traversedContainer1).contains(container1, layout, image, youtubeVideo);
 
@@ -147,10 +133,165 @@ public class ComponentTreeTest {
         tree.addNode(image, layout);
         tree.addNode(layout2, image);
 
-        when(branchTraverser.getPredecessorsFromBranchOf(layout2)).thenReturn(List.of(container));
-        setField(tree, "branchTraverser", branchTraverser, ComponentTreeBranchTraverser.class);
+        assertThat(layout2.getOccurrenceCountUnderParent()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldReturnParentNode() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(layout, container);
+
+        assertThat(tree.getParentNode(layout)).isSameAs(container);
+        assertThat(tree.getParentNode(container)).isSameAs(ComponentNode.ABSENT);
+    }
+
+    @Test
+    public void shouldThrowExceptionForParentOfNodeNotInTree() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> tree.getParentNode(container))
+            .withMessageEndingWith("is not an element of this component tree.");
+    }
+
+    @Test
+    public void shouldFindNodesAddedToMultipleTrees() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode image = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        ComponentTree otherTree = new ComponentTree();
+
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(layout, container);
+        otherTree.addNode(layout, ComponentNode.ABSENT);
+        otherTree.addNode(image, layout);
+
+        assertThat(tree.getParentNode(layout)).isSameAs(container);
+        assertThat(otherTree.getParentNode(layout)).isSameAs(ComponentNode.ABSENT);
+        assertThat(otherTree.getParentNode(image)).isSameAs(layout);
+    }
+
+    @Test
+    public void shouldCountRootLevelOccurrencesPerType() {
+        ComponentNode container1 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode image = new ComponentNode(1, ParagraphNodeType.IMAGE);
+        ComponentNode container2 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode container3 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+
+        tree.addNode(container1, ComponentNode.ABSENT);
+        tree.addNode(layout, container1);
+        tree.addNode(image, layout);
+        tree.addNode(container2, image);
+        tree.addNode(container3, container2);
+
+        assertThat(image.getOccurrenceCountUnderParent()).isEqualTo(1);
+        assertThat(container2.getOccurrenceCountUnderParent()).isEqualTo(2);
+        assertThat(container3.getOccurrenceCountUnderParent()).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldCountOccurrencesUnderEachParentSeparately() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout1 = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode image1 = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        ComponentNode image2 = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        ComponentNode layout2 = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode image3 = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        ComponentNode image4 = new ComponentNode(3, ParagraphNodeType.IMAGE);
 
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(layout1, container);
+        tree.addNode(image1, layout1);
+        tree.addNode(image2, image1);
+        tree.addNode(layout2, image2);
+        tree.addNode(image3, layout2);
+        tree.addNode(image4, image3);
+
+        assertThat(image2.getOccurrenceCountUnderParent()).isEqualTo(2);
         assertThat(layout2.getOccurrenceCountUnderParent()).isEqualTo(2);
+        assertThat(image4.getOccurrenceCountUnderParent()).isEqualTo(2);
+        assertThat(tree.getParentNode(image4)).isSameAs(layout2);
+    }
+
+    @Test
+    public void shouldAddNodeAfterPreviousNodeThatIsNotTheLastAddedOne() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout1 = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode image1 = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        ComponentNode layout2 = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode image2 = new ComponentNode(3, ParagraphNodeType.IMAGE);
+
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(layout1, container);
+        tree.addNode(image1, layout1);
+        tree.addNode(layout2, image1);
+        tree.addNode(image2, image1);
+
+        assertThat(tree.getParentNode(image2)).isSameAs(layout1);
+        assertThat(image2.getOccurrenceCountUnderParent()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldBuildContextSelectorsOfNodesWhenTheyAreAdded() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode image1 = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        ComponentNode image2 = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        ComponentNode container2 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(layout, container);
+        tree.addNode(image1, layout);
+        tree.addNode(image2, image1);
+        tree.addNode(container2, image2);
+
+        assertThat(tree.getContextSelector(container)).isEqualTo(".container:nth-child(1)");
+        assertThat(tree.getContextSelector(layout)).isEqualTo(".container:nth-child(1) .layout");
+        assertThat(tree.getContextSelector(image1)).isEqualTo(".container:nth-child(1) .layout .image-component:nth-child(1)");
+        assertThat(tree.getContextSelector(image2)).isEqualTo(".container:nth-child(1) .layout .image-component:nth-child(2)");
+        assertThat(tree.getContextSelector(container2)).isEqualTo(".container:nth-child(2)");
+        assertThat(tree.getContextSelector(image2)).isSameAs(tree.getContextSelector(image2));
+    }
+
+    @Test
+    public void shouldThrowExceptionForContextSelectorOfNodeNotInTree() {
+        assertThatIllegalArgumentException().isThrownBy(() -> tree.getContextSelector(new ComponentNode(1, ParagraphNodeType.CONTAINER)));
+    }
+
+    @Test
+    public void shouldStartOverAfterClearing() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+        ComponentNode container2 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        tree.addNode(container, ComponentNode.ABSENT);
+        tree.addNode(layout, container);
+        tree.addNode(container2, layout);
+
+        tree.clear();
+        ComponentNode newContainer = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode newImage = new ComponentNode(2, ParagraphNodeType.IMAGE);
+        ComponentNode newContainer2 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        tree.addNode(newContainer, ComponentNode.ABSENT);
+        tree.addNode(newImage, newContainer);
+        tree.addNode(newContainer2, newImage);
+
+        assertThat(tree.getGraph().nodes()).containsExactly(newContainer, newImage, newContainer2);
+        assertThat(newContainer2.getOccurrenceCountUnderParent()).isEqualTo(2);
+        assertThat(tree.getContextSelector(newContainer2)).isEqualTo(".container:nth-child(2)");
+        assertThat(tree.getParentNode(newImage)).isSameAs(newContainer);
+        assertThatIllegalArgumentException().isThrownBy(() -> tree.getParentNode(layout));
+    }
+
+    @Test
+    public void shouldNotAddNodeOfUnregisteredType() {
+        ComponentNode node = new ComponentNode(1, mock(NodeType.class));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> tree.addNode(node, ComponentNode.ABSENT))
+            .withMessageEndingWith("is not registered.");
+        assertThat(tree.getGraph().nodes()).isEmpty();
     }
 
     private Iterable<ComponentNode> traverseTreeFrom(ComponentNode startNode) {
@@ -6,6 +6,7 @@ import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
 
 /**
  * Unit test for {@link ConfigurationNodeConfigParser}.
@@ -95,4 +96,42 @@ public class ConfigurationNodeConfigParserTest {
 
         assertThat(parser.parseConfigurationValues(configuration)).containsAllEntriesOf(expectedConfiguration);
     }
+
+    // Edge cases
+
+    @Test
+    public void shouldIgnoreTrailingEmptyEntries() {
+        assertThat(parser.parseConfigurationValues("url:something,,")).containsExactly(entry("url", "something"));
+        assertThat(parser.parseConfigurationValues(",")).isEmpty();
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenAnEmptyEntryIsFollowedByAnotherEntry() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> parser.parseConfigurationValues("url:something,,image:someimage"))
+            .withMessage("There is at least one configuration entry that doesn't have a key or a value part.");
+    }
+
+    @Test
+    public void shouldSplitKeyAndValueAtTheFirstKeyValueDelimiter() {
+        assertThat(parser.parseConfigurationValues("  url:https://duckduckgo.com"))
+            .containsExactly(entry("url", "https://duckduckgo.com"));
+    }
+
+    @Test
+    public void shouldParseEscapedCommasInKeys() {
+        assertThat(parser.parseConfigurationValues("some\\,key:value")).containsExactly(entry("some,key", "value"));
+    }
+
+    @Test
+    public void shouldKeepTheLastValueOfDuplicateKeys() {
+        assertThat(parser.parseConfigurationValues("url:first, image:someimage, url:second"))
+            .containsExactly(entry("url", "second"), entry("image", "someimage"));
+    }
+
+    @Test
+    public void shouldParseEmptyAndSingleQuoteValues() {
+        assertThat(parser.parseConfigurationValues("title:, quoted:\"\", quote:\""))
+            .containsExactly(entry("title", ""), entry("quoted", ""), entry("quote", "\""));
+    }
 }
@@ -51,4 +51,19 @@ public class CssContextSelectorAssemblerTest {
         assertThatIllegalArgumentException()
                 .isThrownBy(() -> assembler.createCssContextSelectorFrom(List.of()));
     }
+
+    @Test
+    public void shouldAppendSelectorOfNodeToContextSelectorOfParent() {
+        ComponentNode image = new ComponentNode(3, ParagraphNodeType.IMAGE);
+        image.setOccurrenceCountUnderParent(2);
+
+        assertThat(assembler.appendToContextSelector(".container:nth-child(1) .layout", image))
+            .isEqualTo(".container:nth-child(1) .layout .image-component:nth-child(2)");
+    }
+
+    @Test
+    public void shouldCreateSelectorOfNodeWithoutParentContextSelector() {
+        assertThat(assembler.appendToContextSelector(null, new ComponentNode(1, ParagraphNodeType.CONTAINER)))
+            .isEqualTo(".container:nth-child(1)");
+    }
 }
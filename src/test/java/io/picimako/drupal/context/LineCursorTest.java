@@ -0,0 +1,109 @@
+package io.picimako.drupal.context;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit test for {@link LineCursor}.
+ */
+public class LineCursorTest {
+
+    private static final String[] INPUTS = {
+        "- CONTAINER",
+        "- CONTAINER\n-- LAYOUT\n--- IMAGE",
+        "- CONTAINER\n-- LAYOUT\n",
+        "- CONTAINER\n\n\n-- LAYOUT\n\n\n",
+        "\n- CONTAINER",
+        "- CONTAINER\r\n-- LAYOUT",
+        "\n\n"
+    };
+
+    @Test
+    public void shouldIterateOverCharSequenceLinesTheSameWayAsSplit() {
+        for (String input : INPUTS) {
+            assertThat(readAll(LineCursor.over(input))).as(input).isEqualTo(Arrays.asList(input.split("\n")).subList(0, splitSize(input)));
+        }
+    }
+
+    @Test
+    public void shouldIterateOverReaderLinesTheSameWayAsSplit() {
+        for (String input : INPUTS) {
+            assertThat(readAll(LineCursor.over(new StringReader(input)))).as(input)
+                .isEqualTo(Arrays.asList(input.split("\n")).subList(0, splitSize(input)));
+        }
+    }
+
+    @Test
+    public void shouldReadLinesLongerThanTheReadBuffer() {
+        String longLine = "- RICH_TEXT >> text:" + "a".repeat(20_000);
+
+        assertThat(readAll(LineCursor.over(new StringReader(longLine + "\n- CONTAINER")))).containsExactly(longLine, "- CONTAINER");
+    }
+
+    @Test
+    public void shouldNotCopyCharSequenceLines() {
+        StringBuilder text = new StringBuilder("- CONTAINER\n-- LAYOUT");
+        LineCursor cursor = LineCursor.over(text);
+        CharSequence line = cursor.next();
+
+        text.setCharAt(2, 'X');
+
+        assertThat(line.toString()).isEqualTo("- XONTAINER");
+        assertThat(line.subSequence(2, 4).toString()).isEqualTo("XO");
+    }
+
+    @Test
+    public void shouldLookAheadOnlyUntilTheNextLine() {
+        LineCursor cursor = LineCursor.over("- CONTAINER\n-- LAYOUT");
+
+        assertThat(cursor.hasNext()).isTrue();
+        assertThat(cursor.hasNext()).isTrue();
+        assertThat(cursor.next().toString()).isEqualTo("- CONTAINER");
+        assertThat(cursor.next().toString()).isEqualTo("-- LAYOUT");
+        assertThat(cursor.hasNext()).isFalse();
+        assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(cursor::next);
+    }
+
+    @Test
+    public void shouldWrapReadFailures() {
+        Reader failingReader = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Read failure.");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertThatExceptionOfType(UncheckedIOException.class).isThrownBy(() -> LineCursor.over(failingReader).hasNext());
+    }
+
+    private static List<String> readAll(LineCursor cursor) {
+        List<String> lines = new ArrayList<>();
+        while (cursor.hasNext()) {
+            lines.add(cursor.next().toString());
+        }
+        return lines;
+    }
+
+    /**
+     * {@link String#split(String)} returns the input itself for inputs that consist of only line separators,
+     * while the cursor returns no lines for them.
+     */
+    private static int splitSize(String input) {
+        return input.isBlank() ? 0 : input.split("\n").length;
+    }
+}
@@ -0,0 +1,124 @@
+package io.picimako.drupal.context;
+
+import io.picimako.drupal.context.NodeLineScanner.LineKind;
+import io.picimako.drupal.context.NodeLineScanner.ScannedLine;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for {@link NodeLineScanner}.
+ */
+public class NodeLineScannerTest {
+
+    private final NodeLineScanner treeViewScanner = NodeLineScanner.forTreeView();
+    private final NodeLineScanner tableScanner = NodeLineScanner.forTable();
+
+    //Tree view
+
+    @Test
+    public void shouldScanParagraph() {
+        ScannedLine line = treeViewScanner.scan("--- IMAGE");
+
+        assertThat(line.getKind()).isEqualTo(LineKind.PARAGRAPH);
+        assertThat(line.getLevel()).isEqualTo(3);
+        assertThat(line.getTypeName()).isEqualTo("IMAGE");
+        assertThat(line.hasConfiguration()).isFalse();
+    }
+
+    @Test
+    public void shouldScanParagraphWithInlineConfiguration() {
+        ScannedLine line = treeViewScanner.scan("-- YOUTUBE_VIDEO >> title:\"Good title\", features:autoplay");
+
+        assertThat(line.getKind()).isEqualTo(LineKind.PARAGRAPH);
+        assertThat(line.getLevel()).isEqualTo(2);
+        assertThat(line.getTypeName()).isEqualTo("YOUTUBE_VIDEO");
+        assertThat(line.getConfiguration()).isEqualTo("title:\"Good title\", features:autoplay");
+    }
+
+    @Test
+    public void shouldScanParagraphWithEmptyInlineConfiguration() {
+        ScannedLine line = treeViewScanner.scan("- CONTAINER >> ");
+
+        assertThat(line.getKind()).isEqualTo(LineKind.PARAGRAPH);
+        assertThat(line.getConfiguration()).isEmpty();
+    }
+
+    @Test
+    public void shouldScanModifier() {
+        ScannedLine line = treeViewScanner.scan("----@ ABSOLUTE_HEIGHT_MODIFIER");
+
+        assertThat(line.getKind()).isEqualTo(LineKind.MODIFIER);
+        assertThat(line.getLevel()).isEqualTo(4);
+        assertThat(line.getTypeName()).isEqualTo("ABSOLUTE_HEIGHT_MODIFIER");
+    }
+
+    @Test
+    public void shouldScanConfiguration() {
+        ScannedLine line = treeViewScanner.scan("---* url:https://duckduckgo.com");
+
+        assertThat(line.getKind()).isEqualTo(LineKind.CONFIGURATION);
+        assertThat(line.getLevel()).isEqualTo(3);
+        assertThat(line.getConfiguration()).isEqualTo("url:https://duckduckgo.com");
+    }
+
+    @Test
+    public void shouldScanRootLevelConfiguration() {
+        ScannedLine line = treeViewScanner.scan("* title:some title");
+
+        assertThat(line.getKind()).isEqualTo(LineKind.CONFIGURATION);
+        assertThat(line.getLevel()).isZero();
+        assertThat(line.getConfiguration()).isEqualTo("title:some title");
+    }
+
+    @Test
+    public void shouldNotRecognizeInvalidTreeViewLines() {
+        assertThat(treeViewScanner.scan("CONTAINER").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("- container").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("- CONTAINER >>").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("- CONTAINER x").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("--@ COLORS_MODIFIER >> color:red").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("@ COLORS_MODIFIER").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("---*").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("---* url:a\rb").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(treeViewScanner.scan("").getKind()).isEqualTo(LineKind.INVALID);
+    }
+
+    //Table
+
+    @Test
+    public void shouldScanTableParagraphAndModifier() {
+        ScannedLine paragraph = tableScanner.scan(">> LAYOUT");
+        ScannedLine modifier = tableScanner.scan(">>>@ COLORS_MODIFIER");
+
+        assertThat(paragraph.getKind()).isEqualTo(LineKind.PARAGRAPH);
+        assertThat(paragraph.getLevel()).isEqualTo(2);
+        assertThat(paragraph.getTypeName()).isEqualTo("LAYOUT");
+        assertThat(modifier.getKind()).isEqualTo(LineKind.MODIFIER);
+        assertThat(modifier.getLevel()).isEqualTo(3);
+        assertThat(modifier.getTypeName()).isEqualTo("COLORS_MODIFIER");
+    }
+
+    @Test
+    public void shouldNotRecognizeTreeViewOnlyFormatsInTable() {
+        assertThat(tableScanner.scan("> IMAGE >> name:image.png").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(tableScanner.scan(">* name:image.png").getKind()).isEqualTo(LineKind.INVALID);
+        assertThat(tableScanner.scan("--- LAYOUT").getKind()).isEqualTo(LineKind.INVALID);
+    }
+
+    //Configuration helpers
+
+    @Test
+    public void shouldDetectConfigurationEndingWithItemDelimiter() {
+        assertThat(NodeLineScanner.endsWithItemDelimiter("url: something,")).isTrue();
+        assertThat(NodeLineScanner.endsWithItemDelimiter("url: something,   ")).isTrue();
+        assertThat(NodeLineScanner.endsWithItemDelimiter("url: something")).isFalse();
+        assertThat(NodeLineScanner.endsWithItemDelimiter("")).isFalse();
+    }
+
+    @Test
+    public void shouldDetectKeyValueDelimiter() {
+        assertThat(NodeLineScanner.hasKeyValueDelimiter("url:")).isTrue();
+        assertThat(NodeLineScanner.hasKeyValueDelimiter("url")).isFalse();
+    }
+}
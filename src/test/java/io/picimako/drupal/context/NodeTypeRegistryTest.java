@@ -0,0 +1,152 @@
+package io.picimako.drupal.context;
+
+import io.picimako.drupal.context.SiteNodeTypeProvider.SiteModifierNodeType;
+import io.picimako.drupal.context.SiteNodeTypeProvider.SitePageSteps;
+import io.picimako.drupal.context.SiteNodeTypeProvider.SiteParagraphNodeType;
+import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
+import io.picimako.drupal.context.steps.ImageComponentSteps;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit test for {@link NodeTypeRegistry}.
+ */
+public class NodeTypeRegistryTest {
+
+    private final NodeTypeRegistry registry = NodeTypeRegistry.registered();
+
+    @Test
+    public void shouldAssignDenseIdsToBuiltInTypesFirst() {
+        assertThat(registry.size()).isEqualTo(ParagraphNodeType.values().length + ModifierNodeType.values().length + 3);
+        assertThat(registry.idOf(ParagraphNodeType.ABSENT)).isZero();
+        assertThat(registry.idOf(ParagraphNodeType.YOUTUBE_VIDEO)).isEqualTo(6);
+        assertThat(registry.idOf(ModifierNodeType.ABSOLUTE_HEIGHT_MODIFIER)).isEqualTo(7);
+        assertThat(registry.idOf(SiteParagraphNodeType.QUOTE)).isEqualTo(9);
+        assertThat(registry.idOf(SiteModifierNodeType.SHADOW_MODIFIER)).isEqualTo(11);
+        for (int id = 0; id < registry.size(); id++) {
+            assertThat(registry.idOf(registry.typeOf(id))).isEqualTo(id);
+        }
+    }
+
+    @Test
+    public void shouldNotAssignIdToUnregisteredType() {
+        assertThat(registry.idOf(mock(NodeType.class))).isEqualTo(NodeTypeRegistry.NONE);
+        assertThat(registry.idOf(ClashingNodeType.IMAGE)).isEqualTo(NodeTypeRegistry.NONE);
+    }
+
+    @Test
+    public void shouldLookUpTypesByNameAndKind() {
+        assertThat(registry.paragraphType("IMAGE")).isSameAs(ParagraphNodeType.IMAGE);
+        assertThat(registry.paragraphType("QUOTE")).isSameAs(SiteParagraphNodeType.QUOTE);
+        assertThat(registry.modifierType("SHADOW_MODIFIER")).isSameAs(SiteModifierNodeType.SHADOW_MODIFIER);
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> registry.modifierType("QUOTE"))
+            .withMessage("There is no modifier node type registered with the name [QUOTE].");
+    }
+
+    @Test
+    public void shouldLookUpContextSelectors() {
+        assertThat(registry.cssSelectorOf(ParagraphNodeType.IMAGE, 2)).isSameAs(ComponentContextSelector.IMAGE.getCssSelector(2));
+        assertThat(registry.cssSelectorOf(SiteParagraphNodeType.QUOTE, 3)).isEqualTo(".quote:nth-child(3)");
+        assertThat(registry.cssSelectorOf(SiteParagraphNodeType.TEASER, 3)).isEqualTo(".image-component:nth-child(3)");
+        assertThatIllegalArgumentException().isThrownBy(() -> registry.cssSelectorOf(ParagraphNodeType.ABSENT, 1));
+    }
+
+    @Test
+    public void shouldLookUpAddersAndConfigurers() {
+        assertThat(registry.configurersOf(ParagraphNodeType.IMAGE)).containsOnlyKeys("name", "link");
+        assertThat(registry.configurersOf(SiteParagraphNodeType.QUOTE)).containsOnlyKeys("author");
+        assertThat(registry.configurersOf(ParagraphNodeType.CONTAINER)).isEmpty();
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> registry.adderOf(ParagraphNodeType.ABSENT))
+            .withMessage("There is no adder registered for the node type [ABSENT].");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> registry.configurersOf(ClashingNodeType.IMAGE))
+            .withMessage("The node type [IMAGE] is not registered.");
+    }
+
+    @Test
+    public void shouldNotChangeRegisteredConfigurers() {
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> ImageComponentConfigurer.IMAGE_COMPONENT_CONFIGURER.put("alt", (node, steps) -> { }));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> registry.configurersOf(ParagraphNodeType.IMAGE).remove("name"));
+        assertThat(registry.configurersOf(ParagraphNodeType.IMAGE).keySet()).containsExactly("name", "link");
+    }
+
+    @Test
+    public void shouldFailToConfigureTypeWithoutConfigurers() {
+        ComponentConfigurer configurer = new ComponentConfigurer(mock(DrupalConfigurationSteps.class));
+        ConfigurationNode configuration = new ConfigurationNode(Map.of("url", "video.mp4"));
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> configurer.configure(ParagraphNodeType.YOUTUBE_VIDEO, configuration))
+            .withMessage("There is no configurer registered for the node type [YOUTUBE_VIDEO].");
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> configurer.configure(ParagraphNodeType.ABSENT, configuration))
+            .withMessage("There is no configurer registered for the node type [ABSENT].");
+    }
+
+    @Test
+    public void shouldAssembleContentWithSiteSpecificTypes() {
+        SitePageSteps pageSteps = mock(SitePageSteps.class);
+        DrupalConfigurationSteps configurationSteps = mock(DrupalConfigurationSteps.class);
+        ImageComponentSteps imageSteps = mock(ImageComponentSteps.class);
+        when(configurationSteps.image()).thenReturn(imageSteps);
+
+        new ComponentTreeBasedContentAssembler(pageSteps, configurationSteps).assembleContent("- CONTAINER\n"
+            + "-- QUOTE >> author:Jane\n"
+            + "-- TEASER\n"
+            + "--@ SHADOW_MODIFIER");
+
+        InOrder inOrder = inOrder(pageSteps, imageSteps);
+        inOrder.verify(pageSteps).i_work_with_X(".container:nth-child(1)");
+        inOrder.verify(pageSteps).i_add_a_container();
+        inOrder.verify(pageSteps).i_add_a_quote();
+        inOrder.verify(imageSteps).i_add_the_image_named_X("Jane");
+        inOrder.verify(pageSteps).i_add_a_teaser();
+        inOrder.verify(pageSteps).i_add_a_shadow();
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void shouldNotRegisterTheSameTypesTwice() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> NodeTypeRegistry.builder().modifierTypes(ParagraphNodeType.class))
+            .withMessage("The node types of [io.picimako.drupal.context.ParagraphNodeType] are already registered.");
+    }
+
+    @Test
+    public void shouldNotRegisterTypesWithClashingNames() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> NodeTypeRegistry.builder().paragraphTypes(ClashingNodeType.class))
+            .withMessage("There is already a paragraph node type registered with the name [IMAGE].");
+
+        NodeTypeRegistry modifiers = NodeTypeRegistry.builder().modifierTypes(ClashingNodeType.class).build();
+        assertThat(modifiers.modifierType("IMAGE")).isSameAs(ClashingNodeType.IMAGE);
+    }
+
+    @Test
+    public void shouldNotSetPropertiesOfUnregisteredTypes() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> NodeTypeRegistry.builder().selector(ClashingNodeType.IMAGE, i -> ".image"))
+            .withMessage("The node type [IMAGE] should be registered before setting its properties.");
+    }
+
+    /**
+     * A node type that has the same name as a built-in paragraph node type.
+     */
+    private enum ClashingNodeType implements NodeType {
+        IMAGE
+    }
+}
@@ -0,0 +1,81 @@
+package io.picimako.drupal.context;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for {@link OpenBranch}.
+ */
+public class OpenBranchTest {
+
+    private final OpenBranch branch = new OpenBranch();
+
+    @Test
+    public void shouldKeepAncestorsOfTheBottomNode() {
+        branch.open(0, 1, true);
+        branch.open(1, 2, false);
+        branch.open(2, 3, false);
+
+        assertThat(branch.isBottom(2, 3)).isTrue();
+        assertThat(branch.isBottom(1, 2)).isFalse();
+        assertThat(branch.isOpen(1, 2)).isTrue();
+        assertThat(branch.nodeAtLevel(1)).isZero();
+        assertThat(branch.nodeAtLevel(2)).isEqualTo(1);
+        assertThat(branch.nodeAtLevel(3)).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldCloseNodesBelowANewNode() {
+        branch.open(0, 1, true);
+        branch.open(1, 2, false);
+        branch.open(2, 3, false);
+        branch.open(3, 2, false);
+
+        assertThat(branch.isOpen(2, 3)).isFalse();
+        assertThat(branch.isOpen(3, 2)).isTrue();
+        assertThat(branch.nodeAtLevel(2)).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldCountChildrenPerTypeOfOpenNodes() {
+        branch.open(0, 1, true);
+        branch.countChild(1, 4);
+        branch.countChild(1, 4);
+        branch.countChild(1, 20);
+
+        assertThat(branch.childTypeCount(1, 4)).isEqualTo(2);
+        assertThat(branch.childTypeCount(1, 20)).isEqualTo(1);
+
+        branch.reopen(0, 1);
+
+        assertThat(branch.childTypeCount(1, 4)).isZero();
+    }
+
+    @Test
+    public void shouldGrowDeeperThanTheInitialDepth() {
+        for (int level = 1; level <= 20; level++) {
+            branch.open(level - 1, level, level == 1);
+        }
+        branch.countChild(20, 1);
+
+        assertThat(branch.nodeAtLevel(19)).isEqualTo(18);
+        assertThat(branch.childTypeCount(20, 1)).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldResetCountsWhenCleared() {
+        branch.countChild(OpenBranch.ROOT_PARENT_LEVEL, 3);
+        branch.countChild(OpenBranch.ROOT_PARENT_LEVEL, 3);
+        branch.open(0, 1, true);
+        branch.countChild(1, 2);
+
+        assertThat(branch.childTypeCount(OpenBranch.ROOT_PARENT_LEVEL, 3)).isEqualTo(2);
+
+        branch.clear();
+
+        assertThat(branch.childTypeCount(OpenBranch.ROOT_PARENT_LEVEL, 3)).isZero();
+        assertThat(branch.childTypeCount(1, 2)).isZero();
+        assertThat(branch.isOpen(0, 1)).isFalse();
+    }
+}
@@ -3,6 +3,7 @@ package io.picimako.drupal.context;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
 
 /**
  * Unit test for {@link ParagraphNodeType}.
@@ -13,4 +14,9 @@ public class ParagraphNodeTypeTest {
     public void shouldConvertNodeTypeToContextSelector() {
         assertThat(ParagraphNodeType.LAYOUT.toContextSelector()).isEqualTo(ComponentContextSelector.LAYOUT);
     }
+
+    @Test
+    public void shouldThrowExceptionForNodeTypeWithoutContextSelector() {
+        assertThatIllegalArgumentException().isThrownBy(ParagraphNodeType.ABSENT::toContextSelector);
+    }
 }
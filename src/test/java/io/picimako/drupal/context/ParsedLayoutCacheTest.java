@@ -0,0 +1,86 @@
+package io.picimako.drupal.context;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link ParsedLayoutCache}.
+ */
+public class ParsedLayoutCacheTest {
+
+    private final AtomicInteger parseCount = new AtomicInteger();
+    private final ParsedLayoutCache<String> cache = ParsedLayoutCache.withMaximumSize(2);
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveMaximumSize() {
+        assertThatIllegalArgumentException().isThrownBy(() -> ParsedLayoutCache.withMaximumSize(0))
+            .withMessage("The maximum size of the layout cache should be greater than 0. It was: [0].");
+    }
+
+    @Test
+    public void shouldParseLayoutOnlyOnce() {
+        assertThat(cache.get("- CONTAINER", () -> parse("container"))).isEqualTo("container");
+        assertThat(cache.get(new StringBuilder("- CONTAINER"), () -> parse("other"))).isEqualTo("container");
+
+        assertThat(parseCount).hasValue(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldDistinguishLayoutPartBoundaries() {
+        assertThat(cache.get(List.of("> CONTAINER", "bg:#fff"), () -> parse("first"))).isEqualTo("first");
+        assertThat(cache.get(List.of("> CONTAINERbg:#fff", ""), () -> parse("second"))).isEqualTo("second");
+        assertThat(cache.get(List.of("> CONTAINER", "bg:#fff"), () -> parse("third"))).isEqualTo("first");
+
+        assertThat(parseCount).hasValue(2);
+    }
+
+    @Test
+    public void shouldNotCacheParsingFailures() {
+        assertThatIllegalArgumentException().isThrownBy(() -> cache.get("CONTAINER", () -> {
+            throw new IllegalArgumentException("Invalid layout.");
+        })).withMessage("Invalid layout.");
+
+        assertThat(cache.get("CONTAINER", () -> parse("container"))).isEqualTo("container");
+        assertThat(cache.stats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldEvictLayoutsAboveMaximumSize() {
+        cache.get("- CONTAINER", () -> parse("container"));
+        cache.get("- LAYOUT", () -> parse("layout"));
+        cache.get("- IMAGE", () -> parse("image"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isEqualTo(1);
+
+        cache.invalidateAll();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void shouldLookUpLayoutsInBackingCacheBeforeParsing() {
+        ParsedLayoutCache<String> backingCache = ParsedLayoutCache.withMaximumSize(10);
+        backingCache.get("- CONTAINER", () -> "from backing cache");
+        ParsedLayoutCache<String> layeredCache = ParsedLayoutCache.withMaximumSize(10, backingCache);
+
+        assertThat(layeredCache.get("- CONTAINER", () -> parse("container"))).isEqualTo("from backing cache");
+        assertThat(layeredCache.get(List.of("> LAYOUT", ""), () -> parse("layout"))).isEqualTo("layout");
+        assertThat(layeredCache.get(List.of("> LAYOUT", ""), () -> parse("other"))).isEqualTo("layout");
+
+        assertThat(parseCount).hasValue(1);
+        assertThat(backingCache.size()).isEqualTo(2);
+        assertThat(layeredCache.stats().hitCount()).isEqualTo(1);
+    }
+
+    private String parse(String layout) {
+        parseCount.incrementAndGet();
+        return layout;
+    }
+}
@@ -0,0 +1,55 @@
+package io.picimako.drupal.context;
+
+import io.picimako.drupal.context.steps.DrupalPageSteps;
+
+import java.util.Map;
+
+/**
+ * Registers site-specific node types for testing the {@link NodeTypeRegistry}. It is listed as a service provider in
+ * {@code META-INF/services/io.picimako.drupal.context.NodeTypeProvider}.
+ */
+public class SiteNodeTypeProvider implements NodeTypeProvider {
+
+    @Override
+    public void registerNodeTypes(NodeTypeRegistryBuilder registry) {
+        registry.paragraphTypes(SiteParagraphNodeType.class)
+            .modifierTypes(SiteModifierNodeType.class)
+            .selector(SiteParagraphNodeType.QUOTE, i -> ".quote:nth-child(" + i + ")")
+            .adder(SiteParagraphNodeType.QUOTE, (parent, node, steps) -> ((SitePageSteps) steps).i_add_a_quote())
+            .configurers(SiteParagraphNodeType.QUOTE, Map.of("author", (node, steps) -> steps.image().i_add_the_image_named_X(node.get("author"))))
+            .selector(SiteParagraphNodeType.TEASER, ComponentContextSelector.IMAGE)
+            .adder(SiteParagraphNodeType.TEASER, (parent, node, steps) -> ((SitePageSteps) steps).i_add_a_teaser())
+            .selector(SiteModifierNodeType.SHADOW_MODIFIER, i -> ".shadow-modifier")
+            .adder(SiteModifierNodeType.SHADOW_MODIFIER, (parent, node, steps) -> ((SitePageSteps) steps).i_add_a_shadow());
+    }
+
+    /**
+     * Site-specific paragraph node types.
+     */
+    public enum SiteParagraphNodeType implements NodeType {
+        QUOTE,
+        TEASER
+    }
+
+    /**
+     * Site-specific modifier node types.
+     */
+    public enum SiteModifierNodeType implements NodeType {
+        SHADOW_MODIFIER
+    }
+
+    /**
+     * Site-specific page steps.
+     */
+    public static class SitePageSteps extends DrupalPageSteps {
+
+        public void i_add_a_quote() {
+        }
+
+        public void i_add_a_teaser() {
+        }
+
+        public void i_add_a_shadow() {
+        }
+    }
+}
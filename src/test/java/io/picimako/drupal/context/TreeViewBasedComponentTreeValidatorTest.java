@@ -10,6 +10,7 @@ import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
@@ -40,9 +41,9 @@ public class TreeViewBasedComponentTreeValidatorTest {
         ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
         ComponentNode youtubeVideo = new ComponentNode(3, ParagraphNodeType.YOUTUBE_VIDEO);
 
-        when(nodeCreator.createNode("- CONTAINER")).thenReturn(container);
-        when(nodeCreator.createNode("-- LAYOUT")).thenReturn(layout);
-        when(nodeCreator.createNode("--- YOUTUBE_VIDEO")).thenReturn(youtubeVideo);
+        when(nodeCreator.createNode(line("- CONTAINER"))).thenReturn(container);
+        when(nodeCreator.createNode(line("-- LAYOUT"))).thenReturn(layout);
+        when(nodeCreator.createNode(line("--- YOUTUBE_VIDEO"))).thenReturn(youtubeVideo);
 
         assertThatCode(() -> componentTreeValidator.validateTree(componentTree)).doesNotThrowAnyException();
     }
@@ -60,10 +61,10 @@ public class TreeViewBasedComponentTreeValidatorTest {
         ComponentNode colorsModifier = new ComponentNode(3, ModifierNodeType.COLORS_MODIFIER);
         colorsModifier.setModifierNode(true);
 
-        when(nodeCreator.createNode("- CONTAINER")).thenReturn(container);
-        when(nodeCreator.createNode("-- LAYOUT")).thenReturn(layout);
-        when(nodeCreator.createNode("--- YOUTUBE_VIDEO")).thenReturn(youtubeVideo);
-        when(nodeCreator.createNode("----@ COLORS_MODIFIER")).thenReturn(colorsModifier);
+        when(nodeCreator.createNode(line("- CONTAINER"))).thenReturn(container);
+        when(nodeCreator.createNode(line("-- LAYOUT"))).thenReturn(layout);
+        when(nodeCreator.createNode(line("--- YOUTUBE_VIDEO"))).thenReturn(youtubeVideo);
+        when(nodeCreator.createNode(line("----@ COLORS_MODIFIER"))).thenReturn(colorsModifier);
 
         assertThatCode(() -> componentTreeValidator.validateTree(componentTree)).doesNotThrowAnyException();
     }
@@ -83,11 +84,11 @@ public class TreeViewBasedComponentTreeValidatorTest {
         colorsModifier.setModifierNode(true);
         ConfigurationNode colorsModifierConfig = new ConfigurationNode(Map.of("color", "#00CC00"));
 
-        when(nodeCreator.createNode("- CONTAINER")).thenReturn(container);
-        when(nodeCreator.createNode("-- LAYOUT")).thenReturn(layout);
-        when(nodeCreator.createNode("--- YOUTUBE_VIDEO")).thenReturn(youtubeVideo);
-        when(nodeCreator.createNode("----@ COLORS_MODIFIER")).thenReturn(colorsModifier);
-        when(nodeCreator.createNode("----* color:#00CC00")).thenReturn(colorsModifierConfig);
+        when(nodeCreator.createNode(line("- CONTAINER"))).thenReturn(container);
+        when(nodeCreator.createNode(line("-- LAYOUT"))).thenReturn(layout);
+        when(nodeCreator.createNode(line("--- YOUTUBE_VIDEO"))).thenReturn(youtubeVideo);
+        when(nodeCreator.createNode(line("----@ COLORS_MODIFIER"))).thenReturn(colorsModifier);
+        when(nodeCreator.createNode(line("----* color:#00CC00"))).thenReturn(colorsModifierConfig);
 
         assertThatCode(() -> componentTreeValidator.validateTree(componentTree)).doesNotThrowAnyException();
     }
@@ -104,10 +105,10 @@ public class TreeViewBasedComponentTreeValidatorTest {
         ComponentNode youtubeVideo = new ComponentNode(3, ParagraphNodeType.YOUTUBE_VIDEO);
         ComponentNode image = new ComponentNode(5, ParagraphNodeType.IMAGE);
 
-        when(nodeCreator.createNode("- CONTAINER")).thenReturn(container);
-        when(nodeCreator.createNode("-- LAYOUT")).thenReturn(layout);
-        when(nodeCreator.createNode("--- YOUTUBE_VIDEO")).thenReturn(youtubeVideo);
-        when(nodeCreator.createNode("----- IMAGE")).thenReturn(image);
+        when(nodeCreator.createNode(line("- CONTAINER"))).thenReturn(container);
+        when(nodeCreator.createNode(line("-- LAYOUT"))).thenReturn(layout);
+        when(nodeCreator.createNode(line("--- YOUTUBE_VIDEO"))).thenReturn(youtubeVideo);
+        when(nodeCreator.createNode(line("----- IMAGE"))).thenReturn(image);
 
         assertThatIllegalArgumentException()
             .isThrownBy(() -> componentTreeValidator.validateTree(componentTree))
@@ -118,4 +119,24 @@ public class TreeViewBasedComponentTreeValidatorTest {
                 + "Child was: [ComponentNode(level=5, type=IMAGE, occurrenceCountUnderParent=1, isModifierNode=false, "
                 + "inlineConfig=ConfigurationNode(configurations={}))]");
     }
+
+    @Test
+    public void shouldValidateSingleNodeAgainstPreviousNode() {
+        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+
+        assertThatCode(() -> componentTreeValidator.validateNode(new ComponentNode(1, ParagraphNodeType.CONTAINER), ComponentNode.ABSENT))
+            .doesNotThrowAnyException();
+        assertThatCode(() -> componentTreeValidator.validateNode(new ComponentNode(3, ParagraphNodeType.IMAGE), layout))
+            .doesNotThrowAnyException();
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> componentTreeValidator.validateNode(new ComponentNode(4, ParagraphNodeType.IMAGE), layout))
+            .withMessageStartingWith("Child defined more than 1 level deeper than its immediate parent");
+    }
+
+    /**
+     * Matches lines, which are passed to the node creator as {@link CharSequence} views, by their content.
+     */
+    private static CharSequence line(String line) {
+        return argThat(actual -> actual != null && line.contentEquals(actual));
+    }
 }
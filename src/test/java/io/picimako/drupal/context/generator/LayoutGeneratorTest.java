@@ -0,0 +1,192 @@
+package io.picimako.drupal.context.generator;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.Node;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.converter.TreeViewToDataTableConverter;
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.table.ComponentAndConfiguration;
+import io.picimako.drupal.context.table.DataTableValidator;
+import io.picimako.drupal.context.table.TableBasedContentAssembler;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import io.picimako.drupal.context.treeview.TreeViewBasedComponentTreeValidator;
+import io.picimako.drupal.context.treeview.TreeViewBasedNodeCreator;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link LayoutGenerator}.
+ */
+public class LayoutGeneratorTest {
+
+    private final TreeViewBasedNodeCreator nodeCreator = new TreeViewBasedNodeCreator();
+
+    @Test
+    public void shouldGenerateTheRequestedNumberOfComponents() {
+        LayoutGenerator generator = LayoutGenerator.builder().componentCount(500).modifierRatio(0.5).build();
+
+        assertThat(parseTreeView(generator).stream().filter(node -> node instanceof ComponentNode)).hasSize(500);
+        assertThat(generator.generateTable().stream().filter(ComponentAndConfiguration::hasComponentDefinition)).hasSize(500);
+    }
+
+    @Test
+    public void shouldGenerateValidLayoutsOfVariousShapes() {
+        List<LayoutGenerator> generators = List.of(
+            LayoutGenerator.builder().build(),
+            LayoutGenerator.builder().componentCount(1).build(),
+            LayoutGenerator.builder().componentCount(200).depth(1).build(),
+            LayoutGenerator.builder().componentCount(200).depth(2).fanOut(5, 5).build(),
+            LayoutGenerator.builder().componentCount(2000).depth(30).fanOut(1, 2).carouselRatio(0.5).build(),
+            LayoutGenerator.builder().componentCount(2000).depth(3).fanOut(300, 500).modifierRatio(1).build(),
+            LayoutGenerator.builder().componentCount(2000).depth(4).carouselRatio(1).inlineConfigRatio(0).escapedCommaRatio(1).build(),
+            LayoutGenerator.builder().componentCount(2000).configValueLength(1, 1).escapedCommaRatio(1).seed(7).build());
+
+        SimulatedEditor editor = SimulatedEditor.withoutLatency();
+        for (LayoutGenerator generator : generators) {
+            String treeView = generator.generateTreeView();
+            List<ComponentAndConfiguration> table = generator.generateTable();
+
+            new TreeViewBasedComponentTreeValidator().validateTree(treeView);
+            new DataTableValidator().validateTree(table);
+            assertThat(new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).compile(treeView).size()).isPositive();
+            assertThat(new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).compile(table).size()).isPositive();
+        }
+    }
+
+    @Test
+    public void shouldGenerateTableMatchingTheTreeView() {
+        LayoutGenerator generator = LayoutGenerator.builder().componentCount(1000).modifierRatio(0.5).build();
+        List<String> treeViewLines = new ArrayList<>();
+        List<String> tableLines = new ArrayList<>();
+
+        generator.generateTreeView(treeViewLines::add);
+        generator.generateTable(row -> tableLines.add("| " + row.getComponent() + " | " + row.getConfiguration() + " |"));
+
+        assertThat(String.join("\n", tableLines)).isEqualTo(new TreeViewToDataTableConverter().convert(treeViewLines));
+    }
+
+    @Test
+    public void shouldAssembleTheSameContentFromTheTreeViewAndTheTable() {
+        LayoutGenerator generator = LayoutGenerator.builder().componentCount(1000).carouselRatio(0.5).modifierRatio(0.5).build();
+        SimulatedEditor treeViewEditor = SimulatedEditor.withoutLatency();
+        SimulatedEditor tableEditor = SimulatedEditor.withoutLatency();
+
+        new ComponentTreeBasedContentAssembler(treeViewEditor.pageSteps(), treeViewEditor.componentConfigurer())
+            .assembleContent(generator.generateTreeView());
+        new TableBasedContentAssembler(tableEditor.pageSteps(), tableEditor.componentConfigurer()).assembleContent(generator.generateTable());
+
+        //The two assemblers may set the context at different points, but they must add and configure the same components
+        assertThat(contentOperationsOf(tableEditor)).isNotEmpty().isEqualTo(contentOperationsOf(treeViewEditor));
+    }
+
+    @Test
+    public void shouldGenerateTheSameLayoutForTheSameSeed() {
+        assertThat(LayoutGenerator.builder().seed(42).build().generateTreeView())
+            .isEqualTo(LayoutGenerator.builder().seed(42).build().generateTreeView())
+            .isNotEqualTo(LayoutGenerator.builder().seed(43).build().generateTreeView());
+    }
+
+    @Test
+    public void shouldPlaceImagesAndVideosOnTheConfiguredDepth() {
+        List<Node> nodes = parseTreeView(LayoutGenerator.builder().componentCount(1000).depth(6).carouselRatio(0.5).build());
+
+        assertThat(nodes.stream()
+            .filter(node -> node instanceof ComponentNode)
+            .map(ComponentNode.class::cast)
+            .filter(node -> node.getType() == ParagraphNodeType.IMAGE || node.getType() == ParagraphNodeType.YOUTUBE_VIDEO || node.isModifierNode())
+            .map(ComponentNode::getLevel))
+            .isNotEmpty()
+            .containsOnly(6);
+    }
+
+    @Test
+    public void shouldConfigureImagesInline() {
+        List<Node> nodes = parseTreeView(LayoutGenerator.builder().inlineConfigRatio(1).build());
+
+        assertThat(nodes).noneMatch(node -> node instanceof ConfigurationNode);
+        assertThat(nodes.stream()
+            .map(ComponentNode.class::cast)
+            .filter(node -> node.getType() == ParagraphNodeType.IMAGE))
+            .isNotEmpty()
+            .allMatch(node -> node.getInlineConfig().hasProperty("name") && node.getInlineConfig().hasProperty("link"));
+    }
+
+    @Test
+    public void shouldGenerateConfigurationValuesWithEscapedCommas() {
+        LayoutGenerator generator = LayoutGenerator.builder().inlineConfigRatio(0).configValueLength(3, 5).escapedCommaRatio(1).build();
+
+        List<ConfigurationNode> configurations = parseTreeView(generator).stream()
+            .filter(node -> node instanceof ConfigurationNode)
+            .map(ConfigurationNode.class::cast)
+            .collect(toList());
+
+        assertThat(generator.generateTreeView()).contains("\\,");
+        assertThat(configurations).isNotEmpty().allMatch(node -> {
+            String value = node.hasProperty("name") ? node.get("name") : node.get("link");
+            return value.contains(",") && !value.contains("\\") && !value.startsWith(",") && value.length() <= ",/12345".length() + ".png".length();
+        });
+    }
+
+    @Test
+    public void shouldWriteTreeViewAndTableToFiles() throws IOException {
+        LayoutGenerator generator = LayoutGenerator.builder().componentCount(300).build();
+        Path directory = Files.createTempDirectory("generated-layouts");
+        Path treeViewFile = directory.resolve("layout.txt");
+        Path tableFile = directory.resolve("layout-table.txt");
+        List<String> treeViewLines = new ArrayList<>();
+        generator.generateTreeView(treeViewLines::add);
+
+        try {
+            generator.writeTreeView(treeViewFile);
+            generator.writeTable(tableFile);
+
+            assertThat(Files.readAllLines(treeViewFile)).isEqualTo(treeViewLines);
+            assertThat(String.join("\n", Files.readAllLines(tableFile))).isEqualTo(new TreeViewToDataTableConverter().convert(treeViewLines));
+        } finally {
+            Files.deleteIfExists(treeViewFile);
+            Files.deleteIfExists(tableFile);
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveComponentCount() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> LayoutGenerator.builder().componentCount(0))
+            .withMessage("The component count should be greater than 0. It was: [0].");
+    }
+
+    @Test
+    public void shouldThrowExceptionForMinFanOutGreaterThanMaxFanOut() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> LayoutGenerator.builder().fanOut(3, 2))
+            .withMessage("The minimum fan-out [3] should not be greater than the maximum fan-out [2].");
+    }
+
+    @Test
+    public void shouldThrowExceptionForRatioOutOfRange() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> LayoutGenerator.builder().escapedCommaRatio(1.5))
+            .withMessage("The escaped comma ratio should be between 0 and 1. It was: [1.5].");
+    }
+
+    private static List<String> contentOperationsOf(SimulatedEditor editor) {
+        return editor.getRecording().getEntries().stream().filter(entry -> !entry.startsWith("SET_CONTEXT")).collect(toList());
+    }
+
+    private List<Node> parseTreeView(LayoutGenerator generator) {
+        List<Node> nodes = new ArrayList<>();
+        generator.generateTreeView(line -> nodes.add(nodeCreator.createNode(line)));
+        return nodes;
+    }
+}
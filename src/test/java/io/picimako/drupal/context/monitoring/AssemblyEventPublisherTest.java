@@ -0,0 +1,220 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.monitoring.AssemblyEventPublisher.OverflowPolicy;
+import io.picimako.drupal.context.monitoring.AssemblyProgressEvent.Kind;
+import io.picimako.drupal.context.plan.AssemblyPlanExecutor;
+import io.picimako.drupal.context.plan.StepBatchPolicy;
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.table.TableBasedContentAssembler;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static io.picimako.drupal.context.table.ComponentAndConfiguration.create;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link AssemblyEventPublisher}.
+ */
+public class AssemblyEventPublisherTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> name:image.png\n"
+        + "---* link:/some/path";
+
+    private final SimulatedEditor editor = SimulatedEditor.withoutLatency();
+    private final ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+
+    @Test
+    public void shouldPublishEventsOfTreeViewBasedAssembly() {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        try (AssemblyEventPublisher publisher = AssemblyEventPublisher.builder().executor(Runnable::run).build()) {
+            publisher.subscribe(subscriber);
+            assembler.setListener(publisher);
+
+            assembler.assembleContent(COMPONENT_TREE);
+        }
+
+        assertThat(subscriber.events).extracting(AssemblyProgressEvent::toString).containsExactly(
+            "NODE_PARSED(CONTAINER, line 1)",
+            "NODE_ADDED(CONTAINER, line 1)",
+            "NODE_PARSED(LAYOUT, line 2)",
+            "NODE_ADDED(LAYOUT, line 2)",
+            "NODE_PARSED(IMAGE, line 3)",
+            "NODE_ADDED(IMAGE, line 3)",
+            "NODE_PARSED(line 4)",
+            "CONTEXT_SET(.container:nth-child(1), line 1)",
+            "COMPONENT_ADDED(CONTAINER, line 1)",
+            "COMPONENT_ADDED(LAYOUT, line 2)",
+            "CONTEXT_SET(.container:nth-child(1) .layout, line 3)",
+            "COMPONENT_ADDED(IMAGE, line 3)",
+            "CONFIGURATION_APPLIED(IMAGE.name)",
+            "CONTEXT_SET(.container:nth-child(1) .layout .image-component:nth-child(1), line 4)",
+            "CONFIGURATION_APPLIED(IMAGE.link)",
+            "ASSEMBLY_FINISHED()");
+        assertThat(subscriber.isCompleted).isTrue();
+    }
+
+    @Test
+    public void shouldPublishEventsOfTableBasedAssembly() {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        TableBasedContentAssembler tableAssembler = new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        try (AssemblyEventPublisher publisher = AssemblyEventPublisher.builder().executor(Runnable::run).build()) {
+            publisher.subscribe(subscriber);
+            tableAssembler.setListener(publisher);
+
+            tableAssembler.assembleContent(List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png")));
+        }
+
+        assertThat(subscriber.events).extracting(AssemblyProgressEvent::getKind).containsExactly(Kind.NODE_PARSED, Kind.NODE_ADDED,
+            Kind.NODE_PARSED, Kind.NODE_ADDED, Kind.NODE_PARSED, Kind.CONTEXT_SET, Kind.COMPONENT_ADDED, Kind.COMPONENT_ADDED, Kind.CONFIGURATION_APPLIED, Kind.ASSEMBLY_FINISHED);
+        AssemblyProgressEvent imageAdded = subscriber.events.get(7);
+        assertThat(imageAdded.getType()).isEqualTo(ParagraphNodeType.IMAGE);
+        assertThat(imageAdded.getNode()).isNotNull();
+        assertThat(imageAdded.getSourceLine()).isEqualTo(2);
+        assertThat(imageAdded.getDurationNanos()).isNotNegative();
+    }
+
+    @Test
+    public void shouldPublishFailedAssembly() {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        try (AssemblyEventPublisher publisher = AssemblyEventPublisher.builder().executor(Runnable::run).build()) {
+            publisher.subscribe(subscriber);
+            assembler.setListener(publisher);
+
+            assertThatIllegalArgumentException().isThrownBy(() -> assembler.assembleContent("- CONTAINER\n--- IMAGE"));
+        }
+
+        AssemblyProgressEvent lastEvent = subscriber.events.get(subscriber.events.size() - 1);
+        assertThat(lastEvent.getKind()).isEqualTo(Kind.ASSEMBLY_FAILED);
+        assertThat(lastEvent.getFailure()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void shouldDropEventsForSubscribersFallingBehind() {
+        CollectingSubscriber subscriber = new CollectingSubscriber(2);
+        try (AssemblyEventPublisher publisher = AssemblyEventPublisher.builder().executor(Runnable::run).bufferCapacity(1).build()) {
+            publisher.subscribe(subscriber);
+            assembler.setListener(publisher);
+
+            assembler.assembleContent(COMPONENT_TREE);
+
+            //2 events are consumed, 1 is buffered, the rest is dropped
+            assertThat(subscriber.events).hasSize(2);
+            assertThat(publisher.getDroppedEventCount()).isEqualTo(16 - 3);
+            assertThat(editor.getRecording().getEntries()).hasSize(8);
+        }
+    }
+
+    @Test
+    public void shouldWaitForSubscribersFallingBehindWhenBlocking() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        subscriber.delayMillis = 1;
+        try (AssemblyEventPublisher publisher = AssemblyEventPublisher.builder()
+            .executor(executor)
+            .bufferCapacity(1)
+            .overflowPolicy(OverflowPolicy.BLOCK)
+            .build()) {
+            publisher.subscribe(subscriber);
+            assembler.setListener(publisher);
+
+            assembler.assembleContent(COMPONENT_TREE);
+
+            assertThat(publisher.getDroppedEventCount()).isZero();
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(subscriber.completion.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(subscriber.events).hasSize(16);
+    }
+
+    @Test
+    public void shouldNotPublishWithoutSubscribers() {
+        try (AssemblyEventPublisher publisher = AssemblyEventPublisher.builder().executor(Runnable::run).bufferCapacity(1).build()) {
+            assembler.setListener(publisher);
+
+            assembler.assembleContent(COMPONENT_TREE);
+
+            assertThat(publisher.getDroppedEventCount()).isZero();
+        }
+    }
+
+    @Test
+    public void shouldPublishBatchedInstructions() {
+        CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+        try (AssemblyEventPublisher publisher = AssemblyEventPublisher.builder().executor(Runnable::run).build()) {
+            publisher.subscribe(subscriber);
+            assembler.setListener(publisher);
+
+            assembler.execute(assembler.compile(COMPONENT_TREE), new AssemblyPlanExecutor(editor.batchTransport(),
+                StepBatchPolicy.builder().build()));
+        }
+
+        assertThat(subscriber.events.stream().filter(event -> event.getKind() == Kind.COMPONENT_ADDED).collect(toList()))
+            .hasSize(3)
+            .allMatch(event -> event.getDurationNanos() == 0);
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveBufferCapacity() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> AssemblyEventPublisher.builder().bufferCapacity(0))
+            .withMessage("The buffer capacity should be greater than 0. It was: [0].");
+    }
+
+    /**
+     * Collects the events it receives, requesting at most the given number of them.
+     */
+    private static final class CollectingSubscriber implements Flow.Subscriber<AssemblyProgressEvent> {
+        private final List<AssemblyProgressEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completion = new CountDownLatch(1);
+        private final long demand;
+        private long delayMillis;
+        private boolean isCompleted;
+
+        CollectingSubscriber(long demand) {
+            this.demand = demand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(demand);
+        }
+
+        @Override
+        public void onNext(AssemblyProgressEvent event) {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            events.add(event);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completion.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            isCompleted = true;
+            completion.countDown();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.plan.AssemblyPlanExecutor;
+import io.picimako.drupal.context.plan.StepBatchPolicy;
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.table.TableBasedContentAssembler;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static io.picimako.drupal.context.table.ComponentAndConfiguration.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link AssemblyMetrics}.
+ */
+public class AssemblyMetricsTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> name:image.png\n"
+        + "---* link:/some/path\n"
+        + "--- IMAGE\n"
+        + "---@ COLORS_MODIFIER";
+
+    private final SimulatedEditor editor = SimulatedEditor.withoutLatency();
+    private final AssemblyMetrics metrics = new AssemblyMetrics();
+
+    @Test
+    public void shouldCollectMetricsOfTreeViewBasedAssembly() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(metrics);
+
+        assembler.assembleContent(COMPONENT_TREE);
+
+        assertMetricsOfOneAssembly(metrics.snapshot());
+    }
+
+    @Test
+    public void shouldCollectMetricsOfTableBasedAssembly() {
+        TableBasedContentAssembler assembler = new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(metrics);
+
+        assembler.assembleContent(List.of(
+            create("> CONTAINER"),
+            create(">> LAYOUT"),
+            create(">>> IMAGE", "name:image.png"),
+            create("", "link:/some/path"),
+            create(">>> IMAGE"),
+            create(">>>@ COLORS_MODIFIER")));
+
+        assertMetricsOfOneAssembly(metrics.snapshot());
+    }
+
+    @Test
+    public void shouldCollectMetricsOfPipelinedAssembly() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(metrics);
+
+        assembler.assembleContentPipelined(new StringReader(COMPONENT_TREE), 2);
+
+        assertMetricsOfOneAssembly(metrics.snapshot());
+    }
+
+    @Test
+    public void shouldAccumulateMetricsOverAssemblies() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(metrics);
+
+        assembler.assembleContent(COMPONENT_TREE);
+        assembler.assembleContent("- CONTAINER\n-- LAYOUT\n--- IMAGE >> name:other.png");
+
+        AssemblyMetricsSnapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getAssemblyCount()).isEqualTo(2);
+        assertThat(snapshot.getAssemblyLatency().getCount()).isEqualTo(2);
+        assertThat(snapshot.getComponentAdditionLatency(ParagraphNodeType.IMAGE).getCount()).isEqualTo(3);
+        assertThat(snapshot.getPropertyConfigurationLatency("name").getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldCountFailedAssemblies() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(metrics);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> assembler.assembleContent("- CONTAINER\n--- IMAGE"));
+
+        AssemblyMetricsSnapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getAssemblyCount()).isZero();
+        assertThat(snapshot.getFailedAssemblyCount()).isEqualTo(1);
+        assertThat(snapshot.getAssemblyLatency().getCount()).isEqualTo(1);
+        assertThat(snapshot.getComponentAdditionLatencies()).isEmpty();
+    }
+
+    @Test
+    public void shouldCollectMetricsOfBatchedExecution() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(metrics);
+
+        assembler.execute(assembler.compile(COMPONENT_TREE),
+            new AssemblyPlanExecutor(editor.batchTransport(), StepBatchPolicy.builder().maxBatchSize(3).build()));
+
+        AssemblyMetricsSnapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getPhaseDuration(AssemblyPhase.STEP_INVOCATION)).isPositive();
+        assertThat(snapshot.getComponentAdditionLatencies()).isEmpty();
+        assertThat(snapshot.getContextSettingLatency().getCount()).isZero();
+    }
+
+    @Test
+    public void shouldNotCollectAnythingWithoutListener() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(metrics);
+        assembler.setListener(AssemblyListener.NONE);
+
+        assembler.assembleContent(COMPONENT_TREE);
+
+        AssemblyMetricsSnapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getAssemblyCount()).isZero();
+        assertThat(snapshot.getPhaseDuration(AssemblyPhase.PARSE)).isZero();
+        assertThat(snapshot.getPropertyConfigurationLatencies()).isEmpty();
+    }
+
+    private static void assertMetricsOfOneAssembly(AssemblyMetricsSnapshot snapshot) {
+        assertThat(snapshot.getAssemblyCount()).isEqualTo(1);
+        assertThat(snapshot.getFailedAssemblyCount()).isZero();
+        assertThat(snapshot.getAssemblyLatency().getCount()).isEqualTo(1);
+        for (AssemblyPhase phase : AssemblyPhase.values()) {
+            assertThat(snapshot.getPhaseDuration(phase)).as(phase.name()).isPositive();
+        }
+        assertThat(snapshot.getContextSettingLatency().getCount()).isEqualTo(4);
+        assertThat(snapshot.getComponentAdditionLatencies()).containsOnlyKeys(ParagraphNodeType.CONTAINER, ParagraphNodeType.LAYOUT,
+            ParagraphNodeType.IMAGE, ModifierNodeType.COLORS_MODIFIER);
+        assertThat(snapshot.getComponentAdditionLatency(ParagraphNodeType.IMAGE).getCount()).isEqualTo(2);
+        assertThat(snapshot.getConfigurationLatency(ParagraphNodeType.IMAGE).getCount()).isEqualTo(2);
+        assertThat(snapshot.getPropertyConfigurationLatencies()).containsOnlyKeys("name", "link");
+        assertThat(snapshot.getPropertyConfigurationLatency("link").getCount()).isEqualTo(1);
+    }
+}
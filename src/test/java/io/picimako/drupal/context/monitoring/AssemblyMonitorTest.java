@@ -0,0 +1,170 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.ParsedLayoutCache;
+import io.picimako.drupal.context.plan.AssemblyPlan;
+import io.picimako.drupal.context.plan.AssemblyPlanExecutor;
+import io.picimako.drupal.context.plan.PlanInstruction;
+import io.picimako.drupal.context.plan.StepBatchPolicy;
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link AssemblyMonitor}.
+ */
+public class AssemblyMonitorTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> name:image.png\n"
+        + "---* link:/some/path\n"
+        + "--- IMAGE\n"
+        + "---@ COLORS_MODIFIER";
+
+    private final SimulatedEditor editor = SimulatedEditor.withoutLatency();
+    private final AssemblyMonitor monitor = new AssemblyMonitor();
+
+    @Test
+    public void shouldExposeMetricsOfFinishedAssemblies() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(monitor);
+
+        assembler.assembleContent(COMPONENT_TREE);
+        assembler.assembleContentPipelined(new StringReader(COMPONENT_TREE), 2);
+
+        assertThat(monitor.getAssembliesInFlight()).isZero();
+        assertThat(monitor.getCompletedAssemblies()).isEqualTo(2);
+        assertThat(monitor.getFailedAssemblies()).isZero();
+        assertThat(monitor.getNodesProcessed()).isEqualTo(12);
+        assertThat(monitor.getStepCalls()).containsOnly(Map.entry("SET_CONTEXT", 8L), Map.entry("ADD_COMPONENT", 8L),
+            Map.entry("ADD_MODIFIER", 2L), Map.entry("CONFIGURE", 4L));
+        assertThat(monitor.getComponentAdditions()).containsOnly(Map.entry("CONTAINER", 2L), Map.entry("LAYOUT", 2L),
+            Map.entry("IMAGE", 4L), Map.entry("COLORS_MODIFIER", 2L));
+        assertThat(monitor.getAverageStepLatencyMillis()).isPositive();
+        assertThat(monitor.getStepLatencyP50Millis()).isPositive()
+            .isLessThanOrEqualTo(monitor.getStepLatencyP90Millis())
+            .isLessThanOrEqualTo(monitor.getStepLatencyP99Millis())
+            .isLessThanOrEqualTo(monitor.getMaxStepLatencyMillis());
+        assertThat(monitor.getCurrentTreeSize()).isZero();
+        assertThat(monitor.getLayoutCacheLookups()).isZero();
+        assertThat(monitor.getLayoutCacheHitRate()).isZero();
+    }
+
+    @Test
+    public void shouldCountFailedAssemblies() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(monitor);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> assembler.assembleContent("- CONTAINER\n--- IMAGE"));
+
+        assertThat(monitor.getAssembliesInFlight()).isZero();
+        assertThat(monitor.getCompletedAssemblies()).isZero();
+        assertThat(monitor.getFailedAssemblies()).isEqualTo(1);
+        assertThat(monitor.getCurrentTreeSize()).isZero();
+    }
+
+    @Test
+    public void shouldExposeAssembliesInFlightAndTheirTreeSizeWhileAssembling() {
+        List<Long> treeSizes = new ArrayList<>();
+        List<Long> assembliesInFlight = new ArrayList<>();
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(AssemblyListener.of(monitor, new AssemblyListener() {
+            @Override
+            public void instructionExecuted(PlanInstruction instruction, long startNanos, long durationNanos) {
+                treeSizes.add(monitor.getCurrentTreeSize());
+                assembliesInFlight.add(monitor.getAssembliesInFlight());
+            }
+        }));
+
+        assembler.assembleContentPipelined(new StringReader(COMPONENT_TREE), 1);
+
+        assertThat(treeSizes).hasSize(11).allMatch(size -> size > 0 && size <= 6);
+        assertThat(assembliesInFlight).hasSize(11).containsOnly(1L);
+        assertThat(monitor.getCurrentTreeSize()).isZero();
+        assertThat(monitor.getAssembliesInFlight()).isZero();
+    }
+
+    @Test
+    public void shouldCountBatchesAsStepCalls() {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(monitor);
+
+        assembler.execute(assembler.compile(COMPONENT_TREE),
+            new AssemblyPlanExecutor(editor.batchTransport(), StepBatchPolicy.builder().maxBatchSize(3).build()));
+
+        assertThat(monitor.getStepCalls()).containsOnlyKeys("BATCH");
+        assertThat(monitor.getStepCalls().get("BATCH")).isPositive();
+        assertThat(monitor.getComponentAdditions()).containsOnly(Map.entry("CONTAINER", 1L), Map.entry("LAYOUT", 1L),
+            Map.entry("IMAGE", 2L), Map.entry("COLORS_MODIFIER", 1L));
+    }
+
+    @Test
+    public void shouldExposeLayoutCacheHitRate() {
+        ParsedLayoutCache<AssemblyPlan> cache = ParsedLayoutCache.withMaximumSize(10);
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer(), cache);
+        assembler.setListener(monitor);
+
+        assembler.assembleContent(COMPONENT_TREE);
+        assembler.assembleContent(COMPONENT_TREE);
+        assembler.assembleContent(COMPONENT_TREE);
+        assembler.assembleContent("- CONTAINER");
+
+        assertThat(monitor.getLayoutCacheLookups()).isEqualTo(4);
+        assertThat(monitor.getLayoutCacheHitRate()).isEqualTo(0.5);
+        assertThat(monitor.getNodesProcessed()).isEqualTo(7);
+    }
+
+    @Test
+    public void shouldBeRegisteredInThePlatformMBeanServer() throws Exception {
+        AssemblyMonitor registeredMonitor = AssemblyMonitor.registered();
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(registeredMonitor);
+        long completedAssemblies = registeredMonitor.getCompletedAssemblies();
+
+        assembler.assembleContent(COMPONENT_TREE);
+
+        ObjectName name = new ObjectName(AssemblyMonitor.OBJECT_NAME);
+        assertThat(AssemblyMonitor.registered()).isSameAs(registeredMonitor);
+        assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "CompletedAssemblies")).isEqualTo(completedAssemblies + 1);
+        assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "AssembliesInFlight")).isEqualTo(0L);
+    }
+
+    @Test
+    public void shouldThrowIllegalStateExceptionOnEachCallWhenMonitorCannotBeRegistered() throws Exception {
+        AssemblyMonitor.registered();
+        //A monitor loaded by another class loader cannot be registered under the same name
+        URL[] classpath = {AssemblyMonitor.class.getProtectionDomain().getCodeSource().getLocation()};
+        try (URLClassLoader classLoader = new URLClassLoader(classpath, ClassLoader.getPlatformClassLoader())) {
+            Method registered = classLoader.loadClass(AssemblyMonitor.class.getName()).getMethod("registered");
+
+            for (int i = 0; i < 2; i++) {
+                assertThatExceptionOfType(InvocationTargetException.class)
+                    .isThrownBy(() -> registered.invoke(null))
+                    .satisfies(e -> assertThat(e.getCause())
+                        .isInstanceOf(IllegalStateException.class)
+                        .hasMessage("Could not register the assembly monitor as io.picimako.drupal.context:type=AssemblyMonitor."));
+            }
+        }
+    }
+
+    @Test
+    public void shouldReturnTheOnlyListener() {
+        assertThat(AssemblyListener.of()).isSameAs(AssemblyListener.NONE);
+        assertThat(AssemblyListener.of(monitor)).isSameAs(monitor);
+    }
+}
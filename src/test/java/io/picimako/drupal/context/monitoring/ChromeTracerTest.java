@@ -0,0 +1,141 @@
+package io.picimako.drupal.context.monitoring;
+
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link ChromeTracer}.
+ */
+public class ChromeTracerTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> name:image.png\n"
+        + "---* link:/some/path\n"
+        + "--- IMAGE\n"
+        + "---@ COLORS_MODIFIER\n"
+        + "- CONTAINER\n"
+        + "-- LAYOUT";
+    private static final Pattern TIMING = Pattern.compile("\"ts\":([0-9.]+),\"dur\":([0-9.]+)");
+
+    private final SimulatedEditor editor = SimulatedEditor.withoutLatency();
+    private final ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+    private final StringWriter trace = new StringWriter();
+
+    @Test
+    public void shouldWriteSpansOfAssembly() {
+        try (ChromeTracer tracer = new ChromeTracer(trace)) {
+            assembler.setListener(tracer);
+            assembler.assembleContent(COMPONENT_TREE);
+        }
+
+        assertThat(trace.toString()).startsWith("[\n").endsWith("\n]\n");
+        assertThat(eventsOf("assembly")).hasSize(1);
+        assertThat(eventsOf("root component")).hasSize(2).allMatch(event -> event.startsWith("{\"name\":\"CONTAINER\""));
+        assertThat(eventsOf("node")).extracting(ChromeTracerTest::nameOf)
+            .containsExactly("CONTAINER", "LAYOUT", "IMAGE", "IMAGE", "IMAGE", "COLORS_MODIFIER", "CONTAINER", "LAYOUT");
+        assertThat(eventsOf("step")).extracting(ChromeTracerTest::nameOf).containsSubsequence("ComponentContextSetter.setContext",
+            "ComponentAdder.addComponentToPage", "ComponentAdder.addComponentToPage", "ComponentContextSetter.setContext",
+            "ComponentAdder.addComponentToPage", "ComponentConfigurer.configure");
+        assertThat(eventsOf("step")).hasSize(editor.getRecording().getEntries().size());
+        assertThat(eventsOf("configuration")).extracting(ChromeTracerTest::nameOf).containsExactly("IMAGE.name", "IMAGE.link");
+        assertThat(eventsOf("compile")).extracting(ChromeTracerTest::nameOf).contains("parse CONTAINER", "parse configuration",
+            "validate IMAGE", "tree_build COLORS_MODIFIER", "selector_generation LAYOUT");
+        List<String> treeSizes = lines().stream().filter(line -> line.startsWith("{\"name\":\"tree size\"")).collect(toList());
+        assertThat(treeSizes).hasSize(8);
+        assertThat(treeSizes.get(7)).endsWith("{\"nodes\":7}}");
+        assertThat(lines()).anyMatch(line -> line.contains("\"ph\":\"M\"") && line.contains(Thread.currentThread().getName()));
+    }
+
+    @Test
+    public void shouldNestSpans() {
+        try (ChromeTracer tracer = new ChromeTracer(trace)) {
+            assembler.setListener(tracer);
+            assembler.assembleContent(COMPONENT_TREE);
+        }
+
+        double[] assembly = timingOf(eventsOf("assembly").get(0));
+        List<double[]> roots = eventsOf("root component").stream().map(ChromeTracerTest::timingOf).collect(toList());
+        List<double[]> nodes = eventsOf("node").stream().map(ChromeTracerTest::timingOf).collect(toList());
+        List<double[]> steps = eventsOf("step").stream().map(ChromeTracerTest::timingOf).collect(toList());
+        assertThat(roots).allMatch(root -> contains(assembly, root));
+        assertThat(nodes).allMatch(node -> roots.stream().anyMatch(root -> contains(root, node)));
+        assertThat(steps).allMatch(step -> nodes.stream().anyMatch(node -> contains(node, step)));
+    }
+
+    @Test
+    public void shouldWriteQueueDepthOfPipelinedAssembly() {
+        try (ChromeTracer tracer = new ChromeTracer(trace)) {
+            assembler.setListener(tracer);
+            assembler.assembleContentPipelined(new StringReader(COMPONENT_TREE), 4);
+        }
+
+        assertThat(lines()).filteredOn(line -> line.startsWith("{\"name\":\"queue depth\""))
+            .hasSize(editor.getRecording().getEntries().size() + (int) assembler.getElidedContextSwitchCount())
+            .allMatch(line -> line.matches(".*\\{\"instructions\":[0-4]}}"));
+        assertThat(eventsOf("root component")).hasSize(2);
+    }
+
+    @Test
+    public void shouldWriteFailedAssembly() {
+        try (ChromeTracer tracer = new ChromeTracer(trace)) {
+            assembler.setListener(tracer);
+            assertThatIllegalArgumentException().isThrownBy(() -> assembler.assembleContent("- CONTAINER\n--- \"IMAGE\""));
+        }
+
+        assertThat(eventsOf("assembly")).hasSize(1).allMatch(event -> event.contains("\"failure\":\"java.lang.IllegalArgumentException: "));
+    }
+
+    @Test
+    public void shouldWriteTraceFile() throws IOException {
+        Path traceFile = Files.createTempFile("assembly-trace", ".json");
+        try {
+            try (ChromeTracer tracer = ChromeTracer.toFile(traceFile)) {
+                assembler.setListener(tracer);
+                assembler.assembleContent(COMPONENT_TREE);
+                assertThat(Files.readString(traceFile)).contains("\"name\":\"assembly\"");
+            }
+            assertThat(Files.readString(traceFile)).endsWith("\n]\n");
+        } finally {
+            Files.deleteIfExists(traceFile);
+        }
+    }
+
+    private List<String> lines() {
+        return Arrays.asList(trace.toString().split(",?\n"));
+    }
+
+    private List<String> eventsOf(String category) {
+        return lines().stream().filter(line -> line.contains("\"cat\":\"" + category + "\"")).collect(toList());
+    }
+
+    private static String nameOf(String event) {
+        return event.substring("{\"name\":\"".length(), event.indexOf("\",\"cat\""));
+    }
+
+    private static double[] timingOf(String event) {
+        Matcher matcher = TIMING.matcher(event);
+        assertThat(matcher.find()).isTrue();
+        double start = Double.parseDouble(matcher.group(1));
+        return new double[]{start, start + Double.parseDouble(matcher.group(2))};
+    }
+
+    private static boolean contains(double[] outer, double[] inner) {
+        return outer[0] <= inner[0] && inner[1] <= outer[1] + 0.001;
+    }
+}
@@ -0,0 +1,113 @@
+package io.picimako.drupal.context.monitoring;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link LatencyHistogram} and {@link HistogramSnapshot}.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void shouldPutEachLatencyIntoTheBucketCoveringIt() {
+        long[] latencies = {0, 1, 7, 8, 15, 16, 17, 18, 1000, 123_456_789, Long.MAX_VALUE};
+
+        for (long latency : latencies) {
+            int bucket = LatencyHistogram.bucketOf(latency);
+            assertThat(LatencyHistogram.upperBoundOf(bucket)).isGreaterThanOrEqualTo(latency);
+            assertThat(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < latency).isTrue();
+        }
+        assertThat(LatencyHistogram.bucketOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    }
+
+    @Test
+    public void shouldHaveBucketsWithBoundedRelativeError() {
+        for (int bucket = LatencyHistogram.SUB_BUCKET_COUNT; bucket < LatencyHistogram.BUCKET_COUNT; bucket++) {
+            long lowerBound = LatencyHistogram.upperBoundOf(bucket - 1) + 1;
+            long width = LatencyHistogram.upperBoundOf(bucket) - lowerBound + 1;
+            assertThat(width * LatencyHistogram.SUB_BUCKET_COUNT).isLessThanOrEqualTo(lowerBound);
+        }
+    }
+
+    @Test
+    public void shouldReturnStatisticsOfTheRecordedLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(100);
+        assertThat(snapshot.getTotal()).isEqualTo(Duration.ofNanos(5_050_000));
+        assertThat(snapshot.getMean()).isEqualTo(Duration.ofNanos(50_500));
+        assertThat(snapshot.getMax()).isEqualTo(Duration.ofNanos(100_000));
+        assertThat(snapshot.getValueAtPercentile(50).toNanos()).isBetween(50_000L, 50_000L * 9 / 8);
+        assertThat(snapshot.getValueAtPercentile(99).toNanos()).isBetween(99_000L, 100_000L);
+        assertThat(snapshot.getValueAtPercentile(100)).isEqualTo(Duration.ofNanos(100_000));
+        assertThat(snapshot.getValueAtPercentile(0).toNanos()).isBetween(1000L, 1000L * 9 / 8);
+    }
+
+    @Test
+    public void shouldRecordNegativeLatenciesAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-5);
+
+        assertThat(histogram.snapshot().getCount()).isEqualTo(1);
+        assertThat(histogram.snapshot().getMax()).isZero();
+    }
+
+    @Test
+    public void shouldReturnZeroForEmptyHistogram() {
+        HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+
+        assertThat(snapshot.getCount()).isZero();
+        assertThat(snapshot.getMean()).isZero();
+        assertThat(snapshot.getValueAtPercentile(99)).isZero();
+        assertThat(HistogramSnapshot.EMPTY.getValueAtPercentile(50)).isZero();
+    }
+
+    @Test
+    public void shouldRecordLatenciesConcurrently() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        histogram.record(i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(histogram.snapshot().getCount()).isEqualTo(40_000);
+        assertThat(histogram.snapshot().getTotal()).isEqualTo(Duration.ofNanos(4L * 9_999 * 10_000 / 2));
+        assertThat(histogram.snapshot().getMax()).isEqualTo(Duration.ofNanos(9_999));
+    }
+
+    @Test
+    public void shouldThrowExceptionForPercentileOutOfRange() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> new LatencyHistogram().snapshot().getValueAtPercentile(101))
+            .withMessage("The percentile should be between 0 and 100. It was: [101.0].");
+    }
+}
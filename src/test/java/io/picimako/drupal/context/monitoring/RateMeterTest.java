@@ -0,0 +1,69 @@
+package io.picimako.drupal.context.monitoring;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for {@link RateMeter}.
+ */
+public class RateMeterTest {
+
+    private final AtomicLong nanos = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final RateMeter meter = new RateMeter(nanos::get);
+
+    @Test
+    public void shouldHaveZeroRateInTheFirstSecond() {
+        meter.record(10);
+
+        assertThat(meter.getRate()).isZero();
+    }
+
+    @Test
+    public void shouldNotCountTheCurrentSecond() {
+        meter.record(10);
+        advanceSeconds(1);
+        meter.record(100);
+
+        assertThat(meter.getRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    public void shouldAverageOverTheCompletedSecondsSinceCreation() {
+        meter.record(10);
+        advanceSeconds(1);
+        meter.record(20);
+        advanceSeconds(2);
+
+        assertThat(meter.getRate()).isEqualTo(10.0);
+    }
+
+    @Test
+    public void shouldAverageOverTheWindowOnly() {
+        meter.record(1000);
+        advanceSeconds(1);
+        for (int i = 0; i < RateMeter.WINDOW_SECONDS; i++) {
+            meter.record(5);
+            advanceSeconds(1);
+        }
+
+        assertThat(meter.getRate()).isEqualTo(5.0);
+    }
+
+    @Test
+    public void shouldResetReusedSlots() {
+        meter.record(1000);
+        advanceSeconds(RateMeter.WINDOW_SECONDS + 1);
+        meter.record(5);
+        advanceSeconds(1);
+
+        assertThat(meter.getRate()).isEqualTo(0.5);
+    }
+
+    private void advanceSeconds(long seconds) {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(seconds));
+    }
+}
@@ -0,0 +1,40 @@
+package io.picimako.drupal.context.monitoring;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for {@link TraceEventWriter}.
+ */
+public class TraceEventWriterTest {
+
+    @Test
+    public void shouldWriteEventsAsJsonArray() {
+        StringWriter trace = new StringWriter();
+        TraceEventWriter events = new TraceEventWriter(trace);
+
+        events.counter("tree size", "nodes", 2, System.nanoTime());
+        events.complete("assembly", "assembly", new TraceEventWriter.Interval(System.nanoTime(), 1500), "{}");
+        events.close();
+        events.close();
+
+        String[] lines = trace.toString().split("\n");
+        assertThat(lines).hasSize(5);
+        assertThat(lines[0]).isEqualTo("[");
+        assertThat(lines[1]).startsWith("{\"name\":\"tree size\",\"ph\":\"C\"").endsWith("\"args\":{\"nodes\":2}},");
+        assertThat(lines[2]).startsWith("{\"name\":\"thread_name\",\"ph\":\"M\"");
+        assertThat(lines[3]).startsWith("{\"name\":\"assembly\",\"cat\":\"assembly\",\"ph\":\"X\"").contains("\"dur\":1.500,");
+        assertThat(lines[4]).isEqualTo("]");
+    }
+
+    @Test
+    public void shouldFormatMicroseconds() {
+        assertThat(TraceEventWriter.micros(1_234_567)).isEqualTo("1234.567");
+        assertThat(TraceEventWriter.micros(1_000_005)).isEqualTo("1000.005");
+        assertThat(TraceEventWriter.micros(40)).isEqualTo("0.040");
+        assertThat(TraceEventWriter.micros(-1500)).isEqualTo("-1.500");
+    }
+}
@@ -0,0 +1,106 @@
+package io.picimako.drupal.context.monitoring.cucumber;
+
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.table.TableBasedContentAssembler;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.picimako.drupal.context.table.ComponentAndConfiguration.create;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for {@link AssemblyPerformancePlugin}.
+ */
+public class AssemblyPerformancePluginTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> name:image.png\n"
+        + "---* link:/some/path\n"
+        + "--- IMAGE\n"
+        + "---@ COLORS_MODIFIER";
+
+    private final TestRunEvents events = new TestRunEvents();
+    private Path reportDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        reportDirectory = Files.createTempDirectory("assembly-performance").resolve("report");
+        new AssemblyPerformancePlugin(reportDirectory.toFile()).setEventPublisher(events);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(reportDirectory.resolve(AssemblyPerformanceReport.JSON_FILE_NAME));
+        Files.deleteIfExists(reportDirectory.resolve(AssemblyPerformanceReport.HTML_FILE_NAME));
+        Files.deleteIfExists(reportDirectory);
+        Files.deleteIfExists(reportDirectory.getParent());
+    }
+
+    @Test
+    public void shouldReportAssembliesPerScenarioRunInParallel() throws Exception {
+        SimulatedEditor slowEditor = SimulatedEditor.withoutLatency();
+        SimulatedEditor fastEditor = SimulatedEditor.withoutLatency();
+
+        CompletableFuture<Void> slowScenario = CompletableFuture.runAsync(() -> events.runScenario("Slow \"<scenario>\"", 3000, () -> {
+            ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(slowEditor.pageSteps(), slowEditor.componentConfigurer());
+            assembler.setListener(AssemblyPerformancePlugin.listener());
+            assembler.assembleContent(COMPONENT_TREE);
+            assembler.assembleContentPipelined(new StringReader(COMPONENT_TREE), 1);
+        }));
+        CompletableFuture<Void> fastScenario = CompletableFuture.runAsync(() -> events.runScenario("Fast scenario", 1000, () -> {
+            TableBasedContentAssembler assembler = new TableBasedContentAssembler(fastEditor.pageSteps(), fastEditor.componentConfigurer());
+            assembler.setListener(AssemblyPerformancePlugin.listener());
+            assembler.assembleContent(List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png")));
+        }));
+        CompletableFuture.allOf(slowScenario, fastScenario).get(10, TimeUnit.SECONDS);
+
+        assertThat(reportDirectory).doesNotExist();
+        events.finishTestRun();
+
+        String json = read(AssemblyPerformanceReport.JSON_FILE_NAME);
+        assertThat(json).contains("\"scenarioCount\": 2,",
+            "\"layoutCount\": 3,",
+            "\"roundTrips\": " + (slowEditor.getRecording().getEntries().size() + fastEditor.getRecording().getEntries().size()) + ",",
+            "{\"name\": \"Slow \\\"<scenario>\\\"\", \"location\": \"file:features/slow.feature:3\", \"status\": \"PASSED\", \"durationMillis\": 3000.000,",
+            "\"roundTrips\": 22, \"layouts\": [{\"index\": 1, \"nodes\": 6, \"roundTrips\": 11,",
+            "{\"index\": 2, \"nodes\": 6, \"roundTrips\": 11,",
+            "{\"type\": \"IMAGE\", \"additions\": 5, ",
+            "\"configurations\": 5, ",
+            "{\"type\": \"COLORS_MODIFIER\", \"additions\": 2, ");
+        assertThat(json.indexOf("Slow")).isLessThan(json.indexOf("Fast scenario"));
+
+        String html = read(AssemblyPerformanceReport.HTML_FILE_NAME);
+        assertThat(html).contains("<p>2 scenarios, 3 layouts, ", "<td>Slow &quot;&lt;scenario&gt;&quot;</td>", "<td>IMAGE</td>");
+        assertThat(html.indexOf("Slow")).isLessThan(html.indexOf("Fast scenario"));
+    }
+
+    @Test
+    public void shouldNotReportAssembliesOutsideOfScenarios() throws IOException {
+        SimulatedEditor editor = SimulatedEditor.withoutLatency();
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        assembler.setListener(AssemblyPerformancePlugin.listener());
+
+        assembler.assembleContent(COMPONENT_TREE);
+        events.runScenario("Scenario without assembly", 10, () -> {
+        });
+        events.finishTestRun();
+
+        assertThat(read(AssemblyPerformanceReport.JSON_FILE_NAME)).contains("\"scenarioCount\": 1,", "\"layoutCount\": 0,",
+            "\"roundTrips\": 0,", "\"layouts\": []}", "\"componentTypes\": [\n  ]");
+    }
+
+    private String read(String fileName) throws IOException {
+        return Files.readString(reportDirectory.resolve(fileName));
+    }
+}
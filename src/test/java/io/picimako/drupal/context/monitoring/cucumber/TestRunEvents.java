@@ -0,0 +1,91 @@
+package io.picimako.drupal.context.monitoring.cucumber;
+
+import cucumber.api.Result;
+import cucumber.api.TestCase;
+import cucumber.api.TestStep;
+import cucumber.api.event.Event;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import gherkin.pickles.PickleTag;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An event publisher for testing Cucumber plugins, that publishes the events of scenarios and of the end of the test run
+ * to the handlers registered by the plugin.
+ */
+public class TestRunEvents implements EventPublisher {
+
+    private static final int SCENARIO_LINE = 3;
+    private final Map<Class<?>, EventHandler<Event>> handlers = new HashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Event> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+        handlers.put(eventType, (EventHandler<Event>) handler);
+    }
+
+    @Override
+    public <T extends Event> void removeHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+        handlers.remove(eventType);
+    }
+
+    /**
+     * Publishes the start of a passed scenario with the argument name, runs the argument steps, then publishes the end
+     * of the scenario with the argument duration.
+     */
+    void runScenario(String name, long durationMillis, Runnable steps) {
+        TestCase testCase = testCase(name);
+        handlers.get(TestCaseStarted.class).receive(new TestCaseStarted(0L, testCase));
+        steps.run();
+        handlers.get(TestCaseFinished.class).receive(
+            new TestCaseFinished(0L, testCase, new Result(Result.Type.PASSED, TimeUnit.MILLISECONDS.toNanos(durationMillis), null)));
+    }
+
+    /**
+     * Publishes the end of the test run.
+     */
+    void finishTestRun() {
+        handlers.get(TestRunFinished.class).receive(new TestRunFinished(0L));
+    }
+
+    private static TestCase testCase(String name) {
+        return new TestCase() {
+            @Override
+            public int getLine() {
+                return SCENARIO_LINE;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getScenarioDesignation() {
+                return name;
+            }
+
+            @Override
+            public List<PickleTag> getTags() {
+                return List.of();
+            }
+
+            @Override
+            public List<TestStep> getTestSteps() {
+                return List.of();
+            }
+
+            @Override
+            public String getUri() {
+                return name.startsWith("Slow") ? "file:features/slow.feature" : "file:features/other.feature";
+            }
+        };
+    }
+}
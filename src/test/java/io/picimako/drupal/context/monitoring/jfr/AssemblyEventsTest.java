@@ -0,0 +1,124 @@
+package io.picimako.drupal.context.monitoring.jfr;
+
+import io.picimako.drupal.context.plan.AssemblyPlanExecutor;
+import io.picimako.drupal.context.plan.StepBatchPolicy;
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import io.picimako.drupal.context.table.TableBasedContentAssembler;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.picimako.drupal.context.table.ComponentAndConfiguration.create;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Integration test for the Java Flight Recorder events of the assemblies.
+ */
+public class AssemblyEventsTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> name:image.png\n"
+        + "---* link:/some/path\n"
+        + "--- IMAGE\n"
+        + "---@ COLORS_MODIFIER";
+
+    private final SimulatedEditor editor = SimulatedEditor.withoutLatency();
+
+    @Test
+    public void shouldEmitEventsOfTreeViewBasedAssembly() throws IOException {
+        List<RecordedEvent> events = record(true, () ->
+            new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent(COMPONENT_TREE));
+
+        assertThat(eventsOf(events, "LayoutParse")).extracting(e -> e.getString("nodeType"), e -> e.getInt("sourceLine"))
+            .containsExactly(tuple("CONTAINER", 1), tuple("LAYOUT", 2), tuple("IMAGE", 3), tuple(null, 4), tuple("IMAGE", 5),
+                tuple("COLORS_MODIFIER", 6));
+        assertThat(eventsOf(events, "NodeValidation")).hasSize(5);
+        assertThat(eventsOf(events, "TreeAdd")).extracting(e -> e.getString("nodeType"), e -> e.getInt("level"), e -> e.getLong("occurrenceIndex"))
+            .containsExactly(tuple("CONTAINER", 1, 1L), tuple("LAYOUT", 2, 1L), tuple("IMAGE", 3, 1L), tuple("IMAGE", 3, 2L),
+                tuple("COLORS_MODIFIER", 3, 1L));
+        assertThat(eventsOf(events, "ContextSet")).extracting(e -> e.getString("contextSelector"), e -> e.getInt("sourceLine"))
+            .containsExactly(tuple(".container:nth-child(1)", 1), tuple(".container:nth-child(1) .layout", 3),
+                tuple(".container:nth-child(1) .layout .image-component:nth-child(1)", 4), tuple(".container:nth-child(1) .layout", 5));
+        assertThat(eventsOf(events, "ComponentAdd")).extracting(e -> e.getString("nodeType"), e -> e.getInt("level"), e -> e.getInt("sourceLine"))
+            .containsExactly(tuple("CONTAINER", 1, 1), tuple("LAYOUT", 2, 2), tuple("IMAGE", 3, 3), tuple("IMAGE", 3, 5),
+                tuple("COLORS_MODIFIER", 3, 6));
+        assertThat(eventsOf(events, "Configure")).extracting(e -> e.getString("nodeType"), e -> e.getLong("occurrenceIndex"), e -> e.getInt("sourceLine"))
+            .containsExactly(tuple("IMAGE", 1L, 3), tuple("IMAGE", 1L, 4));
+    }
+
+    @Test
+    public void shouldEmitEventsOfTableBasedAssembly() throws IOException {
+        List<RecordedEvent> events = record(true, () ->
+            new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent(List.of(
+                create("> CONTAINER"),
+                create(">> LAYOUT", ""),
+                create(">>> IMAGE", "name:image.png"),
+                create("", "link:/some/path"))));
+
+        assertThat(eventsOf(events, "LayoutParse")).extracting(e -> e.getString("nodeType"), e -> e.getInt("sourceLine"))
+            .containsExactly(tuple("CONTAINER", 1), tuple("LAYOUT", 2), tuple("IMAGE", 3), tuple(null, 3), tuple(null, 4));
+        assertThat(eventsOf(events, "TreeAdd")).hasSize(3);
+        assertThat(eventsOf(events, "ComponentAdd")).extracting(e -> e.getString("nodeType")).containsExactly("CONTAINER", "LAYOUT", "IMAGE");
+        assertThat(eventsOf(events, "Configure")).extracting(e -> e.getString("nodeType"), e -> e.getInt("level"), e -> e.getInt("sourceLine"))
+            .containsExactly(tuple("IMAGE", 3, 3), tuple("IMAGE", 3, 4));
+    }
+
+    @Test
+    public void shouldEmitEventForEachBatchInsteadOfEachStep() throws IOException {
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+        AssemblyPlanExecutor executor = new AssemblyPlanExecutor(editor.batchTransport(), StepBatchPolicy.builder().maxBatchSize(6).build());
+
+        List<RecordedEvent> events = record(true, () -> assembler.execute(assembler.compile(COMPONENT_TREE), executor));
+
+        assertThat(eventsOf(events, "StepBatchSend"))
+            .extracting(e -> e.getInt("instructionCount"), e -> e.getInt("firstSourceLine"), e -> e.getInt("sourceLine"), e -> e.getString("nodeType"))
+            .containsExactly(tuple(6, 1, 3, null), tuple(5, 4, 6, null));
+        assertThat(eventsOf(events, "ContextSet")).isEmpty();
+        assertThat(eventsOf(events, "ComponentAdd")).isEmpty();
+        assertThat(eventsOf(events, "Configure")).isEmpty();
+    }
+
+    @Test
+    public void shouldNotEmitEventsUnlessEnabled() throws IOException {
+        List<RecordedEvent> events = record(false, () ->
+            new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent(COMPONENT_TREE));
+
+        assertThat(events).noneMatch(event -> event.getEventType().getName().startsWith("io.picimako.drupal.context."));
+        assertThat(editor.getRecording().getEntries()).hasSize(11);
+    }
+
+    private static List<RecordedEvent> record(boolean isEnabled, Runnable assembly) throws IOException {
+        Path file = Files.createTempFile("assembly", ".jfr");
+        try (Recording recording = new Recording()) {
+            if (isEnabled) {
+                AssemblyEvents.enableAll(recording);
+            }
+            recording.start();
+            assembly.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getThread() != null && event.getThread().getJavaThreadId() == Thread.currentThread().getId())
+                .collect(toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+        return events.stream()
+            .filter(event -> event.getEventType().getName().equals("io.picimako.drupal.context." + name))
+            .sorted((e1, e2) -> e1.getStartTime().compareTo(e2.getStartTime()))
+            .collect(toList());
+    }
+}
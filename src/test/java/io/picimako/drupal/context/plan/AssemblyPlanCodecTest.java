@@ -0,0 +1,107 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.NodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit test for {@link AssemblyPlanCodec}.
+ */
+public class AssemblyPlanCodecTest {
+
+    @Test
+    public void shouldDecodeEncodedPlan() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = new ComponentNode(2, ParagraphNodeType.IMAGE);
+        image.setOccurrenceCountUnderParent(3);
+        ComponentNode colors = new ComponentNode(2, ModifierNodeType.COLORS_MODIFIER);
+        colors.setModifierNode(true);
+        AssemblyPlan plan = AssemblyPlan.builder()
+            .configure(ParagraphNodeType.ABSENT, new ConfigurationNode(Map.of("title", "Árvíztűrő tükörfúrógép")), 1)
+            .setContext(".container:nth-child(1)", 2)
+            .addComponent(ComponentNode.ABSENT, container, 2)
+            .setContext(".container:nth-child(1)", 3)
+            .addComponent(container, image, 3)
+            .configure(ParagraphNodeType.IMAGE, new ConfigurationNode(Map.of("url", "image.png", "alt", "")), 3)
+            .addComponent(container, colors, 4)
+            .build();
+
+        AssemblyPlan decoded = AssemblyPlanCodec.decode(AssemblyPlanCodec.encode(plan));
+
+        assertThat(decoded.toString()).isEqualTo(plan.toString());
+        List<PlanInstruction> instructions = decoded.getInstructions();
+        assertThat(instructions).extracting(PlanInstruction::getSourceLine).containsExactly(1, 2, 2, 3, 3, 3, 4);
+        assertThat(instructions.get(0).getConfiguration().getConfigurations()).containsExactly(Map.entry("title", "Árvíztűrő tükörfúrógép"));
+        assertThat(instructions.get(2).getParentNode()).isSameAs(ComponentNode.ABSENT);
+        ComponentNode decodedContainer = instructions.get(2).getNode();
+        assertThat(instructions.get(4).getParentNode()).isSameAs(decodedContainer);
+        assertThat(instructions.get(6).getParentNode()).isSameAs(decodedContainer);
+        ComponentNode decodedImage = instructions.get(4).getNode();
+        assertThat(decodedImage.getLevel()).isEqualTo(2);
+        assertThat(decodedImage.getType()).isEqualTo(ParagraphNodeType.IMAGE);
+        assertThat(decodedImage.getOccurrenceCountUnderParent()).isEqualTo(3);
+        assertThat(instructions.get(5).getConfiguration().getConfigurations()).isEqualTo(Map.of("url", "image.png", "alt", ""));
+        assertThat(instructions.get(6).getOpcode()).isEqualTo(Opcode.ADD_MODIFIER);
+        assertThat(instructions.get(6).getNode().isModifierNode()).isTrue();
+    }
+
+    @Test
+    public void shouldDecodeEmptyPlan() {
+        assertThat(AssemblyPlanCodec.decode(AssemblyPlanCodec.encode(AssemblyPlan.builder().build())).size()).isZero();
+    }
+
+    @Test
+    public void shouldNotDecodePlanWithDifferentHeader() {
+        //magic number, format version, schema fingerprint, payload length, checksum
+        for (int headerByte : new int[]{0, 4, 6, 14, 18}) {
+            ByteBuffer encoded = AssemblyPlanCodec.encode(plan());
+            encoded.put(headerByte, (byte) (encoded.get(headerByte) + 1));
+
+            assertThat(AssemblyPlanCodec.decode(encoded)).isNull();
+        }
+    }
+
+    @Test
+    public void shouldNotDecodeCorruptPayload() {
+        ByteBuffer encoded = AssemblyPlanCodec.encode(plan());
+        int lastByte = encoded.limit() - 1;
+        encoded.put(lastByte, (byte) (encoded.get(lastByte) + 1));
+
+        assertThat(AssemblyPlanCodec.decode(encoded)).isNull();
+    }
+
+    @Test
+    public void shouldNotDecodeTruncatedPlan() {
+        ByteBuffer encoded = AssemblyPlanCodec.encode(plan());
+
+        assertThat(AssemblyPlanCodec.decode(encoded.limit(encoded.limit() - 1))).isNull();
+        assertThat(AssemblyPlanCodec.decode(encoded.limit(AssemblyPlanCodec.HEADER_SIZE - 1))).isNull();
+    }
+
+    @Test
+    public void shouldNotEncodeUnsupportedNodeType() {
+        NodeType customType = mock(NodeType.class);
+        AssemblyPlan plan = AssemblyPlan.builder().configure(customType, ConfigurationNode.EMPTY, 1).build();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> AssemblyPlanCodec.encode(plan))
+            .withMessageStartingWith("Only node types registered in the NodeTypeRegistry can be encoded.");
+    }
+
+    private static AssemblyPlan plan() {
+        return AssemblyPlan.builder()
+            .addComponent(ComponentNode.ABSENT, new ComponentNode(1, ParagraphNodeType.CONTAINER), 1)
+            .build();
+    }
+}
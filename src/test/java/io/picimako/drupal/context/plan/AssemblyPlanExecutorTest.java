@@ -0,0 +1,212 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentAdder;
+import io.picimako.drupal.context.ComponentConfigurer;
+import io.picimako.drupal.context.ComponentContextSetter;
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+import com.google.common.base.Ticker;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Unit test for {@link AssemblyPlanExecutor}.
+ */
+public class AssemblyPlanExecutorTest {
+
+    @Mock
+    private ComponentContextSetter contextSetter;
+    @Mock
+    private ComponentAdder componentAdder;
+    @Mock
+    private ComponentConfigurer componentConfigurer;
+    private AssemblyPlanExecutor executor;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        executor = new AssemblyPlanExecutor(contextSetter, componentAdder, componentConfigurer);
+    }
+
+    @Test
+    public void shouldExecuteInstructionsInOrder() {
+        ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode colors = new ComponentNode(2, ModifierNodeType.COLORS_MODIFIER);
+        ConfigurationNode configuration = new ConfigurationNode(Map.of("color", "red"));
+        AssemblyPlan plan = AssemblyPlan.builder()
+            .addComponent(ComponentNode.ABSENT, container, 1)
+            .setContext(".container", 2)
+            .addComponent(container, colors, 2)
+            .configure(ModifierNodeType.COLORS_MODIFIER, configuration, 3)
+            .build();
+
+        executor.execute(plan);
+
+        InOrder inOrder = inOrder(contextSetter, componentAdder, componentConfigurer);
+        inOrder.verify(componentAdder).addComponentToPage(ComponentNode.ABSENT, container);
+        inOrder.verify(contextSetter).setContext(".container");
+        inOrder.verify(componentAdder).addComponentToPage(container, colors);
+        inOrder.verify(componentConfigurer).configure(ModifierNodeType.COLORS_MODIFIER, configuration);
+        verifyNoMoreInteractions(contextSetter, componentAdder, componentConfigurer);
+    }
+
+    @Test
+    public void shouldExecuteTheSamePlanRepeatedly() {
+        AssemblyPlan plan = AssemblyPlan.builder().setContext(".container", 1).build();
+
+        executor.execute(plan);
+        executor.execute(plan);
+
+        verify(contextSetter, times(2)).setContext(".container");
+        verifyNoMoreInteractions(contextSetter, componentAdder, componentConfigurer);
+    }
+
+    @Test
+    public void shouldSkipSettingTheAlreadyActiveContext() {
+        ComponentNode image = new ComponentNode(1, ParagraphNodeType.IMAGE);
+        AssemblyPlan plan = AssemblyPlan.builder()
+            .setContext(".container", 1)
+            .addComponent(ComponentNode.ABSENT, image, 1)
+            .setContext(".container", 2)
+            .setContext(".layout", 3)
+            .setContext(".container", 4)
+            .build();
+
+        executor.execute(plan);
+
+        InOrder inOrder = inOrder(contextSetter, componentAdder);
+        inOrder.verify(contextSetter).setContext(".container");
+        inOrder.verify(componentAdder).addComponentToPage(ComponentNode.ABSENT, image);
+        inOrder.verify(contextSetter).setContext(".layout");
+        inOrder.verify(contextSetter).setContext(".container");
+        verifyNoMoreInteractions(contextSetter, componentAdder, componentConfigurer);
+        assertThat(executor.getElidedContextSwitchCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldNotSkipSettingContextThatFailedToBeSet() {
+        PlanInstruction instruction = AssemblyPlan.builder().setContext(".container", 1).build().getInstructions().get(0);
+        doThrow(new IllegalStateException()).doNothing().when(contextSetter).setContext(".container");
+
+        assertThatIllegalStateException().isThrownBy(() -> executor.execute(instruction));
+        executor.execute(instruction);
+
+        verify(contextSetter, times(2)).setContext(".container");
+        assertThat(executor.getElidedContextSwitchCount()).isZero();
+    }
+
+    @Test
+    public void shouldSendInstructionsInBatchesOfMaxBatchSize() {
+        List<List<PlanInstruction>> batches = new ArrayList<>();
+        executor = new AssemblyPlanExecutor(batches::add, StepBatchPolicy.builder().maxBatchSize(2).build());
+        AssemblyPlan plan = AssemblyPlan.builder()
+            .setContext(".container", 1)
+            .setContext(".layout", 2)
+            .setContext(".image", 3)
+            .build();
+
+        executor.execute(plan);
+
+        assertThat(batches).containsExactly(plan.getInstructions().subList(0, 2), plan.getInstructions().subList(2, 3));
+        verifyZeroInteractions(contextSetter, componentAdder, componentConfigurer);
+    }
+
+    @Test
+    public void shouldSendBatchBeforeEachRootComponentAlongWithItsContext() {
+        List<List<PlanInstruction>> batches = new ArrayList<>();
+        executor = new AssemblyPlanExecutor(batches::add, StepBatchPolicy.builder().flushPerRootComponent().build());
+        ComponentNode container1 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = new ComponentNode(2, ParagraphNodeType.IMAGE);
+        ComponentNode container2 = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+        AssemblyPlan plan = AssemblyPlan.builder()
+            .setContext(".container1", 1)
+            .addComponent(ComponentNode.ABSENT, container1, 1)
+            .setContext(".container1", 2)
+            .addComponent(container1, image, 2)
+            .setContext(".container2", 3)
+            .addComponent(ComponentNode.ABSENT, container2, 3)
+            .build();
+        List<PlanInstruction> instructions = plan.getInstructions();
+
+        executor.execute(plan);
+
+        assertThat(batches).containsExactly(
+            List.of(instructions.get(0), instructions.get(1), instructions.get(3)),
+            List.of(instructions.get(4), instructions.get(5)));
+        assertThat(executor.getElidedContextSwitchCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldAdaptBatchSizeToRoundTripTime() {
+        AdvancingTicker ticker = new AdvancingTicker();
+        List<Integer> batchSizes = new ArrayList<>();
+        StepBatchPolicy policy = StepBatchPolicy.builder().maxBatchSize(8).adaptToRoundTrip(Duration.ofMillis(100), 2).ticker(ticker).build();
+        executor = new AssemblyPlanExecutor(operations -> {
+            batchSizes.add(operations.size());
+            ticker.advance(batchSizes.size() <= 2 ? Duration.ofMillis(50) : Duration.ofMillis(500));
+        }, policy);
+        AssemblyPlan.Builder plan = AssemblyPlan.builder();
+        for (int i = 1; i <= 20; i++) {
+            plan.setContext(".component-" + i, i);
+        }
+
+        executor.execute(plan.build());
+
+        assertThat(batchSizes).containsExactly(2, 4, 8, 4, 2);
+        assertThat(executor.getBatchSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void shouldNotSendFailedBatchAgain() {
+        List<List<PlanInstruction>> batches = new ArrayList<>();
+        executor = new AssemblyPlanExecutor(operations -> {
+            batches.add(operations);
+            if (batches.size() == 1) {
+                throw new IllegalStateException();
+            }
+        }, StepBatchPolicy.builder().maxBatchSize(1).build());
+        PlanInstruction instruction = AssemblyPlan.builder().setContext(".container", 1).build().getInstructions().get(0);
+
+        assertThatIllegalStateException().isThrownBy(() -> executor.execute(instruction));
+        executor.execute(instruction);
+        executor.flush();
+
+        assertThat(batches).containsExactly(List.of(instruction), List.of(instruction));
+        assertThat(executor.getElidedContextSwitchCount()).isZero();
+    }
+
+    /**
+     * A ticker that only advances when it is told to.
+     */
+    private static final class AdvancingTicker extends Ticker {
+        private long nanos;
+
+        @Override
+        public long read() {
+            return nanos;
+        }
+
+        void advance(Duration duration) {
+            nanos += duration.toNanos();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.ModifierNodeType;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.plan.PlanInstruction.Opcode;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit test for {@link AssemblyPlan}.
+ */
+public class AssemblyPlanTest {
+
+    private final ComponentNode container = new ComponentNode(1, ParagraphNodeType.CONTAINER);
+    private final ComponentNode colors = new ComponentNode(2, ModifierNodeType.COLORS_MODIFIER);
+
+    @Before
+    public void setup() {
+        colors.setModifierNode(true);
+    }
+
+    @Test
+    public void shouldBuildInstructionsInOrder() {
+        ConfigurationNode configuration = new ConfigurationNode(Map.of("color", "red"));
+
+        AssemblyPlan plan = AssemblyPlan.builder()
+            .addComponent(ComponentNode.ABSENT, container, 1)
+            .setContext(".container", 2)
+            .addComponent(container, colors, 2)
+            .configure(ModifierNodeType.COLORS_MODIFIER, configuration, 3)
+            .build();
+
+        assertThat(plan.size()).isEqualTo(4);
+        assertThat(plan.getInstructions()).extracting(PlanInstruction::getOpcode)
+            .containsExactly(Opcode.ADD_COMPONENT, Opcode.SET_CONTEXT, Opcode.ADD_MODIFIER, Opcode.CONFIGURE);
+        assertThat(plan.getInstructions()).extracting(PlanInstruction::getSourceLine).containsExactly(1, 2, 2, 3);
+        PlanInstruction addModifier = plan.getInstructions().get(2);
+        assertThat(addModifier.getParentNode()).isSameAs(container);
+        assertThat(addModifier.getNode()).isSameAs(colors);
+        assertThat(addModifier.getType()).isEqualTo(ModifierNodeType.COLORS_MODIFIER);
+        assertThat(plan.getInstructions().get(3).getConfiguration()).isSameAs(configuration);
+    }
+
+    @Test
+    public void shouldPrintPlanAsDryRun() {
+        AssemblyPlan plan = AssemblyPlan.builder()
+            .addComponent(ComponentNode.ABSENT, container, 1)
+            .setContext(".container", 2)
+            .addComponent(container, colors, 2)
+            .configure(ModifierNodeType.COLORS_MODIFIER, new ConfigurationNode(Map.of("color", "red")), 3)
+            .build();
+
+        assertThat(plan.toString()).isEqualTo("1: ADD_COMPONENT(CONTAINER)\n"
+            + "2: SET_CONTEXT(.container)\n"
+            + "2: ADD_MODIFIER(COLORS_MODIFIER)\n"
+            + "3: CONFIGURE(COLORS_MODIFIER, {color=red})\n");
+    }
+
+    @Test
+    public void shouldNotBeModifiable() {
+        AssemblyPlan.Builder builder = AssemblyPlan.builder().addComponent(ComponentNode.ABSENT, container, 1);
+        AssemblyPlan plan = builder.build();
+
+        builder.setContext(".container", 2);
+
+        assertThat(plan.size()).isEqualTo(1);
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> plan.getInstructions().clear());
+    }
+
+    @Test
+    public void shouldNotAllowMissingOperands() {
+        assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> PlanInstruction.setContext(null, 1));
+        assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> PlanInstruction.addComponent(null, container, 1));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> PlanInstruction.configure(ParagraphNodeType.CONTAINER, null, 1));
+    }
+}
@@ -0,0 +1,161 @@
+package io.picimako.drupal.context.plan;
+
+import io.picimako.drupal.context.ComponentNode;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.ParsedLayoutCache;
+import io.picimako.drupal.context.SiteNodeTypeProvider.SiteModifierNodeType;
+import io.picimako.drupal.context.SiteNodeTypeProvider.SiteParagraphNodeType;
+import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
+import io.picimako.drupal.context.steps.DrupalPageSteps;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import io.picimako.drupal.context.util.LayoutHashing;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+/**
+ * Unit test for {@link PlanFileCache}.
+ */
+public class PlanFileCacheTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> url:image.png\n"
+        + "--- IMAGE\n"
+        + "---* url:other-image.png";
+
+    private final AtomicInteger compileCount = new AtomicInteger();
+    private Path directory;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("plan-cache");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void shouldLoadPlanCompiledByAnotherCacheInstance() throws IOException {
+        AssemblyPlan plan = PlanFileCache.inDirectory(directory).get(COMPONENT_TREE, this::compile);
+
+        AssemblyPlan loaded = PlanFileCache.inDirectory(directory).get(new StringBuilder(COMPONENT_TREE), this::compile);
+
+        assertThat(compileCount).hasValue(1);
+        assertThat(loaded).isNotSameAs(plan);
+        assertThat(loaded.toString()).isEqualTo(plan.toString());
+        assertThat(planFiles()).hasSize(1);
+    }
+
+    @Test
+    public void shouldStoreLayoutPartsSeparately() throws IOException {
+        PlanFileCache cache = PlanFileCache.inDirectory(directory);
+
+        cache.get(List.of("> CONTAINER", ""), this::compile);
+        cache.get(List.of("> CONTAINER", ""), this::compile);
+        cache.get(List.of("> LAYOUT", ""), this::compile);
+
+        assertThat(compileCount).hasValue(2);
+        assertThat(planFiles()).hasSize(2);
+    }
+
+    @Test
+    public void shouldRecompileCorruptPlan() throws IOException {
+        PlanFileCache cache = PlanFileCache.inDirectory(directory);
+        cache.get(COMPONENT_TREE, this::compile);
+        Path planFile = planFiles().get(0);
+        byte[] bytes = Files.readAllBytes(planFile);
+        bytes[bytes.length - 1]++;
+        Files.write(planFile, bytes);
+
+        AssemblyPlan recompiled = cache.get(COMPONENT_TREE, this::compile);
+
+        assertThat(compileCount).hasValue(2);
+        assertThat(PlanFileCache.inDirectory(directory).get(COMPONENT_TREE, this::compile).toString()).isEqualTo(recompiled.toString());
+        assertThat(compileCount).hasValue(2);
+    }
+
+    @Test
+    public void shouldNotStoreAnythingWhenCompilationFails() throws IOException {
+        PlanFileCache cache = PlanFileCache.inDirectory(directory);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> cache.get("-- CONTAINER", () -> {
+            throw new IllegalArgumentException("Invalid component tree.");
+        }));
+
+        assertThat(planFiles()).isEmpty();
+    }
+
+    @Test
+    public void shouldReturnPlanThatCannotBeWritten() throws IOException {
+        //A non-empty directory in place of the plan file makes moving the written plan in place fail
+        Path planFile = Files.createDirectory(directory.resolve(LayoutHashing.hash(COMPONENT_TREE) + ".plan"));
+        Files.createFile(planFile.resolve("blocking"));
+
+        AssemblyPlan plan = PlanFileCache.inDirectory(directory).get(COMPONENT_TREE, this::compile);
+
+        assertThat(plan.getInstructions()).hasSize(1);
+        assertThat(compileCount).hasValue(1);
+        assertThat(planFiles()).containsExactly(planFile);
+    }
+
+    @Test
+    public void shouldServeAssemblerThroughInMemoryCache() {
+        DrupalPageSteps pageSteps = mock(DrupalPageSteps.class);
+        DrupalConfigurationSteps configSteps = mock(DrupalConfigurationSteps.class);
+        AssemblyPlan compiled = new ComponentTreeBasedContentAssembler(pageSteps, configSteps).compile(COMPONENT_TREE);
+        PlanFileCache.inDirectory(directory).get(COMPONENT_TREE, () -> compiled);
+
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(pageSteps, configSteps,
+            ParsedLayoutCache.withMaximumSize(10, PlanFileCache.inDirectory(directory)));
+
+        assertThat(assembler.compile(COMPONENT_TREE).toString()).isEqualTo(compiled.toString());
+        verifyZeroInteractions(pageSteps, configSteps);
+    }
+
+    @Test
+    public void shouldStorePlanWithNodeTypesOfProviders() throws IOException {
+        String componentTree = "- CONTAINER\n-- QUOTE >> author:Jane\n-- TEASER\n--@ SHADOW_MODIFIER";
+        AssemblyPlan compiled = new ComponentTreeBasedContentAssembler(mock(DrupalPageSteps.class), mock(DrupalConfigurationSteps.class),
+            PlanFileCache.inDirectory(directory)).compile(componentTree);
+
+        AssemblyPlan loaded = PlanFileCache.inDirectory(directory).get(componentTree, this::compile);
+
+        assertThat(compileCount).hasValue(0);
+        assertThat(planFiles()).hasSize(1);
+        assertThat(loaded.toString()).isEqualTo(compiled.toString());
+        assertThat(loaded.getInstructions().stream().filter(instruction -> instruction.getNode() != null).map(instruction -> instruction.getNode().getType()))
+            .containsExactly(ParagraphNodeType.CONTAINER, SiteParagraphNodeType.QUOTE, SiteParagraphNodeType.TEASER, SiteModifierNodeType.SHADOW_MODIFIER);
+    }
+
+    private AssemblyPlan compile() {
+        compileCount.incrementAndGet();
+        return AssemblyPlan.builder()
+            .addComponent(ComponentNode.ABSENT, new ComponentNode(1, ParagraphNodeType.CONTAINER), 1)
+            .build();
+    }
+
+    private List<Path> planFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+}
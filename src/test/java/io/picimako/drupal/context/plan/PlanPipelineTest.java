@@ -0,0 +1,213 @@
+package io.picimako.drupal.context.plan;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.picimako.drupal.context.ComponentAdder;
+import io.picimako.drupal.context.ComponentConfigurer;
+import io.picimako.drupal.context.ComponentContextSetter;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+
+import java.io.Reader;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Unit test for {@link PlanPipeline}.
+ */
+public class PlanPipelineTest {
+
+    @Mock
+    private ComponentContextSetter contextSetter;
+    @Mock
+    private ComponentAdder componentAdder;
+    @Mock
+    private ComponentConfigurer componentConfigurer;
+    private AssemblyPlanExecutor executor;
+
+    @Before
+    public void setup() {
+        initMocks(this);
+        executor = new AssemblyPlanExecutor(contextSetter, componentAdder, componentConfigurer);
+    }
+
+    @Test
+    public void shouldExecuteProducedInstructionsInOrderOnTheCallingThread() {
+        AtomicReference<Thread> producerThread = new AtomicReference<>();
+
+        new PlanPipeline(1).run(sink -> {
+            producerThread.set(Thread.currentThread());
+            for (int i = 1; i <= 5; i++) {
+                sink.accept(PlanInstruction.setContext(".component-" + i, i));
+            }
+        }, executor);
+
+        InOrder inOrder = inOrder(contextSetter);
+        for (int i = 1; i <= 5; i++) {
+            inOrder.verify(contextSetter).setContext(".component-" + i);
+        }
+        verifyNoMoreInteractions(contextSetter, componentAdder, componentConfigurer);
+        assertThat(producerThread.get()).isNotSameAs(Thread.currentThread());
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldStopExecutionAtTheNextInstructionWhenProducerFails() {
+        AssemblyFailedException failure = new AssemblyFailedException(4, new IllegalArgumentException("Invalid line."));
+        AtomicReference<Thread> producerThread = new AtomicReference<>();
+        //The first step lasts until the producer has failed, while the next instruction is already queued
+        doAnswer(invocation -> waitFor(producerThread)).when(contextSetter).setContext(".component-1");
+
+        assertThatExceptionOfType(AssemblyFailedException.class)
+            .isThrownBy(() -> new PlanPipeline(1).run(sink -> {
+                producerThread.set(Thread.currentThread());
+                sink.accept(PlanInstruction.setContext(".component-1", 1));
+                sink.accept(PlanInstruction.setContext(".component-2", 2));
+                throw failure;
+            }, executor))
+            .isSameAs(failure)
+            .withMessage("Assembly failed at line 4: Invalid line.");
+        verify(contextSetter).setContext(".component-1");
+        verifyNoMoreInteractions(contextSetter, componentAdder, componentConfigurer);
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldReportUnexpectedFailureOfProducerWithTheLineOfTheLastInstructionItEmitted() {
+        AtomicReference<Thread> producerThread = new AtomicReference<>();
+        doAnswer(invocation -> waitFor(producerThread)).when(contextSetter).setContext(".component-1");
+
+        assertThatExceptionOfType(AssemblyFailedException.class)
+            .isThrownBy(() -> new PlanPipeline(1).run(sink -> {
+                producerThread.set(Thread.currentThread());
+                sink.accept(PlanInstruction.setContext(".component-1", 1));
+                sink.accept(PlanInstruction.setContext(".component-3", 3));
+                throw new IllegalStateException("Unexpected.");
+            }, executor))
+            .withMessage("Assembly failed at line 3: Unexpected.")
+            .withCauseInstanceOf(IllegalStateException.class);
+        verify(contextSetter).setContext(".component-1");
+        verifyNoMoreInteractions(contextSetter);
+    }
+
+    @Test
+    public void shouldCancelProducerWhenExecutionFails() {
+        doThrow(new IllegalStateException("Step failed.")).when(contextSetter).setContext(".component-2");
+        AtomicBoolean isProducerFinished = new AtomicBoolean();
+
+        assertThatExceptionOfType(AssemblyFailedException.class)
+            .isThrownBy(() -> new PlanPipeline(1).run(sink -> {
+                try {
+                    for (int i = 1; i > 0; i++) {
+                        sink.accept(PlanInstruction.setContext(".component-" + i, i));
+                    }
+                } finally {
+                    isProducerFinished.set(true);
+                }
+            }, executor))
+            .withMessage("Assembly failed at line 2: Step failed.")
+            .satisfies(e -> assertThat(e.getSourceLine()).isEqualTo(2));
+        assertThat(isProducerFinished).isTrue();
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldAbandonCancelledProducerBlockedInInputIgnoringInterrupts() throws Exception {
+        CountDownLatch inputBlocked = new CountDownLatch(1);
+        CountDownLatch inputUnblocked = new CountDownLatch(1);
+        AtomicReference<Thread> producerThread = new AtomicReference<>();
+        //The step fails only when the producer is already blocked in its input
+        doAnswer(invocation -> {
+            inputBlocked.await();
+            throw new IllegalStateException("Step failed.");
+        }).when(contextSetter).setContext(".component-1");
+
+        assertThatExceptionOfType(AssemblyFailedException.class)
+            .isThrownBy(() -> new PlanPipeline(1, Duration.ofMillis(100)).run(sink -> {
+                producerThread.set(Thread.currentThread());
+                emitChunks(new BlockingReader(".component-1", inputBlocked, inputUnblocked), sink);
+            }, executor))
+            .withMessage("Assembly failed at line 1: Step failed.");
+        assertThat(producerThread.get().isAlive()).isTrue();
+
+        inputUnblocked.countDown();
+        producerThread.get().join();
+        verify(contextSetter, times(1)).setContext(anyString());
+    }
+
+    @Test
+    public void shouldThrowExceptionForNegativeProducerStopTimeout() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> new PlanPipeline(1, Duration.ofMillis(-1)))
+            .withMessage("The producer stop timeout should not be negative. It was: [PT-0.001S].");
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveCapacity() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> new PlanPipeline(0))
+            .withMessage("The capacity of the pipeline should be greater than 0. It was: [0].");
+    }
+
+    private static Object waitFor(AtomicReference<Thread> producerThread) {
+        Uninterruptibles.joinUninterruptibly(producerThread.get());
+        return null;
+    }
+
+    /**
+     * Emits an instruction for each chunk read from the argument reader, until its end.
+     */
+    private static void emitChunks(BlockingReader reader, Consumer<PlanInstruction> sink) {
+        char[] buffer = new char[64];
+        int lineNumber = 1;
+        for (int length = reader.read(buffer, 0, buffer.length); length != -1; length = reader.read(buffer, 0, buffer.length)) {
+            sink.accept(PlanInstruction.setContext(new String(buffer, 0, length), lineNumber++));
+        }
+    }
+
+    /**
+     * Returns the argument content, then blocks until the unblocking latch is released, ignoring interrupts, like reading
+     * from a socket or a console, and returns the content again.
+     */
+    private static final class BlockingReader extends Reader {
+        private final String content;
+        private final CountDownLatch blocked;
+        private final CountDownLatch unblocked;
+        private boolean isContentRead;
+
+        BlockingReader(String content, CountDownLatch blocked, CountDownLatch unblocked) {
+            this.content = content;
+            this.blocked = blocked;
+            this.unblocked = unblocked;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (isContentRead) {
+                blocked.countDown();
+                Uninterruptibles.awaitUninterruptibly(unblocked);
+            }
+            isContentRead = true;
+            content.getChars(0, content.length(), buffer, offset);
+            return content.length();
+        }
+
+        @Override
+        public void close() {
+            //Nothing to release
+        }
+    }
+}
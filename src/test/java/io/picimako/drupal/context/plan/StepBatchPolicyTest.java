@@ -0,0 +1,56 @@
+package io.picimako.drupal.context.plan;
+
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link StepBatchPolicy}.
+ */
+public class StepBatchPolicyTest {
+
+    @Test
+    public void shouldCreateDefaultPolicy() {
+        StepBatchPolicy policy = StepBatchPolicy.builder().build();
+
+        assertThat(policy.isFlushPerRootComponent()).isFalse();
+        assertThat(policy.isAdaptive()).isFalse();
+        assertThat(policy.getMaxBatchSize()).isEqualTo(100);
+        assertThat(policy.getMinBatchSize()).isEqualTo(100);
+    }
+
+    @Test
+    public void shouldCreateAdaptivePolicy() {
+        StepBatchPolicy policy = StepBatchPolicy.builder().flushPerRootComponent().maxBatchSize(50).adaptToRoundTrip(Duration.ofSeconds(1), 5).build();
+
+        assertThat(policy.isFlushPerRootComponent()).isTrue();
+        assertThat(policy.isAdaptive()).isTrue();
+        assertThat(policy.getMaxBatchSize()).isEqualTo(50);
+        assertThat(policy.getMinBatchSize()).isEqualTo(5);
+        assertThat(policy.getTargetRoundTrip()).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveMaxBatchSize() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> StepBatchPolicy.builder().maxBatchSize(0))
+            .withMessage("The maximum batch size should be greater than 0. It was: [0].");
+    }
+
+    @Test
+    public void shouldThrowExceptionForNonPositiveTargetRoundTrip() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> StepBatchPolicy.builder().adaptToRoundTrip(Duration.ZERO, 1))
+            .withMessage("The target round trip time should be positive. It was: [PT0S].");
+    }
+
+    @Test
+    public void shouldThrowExceptionForMinBatchSizeGreaterThanMaxBatchSize() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> StepBatchPolicy.builder().maxBatchSize(5).adaptToRoundTrip(Duration.ofSeconds(1), 10).build())
+            .withMessage("The minimum batch size [10] should not be greater than the maximum batch size [5].");
+    }
+}
@@ -0,0 +1,60 @@
+package io.picimako.drupal.context.steps.simulated;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit test for {@link LatencyDistribution}.
+ */
+public class LatencyDistributionTest {
+
+    private final Random random = new Random(1);
+
+    @Test
+    public void shouldSampleFixedLatency() {
+        assertThat(LatencyDistribution.fixed(Duration.ofMillis(5)).sampleNanos(random)).isEqualTo(5_000_000L);
+    }
+
+    @Test
+    public void shouldSampleUniformLatencyWithinBounds() {
+        LatencyDistribution distribution = LatencyDistribution.uniform(Duration.ofMillis(10), Duration.ofMillis(20));
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(distribution.sampleNanos(random)).isBetween(10_000_000L, 20_000_000L);
+        }
+    }
+
+    @Test
+    public void shouldSampleLogNormalLatencyAroundTheMedian() {
+        LatencyDistribution distribution = LatencyDistribution.logNormal(Duration.ofMillis(100), 0.5);
+        long[] samples = new long[10_001];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = distribution.sampleNanos(random);
+        }
+        Arrays.sort(samples);
+
+        assertThat(samples[0]).isPositive();
+        assertThat((double) samples[samples.length / 2]).isCloseTo(100_000_000, within(5_000_000.0));
+    }
+
+    @Test
+    public void shouldThrowExceptionForNegativeLatency() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> LatencyDistribution.fixed(Duration.ofMillis(-1)))
+            .withMessage("The latency should not be negative. It was: [PT-0.001S].");
+    }
+
+    @Test
+    public void shouldThrowExceptionForMinimumGreaterThanMaximum() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> LatencyDistribution.uniform(Duration.ofMillis(2), Duration.ofMillis(1)))
+            .withMessage("The minimum latency [PT0.002S] should not be greater than the maximum latency [PT0.001S].");
+    }
+}
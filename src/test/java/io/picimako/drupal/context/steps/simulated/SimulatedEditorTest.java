@@ -0,0 +1,161 @@
+package io.picimako.drupal.context.steps.simulated;
+
+import io.picimako.drupal.context.ConfigurationNode;
+import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.plan.AssemblyPlanExecutor;
+import io.picimako.drupal.context.plan.StepBatchPolicy;
+import io.picimako.drupal.context.steps.simulated.StepRecording.Operation;
+import io.picimako.drupal.context.table.TableBasedContentAssembler;
+import io.picimako.drupal.context.treeview.ComponentTreeBasedContentAssembler;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.picimako.drupal.context.table.ComponentAndConfiguration.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link SimulatedEditor}.
+ */
+public class SimulatedEditorTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n"
+        + "-- LAYOUT\n"
+        + "--- IMAGE >> name:image.png\n"
+        + "---* link:/some/path\n"
+        + "--- IMAGE\n"
+        + "---@ COLORS_MODIFIER";
+
+    @Test
+    public void shouldRecordOperationsOfTreeViewBasedAssembly() {
+        SimulatedEditor editor = SimulatedEditor.withoutLatency();
+
+        new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent(COMPONENT_TREE);
+
+        assertThat(editor.getRecording().toString()).isEqualTo("SET_CONTEXT .container:nth-child(1)\n"
+            + "ADD_COMPONENT CONTAINER\n"
+            + "ADD_COMPONENT LAYOUT\n"
+            + "SET_CONTEXT .container:nth-child(1) .layout\n"
+            + "ADD_COMPONENT IMAGE\n"
+            + "CONFIGURE IMAGE {name=image.png}\n"
+            + "SET_CONTEXT .container:nth-child(1) .layout .image-component:nth-child(1)\n"
+            + "CONFIGURE IMAGE {link=/some/path}\n"
+            + "SET_CONTEXT .container:nth-child(1) .layout\n"
+            + "ADD_COMPONENT IMAGE\n"
+            + "ADD_MODIFIER COLORS_MODIFIER\n");
+        assertThat(editor.getSimulatedLatency()).isZero();
+    }
+
+    @Test
+    public void shouldRecordEachConfigurationWithAllItsProperties() {
+        SimulatedEditor editor = SimulatedEditor.withoutLatency();
+
+        new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent("- CONTAINER\n"
+            + "-- IMAGE >> name:image.png, link:/some/path, alt:Some image");
+
+        assertThat(editor.getRecording().getEntries()).containsExactly("SET_CONTEXT .container:nth-child(1)",
+            "ADD_COMPONENT CONTAINER",
+            "ADD_COMPONENT IMAGE",
+            "CONFIGURE IMAGE {alt=Some image, link=/some/path, name=image.png}");
+    }
+
+    @Test
+    public void shouldNotRecordConfigurationOfNodeTypeWithoutConfigurers() {
+        SimulatedEditor editor = SimulatedEditor.withoutLatency();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> editor.componentConfigurer()
+            .configure(ParagraphNodeType.YOUTUBE_VIDEO, new ConfigurationNode(Map.of("url", "video.mp4"))));
+        assertThat(editor.getRecording().size()).isZero();
+    }
+
+    @Test
+    public void shouldRecordOperationsOfCarouselAssembly() {
+        SimulatedEditor editor = SimulatedEditor.withoutLatency();
+
+        new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent("- CONTAINER\n"
+            + "-- CAROUSEL\n"
+            + "--- CAROUSEL_ITEM\n"
+            + "---- IMAGE");
+
+        assertThat(editor.getRecording().getEntries()).containsExactly("SET_CONTEXT .container:nth-child(1)",
+            "ADD_COMPONENT CONTAINER",
+            "ADD_COMPONENT CAROUSEL",
+            "SET_CONTEXT .container:nth-child(1) .carousel:nth-child(1)",
+            "ADD_COMPONENT CAROUSEL_ITEM",
+            "ADD_COMPONENT IMAGE");
+    }
+
+    @Test
+    public void shouldRecordTheSameOperationsForTreeViewAndTableBasedAssemblyOfTheSameLayout() {
+        SimulatedEditor treeViewEditor = SimulatedEditor.withoutLatency();
+        SimulatedEditor tableEditor = SimulatedEditor.withoutLatency();
+
+        new ComponentTreeBasedContentAssembler(treeViewEditor.pageSteps(), treeViewEditor.componentConfigurer()).assembleContent(COMPONENT_TREE);
+        new TableBasedContentAssembler(tableEditor.pageSteps(), tableEditor.componentConfigurer()).assembleContent(List.of(
+            create("> CONTAINER"),
+            create(">> LAYOUT"),
+            create(">>> IMAGE", "name:image.png"),
+            create("", "link:/some/path"),
+            create(">>> IMAGE"),
+            create(">>>@ COLORS_MODIFIER")));
+
+        assertThat(tableEditor.getRecording()).isEqualTo(treeViewEditor.getRecording());
+    }
+
+    @Test
+    public void shouldRecordTheSameOperationsWhenSentInBatches() {
+        SimulatedEditor editor = SimulatedEditor.withoutLatency();
+        SimulatedEditor batchingEditor = SimulatedEditor.withoutLatency();
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+
+        assembler.assembleContent(COMPONENT_TREE);
+        assembler.execute(assembler.compile(COMPONENT_TREE),
+            new AssemblyPlanExecutor(batchingEditor.batchTransport(), StepBatchPolicy.builder().maxBatchSize(3).build()));
+
+        assertThat(batchingEditor.getRecording()).isEqualTo(editor.getRecording());
+    }
+
+    @Test
+    public void shouldSimulateRoundTripPerStepAndPerBatch() {
+        SimulatedLatency latency = SimulatedLatency.builder()
+            .roundTrip(LatencyDistribution.fixed(Duration.ofMillis(100)))
+            .operation(Operation.ADD_COMPONENT, LatencyDistribution.fixed(Duration.ofMillis(10)))
+            .build();
+        List<Long> sleeps = new ArrayList<>();
+        SimulatedEditor editor = SimulatedEditor.withLatency(latency, sleeps::add);
+        SimulatedEditor batchingEditor = SimulatedEditor.withLatency(latency, nanos -> {
+        });
+        String componentTree = "- CONTAINER\n-- LAYOUT";
+        ComponentTreeBasedContentAssembler assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+
+        assembler.assembleContent(componentTree);
+        assembler.execute(assembler.compile(componentTree),
+            new AssemblyPlanExecutor(batchingEditor.batchTransport(), StepBatchPolicy.builder().build()));
+
+        //SET_CONTEXT, ADD_COMPONENT, ADD_COMPONENT one by one, versus a single batch
+        assertThat(sleeps).containsExactly(100_000_000L, 110_000_000L, 110_000_000L);
+        assertThat(editor.getSimulatedLatency()).isEqualTo(Duration.ofMillis(320));
+        assertThat(batchingEditor.getSimulatedLatency()).isEqualTo(Duration.ofMillis(120));
+    }
+
+    @Test
+    public void shouldSampleTheSameLatenciesWithTheSameSeed() {
+        SimulatedLatency latency = SimulatedLatency.builder()
+            .roundTrip(LatencyDistribution.logNormal(Duration.ofMillis(80), 0.5))
+            .seed(42)
+            .build();
+        SimulatedEditor editor = SimulatedEditor.withLatency(latency, nanos -> {
+        });
+        SimulatedEditor otherEditor = SimulatedEditor.withLatency(latency, nanos -> {
+        });
+
+        new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent(COMPONENT_TREE);
+        new ComponentTreeBasedContentAssembler(otherEditor.pageSteps(), otherEditor.componentConfigurer()).assembleContent(COMPONENT_TREE);
+
+        assertThat(editor.getSimulatedLatency()).isPositive().isEqualTo(otherEditor.getSimulatedLatency());
+    }
+}
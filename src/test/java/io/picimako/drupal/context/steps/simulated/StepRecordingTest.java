@@ -0,0 +1,63 @@
+package io.picimako.drupal.context.steps.simulated;
+
+import io.picimako.drupal.context.steps.simulated.StepRecording.Operation;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * Unit test for {@link StepRecording}.
+ */
+public class StepRecordingTest {
+
+    @Test
+    public void shouldRecordOperationsInOrder() {
+        StepRecording recording = new StepRecording();
+
+        recording.record(Operation.SET_CONTEXT, ".container");
+        recording.record(Operation.ADD_COMPONENT, "IMAGE");
+
+        assertThat(recording.size()).isEqualTo(2);
+        assertThat(recording.getOperation(1)).isEqualTo(Operation.ADD_COMPONENT);
+        assertThat(recording.getArgument(1)).isEqualTo("IMAGE");
+        assertThat(recording.getEntries()).containsExactly("SET_CONTEXT .container", "ADD_COMPONENT IMAGE");
+        assertThat(recording.toString()).isEqualTo("SET_CONTEXT .container\nADD_COMPONENT IMAGE\n");
+    }
+
+    @Test
+    public void shouldRecordMoreOperationsThanTheInitialCapacity() {
+        StepRecording recording = new StepRecording();
+
+        for (int i = 0; i < 100; i++) {
+            recording.record(i % 2 == 0 ? Operation.SET_CONTEXT : Operation.CONFIGURE, String.valueOf(i));
+        }
+
+        assertThat(recording.size()).isEqualTo(100);
+        assertThat(recording.getOperation(98)).isEqualTo(Operation.SET_CONTEXT);
+        assertThat(recording.getOperation(99)).isEqualTo(Operation.CONFIGURE);
+    }
+
+    @Test
+    public void shouldCompareRecordingsByTheirEntries() {
+        StepRecording recording = new StepRecording();
+        recording.record(Operation.ADD_MODIFIER, "COLORS_MODIFIER");
+        StepRecording sameRecording = new StepRecording();
+        sameRecording.record(Operation.ADD_MODIFIER, "COLORS_MODIFIER");
+        StepRecording otherRecording = new StepRecording();
+        otherRecording.record(Operation.ADD_COMPONENT, "COLORS_MODIFIER");
+
+        assertThat(recording).isEqualTo(sameRecording).hasSameHashCodeAs(sameRecording).isNotEqualTo(otherRecording);
+    }
+
+    @Test
+    public void shouldClearRecording() {
+        StepRecording recording = new StepRecording();
+        recording.record(Operation.SET_CONTEXT, ".container");
+
+        recording.clear();
+
+        assertThat(recording.size()).isZero();
+        assertThatExceptionOfType(IndexOutOfBoundsException.class).isThrownBy(() -> recording.getOperation(0));
+    }
+}
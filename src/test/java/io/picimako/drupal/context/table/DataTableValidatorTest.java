@@ -142,4 +142,14 @@ public class DataTableValidatorTest {
         when(nodeCreator.createComponentNode(nodeString)).thenReturn(node);
         return node;
     }
+
+    @Test
+    public void shouldValidateSingleComponentAgainstPreviousComponent() {
+        ComponentNode layout = new ComponentNode(2, ParagraphNodeType.LAYOUT);
+
+        assertThatCode(() -> validator.validateNode(new ComponentNode(3, ParagraphNodeType.IMAGE), layout)).doesNotThrowAnyException();
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> validator.validateNode(new ComponentNode(4, ParagraphNodeType.IMAGE), layout))
+            .withMessageStartingWith("Child defined more than 1 level deeper than its immediate parent");
+    }
 }
@@ -0,0 +1,64 @@
+package io.picimako.drupal.context.table;
+
+import io.picimako.drupal.context.ParsedLayoutCache;
+import io.picimako.drupal.context.plan.AssemblyPlan;
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import org.junit.Test;
+
+import java.util.List;
+
+import static io.picimako.drupal.context.table.ComponentAndConfiguration.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Unit test for {@link TableBasedContentAssembler}, assembling content in a {@link SimulatedEditor}, and comparing the
+ * recorded steps, for caching and reusing an assembler.
+ */
+public class TableBasedContentAssemblerEditorTest {
+
+    private final SimulatedEditor editor = SimulatedEditor.withoutLatency();
+
+    @Test
+    public void shouldAssembleTheSameContentFromCachedTable() {
+        List<ComponentAndConfiguration> ccs = List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png"));
+        ParsedLayoutCache<AssemblyPlan> layoutCache = ParsedLayoutCache.withMaximumSize(10);
+        TableBasedContentAssembler assembler = new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer(), layoutCache);
+
+        assembler.assembleContent(ccs);
+        String firstRecording = editor.getRecording().toString();
+        editor.getRecording().clear();
+        assembler.assembleContent(List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png")));
+
+        assertThat(editor.getRecording()).hasToString(firstRecording);
+        assertThat(layoutCache.stats().hitCount()).isEqualTo(1);
+        assertThat(assembler.compile(List.of(create("> CONTAINER"), create(">> IMAGE", "name:other.png")))).isNotSameAs(assembler.compile(ccs));
+    }
+
+    @Test
+    public void shouldNotCacheInvalidTable() {
+        ParsedLayoutCache<AssemblyPlan> layoutCache = ParsedLayoutCache.withMaximumSize(10);
+        TableBasedContentAssembler assembler = new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer(), layoutCache);
+        List<ComponentAndConfiguration> ccs = List.of(create("> CONTAINER"), create("<", "title:someTitle"));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> assembler.assembleContent(ccs));
+        assertThatIllegalArgumentException().isThrownBy(() -> assembler.assembleContent(ccs));
+        assertThat(layoutCache.size()).isZero();
+    }
+
+    @Test
+    public void shouldAssembleTheSameContentWhenReusedForMultipleTables() {
+        List<ComponentAndConfiguration> ccs = List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png"),
+            create("> CONTAINER"), create(">> IMAGE"));
+        SimulatedEditor reusingEditor = SimulatedEditor.withoutLatency();
+        TableBasedContentAssembler reusedAssembler = new TableBasedContentAssembler(reusingEditor.pageSteps(), reusingEditor.componentConfigurer());
+
+        new TableBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer()).assembleContent(ccs);
+        reusedAssembler.assembleContent(List.of(create("> CONTAINER"), create(">> IMAGE"), create(">> IMAGE"), create(">> IMAGE"), create(">> IMAGE")));
+        for (int i = 0; i < 3; i++) {
+            reusingEditor.getRecording().clear();
+            reusedAssembler.assembleContent(ccs);
+            assertThat(reusingEditor.getRecording()).isEqualTo(editor.getRecording());
+        }
+    }
+}
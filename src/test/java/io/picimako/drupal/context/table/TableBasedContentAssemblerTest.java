@@ -10,6 +10,8 @@ import io.picimako.drupal.context.ModifierNodeType;
 import io.picimako.drupal.context.NodeCreator;
 import io.picimako.drupal.context.NodeType;
 import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.ParsedLayoutCache;
+import io.picimako.drupal.context.plan.AssemblyPlan;
 import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
 import io.picimako.drupal.context.steps.DrupalPageSteps;
 import org.junit.Before;
@@ -32,8 +34,10 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 /**
@@ -62,11 +66,14 @@ public class TableBasedContentAssemblerTest {
     public void setup() {
         initMocks(this);
         assembler = new TableBasedContentAssembler(drupalPageSteps, configurationSteps);
-        setField(assembler, "nodeCreator", nodeCreator, NodeCreator.class);
-        setField(assembler, "componentAdder", componentAdder, ComponentAdder.class);
-        setField(assembler, "componentConfigurer", componentConfigurer, ComponentConfigurer.class);
-        setField(assembler, "contextSetter", contextSetter, ComponentContextSetter.class);
-        setField(assembler, "tree", tree, ComponentTree.class);
+        setField(getField(assembler, "compiler"), "nodeCreator", nodeCreator, NodeCreator.class);
+        setField(getField(assembler, "runner"), "componentAdder", componentAdder, ComponentAdder.class);
+        setField(getField(assembler, "runner"), "componentConfigurer", componentConfigurer, ComponentConfigurer.class);
+        setField(getField(assembler, "runner"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        setField(getField(assembler, "compiler"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        setField(getField(assembler, "compiler"), "tree", tree, ComponentTree.class);
+        when(contextSetter.resolveContext(any(ComponentTree.class), any(ComponentNode.class), anyBoolean()))
+            .thenAnswer(invocation -> contextOf(invocation.getArgument(1), invocation.getArgument(2)));
     }
 
     @Test
@@ -85,6 +92,7 @@ public class TableBasedContentAssemblerTest {
         assembler.assembleContent(List.of(create("<", "title:someTitle")));
 
         verify(nodeCreator).createConfigurationNode("title:someTitle");
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
     }
 
@@ -103,7 +111,8 @@ public class TableBasedContentAssemblerTest {
 
         verify(nodeCreator).createConfigurationNode("title:someTitle");
         verify(nodeCreator).createConfigurationNode("path:/some/path");
-        verify(contextSetter, never()).setContext(any(ComponentTree.class), any(ComponentNode.class), eq(false));
+        verify(contextSetter, never()).resolveContext(any(ComponentTree.class), any(ComponentNode.class), eq(false));
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
     }
 
@@ -123,8 +132,9 @@ public class TableBasedContentAssemblerTest {
         verify(nodeCreator).createComponentNode("> CONTAINER");
         verify(tree).addNode(container, ComponentNode.ABSENT);
         verify(tree).getParentNode(container);
-        verify(contextSetter, never()).setContext(any(), any(), anyBoolean());
+        verify(contextSetter, never()).resolveContext(any(), any(), anyBoolean());
         verify(componentAdder).addComponentToPage(ComponentNode.ABSENT, container);
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
 
         assertThat(tree.getGraph().nodes()).containsExactly(container);
@@ -150,8 +160,9 @@ public class TableBasedContentAssemblerTest {
         verify(nodeCreator).createComponentNode(">>>>@ COLORS_MODIFIER");
         verify(tree).addNode(colorsModifier, youtubeVideo);
         verify(tree).getParentNode(colorsModifier);
-        verify(contextSetter, never()).setContext(any(ComponentTree.class), eq(colorsModifier), eq(true));
+        verify(contextSetter, never()).resolveContext(any(ComponentTree.class), eq(colorsModifier), eq(true));
         verify(componentAdder).addComponentToPage(youtubeVideo, colorsModifier);
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
 
         assertThat(tree.getGraph().nodes()).containsExactly(container, layout, youtubeVideo, colorsModifier);
@@ -177,11 +188,39 @@ public class TableBasedContentAssemblerTest {
         verifyComponent(">> LAYOUT", layout, container);
         verifyComponent(">>> YOUTUBE_VIDEO", youtubeVideo, layout);
         verifyConfiguration("title:an_awesome_youtube_video", ParagraphNodeType.YOUTUBE_VIDEO, "title", "an_awesome_youtube_video");
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
 
         assertThat(tree.getGraph().nodes()).containsExactly(container, layout, youtubeVideo);
     }
 
+    @Test
+    public void shouldParseCachedTableOnlyOnce() {
+        ParsedLayoutCache<AssemblyPlan> layoutCache = ParsedLayoutCache.withMaximumSize(10);
+        assembler = new TableBasedContentAssembler(drupalPageSteps, configurationSteps, layoutCache);
+        setField(getField(assembler, "compiler"), "nodeCreator", nodeCreator, NodeCreator.class);
+        setField(getField(assembler, "runner"), "componentAdder", componentAdder, ComponentAdder.class);
+        setField(getField(assembler, "runner"), "componentConfigurer", componentConfigurer, ComponentConfigurer.class);
+        setField(getField(assembler, "runner"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        setField(getField(assembler, "compiler"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        ComponentNode container = mockComponent("> CONTAINER", 1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = mockComponent(">> IMAGE", 2, ParagraphNodeType.IMAGE);
+        mockConfiguration("name:image.png", Map.of("name", "image.png"));
+
+        assembler.assembleContent(List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png")));
+        assembler.assembleContent(List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png")));
+
+        verify(nodeCreator).createComponentNode("> CONTAINER");
+        verify(nodeCreator).createComponentNode(">> IMAGE");
+        verify(nodeCreator).createConfigurationNode("name:image.png");
+        verify(componentAdder, times(2)).addComponentToPage(container, image);
+        verify(componentConfigurer, times(2)).configure(eq(ParagraphNodeType.IMAGE), any(ConfigurationNode.class));
+        verifyNoMoreInteractions(nodeCreator);
+        verifyZeroInteractions(tree);
+        assertThat(layoutCache.stats().hitCount()).isEqualTo(1);
+        assertThat(layoutCache.stats().missCount()).isEqualTo(1);
+    }
+
     private ComponentNode mockComponent(String nodeString, int level, NodeType nodeType) {
         ComponentNode node = new ComponentNode(level, nodeType);
         when(nodeCreator.createComponentNode(nodeString)).thenReturn(node);
@@ -197,7 +236,7 @@ public class TableBasedContentAssemblerTest {
         verify(nodeCreator).createComponentNode(nodeString);
         verify(tree).addNode(currentNode, previousNode);
         verify(tree).getParentNode(currentNode);
-        verify(contextSetter).setContext(any(ComponentTree.class), eq(currentNode), eq(true));
+        verifyContextSet(currentNode, true);
         verify(componentAdder).addComponentToPage(previousNode, currentNode);
     }
 
@@ -205,4 +244,44 @@ public class TableBasedContentAssemblerTest {
         verify(nodeCreator).createConfigurationNode(nodeString);
         verify(componentConfigurer).configure(eq(nodeType), argThat(node -> node.get(key).equals(value)));
     }
+
+    @Test
+    public void shouldParseAndValidateTheWholeTableBeforeAddingAnyComponent() {
+        List<ComponentAndConfiguration> ccs = List.of(create("> CONTAINER"), create(">> LAYOUT"), create("", "invalid"));
+        mockComponent("> CONTAINER", 1, ParagraphNodeType.CONTAINER);
+        mockComponent(">> LAYOUT", 2, ParagraphNodeType.LAYOUT);
+        when(nodeCreator.createConfigurationNode("invalid")).thenThrow(new IllegalArgumentException("Invalid configuration."));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> assembler.assembleContent(ccs)).withMessage("Invalid configuration.");
+        verifyZeroInteractions(contextSetter, componentAdder, componentConfigurer);
+    }
+
+    @Test
+    public void shouldParseEachDefinitionOnlyOnce() {
+        List<ComponentAndConfiguration> ccs = List.of(create("> CONTAINER"), create(">> IMAGE", "name:image.png"));
+        ComponentNode container = mockComponent("> CONTAINER", 1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = mockComponent(">> IMAGE", 2, ParagraphNodeType.IMAGE);
+        mockConfiguration("name:image.png", Map.of("name", "image.png"));
+
+        assembler.assembleContent(ccs);
+
+        verify(nodeCreator).createComponentNode("> CONTAINER");
+        verify(nodeCreator).createComponentNode(">> IMAGE");
+        verify(nodeCreator).createConfigurationNode("name:image.png");
+        verifyNoMoreInteractions(nodeCreator);
+        verify(componentAdder).addComponentToPage(container, image);
+    }
+
+    private void verifyContextSet(ComponentNode node, boolean fromParent) {
+        verify(contextSetter).resolveContext(any(ComponentTree.class), eq(node), eq(fromParent));
+        verify(contextSetter).setContext(contextOf(node, fromParent));
+    }
+
+    /**
+     * Returns a context selector that is unique to the argument node and context kind, so that the selectors emitted
+     * into the plan can be told apart.
+     */
+    private static String contextOf(ComponentNode node, boolean fromParent) {
+        return "context-of-" + System.identityHashCode(node) + "-" + fromParent;
+    }
 }
@@ -0,0 +1,164 @@
+package io.picimako.drupal.context.treeview;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import io.picimako.drupal.context.plan.AssemblyFailedException;
+import io.picimako.drupal.context.plan.AssemblyPlan;
+import io.picimako.drupal.context.steps.DrupalPageSteps;
+import io.picimako.drupal.context.steps.simulated.SimulatedEditor;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit test for {@link ComponentTreeBasedContentAssembler}, assembling content in a {@link SimulatedEditor}, and comparing
+ * the recorded steps, for the different sources of component trees, and for reusing an assembler.
+ */
+public class ComponentTreeBasedContentAssemblerEditorTest {
+
+    private static final String COMPONENT_TREE = "- CONTAINER\n-- LAYOUT\n";
+
+    private SimulatedEditor editor;
+    private ComponentTreeBasedContentAssembler assembler;
+    private String expectedRecording;
+
+    @Before
+    public void setup() {
+        SimulatedEditor referenceEditor = SimulatedEditor.withoutLatency();
+        new ComponentTreeBasedContentAssembler(referenceEditor.pageSteps(), referenceEditor.componentConfigurer())
+            .assembleContent(COMPONENT_TREE);
+        expectedRecording = referenceEditor.getRecording().toString();
+        editor = SimulatedEditor.withoutLatency();
+        assembler = new ComponentTreeBasedContentAssembler(editor.pageSteps(), editor.componentConfigurer());
+    }
+
+    @Test
+    public void shouldAssembleContentFromReader() {
+        assembler.assembleContent(new StringReader(COMPONENT_TREE));
+
+        assertThat(editor.getRecording().getEntries()).contains("ADD_COMPONENT CONTAINER", "ADD_COMPONENT LAYOUT");
+        assertThat(editor.getRecording()).hasToString(expectedRecording);
+    }
+
+    @Test
+    public void shouldAssembleContentFromFile() throws IOException {
+        Path componentTreeFile = Files.createTempFile("component-tree", ".txt");
+        try {
+            Files.writeString(componentTreeFile, COMPONENT_TREE);
+
+            assembler.assembleContent(componentTreeFile);
+        } finally {
+            Files.delete(componentTreeFile);
+        }
+
+        assertThat(editor.getRecording()).hasToString(expectedRecording);
+    }
+
+    @Test
+    public void shouldAssembleContentPipelined() {
+        assembler.assembleContentPipelined(new StringReader(COMPONENT_TREE), 1);
+
+        assertThat(editor.getRecording()).hasToString(expectedRecording);
+    }
+
+    @Test
+    public void shouldReportLineOfInvalidNodeInPipelinedAssembly() {
+        assertThatExceptionOfType(AssemblyFailedException.class)
+            .isThrownBy(() -> assembler.assembleContentPipelined(new StringReader("- CONTAINER\n-- LAYOUT\n---- IMAGE"), 10))
+            .withMessageStartingWith("Assembly failed at line 3: Child defined more than 1 level deeper than its immediate parent")
+            .withCauseInstanceOf(IllegalArgumentException.class);
+        //Depending on how far the execution got before the failure, the container may or may not have been added
+        assertThat(editor.getRecording().getEntries()).doesNotContain("ADD_COMPONENT LAYOUT", "ADD_COMPONENT IMAGE");
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenThereIsNoComponentTreeToRead() {
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> assembler.assembleContent(new StringReader("\n\n")))
+            .withMessage("There is no component tree to process. It should not be blank.");
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenComponentTreeFileCannotBeRead() {
+        Path missingFile = Path.of("missing-component-tree.txt");
+
+        assertThatExceptionOfType(UncheckedIOException.class)
+            .isThrownBy(() -> assembler.assembleContent(missingFile))
+            .withMessage("Could not read the component tree file: missing-component-tree.txt");
+    }
+
+    @Test
+    public void shouldCompileComponentTreeWithoutInvokingTheSteps() {
+        AssemblyPlan plan = assembler.compile("- CONTAINER\n"
+            + "-- IMAGE >> url:image.png\n"
+            + "-- LAYOUT\n"
+            + "---@ COLORS_MODIFIER");
+
+        assertThat(plan.toString()).isEqualTo("1: SET_CONTEXT(.container:nth-child(1))\n"
+            + "1: ADD_COMPONENT(CONTAINER)\n"
+            + "2: SET_CONTEXT(.container:nth-child(1))\n"
+            + "2: ADD_COMPONENT(IMAGE)\n"
+            + "2: CONFIGURE(IMAGE, {url=image.png})\n"
+            + "3: SET_CONTEXT(.container:nth-child(1))\n"
+            + "3: ADD_COMPONENT(LAYOUT)\n"
+            + "4: ADD_MODIFIER(COLORS_MODIFIER)\n");
+        assertThat(editor.getRecording().size()).isZero();
+    }
+
+    @Test
+    public void shouldAssembleTheSameContentWhenReusedForMultipleLayouts() {
+        String componentTree = "- CONTAINER\n"
+            + "-- IMAGE\n"
+            + "- CONTAINER\n"
+            + "-- IMAGE";
+        SimulatedEditor referenceEditor = SimulatedEditor.withoutLatency();
+
+        new ComponentTreeBasedContentAssembler(referenceEditor.pageSteps(), referenceEditor.componentConfigurer()).assembleContent(componentTree);
+        for (int i = 0; i < 3; i++) {
+            editor.getRecording().clear();
+            assembler.assembleContent(componentTree);
+            assertThat(editor.getRecording()).isEqualTo(referenceEditor.getRecording());
+            editor.getRecording().clear();
+            assembler.assembleContentPipelined(new StringReader(componentTree), 2);
+            assertThat(editor.getRecording()).isEqualTo(referenceEditor.getRecording());
+        }
+    }
+
+    @Test
+    public void shouldFailFastWhenUsedByAnotherThreadDuringAssembly() throws InterruptedException {
+        CountDownLatch isAdding = new CountDownLatch(1);
+        CountDownLatch canFinish = new CountDownLatch(1);
+        ComponentTreeBasedContentAssembler sharedAssembler = new ComponentTreeBasedContentAssembler(new DrupalPageSteps() {
+            @Override
+            public void i_add_a_container() {
+                isAdding.countDown();
+                Uninterruptibles.awaitUninterruptibly(canFinish);
+            }
+        }, editor.componentConfigurer());
+        Thread assemblyThread = new Thread(() -> sharedAssembler.assembleContent("- CONTAINER"), "assembly-thread");
+        assemblyThread.start();
+
+        try {
+            isAdding.await();
+            assertThatIllegalStateException()
+                .isThrownBy(() -> sharedAssembler.compile("- CONTAINER"))
+                .withMessage("The ComponentTreeBasedContentAssembler is already in use by thread [assembly-thread]. "
+                    + "It must not be used by multiple threads at the same time.");
+        } finally {
+            canFinish.countDown();
+            assemblyThread.join();
+        }
+        //Once the other thread is done, the assembler can be used by this thread
+        assertThat(sharedAssembler.compile("- CONTAINER").size()).isEqualTo(1);
+    }
+}
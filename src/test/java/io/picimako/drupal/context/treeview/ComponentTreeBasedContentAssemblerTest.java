@@ -9,6 +9,8 @@ import io.picimako.drupal.context.ConfigurationNode;
 import io.picimako.drupal.context.ModifierNodeType;
 import io.picimako.drupal.context.NodeType;
 import io.picimako.drupal.context.ParagraphNodeType;
+import io.picimako.drupal.context.ParsedLayoutCache;
+import io.picimako.drupal.context.plan.AssemblyPlan;
 import io.picimako.drupal.context.steps.DrupalConfigurationSteps;
 import io.picimako.drupal.context.steps.DrupalPageSteps;
 import org.junit.Before;
@@ -25,10 +27,13 @@ import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 /**
@@ -57,11 +62,14 @@ public class ComponentTreeBasedContentAssemblerTest {
     public void setup() {
         initMocks(this);
         assembler = new ComponentTreeBasedContentAssembler(drupalPageSteps, configurationSteps);
-        setField(assembler, "nodeCreator", nodeCreator, TreeViewBasedNodeCreator.class);
-        setField(assembler, "componentAdder", componentAdder, ComponentAdder.class);
-        setField(assembler, "componentConfigurer", componentConfigurer, ComponentConfigurer.class);
-        setField(assembler, "contextSetter", contextSetter, ComponentContextSetter.class);
-        setField(assembler, "tree", tree, ComponentTree.class);
+        setField(getField(assembler, "compiler"), "nodeCreator", nodeCreator, TreeViewBasedNodeCreator.class);
+        setField(getField(assembler, "runner"), "componentAdder", componentAdder, ComponentAdder.class);
+        setField(getField(assembler, "runner"), "componentConfigurer", componentConfigurer, ComponentConfigurer.class);
+        setField(getField(assembler, "runner"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        setField(getField(assembler, "compiler"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        setField(getField(assembler, "compiler"), "tree", tree, ComponentTree.class);
+        when(contextSetter.resolveContext(any(ComponentTree.class), any(ComponentNode.class), anyBoolean()))
+            .thenAnswer(invocation -> contextOf(invocation.getArgument(1), invocation.getArgument(2)));
     }
 
     @Test
@@ -79,11 +87,12 @@ public class ComponentTreeBasedContentAssemblerTest {
 
         assembler.assembleContent(componentTree);
 
-        verify(nodeCreator).createNode("- CONTAINER");
+        verify(nodeCreator).createNode(line("- CONTAINER"));
         verify(tree).addNode(container, ComponentNode.ABSENT);
         verify(tree).getParentNode(container);
-        verify(contextSetter, never()).setContext(any(), any(), anyBoolean());
+        verify(contextSetter, never()).resolveContext(any(), any(), anyBoolean());
         verify(componentAdder).addComponentToPage(ComponentNode.ABSENT, container);
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
 
         assertThat(tree.getGraph().nodes()).containsExactly(container);
@@ -107,11 +116,12 @@ public class ComponentTreeBasedContentAssemblerTest {
         verifyComponent("-- LAYOUT", layout, container, container);
         verifyComponent("--- YOUTUBE_VIDEO", youtubeVideo, layout, layout);
 
-        verify(nodeCreator).createNode("----@ COLORS_MODIFIER");
+        verify(nodeCreator).createNode(line("----@ COLORS_MODIFIER"));
         verify(tree).addNode(colorsModifier, youtubeVideo);
-        verify(contextSetter, never()).setContext(any(ComponentTree.class), eq(colorsModifier), eq(true));
+        verify(contextSetter, never()).resolveContext(any(ComponentTree.class), eq(colorsModifier), eq(true));
         verify(componentAdder).addComponentToPage(youtubeVideo, colorsModifier);
         verify(tree).getParentNode(colorsModifier);
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
 
         assertThat(tree.getGraph().nodes()).containsExactly(container, layout, youtubeVideo, colorsModifier);
@@ -132,7 +142,7 @@ public class ComponentTreeBasedContentAssemblerTest {
 
         ComponentNode image = new ComponentNode(3, ParagraphNodeType.IMAGE);
         image.setInlineConfig(new ConfigurationNode(Map.of("url", "https://duckduckgo.com")));
-        when(nodeCreator.createNode("--- IMAGE >> url:https://duckduckgo.com")).thenReturn(image);
+        when(nodeCreator.createNode(line("--- IMAGE >> url:https://duckduckgo.com"))).thenReturn(image);
         mockConfiguration("---* href:/some/image.jpg", Map.of("href", "/some/image.jpg"));
 
         ComponentNode youtubeVideo = mockComponent("--- YOUTUBE_VIDEO", 3, ParagraphNodeType.YOUTUBE_VIDEO);
@@ -142,20 +152,48 @@ public class ComponentTreeBasedContentAssemblerTest {
 
         verifyComponent("- CONTAINER", container, ComponentNode.ABSENT, ComponentNode.ABSENT);
         verifyConfiguration("-* bg-image:background.png", ParagraphNodeType.CONTAINER, "bg-image", "background.png");
-        verify(contextSetter).setContext(any(ComponentTree.class), eq(container), eq(false));
+        verifyContextSet(container, false);
         verifyComponent("-- LAYOUT", layout, container, container);
         verifyComponent("--- IMAGE >> url:https://duckduckgo.com", image, layout, layout);
         verifySingleOrInlineConfiguration(ParagraphNodeType.IMAGE, "url", "https://duckduckgo.com");
         verifyConfiguration("---* href:/some/image.jpg", ParagraphNodeType.IMAGE, "href", "/some/image.jpg");
-        verify(contextSetter).setContext(any(ComponentTree.class), eq(image), eq(false));
+        verifyContextSet(image, false);
         verifyComponent("--- YOUTUBE_VIDEO", youtubeVideo, image, layout);
         verifyConfiguration("---* title:an_awesome_youtube_video", ParagraphNodeType.YOUTUBE_VIDEO, "title", "an_awesome_youtube_video");
-        verify(contextSetter).setContext(any(ComponentTree.class), eq(youtubeVideo), eq(false));
+        verifyContextSet(youtubeVideo, false);
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
 
         assertThat(tree.getGraph().nodes()).containsExactly(container, layout, image, youtubeVideo);
     }
 
+    @Test
+    public void shouldSetContextOnlyOnceForConsecutiveConfigurationNodesOfTheSameComponent() {
+        String componentTree = "- CONTAINER\n"
+            + "-- IMAGE\n"
+            + "--* url:https://duckduckgo.com\n"
+            + "--* href:/some/image.jpg\n"
+            + "--* alt:some image";
+        ComponentNode container = mockComponent("- CONTAINER", 1, ParagraphNodeType.CONTAINER);
+        ComponentNode image = mockComponent("-- IMAGE", 2, ParagraphNodeType.IMAGE);
+        mockConfiguration("--* url:https://duckduckgo.com", Map.of("url", "https://duckduckgo.com"));
+        mockConfiguration("--* href:/some/image.jpg", Map.of("href", "/some/image.jpg"));
+        mockConfiguration("--* alt:some image", Map.of("alt", "some image"));
+
+        assembler.assembleContent(componentTree);
+
+        verifyComponent("- CONTAINER", container, ComponentNode.ABSENT, ComponentNode.ABSENT);
+        verifyComponent("-- IMAGE", image, container, container);
+        verifyConfiguration("--* url:https://duckduckgo.com", ParagraphNodeType.IMAGE, "url", "https://duckduckgo.com");
+        verifyConfiguration("--* href:/some/image.jpg", ParagraphNodeType.IMAGE, "href", "/some/image.jpg");
+        verifyConfiguration("--* alt:some image", ParagraphNodeType.IMAGE, "alt", "some image");
+        verify(contextSetter, times(3)).resolveContext(any(ComponentTree.class), eq(image), eq(false));
+        verify(contextSetter).setContext(contextOf(image, false));
+        verify(tree).clear();
+        verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
+        assertThat(assembler.getElidedContextSwitchCount()).isEqualTo(2);
+    }
+
     @Test
     public void shouldNotSetContextForRootLevelConfiguration() {
         String componentTree = "* title:an_awesome_youtube_video";
@@ -164,35 +202,98 @@ public class ComponentTreeBasedContentAssemblerTest {
         assembler.assembleContent(componentTree);
 
         verifyConfiguration("* title:an_awesome_youtube_video", ParagraphNodeType.ABSENT, "title", "an_awesome_youtube_video");
-        verify(contextSetter, never()).setContext(any(ComponentTree.class), eq(ComponentNode.ABSENT), eq(false));
+        verify(contextSetter, never()).resolveContext(any(ComponentTree.class), eq(ComponentNode.ABSENT), eq(false));
+        verify(tree).clear();
         verifyNoMoreInteractions(nodeCreator, tree, contextSetter, componentAdder);
     }
 
+    @Test
+    public void shouldParseCachedComponentTreeOnlyOnce() {
+        ParsedLayoutCache<AssemblyPlan> layoutCache = ParsedLayoutCache.withMaximumSize(10);
+        assembler = new ComponentTreeBasedContentAssembler(drupalPageSteps, configurationSteps, layoutCache);
+        setField(getField(assembler, "compiler"), "nodeCreator", nodeCreator, TreeViewBasedNodeCreator.class);
+        setField(getField(assembler, "runner"), "componentAdder", componentAdder, ComponentAdder.class);
+        setField(getField(assembler, "runner"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        setField(getField(assembler, "compiler"), "contextSetter", contextSetter, ComponentContextSetter.class);
+        ComponentNode container = mockComponent("- CONTAINER", 1, ParagraphNodeType.CONTAINER);
+        ComponentNode layout = mockComponent("-- LAYOUT", 2, ParagraphNodeType.LAYOUT);
+
+        assembler.assembleContent("- CONTAINER\n-- LAYOUT");
+        assembler.assembleContent(new StringBuilder("- CONTAINER\n-- LAYOUT"));
+
+        verify(nodeCreator).createNode(line("- CONTAINER"));
+        verify(nodeCreator).createNode(line("-- LAYOUT"));
+        verify(contextSetter).resolveContext(any(ComponentTree.class), eq(container), eq(true));
+        verify(contextSetter, times(2)).setContext(contextOf(container, true));
+        verify(componentAdder, times(2)).addComponentToPage(ComponentNode.ABSENT, container);
+        verify(componentAdder, times(2)).addComponentToPage(container, layout);
+        verifyNoMoreInteractions(nodeCreator, contextSetter, componentAdder);
+        verifyZeroInteractions(tree);
+        assertThat(layoutCache.stats().hitCount()).isEqualTo(1);
+        assertThat(layoutCache.stats().missCount()).isEqualTo(1);
+    }
+
     private ComponentNode mockComponent(String nodeString, int level, NodeType nodeType) {
         ComponentNode node = new ComponentNode(level, nodeType);
-        when(nodeCreator.createNode(nodeString)).thenReturn(node);
+        when(nodeCreator.createNode(line(nodeString))).thenReturn(node);
         return node;
     }
 
     private void mockConfiguration(String nodeString, Map<String, String> configuration) {
         ConfigurationNode node = new ConfigurationNode(configuration);
-        when(nodeCreator.createNode(nodeString)).thenReturn(node);
+        when(nodeCreator.createNode(line(nodeString))).thenReturn(node);
     }
 
     private void verifyComponent(String nodeString, ComponentNode currentNode, ComponentNode previousNode, ComponentNode parentNode) {
-        verify(nodeCreator).createNode(nodeString);
+        verify(nodeCreator).createNode(line(nodeString));
         verify(tree).addNode(currentNode, previousNode);
         verify(tree).getParentNode(currentNode);
-        verify(contextSetter).setContext(any(ComponentTree.class), eq(currentNode), eq(true));
+        verifyContextSet(currentNode, true);
         verify(componentAdder).addComponentToPage(parentNode, currentNode);
     }
 
     private void verifyConfiguration(String nodeString, NodeType nodeType, String key, String value) {
-        verify(nodeCreator).createNode(nodeString);
+        verify(nodeCreator).createNode(line(nodeString));
         verifySingleOrInlineConfiguration(nodeType, key, value);
     }
 
     private void verifySingleOrInlineConfiguration(NodeType nodeType, String key, String value) {
         verify(componentConfigurer).configure(eq(nodeType), argThat(node -> value.equals(node.get(key))));
     }
+
+    @Test
+    public void shouldValidateTheWholeTreeBeforeAddingAnyComponent() {
+        String componentTree = "- CONTAINER\n"
+            + "-- LAYOUT\n"
+            + "---- IMAGE";
+        mockComponent("- CONTAINER", 1, ParagraphNodeType.CONTAINER);
+        mockComponent("-- LAYOUT", 2, ParagraphNodeType.LAYOUT);
+        mockComponent("---- IMAGE", 4, ParagraphNodeType.IMAGE);
+
+        assertThatIllegalArgumentException()
+            .isThrownBy(() -> assembler.assembleContent(componentTree))
+            .withMessageStartingWith("Child defined more than 1 level deeper than its immediate parent");
+        verify(contextSetter, never()).setContext(any());
+        verifyZeroInteractions(componentAdder, componentConfigurer);
+    }
+
+    /**
+     * Matches lines, which are passed to the node creator as {@link CharSequence} views, by their content.
+     */
+    private static CharSequence line(String line) {
+        return argThat(actual -> actual != null && line.contentEquals(actual));
+    }
+
+    private void verifyContextSet(ComponentNode node, boolean fromParent) {
+        verify(contextSetter).resolveContext(any(ComponentTree.class), eq(node), eq(fromParent));
+        verify(contextSetter).setContext(contextOf(node, fromParent));
+    }
+
+    /**
+     * Returns a context selector that is unique to the argument node and context kind, so that the selectors emitted
+     * into the plan can be told apart.
+     */
+    private static String contextOf(ComponentNode node, boolean fromParent) {
+        return "context-of-" + System.identityHashCode(node) + "-" + fromParent;
+    }
 }
@@ -178,4 +178,16 @@ public class TreeViewBasedNodeCreatorTest {
     public void shouldNotConvertModifierToConfigurationNode() {
         assertThat(TreeViewBasedNodeCreator.isConfigurationNode("--@ COLORS_MODIFIER")).isFalse();
     }
+
+
+    @Test
+    public void shouldConvertLineViewToComponentNode() {
+        StringBuilder line = new StringBuilder("--- IMAGE >> url:https://duckduckgo.com");
+        Node node = nodeCreator.createNode((CharSequence) line);
+        line.setLength(0);
+
+        assertThat(node).isInstanceOf(ComponentNode.class);
+        assertThat(((ComponentNode) node).getType()).isEqualTo(ParagraphNodeType.IMAGE);
+        assertThat(((ComponentNode) node).getInlineConfig().get("url")).isEqualTo("https://duckduckgo.com");
+    }
 }
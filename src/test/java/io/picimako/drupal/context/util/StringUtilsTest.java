@@ -0,0 +1,21 @@
+package io.picimako.drupal.context.util;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit test for {@link StringUtils}.
+ */
+public class StringUtilsTest {
+
+    @Test
+    public void shouldReturnTextAsJsonString() {
+        assertThat(StringUtils.toJsonString("a \"b\" \\c\n")).isEqualTo("\"a \\\"b\\\" \\\\c\\u000a\"");
+    }
+
+    @Test
+    public void shouldReturnEmptyTextAsEmptyJsonString() {
+        assertThat(StringUtils.toJsonString("")).isEqualTo("\"\"");
+    }
+}
@@ -0,0 +1,70 @@
+package io.picimako.drupal.context.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * Unit test for {@link ThreadConfinement}.
+ */
+public class ThreadConfinementTest {
+
+    private final ThreadConfinement confinement = new ThreadConfinement("assembler");
+
+    @Test
+    public void shouldAllowReentrantCalls() {
+        assertThat(confinement.call(() -> confinement.call(() -> "result"))).isEqualTo("result");
+    }
+
+    @Test
+    public void shouldAllowHandingOverBetweenThreads() {
+        confinement.run(() -> {
+        });
+
+        assertThat(CompletableFuture.supplyAsync(() -> confinement.call(() -> "other thread")).join()).isEqualTo("other thread");
+        assertThat(confinement.call(() -> "this thread")).isEqualTo("this thread");
+    }
+
+    @Test
+    public void shouldReleaseAfterFailure() {
+        assertThatIllegalStateException().isThrownBy(() -> confinement.run(() -> {
+            throw new IllegalStateException("failure");
+        })).withMessage("failure");
+
+        assertThat(CompletableFuture.supplyAsync(() -> confinement.call(() -> "other thread")).join()).isEqualTo("other thread");
+    }
+
+    @Test
+    public void shouldFailWhenUsedByAnotherThreadAtTheSameTime() throws InterruptedException {
+        CountDownLatch isInUse = new CountDownLatch(1);
+        CountDownLatch canFinish = new CountDownLatch(1);
+        Thread user = new Thread(() -> confinement.run(() -> {
+            isInUse.countDown();
+            awaitQuietly(canFinish);
+        }), "scenario-1");
+        user.start();
+
+        try {
+            isInUse.await();
+            assertThatIllegalStateException()
+                .isThrownBy(() -> confinement.run(() -> {
+                }))
+                .withMessage("The assembler is already in use by thread [scenario-1]. It must not be used by multiple threads at the same time.");
+        } finally {
+            canFinish.countDown();
+            user.join();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}